@@ -0,0 +1,52 @@
+package com.banking.configuration;
+
+import java.util.Collections;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * @description RetryConfiguration - the fund transfer retry policy. A transfer
+ *              which lost an optimistic version check or was picked as a
+ *              deadlock victim is retried a bounded number of times with an
+ *              exponential back off and random jitter, so the competing
+ *              clients do not retry in lock step.
+ *
+ * @since 18-10-2026
+ */
+@Configuration
+public class RetryConfiguration {
+
+	@Value("${transfer.retry.max-attempts:4}")
+	private int maxAttempts;
+
+	@Value("${transfer.retry.initial-interval:20}")
+	private long initialInterval;
+
+	@Value("${transfer.retry.multiplier:2.0}")
+	private double multiplier;
+
+	@Value("${transfer.retry.max-interval:200}")
+	private long maxInterval;
+
+	@Bean
+	public RetryTemplate fundTransferRetryTemplate() {
+		SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(maxAttempts,
+				Collections.singletonMap(ConcurrencyFailureException.class, true), true);
+
+		ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+		backOffPolicy.setInitialInterval(initialInterval);
+		backOffPolicy.setMultiplier(multiplier);
+		backOffPolicy.setMaxInterval(maxInterval);
+
+		RetryTemplate retryTemplate = new RetryTemplate();
+		retryTemplate.setRetryPolicy(retryPolicy);
+		retryTemplate.setBackOffPolicy(backOffPolicy);
+		return retryTemplate;
+	}
+}
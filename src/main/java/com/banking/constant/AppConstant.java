@@ -25,6 +25,27 @@ public class AppConstant {
 	public static final String FUND_TRANSFER_SUCCESS = "Amount Transfered Sucessfully";
 	public static final String FUND_TRANSFER_MIN_BAL = "Please check minimum balance.";
 	public static final String FUND_TRANSFER_ERROR = "We are unable to process your transaction at this time. After sometime";
+	public static final String BATCH_FUND_TRANSFER_PROCESSED = "Batch Transfer Processed";
+	public static final String BATCH_FUND_TRANSFER_LIMIT = "Batch Transfer exceeds the maximum number of transfers";
+	public static final String ACCOUNT_BALANCES_LIMIT = "Balances request exceeds the maximum number of accounts";
+	public static final String ACCOUNT_BALANCES_EMPTY = "Balances request should have at least one account id";
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String IDEMPOTENCY_KEY_INVALID = "Idempotency-Key should not be more than 64 characters";
+	public static final Integer IDEMPOTENCY_KEY_MAX_LENGTH = 64;
+	public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency-Key was already used for a different fund transfer";
+	public static final String FUND_TRANSFER_ACCEPTED = "Fund transfer accepted";
+	public static final String FUND_TRANSFER_QUEUE_FULL = "Too many pending transfers. Please try again.";
+	public static final String TRANSFER_STATUS_NOT_FOUND = "No transaction found";
+	public static final String TRANSFER_STATE_QUEUED = "QUEUED";
+	public static final String TRANSFER_STATE_RUNNING = "RUNNING";
+	public static final String TRANSFER_STATE_COMPLETED = "COMPLETED";
+	public static final String TRANSFER_STATE_FAILED = "FAILED";
+	public static final String FUND_TRANSFER_CONFLICT = "Account is busy with another transaction. Please try again.";
+	public static final String ACCOUNT_ID_ERROR_MESSAGE = "accountId should be mandatory";
+	public static final String PAYEE_ACCOUNT_NUMBER_ERROR_MESSAGE = "payeeAccountNumber should be an account number";
+	public static final String TRANSFER_AMOUNT_ERROR_MESSAGE = "transferAmount should be mandatory";
+	public static final String TRANSFER_AMOUNT_POSITIVE_ERROR_MESSAGE = "transferAmount should be more than zero";
+	public static final String REMARKS_ERROR_MESSAGE = "remarks should not be more than 255 characters";
 
 	// Login
 	public static final String LOGIN_SUCCESSFULLY = "User Login Successfully";
@@ -36,11 +57,18 @@ public class AppConstant {
 	public static final Integer ZERO = 0;
 	public static final Integer MONTH_STARTDATE = 01;
 	public static final String OPERATION_FAILD = "Operation Failed";
+	public static final String HISTORY_CURSOR_INVALID = "Invalid transaction history cursor";
+	public static final String EXPORT_FORMAT_CSV = "csv";
+	public static final String EXPORT_FORMAT_NDJSON = "ndjson";
+	public static final String EXPORT_FORMAT_INVALID = "format should be csv or ndjson";
+	public static final String EXPORT_DATE_RANGE_INVALID = "from should not be after to";
+	public static final String BALANCE_DATE_INVALID = "asOf should not be after today";
 
 	// User Registration
-	public static final Double ZERO_MINIMUM_BALANCE = 0.00;
-	public static final Double ACCOUNT_MINIMUM_BALANCE = 500.00;
-	public static final Double ACCOUNT_BALANCE_AMOUNT = 20000.00;
+	// Amounts in minor units (paise).
+	public static final Long ZERO_MINIMUM_BALANCE = 0L;
+	public static final Long ACCOUNT_MINIMUM_BALANCE = 50000L;
+	public static final Long ACCOUNT_BALANCE_AMOUNT = 2000000L;
 	public static final String FIRST_NAME_ERROR_MESSAGE = "firstName should be mandatory";
 	public static final String EMAIL_ERROR_MESSAGE = "Email address should be mandatory";
 	public static final String EMAIL_ADDRESS_ERROR_MESSAGE = "Invalid Email address";
@@ -63,6 +91,10 @@ public class AppConstant {
 
 	public static final String MORTGAGE_ACCOUNT_CREATED = "Mortgage account is created successfully";
 	public static final String USER_MORTGAGE_ACCOUNT_EXIST = "User Mortgage Account already exist";
+
+	// Account Typeahead
+	public static final String TYPEAHEAD_SUPERSEDED = "Superseded by a later keystroke";
+	public static final String TYPEAHEAD_LOADING = "Account typeahead is loading, try again shortly";
 	
 	// Get Maintain Payee List
 	public static final String GET_MAINTAIN_PAYEE_LIST = "http://localhost:8081/maintainpayee/payee/accounts/";
@@ -1,18 +1,26 @@
 package com.banking.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.banking.constant.AppConstant;
 import com.banking.dto.AccountBalanceDto;
+import com.banking.dto.AccountBalancesResponseDto;
 import com.banking.dto.UserAccountDto;
 import com.banking.dto.UserAccountResponseDto;
 import com.banking.dto.ViewPayeeResponseDto;
@@ -57,19 +65,38 @@ public class UserAccountController {
 
 	/**
 	 * @description get the user account balance by login user account.user can see
-	 *              the available balance for their account.
+	 *              the available balance for their account, or the balance at
+	 *              the end of a past day.
 	 * 
 	 * @param accountId for login user account
+	 * @param asOf      optional day of the balance, yyyy-MM-dd.
 	 * @return accountId and account balance through the accountBalanceDto.
 	 */
 
 	@GetMapping("/{accountId}/balances")
-	public ResponseEntity<AccountBalanceDto> getUserAvailableBalance(@PathVariable Integer accountId) {
+	public ResponseEntity<AccountBalanceDto> getUserAvailableBalance(@PathVariable Integer accountId,
+			@RequestParam(value = "asOf", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate asOf) {
 		log.info("getting user available balance  from the savings account");
-		AccountBalanceDto accountDto = userAccountService.getAccountBalance(accountId);
+		AccountBalanceDto accountDto = asOf == null ? userAccountService.getAccountBalance(accountId)
+				: userAccountService.getAccountBalance(accountId, asOf);
 		return new ResponseEntity<>(accountDto, HttpStatus.OK);
 	}
 
+	/**
+	 * @description get the balances of many accounts in one request, for the
+	 *              aggregator dashboard.
+	 * 
+	 * @param accountIds list of the account ids.
+	 * @return map of account id to account balance through the
+	 *         AccountBalancesResponseDto, the unknown ids are left out.
+	 */
+	@PostMapping("/balances")
+	public ResponseEntity<AccountBalancesResponseDto> getAccountBalances(@RequestBody List<Integer> accountIds) {
+		log.info("getting the balances of many accounts");
+		AccountBalancesResponseDto accountBalancesDto = userAccountService.getAccountBalances(accountIds);
+		return new ResponseEntity<>(accountBalancesDto, HttpStatus.valueOf(accountBalancesDto.getStatusCode()));
+	}
+
 	/**
 	 * @description search by partial account numbers and get the list of all
 	 *              accounts based on search value.
@@ -92,4 +119,23 @@ public class UserAccountController {
 		return new ResponseEntity<>(userAccountResponseDto, HttpStatus.OK);
 	}
 
+	/**
+	 * @description typeahead of the branch staff: the savings accounts whose
+	 *              number starts with the digits typed so far, with the holder
+	 *              name. A request superseded by a later keystroke of the same
+	 *              session gets statusCode 409 and no accounts.
+	 * @param prefix    the digits typed so far.
+	 * @param session   X-Typeahead-Session header, the staff typeahead session.
+	 * @param keystroke number of the keystroke in the session, increasing.
+	 * @return the suggested accounts by UserAccountResponseDto object.
+	 */
+	@GetMapping("/typeahead")
+	public ResponseEntity<UserAccountResponseDto> typeaheadSavingAccounts(@RequestParam("prefix") String prefix,
+			@RequestHeader(value = "X-Typeahead-Session", required = false) String session,
+			@RequestParam(value = "keystroke", required = false) Long keystroke) {
+		UserAccountResponseDto userAccountResponseDto = userAccountService.getTypeaheadAccounts(prefix, session,
+				keystroke);
+		return new ResponseEntity<>(userAccountResponseDto, HttpStatus.OK);
+	}
+
 }
@@ -1,26 +1,45 @@
 package com.banking.controller;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.banking.constant.AppConstant;
+import com.banking.dto.BatchFundTransferResponseDto;
 import com.banking.dto.FundTransferRequestDto;
 import com.banking.dto.ResponseDto;
+import com.banking.dto.TransferStatusDto;
 import com.banking.dto.UserTransactionResponseDto;
+import com.banking.service.AsyncFundTransferService;
+import com.banking.service.FundTransferPipeline;
+import com.banking.service.IdempotencyStore;
+import com.banking.service.StatementExportService;
 import com.banking.service.UserTransactionService;
+import com.banking.util.ConverterUtil;
 
 import javassist.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
@@ -40,26 +59,55 @@ import lombok.extern.slf4j.Slf4j;
 @RequestMapping("/transactions")
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 @Slf4j
+@Validated
 public class UserTransactionController {
 
 	@Autowired
 	UserTransactionService userTransactionService;
 
+	@Autowired
+	RetryTemplate fundTransferRetryTemplate;
+
+	@Autowired(required = false)
+	FundTransferPipeline fundTransferPipeline;
+
+	@Autowired
+	IdempotencyStore idempotencyStore;
+
+	@Autowired
+	AsyncFundTransferService asyncFundTransferService;
+
+	@Autowired
+	StatementExportService statementExportService;
+
 	/**
 	 * @description -> In this method, we are implementing the fund transfer
-	 *              operations.
+	 *              operations. Each attempt runs in its own transaction, a
+	 *              transfer that lost a concurrent update is retried by the
+	 *              fund transfer retry template. When the pipeline mode is on, the
+	 *              transfer waits for the group commit of the pipeline instead.
+	 *              A request with an Idempotency-Key header is transferred once,
+	 *              a repeated request gets the response of the first one and a
+	 *              different transfer with the same key gets 422.
 	 * 
 	 * @param fundTransferRequestDto -> getting input params -> accountId,
 	 *                               payeeAccountId, transferAmount & remarks.
+	 * @param idempotencyKey         -> optional Idempotency-Key header, at most 64
+	 *                               characters.
 	 * @return ResponseDto -> status, statusCode and message for success/failure
 	 *         cases.
 	 * @throws NotFoundException
 	 */
 	@PostMapping
-	public ResponseEntity<ResponseDto> fundTransfer(@Valid @RequestBody FundTransferRequestDto fundTransferRequestDto)
+	public ResponseEntity<ResponseDto> fundTransfer(@Valid @RequestBody FundTransferRequestDto fundTransferRequestDto,
+			@RequestHeader(value = AppConstant.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
 			throws NotFoundException {
 		log.info("fund transaction ");
-		ResponseDto fundTransferResponseDto = userTransactionService.fundTransfer(fundTransferRequestDto);
+		if (idempotencyKey != null && idempotencyKey.length() > AppConstant.IDEMPOTENCY_KEY_MAX_LENGTH) {
+			return failure(AppConstant.IDEMPOTENCY_KEY_INVALID, HttpStatus.BAD_REQUEST);
+		}
+		fundTransferRequestDto.setIdempotencyKey(idempotencyKey);
+		ResponseDto fundTransferResponseDto = transferOnce(fundTransferRequestDto);
 		// Check the response status is success or not.
 		Optional<String> isSuccess = Optional.ofNullable(fundTransferResponseDto.getStatus());
 		if (isSuccess.isPresent()) {
@@ -76,6 +124,77 @@ public class UserTransactionController {
 		return new ResponseEntity<>(fundTransferResponseDto, HttpStatus.OK);
 	}
 
+	/**
+	 * @description -> asynchronous fund transfer, selected with async=true. The
+	 *              transfer is queued on the async executor and 202 is returned
+	 *              with its transaction number straight away, the result is read
+	 *              with getTransferStatus. 503 is returned when the queue is full.
+	 *              A request sent again with the same Idempotency-Key gets the
+	 *              transaction number and state of the first one.
+	 * 
+	 * @param fundTransferRequestDto -> accountId, payeeAccountId, transferAmount &
+	 *                               remarks.
+	 * @param idempotencyKey         -> optional Idempotency-Key header.
+	 * @return TransferStatusDto -> QUEUED state with the transaction number.
+	 */
+	@PostMapping(params = "async=true")
+	public ResponseEntity<ResponseDto> asyncFundTransfer(
+			@Valid @RequestBody FundTransferRequestDto fundTransferRequestDto,
+			@RequestHeader(value = AppConstant.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+		log.info("async fund transaction ");
+		if (idempotencyKey != null && idempotencyKey.length() > AppConstant.IDEMPOTENCY_KEY_MAX_LENGTH) {
+			return failure(AppConstant.IDEMPOTENCY_KEY_INVALID, HttpStatus.BAD_REQUEST);
+		}
+		fundTransferRequestDto.setIdempotencyKey(idempotencyKey);
+		try {
+			TransferStatusDto statusDto = asyncFundTransferService.submit(fundTransferRequestDto,
+					() -> transferOnce(fundTransferRequestDto));
+			return new ResponseEntity<>(statusDto, HttpStatus.ACCEPTED);
+		} catch (RejectedExecutionException e) {
+			return failure(AppConstant.FUND_TRANSFER_QUEUE_FULL, HttpStatus.SERVICE_UNAVAILABLE);
+		}
+	}
+
+	/**
+	 * @description -> the state of an asynchronous fund transfer: QUEUED, RUNNING,
+	 *              COMPLETED or FAILED, with the transfer result once it has run.
+	 * 
+	 * @param transactionId -> the transaction number returned by the async fund
+	 *                      transfer.
+	 * @return TransferStatusDto, 404 when the transaction is not found.
+	 */
+	@GetMapping("/status/{transactionId}")
+	public ResponseEntity<ResponseDto> getTransferStatus(@PathVariable String transactionId) {
+		log.info("getting fund transfer status");
+		TransferStatusDto statusDto = asyncFundTransferService.getStatus(transactionId);
+		if (statusDto == null) {
+			return failure(AppConstant.TRANSFER_STATUS_NOT_FOUND, HttpStatus.NOT_FOUND);
+		}
+		return new ResponseEntity<>(statusDto, HttpStatus.OK);
+	}
+
+	/**
+	 * @description -> batch fund transfer for the payroll and settlement jobs. The
+	 *              whole batch runs in one transaction and is retried like a
+	 *              single fund transfer. Each transfer is validated before the
+	 *              batch runs, an invalid one fails the request with 400 and the
+	 *              errors of each invalid transfer.
+	 * 
+	 * @param fundTransferRequestDtos -> list of fund transfers, each with
+	 *                                accountId, payeeAccountNumber,
+	 *                                transferAmount & remarks.
+	 * @return BatchFundTransferResponseDto -> status, statusCode and message of
+	 *         each transfer in request order.
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<BatchFundTransferResponseDto> batchFundTransfer(
+			@RequestBody List<@Valid FundTransferRequestDto> fundTransferRequestDtos) {
+		log.info("batch fund transaction ");
+		BatchFundTransferResponseDto batchResponseDto = fundTransferRetryTemplate
+				.execute(context -> userTransactionService.batchFundTransfer(fundTransferRequestDtos));
+		return new ResponseEntity<>(batchResponseDto, HttpStatus.valueOf(batchResponseDto.getStatusCode()));
+	}
+
 	/**
 	 * @description In this method, we are getting recent Five transaction for the
 	 *              savings accounts.UserAccountId has sent as pathvariable to
@@ -96,14 +215,18 @@ public class UserTransactionController {
 	 *              transactions to the mortgage account in that user can see the
 	 *              account type,date and amount.
 	 * @param userAccountId sent as path variable.
+	 * @param after         optional next cursor of the previous page.
+	 * @param limit         optional page size.
 	 * @return UserTransactionResponseDto class it returing transaction type,amount
-	 *         and account type.
+	 *         and account type, with the nextCursor of the next page.
 	 */
 
 	@GetMapping("mortgageaccounts/{userAccountId}")
-	public UserTransactionResponseDto getMortgageTransactions(@PathVariable Integer userAccountId) {
+	public UserTransactionResponseDto getMortgageTransactions(@PathVariable Integer userAccountId,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", required = false) Integer limit) {
 		log.info("getting mortgage transactions");
-		return userTransactionService.findMortgageTransactions(userAccountId);
+		return userTransactionService.findMortgageTransactions(userAccountId, after, limit);
 	}
 
 	/**
@@ -111,17 +234,100 @@ public class UserTransactionController {
 	 *              savings accounts ,onthly and year wise we implemented.we can see
 	 *              monthly and year wise last 5 tranactions.
 	 * 
-	 * @param : Integer userAccountId sent as the pathvariable.
+	 * @param : Integer userAccountId sent as the pathvariable, after and limit
+	 *        for the next page.
 	 * 
 	 * @return : UserTransactionResponseDto .we returned this dtoin that user can
-	 *         see the each tarnsactions by monthly wise for the accounts
+	 *         see the each tarnsactions by monthly wise for the accounts, with the
+	 *         nextCursor of the next page.
 	 * 
 	 * @throws : NoResultException for the ecception case.
 	 */
 	@GetMapping("/users/{userAccountId}")
 	public UserTransactionResponseDto getUserTransactionsByMonth(@PathVariable Integer userAccountId,
-			@RequestParam("month") Integer month, @RequestParam("year") Integer year) {
+			@RequestParam("month") Integer month, @RequestParam("year") Integer year,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", required = false) Integer limit) {
 		log.info("getting user transaction by monthly wise");
-		return userTransactionService.findUserTransactionsByMonth(userAccountId, month, year);
+		return userTransactionService.findUserTransactionsByMonth(userAccountId, month, year, after, limit);
+	}
+
+	/**
+	 * @description statement of the account for a date range, streamed as CSV or
+	 *              NDJSON (one JSON object per line) while it is read from the
+	 *              database.
+	 * 
+	 * @param userAccountId sent as path variable.
+	 * @param from          first transaction date, yyyy-MM-dd.
+	 * @param to            last transaction date, yyyy-MM-dd.
+	 * @param format        csv (default) or ndjson.
+	 * @return the statement as an attachment, 400 for an unknown format or an
+	 *         empty date range.
+	 */
+	@GetMapping("/users/{userAccountId}/export")
+	public ResponseEntity<?> exportTransactions(@PathVariable Integer userAccountId,
+			@RequestParam("from") @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+			@RequestParam(value = "format", defaultValue = AppConstant.EXPORT_FORMAT_CSV) String format) {
+		log.info("exporting user transactions");
+		MediaType mediaType;
+		if (AppConstant.EXPORT_FORMAT_CSV.equals(format)) {
+			mediaType = MediaType.valueOf("text/csv");
+		} else if (AppConstant.EXPORT_FORMAT_NDJSON.equals(format)) {
+			mediaType = MediaType.valueOf("application/x-ndjson");
+		} else {
+			return failure(AppConstant.EXPORT_FORMAT_INVALID, HttpStatus.BAD_REQUEST);
+		}
+		if (from.isAfter(to)) {
+			return failure(AppConstant.EXPORT_DATE_RANGE_INVALID, HttpStatus.BAD_REQUEST);
+		}
+		String fileName = "statement-" + userAccountId + "-" + from + "-" + to + "." + format;
+		StreamingResponseBody body = outputStream -> statementExportService.export(userAccountId, from, to, format,
+				outputStream);
+		return ResponseEntity.ok().contentType(mediaType)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"").body(body);
+	}
+
+	private ResponseDto transferOnce(FundTransferRequestDto fundTransferRequestDto) throws NotFoundException {
+		String idempotencyKey = fundTransferRequestDto.getIdempotencyKey();
+		return idempotencyKey == null ? transfer(fundTransferRequestDto)
+				: idempotencyStore.execute(idempotencyKey, ConverterUtil.payloadHash(fundTransferRequestDto),
+						() -> transfer(fundTransferRequestDto));
+	}
+
+	private ResponseEntity<ResponseDto> failure(String message, HttpStatus httpStatus) {
+		ResponseDto responseDto = new ResponseDto();
+		responseDto.setStatus(AppConstant.FAILURE);
+		responseDto.setMessage(message);
+		responseDto.setStatusCode(httpStatus.value());
+		return new ResponseEntity<>(responseDto, httpStatus);
+	}
+
+	private ResponseDto transfer(FundTransferRequestDto fundTransferRequestDto) throws NotFoundException {
+		return fundTransferPipeline != null ? awaitGroupCommit(fundTransferRequestDto)
+				: fundTransferRetryTemplate
+						.execute(context -> userTransactionService.fundTransfer(fundTransferRequestDto));
+	}
+
+	/**
+	 * @description submit the fund transfer to the pipeline and wait until its
+	 *              group is committed. An empty response is returned when the wait
+	 *              is interrupted, it is reported as a failed transfer.
+	 */
+	private ResponseDto awaitGroupCommit(FundTransferRequestDto fundTransferRequestDto) throws NotFoundException {
+		try {
+			return fundTransferPipeline.submit(fundTransferRequestDto).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new ResponseDto();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof NotFoundException) {
+				throw (NotFoundException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
 	}
 }
@@ -1,5 +1,7 @@
 package com.banking.dto;
 
+import java.time.LocalDate;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -7,7 +9,10 @@ import lombok.Setter;
 @Getter
 public class AccountBalanceDto extends ResponseDto {
 
-	private Double accountBalance;
+	private Money accountBalance;
+
+	// The day of a past balance, null for the current balance.
+	private LocalDate asOf;
 
 	
 }
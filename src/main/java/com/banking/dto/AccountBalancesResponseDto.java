@@ -0,0 +1,18 @@
+package com.banking.dto;
+
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * AccountBalancesResponseDto - the balance of every account found of a bulk
+ * balance request, by account id in request order.
+ */
+@Getter
+@Setter
+public class AccountBalancesResponseDto extends ResponseDto {
+
+	private Map<Integer, Money> accountBalances;
+
+}
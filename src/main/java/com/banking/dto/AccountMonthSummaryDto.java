@@ -0,0 +1,26 @@
+package com.banking.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Balances and totals of the account in the month of a monthly history, the
+ * amounts of the transactions summarized so far.
+ *
+ * @since 18-10-2026
+ */
+@ToString
+@Getter
+@Setter
+public class AccountMonthSummaryDto {
+
+	// yyyy-MM
+	private String month;
+	private Money openingBalance;
+	private Money closingBalance;
+	private Money totalDebits;
+	private Money totalCredits;
+	private Integer debitCount;
+	private Integer creditCount;
+}
@@ -0,0 +1,51 @@
+package com.banking.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @description ArchivedTransaction - ledger row moved to the transaction
+ *              archive, with the payee account and payee user name of the
+ *              history rows. Read by the archival query of
+ *              UserTransactionRepository and from the archive segments.
+ *
+ * @since 18-10-2026
+ */
+@Getter
+@AllArgsConstructor
+public class ArchivedTransaction {
+
+	private final Integer id;
+	private final String transactionId;
+	private final Integer userAccountId;
+	private final Integer payeeAccountId;
+	private final Long payeeAccountNumber;
+	private final String payeeAccountType;
+	private final String payeeFirstName;
+	private final String payeeLastName;
+	private final String transactionType;
+	private final LocalDate transactionDate;
+	private final Long transactionAmount;
+	private final Long currentBalanceAmount;
+	private final Long payeeBalanceAmount;
+	private final String remarks;
+
+	/**
+	 * History row of the archived transaction.
+	 */
+	public UserTransactionRequestDto toTransactionDetail() {
+		return new UserTransactionRequestDto(id, payeeFirstName, payeeLastName, payeeAccountNumber, transactionType,
+				transactionDate, transactionAmount, remarks);
+	}
+
+	/**
+	 * History row with the given balance of the payee account, for the mortgage
+	 * transactions.
+	 */
+	public UserTransactionRequestDto toTransactionDetail(Long balanceAmount) {
+		return new UserTransactionRequestDto(id, payeeFirstName, payeeLastName, payeeAccountNumber, transactionType,
+				transactionDate, balanceAmount, transactionAmount, remarks);
+	}
+}
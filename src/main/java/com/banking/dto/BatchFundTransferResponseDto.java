@@ -0,0 +1,18 @@
+package com.banking.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * BatchFundTransferResponseDto - the result of every fund transfer of a batch,
+ * in the same order as the request.
+ */
+@Getter
+@Setter
+public class BatchFundTransferResponseDto extends ResponseDto {
+
+	private List<FundTransferResponseDto> transfers;
+
+}
@@ -1,5 +1,12 @@
 package com.banking.dto;
 
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+import com.banking.constant.AppConstant;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -15,9 +22,27 @@ import lombok.Setter;
 @Setter
 public class FundTransferRequestDto {
 
+	@NotNull(message = AppConstant.ACCOUNT_ID_ERROR_MESSAGE)
 	private Integer accountId;
+
+	@NotNull(message = AppConstant.PAYEE_ACCOUNT_NUMBER_ERROR_MESSAGE)
+	@Pattern(regexp = "[0-9]{1,18}", message = AppConstant.PAYEE_ACCOUNT_NUMBER_ERROR_MESSAGE)
 	private String payeeAccountNumber;
-	private Double transferAmount;
+
+	@NotNull(message = AppConstant.TRANSFER_AMOUNT_ERROR_MESSAGE)
+	@PositiveMoney(message = AppConstant.TRANSFER_AMOUNT_POSITIVE_ERROR_MESSAGE)
+	private Money transferAmount;
+
+	@Size(max = 255, message = AppConstant.REMARKS_ERROR_MESSAGE)
 	private String remarks;
 
+	// Set from the Idempotency-Key header, not from the request body.
+	@JsonIgnore
+	private String idempotencyKey;
+
+	// Assigned when an asynchronous transfer is accepted, so the transfer is
+	// recorded with the transaction number returned to the client.
+	@JsonIgnore
+	private Long transactionId;
+
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.banking.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * FundTransferResponseDto - the response of a single fund transfer along with
+ * the transaction number of the transfer.
+ */
+@Getter
+@Setter
+public class FundTransferResponseDto extends ResponseDto {
+
+	private String transactionId;
+
+}
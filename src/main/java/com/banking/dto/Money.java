@@ -0,0 +1,61 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * @description Money - an amount of money at the API boundary. The amount is
+ *              kept as a long of minor units (paise) and read from / written to
+ *              JSON as a decimal with two fraction digits, so it is never
+ *              rounded on the way in or out. The services and the database work
+ *              with the long minor units only.
+ *
+ * @since 18-10-2026
+ */
+@EqualsAndHashCode
+public final class Money {
+
+	private static final int SCALE = 2;
+
+	private final long minorUnits;
+
+	private Money(long minorUnits) {
+		this.minorUnits = minorUnits;
+	}
+
+	/**
+	 * @description the money of an amount in minor units, null when the amount
+	 *              is null.
+	 */
+	public static Money ofMinorUnits(Long minorUnits) {
+		return minorUnits == null ? null : new Money(minorUnits);
+	}
+
+	/**
+	 * @description the money of a decimal amount, like 1250.75.
+	 * @throws ArithmeticException when the amount has more than two fraction
+	 *                             digits or does not fit a long of minor units.
+	 */
+	@JsonCreator
+	public static Money of(BigDecimal amount) {
+		return new Money(amount.setScale(SCALE).unscaledValue().longValueExact());
+	}
+
+	public long getMinorUnits() {
+		return minorUnits;
+	}
+
+	@JsonValue
+	public BigDecimal toDecimal() {
+		return BigDecimal.valueOf(minorUnits, SCALE);
+	}
+
+	@Override
+	public String toString() {
+		return toDecimal().toPlainString();
+	}
+}
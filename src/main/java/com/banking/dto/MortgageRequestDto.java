@@ -17,5 +17,5 @@ public class MortgageRequestDto implements Serializable {
 	
 	private Integer userId;
 	private String accountType;
-	private Double propertyValue;
+	private Money propertyValue;
 }
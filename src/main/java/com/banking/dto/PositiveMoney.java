@@ -0,0 +1,32 @@
+package com.banking.dto;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE_USE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+/**
+ * @description PositiveMoney - the annotated {@link Money} should be more than
+ *              zero. A null amount is valid, it is left to {@code @NotNull}.
+ *
+ * @since 18-10-2026
+ */
+@Documented
+@Constraint(validatedBy = PositiveMoneyValidator.class)
+@Target({ FIELD, PARAMETER, TYPE_USE })
+@Retention(RUNTIME)
+public @interface PositiveMoney {
+
+	String message() default "must be more than zero";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+}
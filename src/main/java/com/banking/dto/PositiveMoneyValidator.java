@@ -0,0 +1,18 @@
+package com.banking.dto;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * @description PositiveMoneyValidator - checks a {@link PositiveMoney} amount
+ *              on its minor units.
+ *
+ * @since 18-10-2026
+ */
+public class PositiveMoneyValidator implements ConstraintValidator<PositiveMoney, Money> {
+
+	@Override
+	public boolean isValid(Money money, ConstraintValidatorContext context) {
+		return money == null || money.getMinorUnits() > 0;
+	}
+}
@@ -0,0 +1,21 @@
+package com.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @description TransferIdempotency - row of transfer_idempotency: the
+ *              transaction number recorded for an Idempotency-Key and the hash
+ *              of the fund transfer sent with it, null for the keys recorded
+ *              before the hash was.
+ *
+ * @since 18-10-2026
+ */
+@Getter
+@AllArgsConstructor
+public class TransferIdempotency {
+
+	private final String transactionId;
+	private final String payloadHash;
+
+}
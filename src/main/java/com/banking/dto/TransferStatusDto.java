@@ -0,0 +1,17 @@
+package com.banking.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * TransferStatusDto - the state of an asynchronous fund transfer (QUEUED,
+ * RUNNING, COMPLETED or FAILED) with the result of the transfer once it has
+ * run.
+ */
+@Getter
+@Setter
+public class TransferStatusDto extends FundTransferResponseDto {
+
+	private String state;
+
+}
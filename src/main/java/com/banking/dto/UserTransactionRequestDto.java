@@ -2,6 +2,8 @@ package com.banking.dto;
 
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -22,13 +24,56 @@ import lombok.ToString;
 @Setter
 public class UserTransactionRequestDto {
 
+	// Transaction id, only used to build the next history cursor.
+	@JsonIgnore
+	private Integer id;
+	// Payee account id, only used to update the recent transactions cache.
+	@JsonIgnore
+	private Integer payeeAccountId;
 	private String payeeName;
 	private String payeeAccountNumber;
 	private String transactionType;
 	private LocalDate transactionDate;
-	private Double balanceAmount;
-	private Double transactionAmount;
+	private Money balanceAmount;
+	private Money transactionAmount;
 	private String remarks;
 
-	
+	/**
+	 * History row read by the projection queries of UserTransactionRepository,
+	 * the payee name is null when the payee user is not found.
+	 */
+	public UserTransactionRequestDto(Integer id, String payeeFirstName, String payeeLastName,
+			Long payeeAccountNumber, String transactionType, LocalDate transactionDate, Long transactionAmount,
+			String remarks) {
+		this.id = id;
+		this.payeeName = payeeFirstName == null ? null : payeeFirstName + " " + payeeLastName;
+		this.payeeAccountNumber = String.valueOf(payeeAccountNumber);
+		this.transactionType = transactionType;
+		this.transactionDate = transactionDate;
+		this.transactionAmount = Money.ofMinorUnits(transactionAmount);
+		this.remarks = remarks;
+	}
+
+	/**
+	 * History row of a new fund transfer with the payee account id.
+	 */
+	public UserTransactionRequestDto(Integer id, Integer payeeAccountId, String payeeFirstName,
+			String payeeLastName, Long payeeAccountNumber, String transactionType, LocalDate transactionDate,
+			Long transactionAmount, String remarks) {
+		this(id, payeeFirstName, payeeLastName, payeeAccountNumber, transactionType, transactionDate,
+				transactionAmount, remarks);
+		this.payeeAccountId = payeeAccountId;
+	}
+
+	/**
+	 * History row with the balance of the payee account, for the mortgage
+	 * transactions.
+	 */
+	public UserTransactionRequestDto(Integer id, String payeeFirstName, String payeeLastName,
+			Long payeeAccountNumber, String transactionType, LocalDate transactionDate, Long balanceAmount,
+			Long transactionAmount, String remarks) {
+		this(id, payeeFirstName, payeeLastName, payeeAccountNumber, transactionType, transactionDate,
+				transactionAmount, remarks);
+		this.balanceAmount = Money.ofMinorUnits(balanceAmount);
+	}
 }
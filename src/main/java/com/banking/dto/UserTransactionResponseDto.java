@@ -26,6 +26,12 @@ public class UserTransactionResponseDto {
 
 	private List<UserTransactionRequestDto> transactionDetails;
 
+	// Cursor of the next history page, null on the last page.
+	private String nextCursor;
+
+	// Month summary of the monthly history, on its first page.
+	private AccountMonthSummaryDto monthSummary;
+
 	
 
 }
@@ -0,0 +1,42 @@
+package com.banking.entity;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * AccountBalanceSnapshot Entity - the balance of one account at the end of one
+ * day, written by BalanceSnapshotService.
+ *
+ * @since 18-10-2026
+ */
+@Entity
+@Setter
+@Getter
+@Table(name = "account_balance_snapshot", uniqueConstraints = @UniqueConstraint(name = "uk_account_balance_snapshot_account_date", columnNames = {
+		"user_account_id", "balance_date" }))
+public class AccountBalanceSnapshot {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer id;
+
+	@Column(name = "user_account_id")
+	private Integer userAccountId;
+
+	@Column(name = "balance_date")
+	private LocalDate balanceDate;
+
+	// Amount in minor units (paise).
+	@Column(name = "balance_amount")
+	private Long balanceAmount;
+}
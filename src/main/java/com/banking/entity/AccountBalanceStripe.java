@@ -0,0 +1,41 @@
+package com.banking.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * AccountBalanceStripe Entity - one of the sub balances of a striped (hot)
+ * payee account. The credits of the account are spread over its stripes and
+ * folded back into the account balance periodically.
+ *
+ * @since 18-10-2026
+ */
+@Entity
+@Setter
+@Getter
+@Table(name = "account_balance_stripe", uniqueConstraints = @UniqueConstraint(columnNames = { "user_account_id",
+		"stripe" }))
+public class AccountBalanceStripe {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer id;
+
+	@Column(name = "user_account_id")
+	private Integer userAccountId;
+
+	@Column(name = "stripe")
+	private Integer stripe;
+
+	// Amount in minor units (paise), not yet folded into the account balance.
+	@Column(name = "balance_amount")
+	private Long balanceAmount;
+}
@@ -0,0 +1,57 @@
+package com.banking.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * AccountMonthSummary Entity - the balances and the debit and credit totals of
+ * one account in one month, maintained from the ledger by
+ * MonthSummaryService.
+ *
+ * @since 18-10-2026
+ */
+@Entity
+@Setter
+@Getter
+@Table(name = "account_month_summary", uniqueConstraints = @UniqueConstraint(columnNames = { "user_account_id",
+		"statement_month" }))
+public class AccountMonthSummary {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer id;
+
+	@Column(name = "user_account_id")
+	private Integer userAccountId;
+
+	// Year and month as yyyymm, 202610 for October 2026.
+	@Column(name = "statement_month")
+	private Integer statementMonth;
+
+	// Amounts in minor units (paise).
+	@Column(name = "opening_balance")
+	private Long openingBalance;
+
+	@Column(name = "closing_balance")
+	private Long closingBalance;
+
+	@Column(name = "total_debits")
+	private Long totalDebits;
+
+	@Column(name = "total_credits")
+	private Long totalCredits;
+
+	@Column(name = "debit_count")
+	private Integer debitCount;
+
+	@Column(name = "credit_count")
+	private Integer creditCount;
+}
@@ -9,6 +9,7 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -34,9 +35,14 @@ public class UserAccount {
 	private String accountType;
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accountNumber")
 	private Long accountNumber;
-	private Double minimumBalance;
-	private Double balanceAmount;
+	// Amounts in minor units (paise).
+	private Long minimumBalance;
+	private Long balanceAmount;
 	private LocalDateTime createdDate;
 
-	
+	// Optimistic lock version, bumped on every balance update.
+	@Version
+	@Column(name = "version", columnDefinition = "bigint default 0")
+	private Long version;
+
 }
@@ -11,18 +11,22 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Transient;
 
 import lombok.Getter;
 import lombok.Setter;
 
 /**
- * UserTransaction Entity
+ * UserTransaction Entity, the indexes are created by the migrations in
+ * db/migration.
  * @author Govindasamy.C
  * @since 05-12-2019
  */
 @Entity
 @Setter
 @Getter
+@Table(name = "user_transaction")
 public class UserTransaction {
 
 	@Id
@@ -41,21 +45,45 @@ public class UserTransaction {
 	@Column(name = "transaction_type")
 	private String transactionType;
 
+	// Account type of the payee account, copied so the mortgage history is
+	// filtered on the index of the ledger.
+	@Column(name = "payee_account_type")
+	private String payeeAccountType;
+
 	@Column(name = "transaction_id")
 	private String transactionId;
 
 	@Column(name = "transaction_date")
 	private LocalDate transactionDate;
 
+	// Amounts in minor units (paise).
 	@Column(name = "transaction_amount")
-	private Double transactionAmount;
+	private Long transactionAmount;
 
+	// Balances of the payer and the payee account right after the transfer,
+	// null when not recorded yet.
 	@Column(name = "current_balance_amount")
-	private Double currentBalanceAmount;
+	private Long currentBalanceAmount;
+
+	@Column(name = "payee_balance_amount")
+	private Long payeeBalanceAmount;
 
 	@Column(name = "remarks")
 	private String remarks;
 
+	// Idempotency-Key header of the fund transfer request, if it had one.
+	@Column(name = "idempotency_key", unique = true, length = 64)
+	private String idempotencyKey;
+
+	// Hash of the fund transfer sent with the Idempotency-Key, recorded in
+	// transfer_idempotency only.
+	@Transient
+	private String payloadHash;
+
+	// Set once the row is added to the account month summaries.
+	@Column(name = "summarized", nullable = false, columnDefinition = "boolean default false")
+	private boolean summarized;
+
 	public Integer getId() {
 		return id;
 	}
@@ -104,19 +132,19 @@ public class UserTransaction {
 		this.transactionDate = transactionDate;
 	}
 
-	public Double getTransactionAmount() {
+	public Long getTransactionAmount() {
 		return transactionAmount;
 	}
 
-	public void setTransactionAmount(Double transactionAmount) {
+	public void setTransactionAmount(Long transactionAmount) {
 		this.transactionAmount = transactionAmount;
 	}
 
-	public Double getCurrentBalanceAmount() {
+	public Long getCurrentBalanceAmount() {
 		return currentBalanceAmount;
 	}
 
-	public void setCurrentBalanceAmount(Double currentBalanceAmount) {
+	public void setCurrentBalanceAmount(Long currentBalanceAmount) {
 		this.currentBalanceAmount = currentBalanceAmount;
 	}
 
@@ -128,4 +156,20 @@ public class UserTransaction {
 		this.remarks = remarks;
 	}
 
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+
+	public void setIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+	}
+
+	public String getPayloadHash() {
+		return payloadHash;
+	}
+
+	public void setPayloadHash(String payloadHash) {
+		this.payloadHash = payloadHash;
+	}
+
 }
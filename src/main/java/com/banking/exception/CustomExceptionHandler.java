@@ -6,6 +6,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -56,6 +60,34 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
 		return new ResponseEntity<>(body, headers, status);
 	}
 
+	/**
+	 * @description handleConstraintViolationException for the validation errors
+	 *              of the method params, like each fund transfer of a batch. Each
+	 *              error names the param, with the index of the invalid
+	 *              transfer, and the field.
+	 * @return ResponseEntity object for setting the response values with bad
+	 *         request status, errors with body
+	 */
+	@ExceptionHandler(ConstraintViolationException.class)
+	public ResponseEntity<Object> handleConstraintViolationException(ConstraintViolationException ex) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("timestamp", new Date());
+		body.put("status", HttpStatus.BAD_REQUEST.value());
+
+		// The property path starts with the method name, which the client did
+		// not send.
+		List<String> errors = ex.getConstraintViolations().stream().map(this::violationMessage).sorted()
+				.collect(Collectors.toList());
+
+		body.put("errors", errors);
+		return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+	}
+
+	private String violationMessage(ConstraintViolation<?> violation) {
+		String path = violation.getPropertyPath().toString();
+		return path.substring(path.indexOf('.') + 1) + ": " + violation.getMessage();
+	}
+
 	/**
 	 * @description handleNoRecordFoundException for when check the object is
 	 *              present or not, if not present we can throw and handle the
@@ -72,4 +104,52 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
 		fundTransferResponseDto.setStatusCode(HttpStatus.NOT_FOUND.value());
 		return new ResponseEntity<>(fundTransferResponseDto, HttpStatus.NOT_FOUND);
 	}
+
+	/**
+	 * @description handleConcurrencyFailureException for when a fund transfer
+	 *              still loses to concurrent updates of the same account after
+	 *              all the retry attempts.
+	 * @param ex - ex is the optimistic lock or deadlock failure.
+	 * @return responseDto values are failure, conflict code and message details
+	 *         of response.
+	 */
+	@ExceptionHandler(ConcurrencyFailureException.class)
+	public ResponseEntity<ResponseDto> handleConcurrencyFailureException(ConcurrencyFailureException ex) {
+		ResponseDto fundTransferResponseDto = new ResponseDto();
+		fundTransferResponseDto.setMessage(AppConstant.FUND_TRANSFER_CONFLICT);
+		fundTransferResponseDto.setStatus(AppConstant.FAILURE);
+		fundTransferResponseDto.setStatusCode(HttpStatus.CONFLICT.value());
+		return new ResponseEntity<>(fundTransferResponseDto, HttpStatus.CONFLICT);
+	}
+
+	/**
+	 * @description handleInvalidCursorException for a transaction history
+	 *              request with an after cursor which was not issued by us.
+	 * @param ex - ex is the invalid cursor exception.
+	 * @return responseDto values are failure, bad request code and message.
+	 */
+	@ExceptionHandler(InvalidCursorException.class)
+	public ResponseEntity<ResponseDto> handleInvalidCursorException(InvalidCursorException ex) {
+		ResponseDto responseDto = new ResponseDto();
+		responseDto.setMessage(ex.getMessage());
+		responseDto.setStatus(AppConstant.FAILURE);
+		responseDto.setStatusCode(HttpStatus.BAD_REQUEST.value());
+		return new ResponseEntity<>(responseDto, HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * @description handleIdempotencyKeyReusedException for a fund transfer sent
+	 *              with the Idempotency-Key of a different fund transfer.
+	 * @param ex - ex is the idempotency key reused exception.
+	 * @return responseDto values are failure, unprocessable entity code and
+	 *         message.
+	 */
+	@ExceptionHandler(IdempotencyKeyReusedException.class)
+	public ResponseEntity<ResponseDto> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+		ResponseDto responseDto = new ResponseDto();
+		responseDto.setMessage(ex.getMessage());
+		responseDto.setStatus(AppConstant.FAILURE);
+		responseDto.setStatusCode(HttpStatus.UNPROCESSABLE_ENTITY.value());
+		return new ResponseEntity<>(responseDto, HttpStatus.UNPROCESSABLE_ENTITY);
+	}
 }
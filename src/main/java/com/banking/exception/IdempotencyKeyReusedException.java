@@ -0,0 +1,18 @@
+package com.banking.exception;
+
+/**
+ * @description IdempotencyKeyReusedException - a fund transfer was sent with
+ *              an Idempotency-Key which was already used for a different fund
+ *              transfer.
+ *
+ * @since 18-10-2026
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+	private static final long serialVersionUID = 3207781526450211864L;
+
+	public IdempotencyKeyReusedException(String message) {
+		super(message);
+	}
+
+}
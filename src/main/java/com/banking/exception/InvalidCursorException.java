@@ -0,0 +1,17 @@
+package com.banking.exception;
+
+/**
+ * @description InvalidCursorException - the after cursor of a transaction
+ *              history request was not issued by this service.
+ *
+ * @since 18-10-2026
+ */
+public class InvalidCursorException extends RuntimeException {
+
+	private static final long serialVersionUID = -4511920871365724321L;
+
+	public InvalidCursorException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.banking.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.banking.entity.AccountBalanceSnapshot;
+
+@Repository
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, Integer> {
+
+	Optional<AccountBalanceSnapshot> findFirstByUserAccountIdAndBalanceDateLessThanEqualOrderByBalanceDateDesc(
+			Integer userAccountId, LocalDate balanceDate);
+
+	Optional<AccountBalanceSnapshot> findFirstByUserAccountIdAndBalanceDateGreaterThanOrderByBalanceDate(
+			Integer userAccountId, LocalDate balanceDate);
+
+	/**
+	 * Date of the latest snapshot of each account, the accounts without a
+	 * snapshot are left out.
+	 */
+	default Map<Integer, LocalDate> findLastBalanceDates(Collection<Integer> userAccountIds) {
+		Map<Integer, LocalDate> lastBalanceDates = new HashMap<>();
+		findLastBalanceDateRows(userAccountIds)
+				.forEach(row -> lastBalanceDates.put((Integer) row[0], (LocalDate) row[1]));
+		return lastBalanceDates;
+	}
+
+	@Query("select s.userAccountId, max(s.balanceDate) from AccountBalanceSnapshot s "
+			+ "where s.userAccountId in :userAccountIds group by s.userAccountId")
+	List<Object[]> findLastBalanceDateRows(@Param("userAccountIds") Collection<Integer> userAccountIds);
+}
@@ -0,0 +1,54 @@
+package com.banking.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.banking.entity.AccountBalanceStripe;
+
+@Repository
+public interface AccountBalanceStripeRepository extends JpaRepository<AccountBalanceStripe, Integer> {
+
+	List<AccountBalanceStripe> findByUserAccountId(Integer userAccountId);
+
+	/**
+	 * Credits one stripe of the payee account. Returns 0 when the account number
+	 * is unknown.
+	 */
+	@Modifying
+	@Query("update AccountBalanceStripe s set s.balanceAmount = s.balanceAmount + :amount "
+			+ "where s.stripe = :stripe and s.userAccountId = "
+			+ "(select u.id from UserAccount u where u.accountNumber = :accountNumber)")
+	int creditStripe(@Param("accountNumber") Long accountNumber, @Param("stripe") Integer stripe,
+			@Param("amount") long amount);
+
+	/**
+	 * Locks the stripes of the account until the end of the transaction and
+	 * returns their balances.
+	 */
+	@Query(value = "select balance_amount from account_balance_stripe where user_account_id = :userAccountId for update", nativeQuery = true)
+	List<Long> lockBalanceAmounts(@Param("userAccountId") Integer userAccountId);
+
+	/**
+	 * Locks the stripes of the accounts and returns the account id and the
+	 * balance of each stripe.
+	 */
+	@Query(value = "select user_account_id, balance_amount from account_balance_stripe where user_account_id in :userAccountIds for update", nativeQuery = true)
+	List<Object[]> lockBalanceAmountsIn(@Param("userAccountIds") Collection<Integer> userAccountIds);
+
+	@Query("select coalesce(sum(s.balanceAmount), 0) from AccountBalanceStripe s where s.userAccountId = :userAccountId")
+	long sumBalanceAmount(@Param("userAccountId") Integer userAccountId);
+
+	/**
+	 * Takes the folded amount off the stripe. Credits which arrived after the
+	 * stripe was read stay on it for the next fold.
+	 */
+	@Modifying
+	@Query("update AccountBalanceStripe s set s.balanceAmount = s.balanceAmount - :amount where s.id = :id")
+	int foldStripe(@Param("id") Integer id, @Param("amount") long amount);
+}
@@ -0,0 +1,22 @@
+package com.banking.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.banking.entity.AccountMonthSummary;
+
+@Repository
+public interface AccountMonthSummaryRepository extends JpaRepository<AccountMonthSummary, Integer> {
+
+	Optional<AccountMonthSummary> findByUserAccountIdAndStatementMonth(Integer userAccountId, Integer statementMonth);
+
+	List<AccountMonthSummary> findByUserAccountIdInAndStatementMonthGreaterThanEqual(
+			Collection<Integer> userAccountIds, Integer statementMonth);
+
+	Optional<AccountMonthSummary> findFirstByUserAccountIdAndStatementMonthLessThanOrderByStatementMonthDesc(
+			Integer userAccountId, Integer statementMonth);
+}
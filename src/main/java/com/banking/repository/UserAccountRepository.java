@@ -1,9 +1,14 @@
 package com.banking.repository;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,13 +22,107 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, Intege
 	
 	Optional<UserAccount> findByAccountNumber(Long accountNumber);
 
+	List<UserAccount> findAllByAccountNumberIn(Collection<Long> accountNumbers);
+
 	List<UserAccount> findAllByIdNot(Integer accountId);
 
+	@Query("select u.id from UserAccount u order by u.id")
+	List<Integer> findAllIds();
+
+	/**
+	 * Balances of the accounts by account id, read as values so the accounts
+	 * already loaded in the session do not hide a balance changed by an update
+	 * statement.
+	 */
+	default Map<Integer, Long> findBalanceAmountsById(Collection<Integer> accountIds) {
+		Map<Integer, Long> balanceAmounts = new HashMap<>();
+		if (!accountIds.isEmpty()) {
+			findBalanceAmounts(accountIds).forEach(row -> balanceAmounts.put((Integer) row[0], (Long) row[1]));
+		}
+		return balanceAmounts;
+	}
+
+	@Query("select u.id, u.balanceAmount from UserAccount u where u.id in :accountIds")
+	List<Object[]> findBalanceAmounts(@Param("accountIds") Collection<Integer> accountIds);
+
+	/**
+	 * Balances of the accounts by account id, with the credits on their stripes
+	 * which are not folded yet. The balance column and the stripes are read in
+	 * one statement, so a fold committing meanwhile is seen entirely or not at
+	 * all.
+	 */
+	default Map<Integer, Long> findTotalBalanceAmountsById(Collection<Integer> accountIds) {
+		Map<Integer, Long> balanceAmounts = new HashMap<>();
+		if (!accountIds.isEmpty()) {
+			findTotalBalanceAmounts(accountIds).forEach(row -> balanceAmounts.put((Integer) row[0], (Long) row[1]));
+		}
+		return balanceAmounts;
+	}
+
+	@Query("select u.id, u.balanceAmount + coalesce(sum(s.balanceAmount), 0) from UserAccount u "
+			+ "left join AccountBalanceStripe s on s.userAccountId = u.id where u.id in :accountIds "
+			+ "group by u.id, u.balanceAmount")
+	List<Object[]> findTotalBalanceAmounts(@Param("accountIds") Collection<Integer> accountIds);
+
+	/**
+	 * Locks the account row until the end of the transaction and returns its
+	 * balance.
+	 */
+	@Query(value = "select balance_amount from user_account where id = :accountId for update", nativeQuery = true)
+	Long lockBalanceAmount(@Param("accountId") Integer accountId);
+
+	/**
+	 * Locks the account rows in id order until the end of the transaction and
+	 * returns the id and the balance of each.
+	 */
+	@Query(value = "select id, balance_amount from user_account where id in :accountIds order by id for update", nativeQuery = true)
+	List<Object[]> lockBalanceAmountsIn(@Param("accountIds") Collection<Integer> accountIds);
+
 	@Query("Select u from UserAccount u WHERE CAST(u.accountNumber AS string) LIKE %:accountNumber%")
 	List<UserAccount> findAllByAccountNumber(@Param("accountNumber") String accountNumber);
 
+	/**
+	 * Ids and numbers of the accounts after the given id, other than the given
+	 * type, in id order, read by the account number index in chunks.
+	 */
+	@Query("select u.id, u.accountNumber from UserAccount u where u.id > :afterId and u.accountType <> :accountType "
+			+ "order by u.id")
+	List<Object[]> findAccountNumbersAfter(@Param("afterId") Integer afterId,
+			@Param("accountType") String accountType, Pageable pageable);
+
+	/**
+	 * Ids, numbers, user ids and holder first and last names of the accounts
+	 * after the given id, other than the given type, in id order, read by the
+	 * account typeahead in chunks.
+	 */
+	@Query("select a.id, a.accountNumber, a.userId, u.firstName, u.lastName from UserAccount a "
+			+ "left join User u on u.id = a.userId where a.id > :afterId and a.accountType <> :accountType "
+			+ "order by a.id")
+	List<Object[]> findAccountHoldersAfter(@Param("afterId") Integer afterId,
+			@Param("accountType") String accountType, Pageable pageable);
+
+	@Query("select u.id from UserAccount u where u.accountNumber = :accountNumber")
+	Optional<Integer> findIdByAccountNumber(@Param("accountNumber") Long accountNumber);
+
 	Optional<UserAccount> findByAccountNumberAndAccountType(Long accountNumber, String accountTypeMortgage);
 
 	Optional<UserAccount> findByUserIdAndAccountType(Integer userId, String accountTypeMortgage);
 
+	/**
+	 * Debits the account only when the balance stays at or above the minimum
+	 * balance. Returns 0 when the account is missing or the balance is too low.
+	 */
+	@Modifying
+	@Query("update UserAccount u set u.balanceAmount = u.balanceAmount - :amount, u.version = u.version + 1 "
+			+ "where u.id = :accountId and u.balanceAmount - :amount >= coalesce(u.minimumBalance, 0)")
+	int debitBalance(@Param("accountId") Integer accountId, @Param("amount") long amount);
+
+	/**
+	 * Credits the payee account. Returns 0 when the account number is unknown.
+	 */
+	@Modifying
+	@Query("update UserAccount u set u.balanceAmount = u.balanceAmount + :amount, u.version = u.version + 1 "
+			+ "where u.accountNumber = :accountNumber")
+	int creditBalance(@Param("accountNumber") Long accountNumber, @Param("amount") long amount);
+
 }
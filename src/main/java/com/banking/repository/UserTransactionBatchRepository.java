@@ -0,0 +1,63 @@
+package com.banking.repository;
+
+import java.util.List;
+
+import com.banking.dto.TransferIdempotency;
+import com.banking.entity.UserTransaction;
+
+/**
+ * @description UserTransactionBatchRepository - the JDBC batched statements of
+ *              the batch fund transfer. Each method takes the transactions in
+ *              request order and returns the update count of each transaction.
+ *              The user account and payee account of the transactions only
+ *              need their ids, the payee account type is set on the
+ *              transaction itself.
+ *
+ * @since 18-10-2026
+ */
+public interface UserTransactionBatchRepository {
+
+	int[] debitBalances(List<UserTransaction> transactions);
+
+	/**
+	 * Debits without the minimum balance check, for transfers which were
+	 * already checked by the ledger engine.
+	 */
+	int[] postDebits(List<UserTransaction> transactions);
+
+	int[] creditBalances(List<UserTransaction> transactions);
+
+	/**
+	 * Inserts the ledger rows, and the Idempotency-Key of each row which has
+	 * one with insertIdempotencyKeys.
+	 */
+	int[] insertTransactions(List<UserTransaction> transactions);
+
+	/**
+	 * Records the Idempotency-Key and payload hash of each transaction which has
+	 * a key in the unpartitioned transfer_idempotency table, whose primary key
+	 * holds across all transaction dates. A key which is already recorded fails
+	 * the insert with a DataIntegrityViolationException.
+	 */
+	void insertIdempotencyKeys(List<UserTransaction> transactions);
+
+	/**
+	 * The transaction number and payload hash recorded for the Idempotency-Key,
+	 * null when the key is not recorded.
+	 */
+	TransferIdempotency findTransferIdempotency(String idempotencyKey);
+
+	/**
+	 * The ids of the last limit ledger rows of the account before the id, in id
+	 * order, with the amount each row added to the balance of the account:
+	 * negative for a debit, positive for a credit and 0 for a transfer to the
+	 * same account.
+	 */
+	long[][] findSignedAmounts(Integer userAccountId, long beforeId, int limit);
+
+	/**
+	 * Sets the balance of the account after each of the rows, on the payer or
+	 * the payee side the account is on.
+	 */
+	void updateBalances(Integer userAccountId, long[] ids, long[] balances);
+}
@@ -0,0 +1,200 @@
+package com.banking.repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.banking.dto.TransferIdempotency;
+import com.banking.entity.UserTransaction;
+
+/**
+ * @description UserTransactionBatchRepositoryImpl - runs the batch fund
+ *              transfer statements through JdbcTemplate in chunks of
+ *              transfer.batch.jdbc-size. The ledger rows are inserted by JDBC
+ *              as well, Hibernate does not batch inserts of IDENTITY keys.
+ *
+ * @since 18-10-2026
+ */
+public class UserTransactionBatchRepositoryImpl implements UserTransactionBatchRepository {
+
+	private static final String DEBIT_BALANCE = "update user_account set balance_amount = balance_amount - ?, "
+			+ "version = version + 1 where id = ? and balance_amount - ? >= coalesce(minimum_balance, 0)";
+
+	private static final String POST_DEBIT = "update user_account set balance_amount = balance_amount - ?, "
+			+ "version = version + 1 where id = ?";
+
+	private static final String CREDIT_BALANCE = "update user_account set balance_amount = balance_amount + ?, "
+			+ "version = version + 1 where id = ?";
+
+	private static final String INSERT_TRANSACTION = "insert into user_transaction (user_account_id, payee_account_id, "
+			+ "payee_account_type, transaction_type, transaction_id, transaction_date, transaction_amount, "
+			+ "current_balance_amount, payee_balance_amount, remarks, idempotency_key) "
+			+ "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String INSERT_IDEMPOTENCY_KEY = "insert into transfer_idempotency (idempotency_key, "
+			+ "transaction_id, created_date, payload_hash) values (?, ?, ?, ?)";
+
+	private static final String FIND_IDEMPOTENCY_KEY = "select transaction_id, payload_hash from transfer_idempotency "
+			+ "where idempotency_key = ?";
+
+	private static final String FIND_DEBITS = "select id, transaction_amount, payee_account_id from user_transaction "
+			+ "where user_account_id = ? and id < ? order by id desc limit ?";
+
+	private static final String FIND_CREDITS = "select id, transaction_amount from user_transaction "
+			+ "where payee_account_id = ? and user_account_id <> ? and id < ? order by id desc limit ?";
+
+	private static final String UPDATE_BALANCES = "update user_transaction set current_balance_amount = "
+			+ "case when user_account_id = ? then ? else current_balance_amount end, payee_balance_amount = "
+			+ "case when payee_account_id = ? then ? else payee_balance_amount end where id = ?";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${transfer.batch.jdbc-size:500}")
+	int batchSize;
+
+	@Override
+	public int[] debitBalances(List<UserTransaction> transactions) {
+		return flatten(jdbcTemplate.batchUpdate(DEBIT_BALANCE, transactions, batchSize, (ps, transaction) -> {
+			ps.setLong(1, transaction.getTransactionAmount());
+			ps.setInt(2, transaction.getUserAccountId().getId());
+			ps.setLong(3, transaction.getTransactionAmount());
+		}), transactions.size());
+	}
+
+	@Override
+	public int[] postDebits(List<UserTransaction> transactions) {
+		return flatten(jdbcTemplate.batchUpdate(POST_DEBIT, transactions, batchSize, (ps, transaction) -> {
+			ps.setLong(1, transaction.getTransactionAmount());
+			ps.setInt(2, transaction.getUserAccountId().getId());
+		}), transactions.size());
+	}
+
+	@Override
+	public int[] creditBalances(List<UserTransaction> transactions) {
+		return flatten(jdbcTemplate.batchUpdate(CREDIT_BALANCE, transactions, batchSize, (ps, transaction) -> {
+			ps.setLong(1, transaction.getTransactionAmount());
+			ps.setInt(2, transaction.getPayeeAccountId().getId());
+		}), transactions.size());
+	}
+
+	@Override
+	public int[] insertTransactions(List<UserTransaction> transactions) {
+		int[] counts = flatten(jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions, batchSize, (ps, transaction) -> {
+			ps.setInt(1, transaction.getUserAccountId().getId());
+			ps.setInt(2, transaction.getPayeeAccountId().getId());
+			ps.setString(3, transaction.getPayeeAccountType());
+			ps.setString(4, transaction.getTransactionType());
+			ps.setString(5, transaction.getTransactionId());
+			ps.setDate(6, Date.valueOf(transaction.getTransactionDate()));
+			ps.setLong(7, transaction.getTransactionAmount());
+			ps.setObject(8, transaction.getCurrentBalanceAmount(), Types.BIGINT);
+			ps.setObject(9, transaction.getPayeeBalanceAmount(), Types.BIGINT);
+			ps.setString(10, transaction.getRemarks());
+			ps.setString(11, transaction.getIdempotencyKey());
+		}), transactions.size());
+		insertIdempotencyKeys(transactions);
+		return counts;
+	}
+
+	@Override
+	public void insertIdempotencyKeys(List<UserTransaction> transactions) {
+		List<UserTransaction> keyed = transactions.stream()
+				.filter(transaction -> transaction.getIdempotencyKey() != null).collect(Collectors.toList());
+		if (keyed.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(INSERT_IDEMPOTENCY_KEY, keyed, batchSize, (ps, transaction) -> {
+			ps.setString(1, transaction.getIdempotencyKey());
+			ps.setString(2, transaction.getTransactionId());
+			ps.setDate(3, Date.valueOf(transaction.getTransactionDate()));
+			ps.setString(4, transaction.getPayloadHash());
+		});
+	}
+
+	@Override
+	public TransferIdempotency findTransferIdempotency(String idempotencyKey) {
+		List<TransferIdempotency> rows = jdbcTemplate.query(FIND_IDEMPOTENCY_KEY,
+				(resultSet, rowNum) -> new TransferIdempotency(resultSet.getString(1), resultSet.getString(2)),
+				idempotencyKey);
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	@Override
+	public long[][] findSignedAmounts(Integer userAccountId, long beforeId, int limit) {
+		LongList debitIds = new LongList();
+		LongList debits = new LongList();
+		jdbcTemplate.query(FIND_DEBITS, resultSet -> {
+			debitIds.add(resultSet.getLong(1));
+			// A transfer to the same account leaves the balance as it was.
+			debits.add(resultSet.getInt(3) == userAccountId ? 0 : -resultSet.getLong(2));
+		}, userAccountId, beforeId, limit);
+		LongList creditIds = new LongList();
+		LongList credits = new LongList();
+		jdbcTemplate.query(FIND_CREDITS, resultSet -> {
+			creditIds.add(resultSet.getLong(1));
+			credits.add(resultSet.getLong(2));
+		}, userAccountId, userAccountId, beforeId, limit);
+
+		// Merge the two sides from the last id back, keeping the last limit rows
+		// in id order.
+		int size = Math.min(debitIds.size + creditIds.size, limit);
+		long[] ids = new long[size];
+		long[] amounts = new long[size];
+		for (int i = size - 1, debit = 0, credit = 0; i >= 0; i--) {
+			if (credit == creditIds.size || debit < debitIds.size && debitIds.values[debit] > creditIds.values[credit]) {
+				ids[i] = debitIds.values[debit];
+				amounts[i] = debits.values[debit++];
+			} else {
+				ids[i] = creditIds.values[credit];
+				amounts[i] = credits.values[credit++];
+			}
+		}
+		return new long[][] { ids, amounts };
+	}
+
+	@Override
+	public void updateBalances(Integer userAccountId, long[] ids, long[] balances) {
+		List<Integer> rows = IntStream.range(0, ids.length).boxed().collect(Collectors.toList());
+		jdbcTemplate.batchUpdate(UPDATE_BALANCES, rows, batchSize, (ps, row) -> {
+			ps.setInt(1, userAccountId);
+			ps.setLong(2, balances[row]);
+			ps.setInt(3, userAccountId);
+			ps.setLong(4, balances[row]);
+			ps.setLong(5, ids[row]);
+		});
+	}
+
+	/**
+	 * Growable array of longs, a boxed list of a busy account's history would
+	 * take several times the memory.
+	 */
+	private static class LongList {
+		private long[] values = new long[1024];
+		private int size;
+
+		void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+	}
+
+	private int[] flatten(int[][] chunks, int size) {
+		int[] counts = new int[size];
+		int index = 0;
+		for (int[] chunk : chunks) {
+			System.arraycopy(chunk, 0, counts, index, chunk.length);
+			index += chunk.length;
+		}
+		return counts;
+	}
+}
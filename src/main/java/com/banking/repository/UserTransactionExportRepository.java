@@ -0,0 +1,21 @@
+package com.banking.repository;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import com.banking.dto.UserTransactionRequestDto;
+
+/**
+ * @description UserTransactionExportRepository - forward only read of the
+ *              transaction history for the statement export. The rows are
+ *              fetched from the database transaction.export.fetch-size at a
+ *              time while the stream is consumed, the stream must be closed and
+ *              read inside a transaction.
+ *
+ * @since 18-10-2026
+ */
+public interface UserTransactionExportRepository {
+
+	Stream<UserTransactionRequestDto> streamTransactionDetails(Integer userAccountId, LocalDate fromDate,
+			LocalDate toDate);
+}
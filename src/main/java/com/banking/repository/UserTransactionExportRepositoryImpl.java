@@ -0,0 +1,61 @@
+package com.banking.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.banking.dto.UserTransactionRequestDto;
+
+/**
+ * @description UserTransactionExportRepositoryImpl - streams the projection rows
+ *              of the transaction history in id order. The fetch size is a
+ *              property because MySQL only streams a result set row by row with
+ *              a fetch size of Integer.MIN_VALUE, which other drivers reject.
+ *
+ * @since 18-10-2026
+ */
+public class UserTransactionExportRepositoryImpl implements UserTransactionExportRepository {
+
+	// The ids paid from and paid to the account are read on the payer and the
+	// payee date indexes, the statement is one query so it streams on one
+	// cursor.
+	private static final String STREAM_TRANSACTION_DETAILS = "select t.id, u.first_name, u.last_name, "
+			+ "p.account_number, t.transaction_type, t.transaction_date, t.transaction_amount, t.remarks "
+			+ "from (select id from user_transaction where user_account_id = :userAccountId "
+			+ "and transaction_date between :fromDate and :toDate "
+			+ "union select id from user_transaction where payee_account_id = :userAccountId "
+			+ "and transaction_date between :fromDate and :toDate) s "
+			+ "join user_transaction t on t.id = s.id join user_account p on p.id = t.payee_account_id "
+			+ "left join user u on u.id = p.user_id order by t.id";
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@Value("${transaction.export.fetch-size:-2147483648}")
+	int fetchSize;
+
+	@Override
+	public Stream<UserTransactionRequestDto> streamTransactionDetails(Integer userAccountId, LocalDate fromDate,
+			LocalDate toDate) {
+		Stream<?> rows = entityManager.createNativeQuery(STREAM_TRANSACTION_DETAILS)
+				.setParameter("userAccountId", userAccountId).setParameter("fromDate", Date.valueOf(fromDate))
+				.setParameter("toDate", Date.valueOf(toDate)).setHint(QueryHints.FETCH_SIZE, fetchSize)
+				.setHint(QueryHints.READ_ONLY, true).getResultStream();
+		return rows.map(row -> toUserTransactionRequestDto((Object[]) row));
+	}
+
+	private UserTransactionRequestDto toUserTransactionRequestDto(Object[] row) {
+		return new UserTransactionRequestDto(((Number) row[0]).intValue(), (String) row[1], (String) row[2],
+				toLong(row[3]), (String) row[4], ((Date) row[5]).toLocalDate(), toLong(row[6]), (String) row[7]);
+	}
+
+	private Long toLong(Object value) {
+		return value == null ? null : ((Number) value).longValue();
+	}
+}
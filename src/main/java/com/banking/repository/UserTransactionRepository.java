@@ -1,22 +1,232 @@
 package com.banking.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.banking.dto.ArchivedTransaction;
+import com.banking.dto.UserTransactionRequestDto;
 import com.banking.entity.UserTransaction;
+import com.banking.util.HistoryMerge;
 
-public interface UserTransactionRepository extends JpaRepository<UserTransaction, Integer> {
+public interface UserTransactionRepository
+		extends JpaRepository<UserTransaction, Integer>, UserTransactionBatchRepository,
+		UserTransactionExportRepository {
 
 	UserTransaction findByTransactionId(String transactionId);
 
-	List<UserTransaction> findTop5ByUserAccountIdIdOrPayeeAccountIdIdOrderByIdDesc(Integer userAccountId,
-			Integer payyeAccountId);
-	
-	List<UserTransaction> findAllByUserAccountIdIdOrPayeeAccountIdIdOrderByIdDesc(Integer userAccountId,
-			Integer payyeAccountId);
+	@Query("select t.transactionId from UserTransaction t where t.transactionId in :transactionIds")
+	List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
 
-	List<UserTransaction> getAllByUserAccountIdIdAndTransactionDateBetween(Integer userAccountId, LocalDate startDate,
-			LocalDate endDate);
+	/**
+	 * Transaction history rows with the payee account and payee user name, read
+	 * in one query and mapped straight into UserTransactionRequestDto. The paged
+	 * reads take the rows below beforeId in id order, newest first (keyset
+	 * pagination), the page size is the size of the pageable. The account type
+	 * filter is on the payee account type copied into the ledger row, so only
+	 * the matching rows are read through the (account, payee account type, id)
+	 * indexes.
+	 *
+	 * The rows paid from the account and the rows paid to it are read by two
+	 * queries, one on the payer indexes and one on the payee indexes, and merged
+	 * by HistoryMerge. One query with an or of the two columns is planned as a
+	 * full scan of the ledger.
+	 *
+	 * On MySQL the ledger is partitioned by transaction date, the reads which
+	 * know their dates carry a transaction date predicate so only the
+	 * partitions of those dates are read.
+	 */
+	String TRANSACTION_DETAILS = "select new com.banking.dto.UserTransactionRequestDto(t.id, p.id, u.firstName, "
+			+ "u.lastName, p.accountNumber, t.transactionType, t.transactionDate, t.transactionAmount, t.remarks) "
+			+ "from UserTransaction t join t.payeeAccountId p left join User u on u.id = p.userId ";
+
+	String BALANCE_DETAILS = "select new com.banking.dto.UserTransactionRequestDto(t.id, u.firstName, "
+			+ "u.lastName, p.accountNumber, t.transactionType, t.transactionDate, p.balanceAmount, "
+			+ "t.transactionAmount, t.remarks) "
+			+ "from UserTransaction t join t.payeeAccountId p left join User u on u.id = p.userId ";
+
+	String PAYER = "where t.userAccountId.id = :userAccountId ";
+
+	String PAYEE = "where t.payeeAccountId.id = :userAccountId ";
+
+	@Query("select new com.banking.dto.UserTransactionRequestDto(t.id, p.id, u.firstName, u.lastName, "
+			+ "p.accountNumber, t.transactionType, t.transactionDate, t.transactionAmount, t.remarks) "
+			+ "from UserTransaction t join t.payeeAccountId p left join User u on u.id = p.userId "
+			+ "where t.transactionId = :transactionId and t.transactionDate = :transactionDate")
+	UserTransactionRequestDto findTransactionDetail(@Param("transactionId") String transactionId,
+			@Param("transactionDate") LocalDate transactionDate);
+
+	/**
+	 * The latest rows of the account, newest first by date and id.
+	 */
+	default List<UserTransactionRequestDto> findTransactionDetails(Integer userAccountId, Pageable pageable) {
+		return HistoryMerge.merge(findPayerTransactionDetails(userAccountId, pageable),
+				findPayeeTransactionDetails(userAccountId, pageable), HistoryMerge.BY_DATE_DESC,
+				pageable.getPageSize());
+	}
+
+	@Query(TRANSACTION_DETAILS + PAYER + "order by t.transactionDate desc, t.id desc")
+	List<UserTransactionRequestDto> findPayerTransactionDetails(@Param("userAccountId") Integer userAccountId,
+			Pageable pageable);
+
+	@Query(TRANSACTION_DETAILS + PAYEE + "order by t.transactionDate desc, t.id desc")
+	List<UserTransactionRequestDto> findPayeeTransactionDetails(@Param("userAccountId") Integer userAccountId,
+			Pageable pageable);
+
+	default List<UserTransactionRequestDto> findTransactionDetailsByPayeeAccountType(Integer userAccountId,
+			String accountType, Integer beforeId, Pageable pageable) {
+		return HistoryMerge.merge(
+				findPayerTransactionDetailsByPayeeAccountType(userAccountId, accountType, beforeId, pageable),
+				findPayeeTransactionDetailsByPayeeAccountType(userAccountId, accountType, beforeId, pageable),
+				HistoryMerge.BY_ID_DESC, pageable.getPageSize());
+	}
+
+	@Query(BALANCE_DETAILS + PAYER + "and t.payeeAccountType = :accountType and t.id < :beforeId order by t.id desc")
+	List<UserTransactionRequestDto> findPayerTransactionDetailsByPayeeAccountType(
+			@Param("userAccountId") Integer userAccountId, @Param("accountType") String accountType,
+			@Param("beforeId") Integer beforeId, Pageable pageable);
+
+	@Query(BALANCE_DETAILS + PAYEE + "and t.payeeAccountType = :accountType and t.id < :beforeId order by t.id desc")
+	List<UserTransactionRequestDto> findPayeeTransactionDetailsByPayeeAccountType(
+			@Param("userAccountId") Integer userAccountId, @Param("accountType") String accountType,
+			@Param("beforeId") Integer beforeId, Pageable pageable);
+
+	default List<UserTransactionRequestDto> findTransactionDetailsBetween(Integer userAccountId, LocalDate startDate,
+			LocalDate endDate, Integer beforeId, Pageable pageable) {
+		return HistoryMerge.merge(
+				findPayerTransactionDetailsBetween(userAccountId, startDate, endDate, beforeId, pageable),
+				findPayeeTransactionDetailsBetween(userAccountId, startDate, endDate, beforeId, pageable),
+				HistoryMerge.BY_ID_DESC, pageable.getPageSize());
+	}
+
+	@Query(TRANSACTION_DETAILS + PAYER
+			+ "and t.transactionDate between :startDate and :endDate and t.id < :beforeId order by t.id desc")
+	List<UserTransactionRequestDto> findPayerTransactionDetailsBetween(@Param("userAccountId") Integer userAccountId,
+			@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+			@Param("beforeId") Integer beforeId, Pageable pageable);
+
+	@Query(TRANSACTION_DETAILS + PAYEE
+			+ "and t.transactionDate between :startDate and :endDate and t.id < :beforeId order by t.id desc")
+	List<UserTransactionRequestDto> findPayeeTransactionDetailsBetween(@Param("userAccountId") Integer userAccountId,
+			@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+			@Param("beforeId") Integer beforeId, Pageable pageable);
+
+	/**
+	 * Ledger rows not yet added to the account month summaries, oldest first.
+	 */
+	List<UserTransaction> findBySummarizedFalseOrderById(Pageable pageable);
+
+	/**
+	 * Net amount of the ledger rows of the account not yet added to the month
+	 * summaries, credits less debits.
+	 */
+	@Query("select coalesce(sum(case when t.payeeAccountId.id = :userAccountId then t.transactionAmount else 0 end), 0) "
+			+ "- coalesce(sum(case when t.userAccountId.id = :userAccountId then t.transactionAmount else 0 end), 0) "
+			+ "from UserTransaction t where t.summarized = false "
+			+ "and (t.userAccountId.id = :userAccountId or t.payeeAccountId.id = :userAccountId)")
+	long sumUnsummarizedAmount(@Param("userAccountId") Integer userAccountId);
+
+	/**
+	 * Marks the ledger rows as summarized. Returns fewer rows than given when
+	 * some were summarized by another node.
+	 */
+	@Modifying
+	@Query("update UserTransaction t set t.summarized = true where t.id in :ids and t.summarized = false")
+	int markSummarized(@Param("ids") Collection<Integer> ids);
+
+	/**
+	 * Net amount of the ledger rows of the account, credits less debits, dated
+	 * after the first date up to the second. A transfer to the same account is
+	 * on both sides and nets to 0.
+	 */
+	default long sumNetAmountBetween(Integer userAccountId, LocalDate after, LocalDate until) {
+		return sumPayeeAmountBetween(userAccountId, after, until) - sumPayerAmountBetween(userAccountId, after, until);
+	}
+
+	@Query("select coalesce(sum(t.transactionAmount), 0) from UserTransaction t " + PAYER
+			+ "and t.transactionDate > :after and t.transactionDate <= :until")
+	long sumPayerAmountBetween(@Param("userAccountId") Integer userAccountId, @Param("after") LocalDate after,
+			@Param("until") LocalDate until);
+
+	@Query("select coalesce(sum(t.transactionAmount), 0) from UserTransaction t " + PAYEE
+			+ "and t.transactionDate > :after and t.transactionDate <= :until")
+	long sumPayeeAmountBetween(@Param("userAccountId") Integer userAccountId, @Param("after") LocalDate after,
+			@Param("until") LocalDate until);
+
+	/**
+	 * Net amount of the ledger rows of each account by transaction date, for the
+	 * dates after the first date up to the second, added to the given map. The
+	 * accounts and dates without rows are left out.
+	 */
+	default Map<Integer, NavigableMap<LocalDate, Long>> addDailyNetAmounts(
+			Map<Integer, NavigableMap<LocalDate, Long>> dailyNetAmounts, Collection<Integer> userAccountIds,
+			LocalDate after, LocalDate until) {
+		findDailyPayerAmounts(userAccountIds, after, until).forEach(row -> dailyNetAmounts
+				.computeIfAbsent((Integer) row[0], id -> new TreeMap<>())
+				.merge((LocalDate) row[1], -(Long) row[2], Long::sum));
+		findDailyPayeeAmounts(userAccountIds, after, until).forEach(row -> dailyNetAmounts
+				.computeIfAbsent((Integer) row[0], id -> new TreeMap<>())
+				.merge((LocalDate) row[1], (Long) row[2], Long::sum));
+		return dailyNetAmounts;
+	}
+
+	@Query("select t.userAccountId.id, t.transactionDate, sum(t.transactionAmount) from UserTransaction t "
+			+ "where t.userAccountId.id in :userAccountIds and t.transactionDate > :after "
+			+ "and t.transactionDate <= :until group by t.userAccountId.id, t.transactionDate")
+	List<Object[]> findDailyPayerAmounts(@Param("userAccountIds") Collection<Integer> userAccountIds,
+			@Param("after") LocalDate after, @Param("until") LocalDate until);
+
+	@Query("select t.payeeAccountId.id, t.transactionDate, sum(t.transactionAmount) from UserTransaction t "
+			+ "where t.payeeAccountId.id in :userAccountIds and t.transactionDate > :after "
+			+ "and t.transactionDate <= :until group by t.payeeAccountId.id, t.transactionDate")
+	List<Object[]> findDailyPayeeAmounts(@Param("userAccountIds") Collection<Integer> userAccountIds,
+			@Param("after") LocalDate after, @Param("until") LocalDate until);
+
+	/**
+	 * Ledger rows dated before the given date and already added to the month
+	 * summaries, oldest first, with the payee account and payee user name of
+	 * the history rows. Read by the archival job through the (transaction date,
+	 * id) index.
+	 */
+	@Query("select new com.banking.dto.ArchivedTransaction(t.id, t.transactionId, t.userAccountId.id, p.id, "
+			+ "p.accountNumber, t.payeeAccountType, u.firstName, u.lastName, t.transactionType, t.transactionDate, "
+			+ "t.transactionAmount, t.currentBalanceAmount, t.payeeBalanceAmount, t.remarks) "
+			+ "from UserTransaction t join t.payeeAccountId p left join User u on u.id = p.userId "
+			+ "where t.transactionDate < :before and t.summarized = true order by t.transactionDate, t.id")
+	List<ArchivedTransaction> findArchivableTransactions(@Param("before") LocalDate before, Pageable pageable);
+
+	@Modifying
+	@Query("delete from UserTransaction t where t.id in :ids")
+	int deleteByIds(@Param("ids") Collection<Integer> ids);
+
+	/**
+	 * Inserts the ledger row of a fund transfer in one statement, the payee
+	 * account id and type are resolved from the account number inside the
+	 * insert. It runs after the debit and the credit, so the balances read into
+	 * the row are the balances right after the transfer, on rows this
+	 * transaction holds locked. A balance which is not recorded is left null.
+	 */
+	@Modifying
+	@Query(value = "insert into user_transaction (user_account_id, payee_account_id, payee_account_type, "
+			+ "transaction_type, transaction_id, transaction_date, transaction_amount, current_balance_amount, "
+			+ "payee_balance_amount, remarks, idempotency_key) "
+			+ "select :accountId, p.id, p.account_type, :#{#transaction.transactionType}, "
+			+ ":#{#transaction.transactionId}, :#{#transaction.transactionDate}, "
+			+ ":#{#transaction.transactionAmount}, "
+			+ "case when :recordPayerBalance = true then (select a.balance_amount from user_account a where a.id = :accountId) end, "
+			+ "case when :recordPayeeBalance = true then p.balance_amount end, "
+			+ ":#{#transaction.remarks}, :#{#transaction.idempotencyKey} from user_account p where p.account_number = :payeeAccountNumber", nativeQuery = true)
+	int insertTransaction(@Param("transaction") UserTransaction transaction, @Param("accountId") Integer accountId,
+			@Param("payeeAccountNumber") Long payeeAccountNumber,
+			@Param("recordPayerBalance") boolean recordPayerBalance,
+			@Param("recordPayeeBalance") boolean recordPayeeBalance);
 }
@@ -0,0 +1,245 @@
+package com.banking.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.banking.entity.UserAccount;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @description AccountBalanceCache - the balance column of the accounts read by
+ *              the balance endpoint, so a poll of an unchanged account does not
+ *              read the database. A balance is loaded on the first read of the
+ *              account and kept for at most account.balance-cache.ttl-ms; at
+ *              most account.balance-cache.max-accounts balances are kept, the
+ *              least recently used is evicted.
+ *
+ *              The fund transfers, the batch transfers, the ledger engine sync
+ *              and the mortgage creation evict the balances of their accounts,
+ *              by id or by account number, once they commit and never before,
+ *              so a reader sees no uncommitted balance. The hot accounts are
+ *              not cached: their balance column changes on every stripe fold,
+ *              which would have to be seen together with the stripes. Each
+ *              eviction stamps the stripes of its ids and numbers with the write
+ *              sequence; a balance loaded while a write of its account committed
+ *              is returned but not cached. The ttl bounds how long a change made
+ *              outside the application is missed.
+ *
+ *              account.balance-cache.enabled=false reads every balance from the
+ *              database. The hits, misses, evictions, hit ratio and size are
+ *              published as the account.balance.cache.* meters.
+ *
+ * @since 18-10-2026
+ */
+@Component
+public class AccountBalanceCache {
+	private static final Logger logger = LoggerFactory.getLogger(AccountBalanceCache.class);
+
+	private static final int WRITE_STRIPES = 1024;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${account.balance-cache.enabled:true}")
+	boolean enabled;
+
+	@Value("${account.balance-cache.max-accounts:100000}")
+	int maxAccounts;
+
+	@Value("${account.balance-cache.ttl-ms:30000}")
+	long ttlMillis;
+
+	// Write sequence of the last write of the ids and numbers hashed to each
+	// stripe, guarded by this.
+	private final long[] idWrittenAt = new long[WRITE_STRIPES];
+	private final long[] numberWrittenAt = new long[WRITE_STRIPES];
+	private long writes;
+
+	// Balances in access order and their ids by account number, guarded by this.
+	private Map<Integer, Balance> balances;
+	private final Map<Long, Integer> idsByNumber = new HashMap<>();
+
+	private Counter hitCounter;
+	private Counter missCounter;
+	private Counter sizeEvictionCounter;
+	private Counter expiryEvictionCounter;
+
+	@PostConstruct
+	public void start() {
+		balances = new LinkedHashMap<Integer, Balance>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Balance> eldest) {
+				if (size() <= maxAccounts) {
+					return false;
+				}
+				idsByNumber.remove(eldest.getValue().getAccountNumber());
+				sizeEvictionCounter.increment();
+				return true;
+			}
+		};
+		hitCounter = Counter.builder("account.balance.cache.hits")
+				.description("Balance reads served from the cache").register(meterRegistry);
+		missCounter = Counter.builder("account.balance.cache.misses")
+				.description("Balance reads loaded from the database").register(meterRegistry);
+		sizeEvictionCounter = Counter.builder("account.balance.cache.evictions").tag("cause", "size")
+				.description("Least recently used balances evicted from the cache").register(meterRegistry);
+		expiryEvictionCounter = Counter.builder("account.balance.cache.evictions").tag("cause", "expired")
+				.description("Balances evicted from the cache after the ttl").register(meterRegistry);
+		Gauge.builder("account.balance.cache.hit.ratio", this, AccountBalanceCache::hitRatio)
+				.description("Share of the balance reads served from the cache").register(meterRegistry);
+		Gauge.builder("account.balance.cache.size", this, AccountBalanceCache::size)
+				.description("Accounts in the balance cache").register(meterRegistry);
+		logger.info("account balance cache {}", enabled ? "enabled" : "disabled");
+	}
+
+	/**
+	 * @description the committed balance of the account.
+	 * @param userAccountId the account.
+	 * @param loader        reads the account from the database on a miss.
+	 * @param cacheable     whether the balance of the account number may be
+	 *                      cached.
+	 * @return the account number and balance column, empty when the account is
+	 *         not found.
+	 */
+	public Optional<Balance> get(Integer userAccountId, Function<Integer, Optional<UserAccount>> loader,
+			Predicate<Long> cacheable) {
+		if (!enabled) {
+			return loader.apply(userAccountId).map(Balance::new);
+		}
+		long sequence;
+		synchronized (this) {
+			Balance balance = balances.get(userAccountId);
+			boolean expired = balance != null
+					&& System.nanoTime() - balance.loadedAt > TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+			if (balance != null && !expired) {
+				hitCounter.increment();
+				return Optional.of(balance);
+			}
+			if (expired) {
+				remove(userAccountId);
+				expiryEvictionCounter.increment();
+			}
+			sequence = writes;
+		}
+		missCounter.increment();
+		Optional<Balance> loaded = loader.apply(userAccountId).map(Balance::new);
+		if (loaded.isPresent() && cacheable.test(loaded.get().getAccountNumber())) {
+			Balance balance = loaded.get();
+			synchronized (this) {
+				if (idWrittenAt[stripe(userAccountId)] <= sequence
+						&& numberWrittenAt[stripe(balance.getAccountNumber())] <= sequence) {
+					remove(userAccountId);
+					balances.put(userAccountId, balance);
+					idsByNumber.put(balance.getAccountNumber(), userAccountId);
+				}
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * @description evict the balances of the accounts, given by id and by
+	 *              account number, once the current transaction commits, or now
+	 *              when there is no transaction.
+	 */
+	public void evictAfterCommit(Collection<Integer> userAccountIds, Collection<Long> accountNumbers) {
+		if (!enabled) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			evict(userAccountIds, accountNumbers);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == TransactionSynchronization.STATUS_COMMITTED) {
+					evict(userAccountIds, accountNumbers);
+				} else {
+					logger.debug("transaction rolled back, the account balance cache is not evicted");
+				}
+			}
+		});
+	}
+
+	/**
+	 * @description evict the balances of the accounts, for writes which are
+	 *              already committed.
+	 */
+	public synchronized void evict(Collection<Integer> userAccountIds, Collection<Long> accountNumbers) {
+		long sequence = ++writes;
+		userAccountIds.forEach(userAccountId -> {
+			idWrittenAt[stripe(userAccountId)] = sequence;
+			remove(userAccountId);
+		});
+		accountNumbers.forEach(accountNumber -> {
+			numberWrittenAt[stripe(accountNumber)] = sequence;
+			Integer userAccountId = idsByNumber.get(accountNumber);
+			if (userAccountId != null) {
+				remove(userAccountId);
+			}
+		});
+	}
+
+	synchronized int size() {
+		return balances.size();
+	}
+
+	private void remove(Integer userAccountId) {
+		Balance balance = balances.remove(userAccountId);
+		if (balance != null) {
+			idsByNumber.remove(balance.getAccountNumber());
+		}
+	}
+
+	private double hitRatio() {
+		double hits = hitCounter.count();
+		double reads = hits + missCounter.count();
+		return reads == 0 ? 0 : hits / reads;
+	}
+
+	private static int stripe(Object key) {
+		return (key == null ? 0 : key.hashCode() & Integer.MAX_VALUE) % WRITE_STRIPES;
+	}
+
+	/**
+	 * @description the account number and balance column of an account, as read
+	 *              at loadedAt.
+	 */
+	@Getter
+	@AllArgsConstructor
+	public static class Balance {
+		private final Long accountNumber;
+		private final Long balanceAmount;
+		private final long loadedAt;
+
+		Balance(UserAccount userAccount) {
+			this(userAccount.getAccountNumber(), userAccount.getBalanceAmount(), System.nanoTime());
+		}
+	}
+}
@@ -0,0 +1,355 @@
+package com.banking.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.banking.constant.AppConstant;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+
+/**
+ * @description AccountNumberIndex - in memory n-gram index of the savings
+ *              account numbers, for the admin search by part of an account
+ *              number. Each account gets a slot holding its id and number; each
+ *              of the 10000 runs of four digits has the sorted list of the slots
+ *              whose number contains it.
+ *
+ *              A search of four digits or more walks the shortest list of its
+ *              grams, skipping ahead to the next slot found in all the other
+ *              lists, and checks the number itself, until the limit is reached.
+ *              A shorter search matches a large share of the accounts and scans
+ *              the slots until the limit.
+ *
+ *              The index is built when the application is ready, reading the
+ *              accounts in id order in chunks of account.search.load-chunk-size,
+ *              counting the postings of each gram first so each list is
+ *              allocated once. Until it is built the search falls back to the
+ *              database. A registration adds its account once it commits; an
+ *              account committed during the build is added after it.
+ *
+ * @since 18-10-2026
+ */
+@Component
+public class AccountNumberIndex {
+	private static final Logger logger = LoggerFactory.getLogger(AccountNumberIndex.class);
+
+	private static final int GRAM_LENGTH = 4;
+	private static final int GRAMS = 10000;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Value("${account.search.load-chunk-size:100000}")
+	int loadChunkSize;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Guarded by lock.
+	private int[] accountIds = new int[0];
+	private long[] accountNumbers = new long[0];
+	private int size;
+	private int[][] postings = new int[GRAMS][];
+	private int[] postingSizes = new int[GRAMS];
+	private boolean ready;
+	private List<UserAccount> addedWhileBuilding = new ArrayList<>();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildOnStart() {
+		build();
+	}
+
+	/**
+	 * @description build the index from the savings accounts of the database,
+	 *              replacing the current one.
+	 * @return the number of accounts indexed.
+	 */
+	public int build() {
+		long start = System.nanoTime();
+		lock.writeLock().lock();
+		try {
+			ready = false;
+			if (addedWhileBuilding == null) {
+				addedWhileBuilding = new ArrayList<>();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		int[] ids = new int[Math.max(16, loadChunkSize)];
+		long[] numbers = new long[ids.length];
+		int count = 0;
+		int afterId = 0;
+		List<Object[]> chunk;
+		do {
+			chunk = userAccountRepository.findAccountNumbersAfter(afterId, AppConstant.ACCOUNT_TYPE_MORTGAGE,
+					PageRequest.of(0, loadChunkSize));
+			if (count + chunk.size() > ids.length) {
+				ids = Arrays.copyOf(ids, Math.max(ids.length * 2, count + chunk.size()));
+				numbers = Arrays.copyOf(numbers, ids.length);
+			}
+			for (Object[] row : chunk) {
+				ids[count] = (Integer) row[0];
+				numbers[count++] = (Long) row[1];
+			}
+			afterId = count == 0 ? afterId : ids[count - 1];
+		} while (chunk.size() == loadChunkSize);
+
+		// Count the postings first, so each list is allocated at its size.
+		int[] counts = new int[GRAMS];
+		int[] grams = new int[20];
+		for (int slot = 0; slot < count; slot++) {
+			int distinct = distinctGrams(numbers[slot], grams);
+			for (int i = 0; i < distinct; i++) {
+				counts[grams[i]]++;
+			}
+		}
+		int[][] lists = new int[GRAMS][];
+		for (int gram = 0; gram < GRAMS; gram++) {
+			lists[gram] = new int[Math.max(4, counts[gram] + counts[gram] / 8)];
+		}
+		int[] listSizes = new int[GRAMS];
+		for (int slot = 0; slot < count; slot++) {
+			int distinct = distinctGrams(numbers[slot], grams);
+			for (int i = 0; i < distinct; i++) {
+				lists[grams[i]][listSizes[grams[i]]++] = slot;
+			}
+		}
+
+		lock.writeLock().lock();
+		try {
+			accountIds = ids;
+			accountNumbers = numbers;
+			size = count;
+			postings = lists;
+			postingSizes = listSizes;
+			for (UserAccount userAccount : addedWhileBuilding) {
+				if (Arrays.binarySearch(accountIds, 0, count, userAccount.getId()) < 0) {
+					addSlot(userAccount.getId(), userAccount.getAccountNumber());
+				}
+			}
+			addedWhileBuilding = null;
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		logger.info("account number index of {} accounts built in {} ms", size,
+				(System.nanoTime() - start) / 1000000);
+		return size;
+	}
+
+	/**
+	 * @description add the account once the current transaction commits, or
+	 *              now when there is no transaction. Mortgage accounts are not
+	 *              searched and not added.
+	 */
+	public void addAfterCommit(UserAccount userAccount) {
+		if (AppConstant.ACCOUNT_TYPE_MORTGAGE.equalsIgnoreCase(userAccount.getAccountType())) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			add(userAccount);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == TransactionSynchronization.STATUS_COMMITTED) {
+					add(userAccount);
+				}
+			}
+		});
+	}
+
+	private void add(UserAccount userAccount) {
+		lock.writeLock().lock();
+		try {
+			if (addedWhileBuilding != null) {
+				addedWhileBuilding.add(userAccount);
+			} else {
+				addSlot(userAccount.getId(), userAccount.getAccountNumber());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public boolean isReady() {
+		lock.readLock().lock();
+		try {
+			return ready;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @description ids of the savings accounts whose number contains the
+	 *              digits, at most limit, in slot order (id order for the
+	 *              accounts of the last build).
+	 */
+	public List<Integer> search(String digits, int limit) {
+		List<Integer> found = new ArrayList<>();
+		if (!digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+			return found;
+		}
+		lock.readLock().lock();
+		try {
+			if (digits.length() < GRAM_LENGTH) {
+				for (int slot = 0; slot < size && found.size() < limit; slot++) {
+					if (Long.toString(accountNumbers[slot]).contains(digits)) {
+						found.add(accountIds[slot]);
+					}
+				}
+				return found;
+			}
+
+			// The distinct grams of the search, the shortest list first.
+			int[] grams = new int[digits.length()];
+			int distinct = distinctGrams(digits, grams);
+			for (int i = 1; i < distinct; i++) {
+				for (int j = i; j > 0 && postingSizes[grams[j]] < postingSizes[grams[j - 1]]; j--) {
+					int shorter = grams[j];
+					grams[j] = grams[j - 1];
+					grams[j - 1] = shorter;
+				}
+			}
+			int[] positions = new int[distinct];
+
+			int[] shortest = postings[grams[0]];
+			int shortestSize = postingSizes[grams[0]];
+			int i = 0;
+			while (i < shortestSize && found.size() < limit) {
+				int slot = shortest[i];
+				int next = nextCommonSlot(slot, grams, positions, distinct);
+				if (next == slot) {
+					if (Long.toString(accountNumbers[slot]).contains(digits)) {
+						found.add(accountIds[slot]);
+					}
+					i++;
+				} else if (next == Integer.MAX_VALUE) {
+					break;
+				} else {
+					i = seek(shortest, i, shortestSize, next);
+				}
+			}
+			return found;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The slot when it is in the lists of the other grams, else the next
+	 * slot which can be (Integer.MAX_VALUE when there is none). The slots come
+	 * in increasing order, so each list is searched from where the last slot
+	 * was.
+	 */
+	private int nextCommonSlot(int slot, int[] grams, int[] positions, int distinct) {
+		for (int t = 1; t < distinct; t++) {
+			int[] list = postings[grams[t]];
+			int position = seek(list, positions[t], postingSizes[grams[t]], slot);
+			positions[t] = position;
+			if (position == postingSizes[grams[t]]) {
+				return Integer.MAX_VALUE;
+			}
+			if (list[position] != slot) {
+				return list[position];
+			}
+		}
+		return slot;
+	}
+
+	/**
+	 * The position of the first slot not below the given slot, galloping from
+	 * the given position, to when every slot is below.
+	 */
+	private static int seek(int[] list, int from, int to, int slot) {
+		int low = from;
+		int step = 1;
+		while (low + step < to && list[low + step] < slot) {
+			low += step;
+			step <<= 1;
+		}
+		int high = Math.min(low + step, to);
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (list[middle] < slot) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private void addSlot(int accountId, long accountNumber) {
+		if (size == accountIds.length) {
+			accountIds = Arrays.copyOf(accountIds, Math.max(16, size * 2));
+			accountNumbers = Arrays.copyOf(accountNumbers, accountIds.length);
+		}
+		int slot = size++;
+		accountIds[slot] = accountId;
+		accountNumbers[slot] = accountNumber;
+		int[] grams = new int[20];
+		int distinct = distinctGrams(accountNumber, grams);
+		for (int i = 0; i < distinct; i++) {
+			int gram = grams[i];
+			if (postingSizes[gram] == postings[gram].length) {
+				postings[gram] = Arrays.copyOf(postings[gram], postings[gram].length * 2);
+			}
+			postings[gram][postingSizes[gram]++] = slot;
+		}
+	}
+
+	/**
+	 * The distinct grams of the digits, each run of GRAM_LENGTH digits read as
+	 * a number, written into grams. Returns how many there are.
+	 */
+	private static int distinctGrams(String digits, int[] grams) {
+		int distinct = 0;
+		for (int i = 0; i + GRAM_LENGTH <= digits.length(); i++) {
+			int gram = 0;
+			for (int j = i; j < i + GRAM_LENGTH; j++) {
+				gram = gram * 10 + digits.charAt(j) - '0';
+			}
+			distinct = addDistinct(grams, distinct, gram);
+		}
+		return distinct;
+	}
+
+	/**
+	 * The distinct grams of the account number, read from its last digits.
+	 */
+	private static int distinctGrams(long accountNumber, int[] grams) {
+		int distinct = 0;
+		for (long rest = accountNumber; rest >= GRAMS / 10; rest /= 10) {
+			distinct = addDistinct(grams, distinct, (int) (rest % GRAMS));
+		}
+		return distinct;
+	}
+
+	private static int addDistinct(int[] grams, int distinct, int gram) {
+		for (int i = 0; i < distinct; i++) {
+			if (grams[i] == gram) {
+				return distinct;
+			}
+		}
+		grams[distinct] = gram;
+		return distinct + 1;
+	}
+}
@@ -0,0 +1,376 @@
+package com.banking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.UserAccountDto;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+
+/**
+ * @description AccountTypeahead - the savings account numbers starting with the
+ *              digits typed so far, for the typeahead of the branch staff. The
+ *              digit trie of the account numbers is kept flattened: the numbers
+ *              are sorted, so the numbers of each length under a trie node are
+ *              one run of the array, found by binary search. The suggestions of
+ *              a prefix are ranked shortest number first, then by number, so the
+ *              exact match comes first and the top K are the first K numbers of
+ *              the runs read from the shortest length. Each number has the user
+ *              id and the display name of its holder, kept UTF-8 encoded in one
+ *              byte array, so a suggestion does not read the user.
+ *
+ *              It is built when the application is ready, in chunks of
+ *              account.search.load-chunk-size accounts. A registration adds its
+ *              account once it commits, to a sorted map read along with the
+ *              array and merged into it every account.typeahead.merge-threshold
+ *              accounts.
+ *
+ *              Each staff session sends the number of its keystroke; a request
+ *              older than the last keystroke seen from its session is
+ *              superseded and not answered. The last keystroke of at most
+ *              account.typeahead.max-sessions sessions is kept.
+ *
+ * @since 18-10-2026
+ */
+@Component
+public class AccountTypeahead {
+	private static final Logger logger = LoggerFactory.getLogger(AccountTypeahead.class);
+
+	// Longest prefix and account number suggested, so a run bound fits a long.
+	static final int MAX_DIGITS = 18;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Value("${account.search.load-chunk-size:100000}")
+	int loadChunkSize;
+
+	@Value("${account.typeahead.merge-threshold:10000}")
+	int mergeThreshold;
+
+	@Value("${account.typeahead.max-sessions:10000}")
+	int maxSessions;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Guarded by lock, the account numbers in order with their holder.
+	private long[] accountNumbers = new long[0];
+	private int[] userIds = new int[0];
+	private int[] nameOffsets = new int[0];
+	private byte[] names = new byte[0];
+	private int size;
+	private boolean ready;
+	private final TreeMap<Long, UserAccountDto> added = new TreeMap<>();
+
+	// Last keystroke of each session in access order, guarded by itself.
+	private final Map<String, Long> keystrokes = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+			return size() > maxSessions;
+		}
+	};
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildOnStart() {
+		build();
+	}
+
+	/**
+	 * @description build the typeahead from the savings accounts of the
+	 *              database, replacing the current one.
+	 * @return the number of accounts loaded.
+	 */
+	public int build() {
+		long start = System.nanoTime();
+		long[] numbers = new long[Math.max(16, loadChunkSize)];
+		int[] holders = new int[numbers.length];
+		int[] offsets = new int[numbers.length];
+		NameWriter nameWriter = new NameWriter();
+		int count = 0;
+		int afterId = 0;
+		List<Object[]> chunk;
+		do {
+			chunk = userAccountRepository.findAccountHoldersAfter(afterId, AppConstant.ACCOUNT_TYPE_MORTGAGE,
+					PageRequest.of(0, loadChunkSize));
+			if (count + chunk.size() > numbers.length) {
+				numbers = Arrays.copyOf(numbers, Math.max(numbers.length * 2, count + chunk.size()));
+				holders = Arrays.copyOf(holders, numbers.length);
+				offsets = Arrays.copyOf(offsets, numbers.length);
+			}
+			for (Object[] row : chunk) {
+				afterId = (Integer) row[0];
+				Long accountNumber = (Long) row[1];
+				if (accountNumber == null || accountNumber <= 0) {
+					continue;
+				}
+				numbers[count] = accountNumber;
+				holders[count] = row[2] == null ? 0 : (Integer) row[2];
+				offsets[count++] = nameWriter.write(displayName((String) row[3], (String) row[4]));
+			}
+		} while (chunk.size() == loadChunkSize);
+
+		// The numbers are unique, each holder goes where its number is sorted.
+		long[] sorted = Arrays.copyOf(numbers, count);
+		Arrays.parallelSort(sorted);
+		int[] sortedHolders = new int[count];
+		int[] sortedOffsets = new int[count];
+		for (int i = 0; i < count; i++) {
+			int position = Arrays.binarySearch(sorted, numbers[i]);
+			sortedHolders[position] = holders[i];
+			sortedOffsets[position] = offsets[i];
+		}
+
+		lock.writeLock().lock();
+		try {
+			accountNumbers = sorted;
+			userIds = sortedHolders;
+			nameOffsets = sortedOffsets;
+			names = nameWriter.toArray();
+			size = count;
+			added.keySet().removeIf(accountNumber -> Arrays.binarySearch(sorted, accountNumber) >= 0);
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		logger.info("account typeahead of {} accounts built in {} ms", count, (System.nanoTime() - start) / 1000000);
+		return count;
+	}
+
+	/**
+	 * @description add the account of the user once the current transaction
+	 *              commits, or now when there is no transaction. Mortgage
+	 *              accounts are not suggested and not added.
+	 */
+	public void addAfterCommit(UserAccount userAccount, User user) {
+		if (AppConstant.ACCOUNT_TYPE_MORTGAGE.equalsIgnoreCase(userAccount.getAccountType())
+				|| userAccount.getAccountNumber() == null) {
+			return;
+		}
+		UserAccountDto userAccountDto = newSuggestion(userAccount.getAccountNumber(), user.getId(),
+				displayName(user.getFirstName(), user.getLastName()));
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			add(userAccountDto);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == TransactionSynchronization.STATUS_COMMITTED) {
+					add(userAccountDto);
+				}
+			}
+		});
+	}
+
+	private void add(UserAccountDto userAccountDto) {
+		lock.writeLock().lock();
+		try {
+			added.put(userAccountDto.getAccountNumber(), userAccountDto);
+			if (ready && added.size() >= mergeThreshold) {
+				mergeAdded();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public boolean isReady() {
+		lock.readLock().lock();
+		try {
+			return ready;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @description record the keystroke of the session.
+	 * @return false when a later keystroke of the session was already seen, true
+	 *         when there is no session or no keystroke.
+	 */
+	public boolean isLatestKeystroke(String session, Long keystroke) {
+		if (session == null || keystroke == null) {
+			return true;
+		}
+		synchronized (keystrokes) {
+			Long latest = keystrokes.get(session);
+			if (latest != null && latest > keystroke) {
+				return false;
+			}
+			keystrokes.put(session, keystroke);
+			return true;
+		}
+	}
+
+	/**
+	 * @description the savings accounts whose number starts with the prefix, at
+	 *              most limit, shortest number first, then by number. Empty when
+	 *              the prefix is not a number of 1 to MAX_DIGITS digits.
+	 */
+	public List<UserAccountDto> suggest(String prefix, int limit) {
+		List<UserAccountDto> suggestions = new ArrayList<>();
+		if (prefix.isEmpty() || prefix.length() > MAX_DIGITS || prefix.charAt(0) == '0'
+				|| !prefix.chars().allMatch(c -> c >= '0' && c <= '9')) {
+			return suggestions;
+		}
+		long value = Long.parseLong(prefix);
+		lock.readLock().lock();
+		try {
+			// The run of the numbers one digit longer is ten times the run.
+			long low = value;
+			long high = value + 1;
+			for (int length = prefix.length(); length <= MAX_DIGITS && suggestions.size() < limit; length++) {
+				int position = lowerBound(low);
+				Iterator<UserAccountDto> addedRun = added.subMap(low, high).values().iterator();
+				UserAccountDto next = addedRun.hasNext() ? addedRun.next() : null;
+				while (suggestions.size() < limit) {
+					boolean inArray = position < size && accountNumbers[position] < high;
+					if (next != null && (!inArray || next.getAccountNumber() < accountNumbers[position])) {
+						suggestions.add(next);
+						next = addedRun.hasNext() ? addedRun.next() : null;
+					} else if (inArray) {
+						suggestions.add(suggestion(position++));
+					} else {
+						break;
+					}
+				}
+				low *= 10;
+				high *= 10;
+			}
+			return suggestions;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private UserAccountDto suggestion(int position) {
+		int offset = nameOffsets[position];
+		int length = ((names[offset] & 0xff) << 8) | (names[offset + 1] & 0xff);
+		String name = length == 0 ? null : new String(names, offset + 2, length, StandardCharsets.UTF_8);
+		return newSuggestion(accountNumbers[position], userIds[position], name);
+	}
+
+	private int lowerBound(long accountNumber) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (accountNumbers[middle] < accountNumber) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Merges the added accounts into the arrays, the caller holds the write
+	 * lock.
+	 */
+	private void mergeAdded() {
+		NameWriter nameWriter = new NameWriter(names);
+		int total = size + added.size();
+		long[] numbers = new long[total];
+		int[] holders = new int[total];
+		int[] offsets = new int[total];
+		int position = 0;
+		int merged = 0;
+		for (UserAccountDto userAccountDto : added.values()) {
+			while (position < size && accountNumbers[position] < userAccountDto.getAccountNumber()) {
+				numbers[merged] = accountNumbers[position];
+				holders[merged] = userIds[position];
+				offsets[merged++] = nameOffsets[position++];
+			}
+			numbers[merged] = userAccountDto.getAccountNumber();
+			holders[merged] = userAccountDto.getUserId() == null ? 0 : userAccountDto.getUserId();
+			offsets[merged++] = nameWriter.write(userAccountDto.getUserName());
+		}
+		int rest = size - position;
+		System.arraycopy(accountNumbers, position, numbers, merged, rest);
+		System.arraycopy(userIds, position, holders, merged, rest);
+		System.arraycopy(nameOffsets, position, offsets, merged, rest);
+		accountNumbers = numbers;
+		userIds = holders;
+		nameOffsets = offsets;
+		names = nameWriter.toArray();
+		size = total;
+		added.clear();
+	}
+
+	private static UserAccountDto newSuggestion(long accountNumber, Integer userId, String userName) {
+		UserAccountDto userAccountDto = new UserAccountDto();
+		userAccountDto.setAccountNumber(accountNumber);
+		userAccountDto.setUserId(userId == null || userId == 0 ? null : userId);
+		userAccountDto.setAccountType(AppConstant.ACCOUNT_TYPE_SAVINGS);
+		userAccountDto.setUserName(userName);
+		return userAccountDto;
+	}
+
+	private static String displayName(String firstName, String lastName) {
+		if (firstName == null || lastName == null) {
+			return firstName == null ? lastName : firstName;
+		}
+		return firstName.concat(" ").concat(lastName);
+	}
+
+	/**
+	 * Appends the names, each as two bytes of length and its UTF-8 bytes, a
+	 * null name as length 0.
+	 */
+	private static class NameWriter {
+		private byte[] bytes;
+		private int length;
+
+		NameWriter() {
+			this(new byte[1024]);
+		}
+
+		NameWriter(byte[] names) {
+			bytes = Arrays.copyOf(names, Math.max(1024, names.length));
+			length = names.length;
+		}
+
+		int write(String name) {
+			byte[] encoded = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+			int encodedLength = Math.min(encoded.length, 0xffff);
+			if (length + 2 + encodedLength > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 2 + encodedLength));
+			}
+			int offset = length;
+			bytes[length++] = (byte) (encodedLength >>> 8);
+			bytes[length++] = (byte) encodedLength;
+			System.arraycopy(encoded, 0, bytes, length, encodedLength);
+			length += encodedLength;
+			return offset;
+		}
+
+		byte[] toArray() {
+			return Arrays.copyOf(bytes, length);
+		}
+	}
+}
@@ -0,0 +1,315 @@
+package com.banking.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.banking.dto.ArchivedTransaction;
+
+/**
+ * @description ArchiveSegment - immutable, memory mapped file of archived
+ *              ledger rows. The rows are grouped by account, a row is in the
+ *              block of its payer and in the block of its payee, newest first
+ *              by id. Each block is deflated on its own. The index after the
+ *              blocks has one fixed size entry per account, sorted by account
+ *              id: the account, the block offset and lengths, the row count and
+ *              the date and id range of the rows. The footer points at the
+ *              index.
+ *
+ *              A read binary searches the index in the mapped file, skips the
+ *              block when its dates or ids are out of the range asked for, and
+ *              inflates the block of the account only.
+ *
+ *              A segment is written to a temporary file and renamed when
+ *              complete, so an open segment is always whole.
+ *
+ * @since 18-10-2026
+ */
+public class ArchiveSegment {
+
+	private static final int MAGIC = 0x52424131;
+	private static final int HEADER_SIZE = 4;
+	private static final int FOOTER_SIZE = 8 + 4 + 4;
+	private static final int ENTRY_SIZE = 4 + 8 + 4 + 4 + 4 + 4 + 4 + 4 + 4;
+	private static final Comparator<ArchivedTransaction> BY_ID_DESC = Comparator
+			.comparing(ArchivedTransaction::getId).reversed();
+
+	private final Path file;
+	private final MappedByteBuffer buffer;
+	private final long indexOffset;
+	private final int entries;
+
+	private ArchiveSegment(Path file, MappedByteBuffer buffer) {
+		this.file = file;
+		this.buffer = buffer;
+		int footer = buffer.capacity() - FOOTER_SIZE;
+		if (buffer.capacity() < HEADER_SIZE + FOOTER_SIZE || buffer.getInt(0) != MAGIC
+				|| buffer.getInt(footer + 12) != MAGIC) {
+			throw new IllegalStateException("not an archive segment: " + file);
+		}
+		this.indexOffset = buffer.getLong(footer);
+		this.entries = buffer.getInt(footer + 8);
+	}
+
+	/**
+	 * @description map the segment file, read only.
+	 */
+	public static ArchiveSegment open(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new ArchiveSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @description write the rows into a new segment file and open it.
+	 */
+	public static ArchiveSegment write(Path file, Collection<ArchivedTransaction> rows) {
+		Map<Integer, List<ArchivedTransaction>> accounts = new TreeMap<>();
+		for (ArchivedTransaction row : rows) {
+			accounts.computeIfAbsent(row.getUserAccountId(), id -> new ArrayList<>()).add(row);
+			if (!row.getPayeeAccountId().equals(row.getUserAccountId())) {
+				accounts.computeIfAbsent(row.getPayeeAccountId(), id -> new ArrayList<>()).add(row);
+			}
+		}
+
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		Deflater deflater = new Deflater();
+		try (FileOutputStream stream = new FileOutputStream(temporary.toFile());
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+			out.writeInt(MAGIC);
+			ByteArrayOutputStream index = new ByteArrayOutputStream(accounts.size() * ENTRY_SIZE);
+			DataOutputStream indexOut = new DataOutputStream(index);
+			long offset = HEADER_SIZE;
+			for (Map.Entry<Integer, List<ArchivedTransaction>> account : accounts.entrySet()) {
+				List<ArchivedTransaction> accountRows = account.getValue();
+				accountRows.sort(BY_ID_DESC);
+				byte[] raw = encode(accountRows);
+				byte[] compressed = deflate(deflater, raw);
+				out.write(compressed);
+
+				int minEpochDay = Integer.MAX_VALUE;
+				int maxEpochDay = Integer.MIN_VALUE;
+				for (ArchivedTransaction row : accountRows) {
+					int epochDay = (int) row.getTransactionDate().toEpochDay();
+					minEpochDay = Math.min(minEpochDay, epochDay);
+					maxEpochDay = Math.max(maxEpochDay, epochDay);
+				}
+				indexOut.writeInt(account.getKey());
+				indexOut.writeLong(offset);
+				indexOut.writeInt(compressed.length);
+				indexOut.writeInt(raw.length);
+				indexOut.writeInt(accountRows.size());
+				indexOut.writeInt(minEpochDay);
+				indexOut.writeInt(maxEpochDay);
+				indexOut.writeInt(accountRows.get(accountRows.size() - 1).getId());
+				indexOut.writeInt(accountRows.get(0).getId());
+				offset += compressed.length;
+			}
+			index.writeTo(out);
+			out.writeLong(offset);
+			out.writeInt(accounts.size());
+			out.writeInt(MAGIC);
+			if (offset + index.size() + FOOTER_SIZE > Integer.MAX_VALUE) {
+				throw new IllegalStateException("archive segment is too large to map: " + file);
+			}
+			out.flush();
+			stream.getFD().sync();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			deflater.end();
+		}
+
+		try {
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return open(file);
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public long size() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * @description the rows of the account dated from startDate to endDate with
+	 *              an id between afterId and beforeId, both excluded, newest
+	 *              first by id.
+	 */
+	public List<ArchivedTransaction> read(int accountId, LocalDate startDate, LocalDate endDate, int afterId,
+			int beforeId) {
+		List<ArchivedTransaction> rows = new ArrayList<>();
+		int entry = find(accountId);
+		if (entry < 0) {
+			return rows;
+		}
+		int position = (int) (indexOffset + (long) entry * ENTRY_SIZE);
+		int minEpochDay = buffer.getInt(position + 24);
+		int maxEpochDay = buffer.getInt(position + 28);
+		int minId = buffer.getInt(position + 32);
+		int maxId = buffer.getInt(position + 36);
+		if (maxEpochDay < startDate.toEpochDay() || minEpochDay > endDate.toEpochDay() || maxId <= afterId
+				|| minId >= beforeId) {
+			return rows;
+		}
+		readBlock(position, row -> {
+			if (row.getId() > afterId && row.getId() < beforeId && !row.getTransactionDate().isBefore(startDate)
+					&& !row.getTransactionDate().isAfter(endDate)) {
+				rows.add(row);
+			}
+		});
+		return rows;
+	}
+
+	/**
+	 * @description every row of the segment, a row of two accounts once.
+	 */
+	public void readAll(Consumer<ArchivedTransaction> consumer) {
+		for (int entry = 0; entry < entries; entry++) {
+			int position = (int) (indexOffset + (long) entry * ENTRY_SIZE);
+			int accountId = buffer.getInt(position);
+			readBlock(position, row -> {
+				if (row.getUserAccountId() == accountId) {
+					consumer.accept(row);
+				}
+			});
+		}
+	}
+
+	private int find(int accountId) {
+		int low = 0;
+		int high = entries - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleId = buffer.getInt((int) (indexOffset + (long) middle * ENTRY_SIZE));
+			if (middleId < accountId) {
+				low = middle + 1;
+			} else if (middleId > accountId) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	private void readBlock(int position, Consumer<ArchivedTransaction> consumer) {
+		long offset = buffer.getLong(position + 4);
+		byte[] compressed = new byte[buffer.getInt(position + 12)];
+		byte[] raw = new byte[buffer.getInt(position + 16)];
+		int rowCount = buffer.getInt(position + 20);
+		ByteBuffer block = buffer.duplicate();
+		block.position((int) offset);
+		block.get(compressed);
+
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(compressed);
+			if (inflater.inflate(raw) != raw.length) {
+				throw new IllegalStateException("archive segment block is truncated: " + file);
+			}
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+			for (int row = 0; row < rowCount; row++) {
+				consumer.accept(decode(in));
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("archive segment block is corrupt: " + file, e);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static byte[] deflate(Deflater deflater, byte[] raw) {
+		deflater.reset();
+		deflater.setInput(raw);
+		deflater.finish();
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+		byte[] chunk = new byte[8192];
+		while (!deflater.finished()) {
+			compressed.write(chunk, 0, deflater.deflate(chunk));
+		}
+		return compressed.toByteArray();
+	}
+
+	private static byte[] encode(List<ArchivedTransaction> rows) throws IOException {
+		ByteArrayOutputStream raw = new ByteArrayOutputStream(rows.size() * 96);
+		DataOutputStream out = new DataOutputStream(raw);
+		for (ArchivedTransaction row : rows) {
+			out.writeInt(row.getId());
+			writeString(out, row.getTransactionId());
+			out.writeInt(row.getUserAccountId());
+			out.writeInt(row.getPayeeAccountId());
+			writeLong(out, row.getPayeeAccountNumber());
+			writeString(out, row.getPayeeAccountType());
+			writeString(out, row.getPayeeFirstName());
+			writeString(out, row.getPayeeLastName());
+			writeString(out, row.getTransactionType());
+			out.writeInt((int) row.getTransactionDate().toEpochDay());
+			writeLong(out, row.getTransactionAmount());
+			writeLong(out, row.getCurrentBalanceAmount());
+			writeLong(out, row.getPayeeBalanceAmount());
+			writeString(out, row.getRemarks());
+		}
+		return raw.toByteArray();
+	}
+
+	private static ArchivedTransaction decode(DataInputStream in) throws IOException {
+		return new ArchivedTransaction(in.readInt(), readString(in), in.readInt(), in.readInt(), readLong(in),
+				readString(in), readString(in), readString(in), readString(in), LocalDate.ofEpochDay(in.readInt()),
+				readLong(in), readLong(in), readLong(in), readString(in));
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeLong(DataOutputStream out, Long value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeLong(value);
+		}
+	}
+
+	private static Long readLong(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readLong() : null;
+	}
+}
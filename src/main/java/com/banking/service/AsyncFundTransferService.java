@@ -0,0 +1,346 @@
+package com.banking.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.FundTransferResponseDto;
+import com.banking.dto.ResponseDto;
+import com.banking.dto.TransferStatusDto;
+import com.banking.entity.UserTransaction;
+import com.banking.exception.IdempotencyKeyReusedException;
+import com.banking.repository.UserTransactionRepository;
+import com.banking.util.ConverterUtil;
+import com.banking.util.TransactionIdGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import javassist.NotFoundException;
+
+/**
+ * @description AsyncFundTransferService - runs the fund transfers submitted
+ *              with async=true on its own bounded executor, so a slow transfer
+ *              does not hold a request thread. The transaction number is
+ *              assigned when the transfer is accepted and the state of the
+ *              transfer is kept in memory for transfer.async.status-ttl-seconds
+ *              after it has run, at most transfer.async.status-max-entries of
+ *              them. A transfer which is no longer in memory is looked up in the
+ *              ledger.
+ *
+ *              A transfer sent again with the same Idempotency-Key gets the
+ *              transaction number of the first one instead of a new one: the
+ *              state of the first is returned while it is in memory, unless it
+ *              failed, and a transfer recorded for the key in the
+ *              transfer_idempotency table is returned as completed. A key
+ *              reused for a different transfer is rejected.
+ *
+ *              The queue depth, active transfers, queue wait and execution time
+ *              are published as the transfer.async.* meters.
+ *
+ * @since 18-10-2026
+ */
+@Component
+public class AsyncFundTransferService {
+	private static final Logger logger = LoggerFactory.getLogger(AsyncFundTransferService.class);
+
+	@Autowired
+	TransactionIdGenerator transactionIdGenerator;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	IdempotencyStore idempotencyStore;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${transfer.async.pool-size:4}")
+	int poolSize;
+
+	@Value("${transfer.async.queue-capacity:1000}")
+	int queueCapacity;
+
+	@Value("${transfer.async.status-ttl-seconds:3600}")
+	long statusTtlSeconds;
+
+	@Value("${transfer.async.status-max-entries:100000}")
+	int statusMaxEntries;
+
+	private ThreadPoolExecutor executor;
+	private Timer queueWaitTimer;
+	private Timer executionTimer;
+	private Counter rejectedCounter;
+
+	private final ConcurrentHashMap<String, AsyncTransfer> transfers = new ConcurrentHashMap<>();
+
+	// The transfers in memory which were sent with an Idempotency-Key.
+	private final ConcurrentHashMap<String, AsyncTransfer> transfersByKey = new ConcurrentHashMap<>();
+
+	// Transfers in submission order, the finished ones are evicted from the head.
+	private final ConcurrentLinkedQueue<AsyncTransfer> expiryQueue = new ConcurrentLinkedQueue<>();
+
+	@PostConstruct
+	public void start() {
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("fund-transfer-async-"));
+		Gauge.builder("transfer.async.queue.depth", executor, e -> e.getQueue().size())
+				.description("Fund transfers waiting for the async executor").register(meterRegistry);
+		Gauge.builder("transfer.async.active", executor, ThreadPoolExecutor::getActiveCount)
+				.description("Fund transfers running on the async executor").register(meterRegistry);
+		queueWaitTimer = Timer.builder("transfer.async.queue.wait")
+				.description("Time a fund transfer waited in the async queue").register(meterRegistry);
+		executionTimer = Timer.builder("transfer.async.execution")
+				.description("Time to run an async fund transfer").register(meterRegistry);
+		rejectedCounter = Counter.builder("transfer.async.rejected")
+				.description("Fund transfers rejected because the async queue was full").register(meterRegistry);
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		executor.shutdown();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @description accept the fund transfer and run it on the async executor.
+	 * @param fundTransferRequestDto the fund transfer, its transaction id is
+	 *                               assigned here unless its Idempotency-Key was
+	 *                               already sent.
+	 * @param transfer               runs the fund transfer.
+	 * @return the QUEUED state with the transaction number of the transfer, or
+	 *         the state of the transfer first sent with the Idempotency-Key.
+	 * @throws RejectedExecutionException    when the queue is full.
+	 * @throws IdempotencyKeyReusedException when the Idempotency-Key was sent
+	 *                                       with a different fund transfer.
+	 */
+	public TransferStatusDto submit(FundTransferRequestDto fundTransferRequestDto, IdempotencyStore.Transfer transfer) {
+		long now = System.nanoTime();
+		evict(now);
+		String idempotencyKey = fundTransferRequestDto.getIdempotencyKey();
+		String payloadHash = idempotencyKey == null ? null : ConverterUtil.payloadHash(fundTransferRequestDto);
+		if (idempotencyKey != null) {
+			TransferStatusDto replayed = replayed(idempotencyKey, payloadHash);
+			if (replayed != null) {
+				return replayed;
+			}
+		}
+		long transactionId = transactionIdGenerator.nextId();
+		fundTransferRequestDto.setTransactionId(transactionId);
+		AsyncTransfer asyncTransfer = new AsyncTransfer(AppConstant.GET_TRANSACTION_NO_PREFIX + transactionId,
+				idempotencyKey, payloadHash, now);
+		if (idempotencyKey != null) {
+			AsyncTransfer existing = transfersByKey.putIfAbsent(idempotencyKey, asyncTransfer);
+			while (existing != null) {
+				// Sent twice at once, the other one was registered first.
+				if (!AppConstant.TRANSFER_STATE_FAILED.equals(existing.state)) {
+					return existing.replay(payloadHash);
+				}
+				transfersByKey.remove(idempotencyKey, existing);
+				existing = transfersByKey.putIfAbsent(idempotencyKey, asyncTransfer);
+			}
+		}
+		transfers.put(asyncTransfer.transactionNumber, asyncTransfer);
+		expiryQueue.add(asyncTransfer);
+		// Read before it is handed to the executor, which may already run it.
+		TransferStatusDto accepted = asyncTransfer.toStatusDto();
+		try {
+			executor.execute(() -> run(asyncTransfer, transfer));
+		} catch (RejectedExecutionException e) {
+			logger.warn("async fund transfer queue is full, transfer rejected");
+			rejectedCounter.increment();
+			remove(asyncTransfer);
+			expiryQueue.remove(asyncTransfer);
+			throw e;
+		}
+		return accepted;
+	}
+
+	/**
+	 * @description the state of an async fund transfer.
+	 * @param transactionNumber the transaction number returned on submit.
+	 * @return the state, or null when the transfer is neither in memory nor in
+	 *         the ledger.
+	 */
+	public TransferStatusDto getStatus(String transactionNumber) {
+		AsyncTransfer asyncTransfer = transfers.get(transactionNumber);
+		if (asyncTransfer != null) {
+			return asyncTransfer.toStatusDto();
+		}
+		UserTransaction userTransaction = userTransactionRepository.findByTransactionId(transactionNumber);
+		if (userTransaction == null) {
+			return null;
+		}
+		return completed(transactionNumber);
+	}
+
+	int size() {
+		return transfers.size();
+	}
+
+	/**
+	 * @description the state of the transfer already sent with the
+	 *              Idempotency-Key, null when there is none or the one in memory
+	 *              failed, so it is sent again.
+	 */
+	private TransferStatusDto replayed(String idempotencyKey, String payloadHash) {
+		AsyncTransfer existing = transfersByKey.get(idempotencyKey);
+		if (existing != null && !AppConstant.TRANSFER_STATE_FAILED.equals(existing.state)) {
+			return existing.replay(payloadHash);
+		}
+		FundTransferResponseDto committed = idempotencyStore.committedResponse(idempotencyKey, payloadHash);
+		if (committed != null) {
+			logger.info("duplicate async fund transfer request, returning the committed transfer");
+			return completed(committed.getTransactionId());
+		}
+		return null;
+	}
+
+	private static TransferStatusDto completed(String transactionNumber) {
+		TransferStatusDto statusDto = new TransferStatusDto();
+		statusDto.setTransactionId(transactionNumber);
+		statusDto.setState(AppConstant.TRANSFER_STATE_COMPLETED);
+		statusDto.setStatus(AppConstant.SUCCESS);
+		statusDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
+		statusDto.setStatusCode(HttpStatus.OK.value());
+		return statusDto;
+	}
+
+	private void remove(AsyncTransfer asyncTransfer) {
+		transfers.remove(asyncTransfer.transactionNumber, asyncTransfer);
+		if (asyncTransfer.idempotencyKey != null) {
+			transfersByKey.remove(asyncTransfer.idempotencyKey, asyncTransfer);
+		}
+	}
+
+	private void run(AsyncTransfer asyncTransfer, IdempotencyStore.Transfer transfer) {
+		long started = System.nanoTime();
+		queueWaitTimer.record(started - asyncTransfer.submittedAt, TimeUnit.NANOSECONDS);
+		asyncTransfer.state = AppConstant.TRANSFER_STATE_RUNNING;
+		try {
+			asyncTransfer.complete(transfer.execute());
+		} catch (NotFoundException e) {
+			asyncTransfer.fail(e.getMessage(), HttpStatus.NOT_FOUND);
+		} catch (IdempotencyKeyReusedException e) {
+			asyncTransfer.fail(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+		} catch (RuntimeException e) {
+			logger.error("async fund transfer {} failed", asyncTransfer.transactionNumber, e);
+			asyncTransfer.fail(AppConstant.FUND_TRANSFER_ERROR, HttpStatus.INTERNAL_SERVER_ERROR);
+		} finally {
+			long finished = System.nanoTime();
+			executionTimer.record(finished - started, TimeUnit.NANOSECONDS);
+			asyncTransfer.expiresAt = finished + TimeUnit.SECONDS.toNanos(statusTtlSeconds);
+		}
+	}
+
+	private void evict(long now) {
+		AsyncTransfer head;
+		while ((head = expiryQueue.peek()) != null && head.isFinished()
+				&& (head.isExpired(now) || transfers.size() >= statusMaxEntries)) {
+			if (expiryQueue.remove(head)) {
+				remove(head);
+			}
+		}
+	}
+
+	private static class AsyncTransfer {
+		private final String transactionNumber;
+		private final String idempotencyKey;
+		private final String payloadHash;
+		private final long submittedAt;
+		private volatile String state = AppConstant.TRANSFER_STATE_QUEUED;
+		private volatile ResponseDto result;
+		// Set after the transfer has run.
+		private volatile Long expiresAt;
+
+		AsyncTransfer(String transactionNumber, String idempotencyKey, String payloadHash, long submittedAt) {
+			this.transactionNumber = transactionNumber;
+			this.idempotencyKey = idempotencyKey;
+			this.payloadHash = payloadHash;
+			this.submittedAt = submittedAt;
+		}
+
+		/**
+		 * The state of this transfer for a request sent again with its
+		 * Idempotency-Key.
+		 */
+		TransferStatusDto replay(String replayedPayloadHash) {
+			if (!payloadHash.equals(replayedPayloadHash)) {
+				throw new IdempotencyKeyReusedException(AppConstant.IDEMPOTENCY_KEY_REUSED);
+			}
+			logger.info("duplicate async fund transfer request, returning the original transfer");
+			return toStatusDto();
+		}
+
+		void complete(ResponseDto responseDto) {
+			ResponseDto completed = new ResponseDto();
+			if (responseDto.getStatus() == null) {
+				completed.setStatus(AppConstant.FAILURE);
+				completed.setMessage(AppConstant.FUND_TRANSFER_ERROR);
+				completed.setStatusCode(HttpStatus.BAD_REQUEST.value());
+			} else {
+				completed.setStatus(responseDto.getStatus());
+				completed.setMessage(responseDto.getMessage());
+				completed.setStatusCode(AppConstant.SUCCESS.equals(responseDto.getStatus()) ? HttpStatus.OK.value()
+						: HttpStatus.BAD_REQUEST.value());
+			}
+			result = completed;
+			state = AppConstant.TRANSFER_STATE_COMPLETED;
+		}
+
+		void fail(String message, HttpStatus httpStatus) {
+			ResponseDto failed = new ResponseDto();
+			failed.setStatus(AppConstant.FAILURE);
+			failed.setMessage(message);
+			failed.setStatusCode(httpStatus.value());
+			result = failed;
+			state = AppConstant.TRANSFER_STATE_FAILED;
+		}
+
+		boolean isFinished() {
+			return expiresAt != null;
+		}
+
+		boolean isExpired(long now) {
+			return now - expiresAt > 0;
+		}
+
+		TransferStatusDto toStatusDto() {
+			TransferStatusDto statusDto = new TransferStatusDto();
+			statusDto.setTransactionId(transactionNumber);
+			// The state is written after the result, read it first.
+			String currentState = state;
+			ResponseDto responseDto = result;
+			statusDto.setState(currentState);
+			if (AppConstant.TRANSFER_STATE_QUEUED.equals(currentState)
+					|| AppConstant.TRANSFER_STATE_RUNNING.equals(currentState)) {
+				statusDto.setStatus(AppConstant.SUCCESS);
+				statusDto.setMessage(AppConstant.FUND_TRANSFER_ACCEPTED);
+				statusDto.setStatusCode(HttpStatus.ACCEPTED.value());
+			} else {
+				statusDto.setStatus(responseDto.getStatus());
+				statusDto.setMessage(responseDto.getMessage());
+				statusDto.setStatusCode(responseDto.getStatusCode());
+			}
+			return statusDto;
+		}
+	}
+}
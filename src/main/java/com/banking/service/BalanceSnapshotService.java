@@ -0,0 +1,306 @@
+package com.banking.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banking.dto.ArchivedTransaction;
+import com.banking.entity.AccountBalanceSnapshot;
+import com.banking.entity.UserAccount;
+import com.banking.repository.AccountBalanceSnapshotRepository;
+import com.banking.repository.AccountBalanceStripeRepository;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserTransactionRepository;
+
+/**
+ * @description BalanceSnapshotService - end of day balance snapshots of the
+ *              accounts, and the balance of an account as of a past date.
+ *
+ *              Every day at account.balance-snapshot.cron the job snapshots the
+ *              balance of every account at the end of each day since its last
+ *              snapshot, up to yesterday. The accounts are split in chunks of
+ *              account.balance-snapshot.chunk-size, run in parallel on
+ *              account.balance-snapshot.threads threads. A chunk first reads,
+ *              without locks, the net amount of each day since the oldest last
+ *              snapshot of the chunk up to the day before the last day, in two
+ *              grouped queries; no transfer is dated on those days any more.
+ *              Then, in one database transaction, it locks its account rows and
+ *              stripes, reads the last snapshot dates again, so a chunk which
+ *              another run snapshotted meanwhile is not snapshotted twice, reads
+ *              the net amounts of the later days and works the end of day
+ *              balances back from the current balances. The locks are only held
+ *              for the reads of the last days. The first snapshot of an account
+ *              also covers each day of its earlier history with transactions. A
+ *              job which was stopped is restarted by running it again, the
+ *              chunks already committed have nothing left to snapshot.
+ *
+ *              The balance as of a date is the nearest snapshot on or before
+ *              the date plus the transactions after it, at most the days the
+ *              job has not run for yet. The transactions are read from the
+ *              ledger and from the TransactionArchive, so the balance of an
+ *              account without a snapshot is still right for an archived date.
+ *
+ * @since 18-10-2026
+ */
+@Service
+public class BalanceSnapshotService {
+	private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotService.class);
+
+	// Reads the whole ledger of the accounts without a snapshot yet.
+	private static final LocalDate LEDGER_START = LocalDate.of(1970, 1, 1);
+	private static final LocalDate LEDGER_END = LocalDate.of(9999, 12, 31);
+
+	@Autowired
+	AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	AccountBalanceStripeRepository accountBalanceStripeRepository;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	StripedBalanceService stripedBalanceService;
+
+	@Autowired
+	TransactionArchive transactionArchive;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	RetryTemplate fundTransferRetryTemplate;
+
+	@Value("${account.balance-snapshot.chunk-size:500}")
+	int chunkSize;
+
+	@Value("${account.balance-snapshot.threads:4}")
+	int threads;
+
+	/**
+	 * @description snapshot the end of day balances of every account up to
+	 *              yesterday.
+	 * @return the number of snapshots written.
+	 */
+	@Scheduled(cron = "${account.balance-snapshot.cron:0 5 0 * * *}")
+	public int snapshot() throws InterruptedException {
+		return snapshot(LocalDate.now().minusDays(1));
+	}
+
+	/**
+	 * @description snapshot the end of day balances of every account up to the
+	 *              given day.
+	 * @return the number of snapshots written.
+	 */
+	public int snapshot(LocalDate lastDay) throws InterruptedException {
+		List<Integer> accountIds = userAccountRepository.findAllIds();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				new CustomizableThreadFactory("balance-snapshot-"));
+		try {
+			List<Future<Integer>> chunks = new ArrayList<>();
+			for (int from = 0; from < accountIds.size(); from += chunkSize) {
+				List<Integer> chunk = accountIds.subList(from, Math.min(from + chunkSize, accountIds.size()));
+				chunks.add(executor.submit(() -> snapshotChunk(chunk, lastDay, transactionTemplate)));
+			}
+			int snapshots = 0;
+			for (Future<Integer> chunk : chunks) {
+				snapshots += chunk.get();
+			}
+			logger.info("{} end of day balances of {} accounts snapshotted up to {}", snapshots, accountIds.size(),
+					lastDay);
+			return snapshots;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("balance snapshot failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @description the balance of the account at the end of the day.
+	 * @return empty when the account is not found.
+	 */
+	public Optional<Long> getBalanceAsOf(Integer userAccountId, LocalDate asOf) {
+		Optional<AccountBalanceSnapshot> before = accountBalanceSnapshotRepository
+				.findFirstByUserAccountIdAndBalanceDateLessThanEqualOrderByBalanceDateDesc(userAccountId, asOf);
+		if (before.isPresent()) {
+			return Optional.of(before.get().getBalanceAmount()
+					+ sumNetAmountBetween(userAccountId, before.get().getBalanceDate(), asOf));
+		}
+		// Before the first snapshot, or no snapshot yet: work back from the next
+		// balance known.
+		Optional<AccountBalanceSnapshot> after = accountBalanceSnapshotRepository
+				.findFirstByUserAccountIdAndBalanceDateGreaterThanOrderByBalanceDate(userAccountId, asOf);
+		if (after.isPresent()) {
+			return Optional.of(after.get().getBalanceAmount()
+					- sumNetAmountBetween(userAccountId, asOf, after.get().getBalanceDate()));
+		}
+		Optional<UserAccount> userAccount = userAccountRepository.findById(userAccountId);
+		if (!userAccount.isPresent()) {
+			return Optional.empty();
+		}
+		long balanceAmount = userAccount.get().getBalanceAmount();
+		if (stripedBalanceService.isStriped(userAccount.get().getAccountNumber())) {
+			balanceAmount += stripedBalanceService.getUnfoldedBalance(userAccountId);
+		}
+		return Optional.of(balanceAmount - sumNetAmountBetween(userAccountId, asOf, LocalDate.now()));
+	}
+
+	/**
+	 * @description net amount of the account dated after the first date up to
+	 *              the second, in the ledger and in the archive. An archived row
+	 *              which is still in the ledger, when the delete of its chunk
+	 *              failed, is counted once.
+	 */
+	private long sumNetAmountBetween(Integer userAccountId, LocalDate after, LocalDate until) {
+		long netAmount = userTransactionRepository.sumNetAmountBetween(userAccountId, after, until);
+		if (!after.isBefore(until)) {
+			return netAmount;
+		}
+		List<ArchivedTransaction> archived = transactionArchive.read(userAccountId, after.plusDays(1), until, 0,
+				Integer.MAX_VALUE);
+		if (archived.isEmpty()) {
+			return netAmount;
+		}
+		Set<String> inLedger = new HashSet<>(userTransactionRepository.findExistingTransactionIds(
+				archived.stream().map(ArchivedTransaction::getTransactionId).collect(Collectors.toList())));
+		for (ArchivedTransaction row : archived) {
+			if (inLedger.contains(row.getTransactionId())) {
+				continue;
+			}
+			if (userAccountId.equals(row.getPayeeAccountId())) {
+				netAmount += row.getTransactionAmount();
+			}
+			if (userAccountId.equals(row.getUserAccountId())) {
+				netAmount -= row.getTransactionAmount();
+			}
+		}
+		return netAmount;
+	}
+
+	private int snapshotChunk(List<Integer> accountIds, LocalDate lastDay, TransactionTemplate transactionTemplate) {
+		Map<Integer, LocalDate> lastBalanceDates = accountBalanceSnapshotRepository.findLastBalanceDates(accountIds);
+		List<Integer> pending = new ArrayList<>();
+		LocalDate after = lastDay;
+		for (Integer accountId : accountIds) {
+			LocalDate lastBalanceDate = lastBalanceDates.getOrDefault(accountId, LEDGER_START);
+			if (lastBalanceDate.isBefore(lastDay)) {
+				pending.add(accountId);
+				after = lastBalanceDate.isBefore(after) ? lastBalanceDate : after;
+			}
+		}
+		if (pending.isEmpty()) {
+			return 0;
+		}
+
+		// The history before the last days, read without locks in its own
+		// transaction, which may scan the whole ledger of a first snapshot.
+		LocalDate settled = lastDay.minusDays(1);
+		Map<Integer, NavigableMap<LocalDate, Long>> history = new HashMap<>();
+		if (after.isBefore(settled)) {
+			userTransactionRepository.addDailyNetAmounts(history, pending, after, settled);
+		}
+		LocalDate recentAfter = after.isBefore(settled) ? settled : after;
+		return fundTransferRetryTemplate.execute(context -> transactionTemplate
+				.execute(status -> snapshotLocked(pending, lastDay, copy(history), recentAfter)));
+	}
+
+	private int snapshotLocked(List<Integer> pending, LocalDate lastDay,
+			Map<Integer, NavigableMap<LocalDate, Long>> dailyNetAmounts, LocalDate recentAfter) {
+		// Current balances, with the stripes not folded yet. The locks keep the
+		// transfers and the other runs of the chunk out until the snapshots are
+		// written.
+		Map<Integer, Long> balances = new HashMap<>();
+		userAccountRepository.lockBalanceAmountsIn(pending)
+				.forEach(row -> balances.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue()));
+		accountBalanceStripeRepository.lockBalanceAmountsIn(pending).forEach(
+				row -> balances.computeIfPresent(((Number) row[0]).intValue(), (id, balance) -> balance
+						+ ((Number) row[1]).longValue()));
+		// Read again under the locks, another run may have snapshotted the chunk
+		// since the history was read; its dates are only later.
+		Map<Integer, LocalDate> lastBalanceDates = accountBalanceSnapshotRepository.findLastBalanceDates(pending);
+		userTransactionRepository.addDailyNetAmounts(dailyNetAmounts, pending, recentAfter, LEDGER_END);
+
+		List<AccountBalanceSnapshot> snapshots = new ArrayList<>();
+		for (Integer accountId : pending) {
+			Long balance = balances.get(accountId);
+			LocalDate lastBalanceDate = lastBalanceDates.get(accountId);
+			if (balance == null || lastBalanceDate != null && !lastBalanceDate.isBefore(lastDay)) {
+				continue;
+			}
+			NavigableMap<LocalDate, Long> netAmounts = dailyNetAmounts.getOrDefault(accountId,
+					Collections.emptyNavigableMap());
+			TreeSet<LocalDate> balanceDates = new TreeSet<>();
+			if (lastBalanceDate == null) {
+				balanceDates.addAll(netAmounts.headMap(lastDay, true).keySet());
+				balanceDates.add(lastDay);
+			} else {
+				for (LocalDate day = lastBalanceDate.plusDays(1); !day.isAfter(lastDay); day = day.plusDays(1)) {
+					balanceDates.add(day);
+				}
+			}
+
+			// Newest first, undo the days after each balance date.
+			Iterator<Map.Entry<LocalDate, Long>> later = netAmounts.descendingMap().entrySet().iterator();
+			Map.Entry<LocalDate, Long> next = later.hasNext() ? later.next() : null;
+			for (LocalDate balanceDate : balanceDates.descendingSet()) {
+				while (next != null && next.getKey().isAfter(balanceDate)) {
+					balance -= next.getValue();
+					next = later.hasNext() ? later.next() : null;
+				}
+				snapshots.add(newSnapshot(accountId, balanceDate, balance));
+			}
+		}
+		accountBalanceSnapshotRepository.saveAll(snapshots);
+		return snapshots.size();
+	}
+
+	/**
+	 * @description a copy of the daily net amounts, each attempt of the locked
+	 *              transaction adds its own reads to it.
+	 */
+	private static Map<Integer, NavigableMap<LocalDate, Long>> copy(
+			Map<Integer, NavigableMap<LocalDate, Long>> dailyNetAmounts) {
+		Map<Integer, NavigableMap<LocalDate, Long>> copy = new HashMap<>();
+		dailyNetAmounts.forEach((accountId, netAmounts) -> copy.put(accountId, new TreeMap<>(netAmounts)));
+		return copy;
+	}
+
+	private AccountBalanceSnapshot newSnapshot(Integer userAccountId, LocalDate balanceDate, long balanceAmount) {
+		AccountBalanceSnapshot snapshot = new AccountBalanceSnapshot();
+		snapshot.setUserAccountId(userAccountId);
+		snapshot.setBalanceDate(balanceDate);
+		snapshot.setBalanceAmount(balanceAmount);
+		return snapshot;
+	}
+}
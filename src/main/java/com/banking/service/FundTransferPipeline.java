@@ -0,0 +1,210 @@
+package com.banking.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.BatchFundTransferResponseDto;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.FundTransferResponseDto;
+import com.banking.dto.ResponseDto;
+
+import javassist.NotFoundException;
+
+/**
+ * @description FundTransferPipeline - group commit of the fund transfers,
+ *              enabled with transfer.pipeline.enabled=true. The transfers are
+ *              put into a bounded queue and a single writer thread collects
+ *              them for transfer.pipeline.window-ms (1 to 5 ms), then commits
+ *              the whole group in one database transaction through the batch
+ *              fund transfer. The future of a transfer is completed only after
+ *              its group is committed.
+ *
+ *              A transfer is validated before it joins a group, an invalid one
+ *              fails straight away. When a group still fails to commit, its
+ *              transfers are committed one by one, so only the failing transfer
+ *              fails.
+ *
+ * @since 18-10-2026
+ */
+@Component
+@ConditionalOnProperty(name = "transfer.pipeline.enabled", havingValue = "true")
+public class FundTransferPipeline {
+	private static final Logger logger = LoggerFactory.getLogger(FundTransferPipeline.class);
+
+	@Autowired
+	UserTransactionService userTransactionService;
+
+	@Autowired
+	RetryTemplate fundTransferRetryTemplate;
+
+	@Autowired
+	Validator validator;
+
+	@Value("${transfer.pipeline.window-ms:2}")
+	long windowMillis;
+
+	@Value("${transfer.pipeline.max-group-size:500}")
+	int maxGroupSize;
+
+	@Value("${transfer.pipeline.queue-capacity:10000}")
+	int queueCapacity;
+
+	private BlockingQueue<PendingTransfer> queue;
+	private Thread writer;
+	private volatile boolean running;
+
+	@PostConstruct
+	public void start() {
+		if (windowMillis < 1 || windowMillis > 5) {
+			throw new IllegalArgumentException("transfer.pipeline.window-ms must be between 1 and 5");
+		}
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		running = true;
+		writer = new Thread(this::drain, "fund-transfer-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		if (writer == null) {
+			return;
+		}
+		running = false;
+		writer.join(TimeUnit.SECONDS.toMillis(5));
+		List<PendingTransfer> remaining = new ArrayList<>();
+		queue.drainTo(remaining);
+		remaining.forEach(pending -> pending.future.complete(rejected()));
+	}
+
+	/**
+	 * @description queue the fund transfer for the next group commit.
+	 * @param fundTransferRequestDto the fund transfer.
+	 * @return future of the transfer result, completed after the commit. It
+	 *         completes with NotFoundException when an account is not found,
+	 *         and with a 400 failure when the transfer is invalid.
+	 */
+	public CompletableFuture<ResponseDto> submit(FundTransferRequestDto fundTransferRequestDto) {
+		PendingTransfer pending = new PendingTransfer(fundTransferRequestDto);
+		Set<ConstraintViolation<FundTransferRequestDto>> violations = validator.validate(fundTransferRequestDto);
+		if (!violations.isEmpty()) {
+			pending.future.complete(invalid(violations));
+		} else if (!running || !queue.offer(pending)) {
+			logger.warn("fund transfer pipeline is full, transfer rejected");
+			pending.future.complete(rejected());
+		}
+		return pending.future;
+	}
+
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	private void drain() {
+		while (running) {
+			try {
+				PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					commit(collectGroup(first));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private List<PendingTransfer> collectGroup(PendingTransfer first) throws InterruptedException {
+		List<PendingTransfer> group = new ArrayList<>();
+		group.add(first);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		while (group.size() < maxGroupSize) {
+			long remaining = deadline - System.nanoTime();
+			PendingTransfer next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+			if (next == null) {
+				break;
+			}
+			group.add(next);
+		}
+		return group;
+	}
+
+	private void commit(List<PendingTransfer> group) {
+		logger.debug("committing a group of {} fund transfers", group.size());
+		List<FundTransferRequestDto> requests = group.stream().map(pending -> pending.request)
+				.collect(Collectors.toList());
+		try {
+			BatchFundTransferResponseDto response = fundTransferRetryTemplate
+					.execute(context -> userTransactionService.batchFundTransfer(requests));
+			for (int i = 0; i < group.size(); i++) {
+				CompletableFuture<ResponseDto> future = group.get(i).future;
+				if (response.getTransfers() == null) {
+					future.complete(response);
+					continue;
+				}
+				FundTransferResponseDto result = response.getTransfers().get(i);
+				if (result.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+					future.completeExceptionally(new NotFoundException(result.getMessage()));
+				} else {
+					future.complete(result);
+				}
+			}
+		} catch (RuntimeException e) {
+			if (group.size() > 1) {
+				logger.warn("fund transfer group commit failed, committing its {} transfers one by one",
+						group.size(), e);
+				group.forEach(pending -> commit(Collections.singletonList(pending)));
+				return;
+			}
+			logger.error("fund transfer commit failed", e);
+			group.forEach(pending -> pending.future.completeExceptionally(e));
+		}
+	}
+
+	private ResponseDto invalid(Set<ConstraintViolation<FundTransferRequestDto>> violations) {
+		ResponseDto responseDto = new ResponseDto();
+		responseDto.setStatus(AppConstant.FAILURE);
+		responseDto.setMessage(violations.stream().map(ConstraintViolation::getMessage).sorted()
+				.collect(Collectors.joining(", ")));
+		responseDto.setStatusCode(HttpStatus.BAD_REQUEST.value());
+		return responseDto;
+	}
+
+	private ResponseDto rejected() {
+		ResponseDto responseDto = new ResponseDto();
+		responseDto.setStatus(AppConstant.FAILURE);
+		responseDto.setMessage(AppConstant.FUND_TRANSFER_ERROR);
+		return responseDto;
+	}
+
+	private static class PendingTransfer {
+		private final FundTransferRequestDto request;
+		private final CompletableFuture<ResponseDto> future = new CompletableFuture<>();
+
+		PendingTransfer(FundTransferRequestDto request) {
+			this.request = request;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package com.banking.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.FundTransferResponseDto;
+import com.banking.dto.ResponseDto;
+import com.banking.dto.TransferIdempotency;
+import com.banking.exception.IdempotencyKeyReusedException;
+import com.banking.repository.UserTransactionRepository;
+
+import javassist.NotFoundException;
+
+/**
+ * @description IdempotencyStore - remembers the response of each fund transfer
+ *              sent with an Idempotency-Key header, so a retried request gets
+ *              the original response instead of a second debit. The responses
+ *              are kept in memory for transfer.idempotency.ttl-seconds, at most
+ *              transfer.idempotency.max-entries of them; a request which is
+ *              still running is never evicted. A duplicate which arrives while
+ *              the first request is still running waits for its result.
+ *
+ *              The SHA-256 of the transfer is kept with its key, a key reused
+ *              for a different transfer is rejected with
+ *              IdempotencyKeyReusedException instead of getting the response
+ *              of the first transfer.
+ *
+ *              The key and hash are also recorded in the transfer_idempotency
+ *              table, in the transaction of the transfer, so a key which is no
+ *              longer in memory (evicted, restarted or sent to another node) is
+ *              still transferred once and answered with its transaction
+ *              number. The table is not partitioned, its primary key
+ *              holds on either side of midnight, unlike the unique keys of the
+ *              partitioned ledger.
+ *
+ * @since 18-10-2026
+ */
+@Component
+public class IdempotencyStore {
+	private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Value("${transfer.idempotency.ttl-seconds:86400}")
+	long ttlSeconds;
+
+	@Value("${transfer.idempotency.max-entries:100000}")
+	int maxEntries;
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	// Entries in insertion order, which is also the expiry order.
+	private final ConcurrentLinkedQueue<Entry> expiryQueue = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * @description run the fund transfer once for the idempotency key.
+	 * @param idempotencyKey the Idempotency-Key header of the request.
+	 * @param payloadHash    the hash of the fund transfer, see
+	 *                       ConverterUtil.payloadHash.
+	 * @param transfer       the fund transfer.
+	 * @return the response of the first request with this key.
+	 * @throws NotFoundException             when the first request failed with
+	 *                                       it. A failed request is not
+	 *                                       remembered, so it can be retried.
+	 * @throws IdempotencyKeyReusedException when the key was used for a
+	 *                                       different fund transfer.
+	 */
+	public ResponseDto execute(String idempotencyKey, String payloadHash, Transfer transfer)
+			throws NotFoundException {
+		long now = System.nanoTime();
+		evict(now);
+		Entry entry = new Entry(idempotencyKey, payloadHash, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+		Entry existing;
+		while ((existing = entries.putIfAbsent(idempotencyKey, entry)) != null) {
+			if (!existing.isExpired(now) || !existing.future.isDone()) {
+				if (!existing.payloadHash.equals(payloadHash)) {
+					throw new IdempotencyKeyReusedException(AppConstant.IDEMPOTENCY_KEY_REUSED);
+				}
+				logger.info("duplicate fund transfer request, returning the original response");
+				return await(existing.future);
+			}
+			entries.remove(idempotencyKey, existing);
+		}
+		expiryQueue.add(entry);
+
+		try {
+			ResponseDto responseDto = committedResponse(idempotencyKey, payloadHash);
+			if (responseDto == null) {
+				responseDto = executeOnce(idempotencyKey, payloadHash, transfer);
+			}
+			entry.future.complete(responseDto);
+			return responseDto;
+		} catch (NotFoundException | RuntimeException e) {
+			entries.remove(idempotencyKey, entry);
+			entry.future.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	private ResponseDto executeOnce(String idempotencyKey, String payloadHash, Transfer transfer)
+			throws NotFoundException {
+		try {
+			return transfer.execute();
+		} catch (DataIntegrityViolationException e) {
+			// Another node committed the same key first, the unique column
+			// rolled this transfer back.
+			ResponseDto responseDto = committedResponse(idempotencyKey, payloadHash);
+			if (responseDto == null) {
+				throw e;
+			}
+			return responseDto;
+		}
+	}
+
+	/**
+	 * @description the response of the transfer recorded for the key, with its
+	 *              transaction number, null when the key is not recorded.
+	 * @throws IdempotencyKeyReusedException when the key was recorded for a
+	 *                                       different fund transfer.
+	 */
+	FundTransferResponseDto committedResponse(String idempotencyKey, String payloadHash) {
+		TransferIdempotency transferIdempotency = userTransactionRepository.findTransferIdempotency(idempotencyKey);
+		if (transferIdempotency == null) {
+			return null;
+		}
+		if (transferIdempotency.getPayloadHash() != null
+				&& !transferIdempotency.getPayloadHash().equals(payloadHash)) {
+			throw new IdempotencyKeyReusedException(AppConstant.IDEMPOTENCY_KEY_REUSED);
+		}
+		FundTransferResponseDto responseDto = new FundTransferResponseDto();
+		responseDto.setStatus(AppConstant.SUCCESS);
+		responseDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
+		responseDto.setTransactionId(transferIdempotency.getTransactionId());
+		return responseDto;
+	}
+
+	/**
+	 * @description evict the expired entries, and the oldest ones while there are
+	 *              too many. A request which is still running is moved to the
+	 *              tail instead, its duplicates must keep waiting for it.
+	 */
+	private void evict(long now) {
+		Entry head;
+		Entry firstRunning = null;
+		while ((head = expiryQueue.peek()) != null && head != firstRunning
+				&& (head.isExpired(now) || entries.size() >= maxEntries)) {
+			if (!expiryQueue.remove(head)) {
+				continue;
+			}
+			if (head.future.isDone()) {
+				entries.remove(head.key, head);
+			} else {
+				expiryQueue.add(head);
+				if (firstRunning == null) {
+					firstRunning = head;
+				}
+			}
+		}
+	}
+
+	private ResponseDto await(CompletableFuture<ResponseDto> future) throws NotFoundException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new ResponseDto();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof NotFoundException) {
+				throw (NotFoundException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * @description the fund transfer run for a new idempotency key.
+	 */
+	@FunctionalInterface
+	public interface Transfer {
+		ResponseDto execute() throws NotFoundException;
+	}
+
+	private static class Entry {
+		private final String key;
+		private final String payloadHash;
+		private final long expiresAt;
+		private final CompletableFuture<ResponseDto> future = new CompletableFuture<>();
+
+		Entry(String key, String payloadHash, long expiresAt) {
+			this.key = key;
+			this.payloadHash = payloadHash;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(long now) {
+			return now - expiresAt > 0;
+		}
+	}
+}
@@ -0,0 +1,726 @@
+package com.banking.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.BatchFundTransferResponseDto;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.FundTransferResponseDto;
+import com.banking.dto.ResponseDto;
+import com.banking.dto.UserTransactionResponseDto;
+import com.banking.entity.UserAccount;
+import com.banking.entity.UserTransaction;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserTransactionRepository;
+import com.banking.util.ConverterUtil;
+import com.banking.util.RunningBalances;
+import com.banking.util.TransactionIdGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import javassist.NotFoundException;
+
+/**
+ * @description LedgerEngineTransactionService - in memory ledger engine for the
+ *              highest volume tier, enabled with ledger.engine.enabled=true. The
+ *              balances are kept in primitive arrays (minor units) owned by a
+ *              single writer thread, so a transfer needs no lock and no database
+ *              round trip. Every transfer is appended to the memory mapped
+ *              journal, and the journal is forced once per group, before the
+ *              transfers of the group are acknowledged. When the force fails
+ *              the records which are not forced are rewound and their balances
+ *              undone, so the FAILURE returned for them is true.
+ *
+ *              A sync thread applies the journal to MySQL in chunks and moves
+ *              the journal checkpoint after each commit. On restart the records
+ *              after the checkpoint which are already in the database are
+ *              skipped and the rest are replayed into the balances. A record
+ *              the database refuses for good (a non transient error, such as a
+ *              constraint violation) is parked: appended to the parked file,
+ *              logged and counted in ledger.engine.sync.parked, so the records
+ *              after it still sync. The balances in the engine include a parked
+ *              record, it must be posted by hand.
+ *
+ *              An account is loaded into a slot on its first transfer. The
+ *              caller reads it from the database before queueing the transfer,
+ *              so the writer thread never waits on the database; the balance of
+ *              a striped account includes its unfolded stripe credits, which the
+ *              fold later moves into the balance column without changing the
+ *              total.
+ *
+ *              The engine must be the only writer of the balances of the
+ *              accounts it has loaded: run it on a single node, with every fund
+ *              transfer going through it. Mortgage creation only inserts new
+ *              accounts and the stripe fold keeps the total balance, so both are
+ *              safe; no other write path may change an account balance while
+ *              the engine is enabled.
+ *
+ *              The balances in MySQL and the transaction history lag behind the
+ *              engine by the sync interval. History reads are served by
+ *              UserTransactionServiceImpl.
+ *
+ * @since 18-10-2026
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "ledger.engine.enabled", havingValue = "true")
+public class LedgerEngineTransactionService implements UserTransactionService {
+	private static final Logger logger = LoggerFactory.getLogger(LedgerEngineTransactionService.class);
+
+	private static final int NOT_FOUND = -1;
+	private static final long NOT_APPENDED = -1;
+
+	@Autowired
+	UserTransactionServiceImpl userTransactionServiceImpl;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	TransactionIdGenerator transactionIdGenerator;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	RecentTransactionCache recentTransactionCache;
+
+	@Autowired
+	AccountBalanceCache accountBalanceCache;
+
+	@Autowired
+	StripedBalanceService stripedBalanceService;
+
+	@Value("${ledger.engine.journal-file:ledger.journal}")
+	String journalFile;
+
+	@Value("${ledger.engine.journal-size-mb:64}")
+	int journalSizeMb;
+
+	@Value("${ledger.engine.journal-sync:true}")
+	boolean journalSync;
+
+	@Value("${ledger.engine.queue-capacity:65536}")
+	int queueCapacity;
+
+	@Value("${ledger.engine.sync-interval-ms:50}")
+	long syncIntervalMillis;
+
+	@Value("${ledger.engine.sync-chunk-size:500}")
+	int syncChunkSize;
+
+	@Value("${ledger.engine.parked-file:ledger.parked}")
+	String parkedFile;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	// Account slots, written by the writer thread only. The callers check them
+	// to load a missing account before queueing its transfer.
+	private final Map<Integer, Integer> slotsById = new ConcurrentHashMap<>();
+	private final Map<Long, Integer> slotsByAccountNumber = new ConcurrentHashMap<>();
+	// Written by the writer thread, read by the sync thread.
+	private final Map<Integer, String> accountTypesById = new ConcurrentHashMap<>();
+	private int[] accountIds = new int[1024];
+	private long[] balances = new long[1024];
+	private long[] minimumBalances = new long[1024];
+	private int accounts;
+
+	private TransactionTemplate loadTemplate;
+	private LedgerJournal journal;
+	private BlockingQueue<PendingTransfer> queue;
+	private Thread writer;
+	private Thread sync;
+	private volatile boolean running;
+	private Counter parkedCounter;
+
+	@PostConstruct
+	public void start() {
+		loadTemplate = new TransactionTemplate(transactionManager);
+		loadTemplate.setReadOnly(true);
+		parkedCounter = Counter.builder("ledger.engine.sync.parked")
+				.description("Ledger journal records the database refused, parked for a manual post")
+				.register(meterRegistry);
+		journal = openJournal();
+		recover();
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		running = true;
+		writer = new Thread(this::write, "ledger-engine-writer");
+		sync = new Thread(this::syncJournal, "ledger-engine-sync");
+		writer.setDaemon(true);
+		sync.setDaemon(true);
+		writer.start();
+		sync.start();
+	}
+
+	LedgerJournal openJournal() {
+		return new LedgerJournal(Paths.get(journalFile), journalSizeMb * 1024 * 1024, journalSync);
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException, IOException {
+		if (writer == null) {
+			return;
+		}
+		running = false;
+		writer.join(TimeUnit.SECONDS.toMillis(5));
+		// The writer may still wait for room in the journal.
+		writer.interrupt();
+		sync.join(TimeUnit.SECONDS.toMillis(30));
+		journal.close();
+	}
+
+	@Override
+	public ResponseDto fundTransfer(FundTransferRequestDto fundTransferRequestDto) throws NotFoundException {
+		return await(submit(fundTransferRequestDto));
+	}
+
+	@Override
+	public BatchFundTransferResponseDto batchFundTransfer(List<FundTransferRequestDto> fundTransferRequestDtos) {
+		List<CompletableFuture<FundTransferResponseDto>> futures = fundTransferRequestDtos.stream().map(this::submit)
+				.collect(Collectors.toList());
+		List<FundTransferResponseDto> results = new ArrayList<>();
+		for (CompletableFuture<FundTransferResponseDto> future : futures) {
+			try {
+				results.add(await(future));
+			} catch (NotFoundException e) {
+				FundTransferResponseDto result = new FundTransferResponseDto();
+				setTransferResult(result, AppConstant.FAILURE, e.getMessage(), HttpStatus.NOT_FOUND);
+				results.add(result);
+			}
+		}
+		BatchFundTransferResponseDto batchResponseDto = new BatchFundTransferResponseDto();
+		batchResponseDto.setTransfers(results);
+		batchResponseDto.setStatus(AppConstant.SUCCESS);
+		batchResponseDto.setMessage(AppConstant.BATCH_FUND_TRANSFER_PROCESSED);
+		batchResponseDto.setStatusCode(HttpStatus.OK.value());
+		return batchResponseDto;
+	}
+
+	@Override
+	public UserTransactionResponseDto findUserTransactionsByMonth(Integer userAccountId, Integer month, Integer year,
+			String after, Integer limit) {
+		return userTransactionServiceImpl.findUserTransactionsByMonth(userAccountId, month, year, after, limit);
+	}
+
+	@Override
+	public UserTransactionResponseDto findRecentFiveTransactions(Integer userAccountId) {
+		return userTransactionServiceImpl.findRecentFiveTransactions(userAccountId);
+	}
+
+	@Override
+	public UserTransactionResponseDto findMortgageTransactions(Integer userAccountId, String after, Integer limit) {
+		return userTransactionServiceImpl.findMortgageTransactions(userAccountId, after, limit);
+	}
+
+	/**
+	 * @description test support - balance of the account in the engine, in minor
+	 *              units, read on the writer thread.
+	 * @return empty when the account is not found.
+	 * @throws IllegalStateException when the engine rejects the read.
+	 */
+	Optional<Long> getBalance(Integer accountId) {
+		CompletableFuture<Optional<Long>> future = new CompletableFuture<>();
+		UserAccount loaded = slotsById.containsKey(accountId) ? null
+				: loadAccount(() -> userAccountRepository.findById(accountId));
+		enqueue(new PendingTransfer(null, null) {
+			@Override
+			void run() {
+				int slot = slotById(accountId, loaded);
+				future.complete(slot == NOT_FOUND ? Optional.empty() : Optional.of(balances[slot]));
+			}
+
+			@Override
+			void reject() {
+				future.completeExceptionally(new IllegalStateException("ledger engine rejected the balance read"));
+			}
+		});
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			throw (IllegalStateException) e.getCause();
+		}
+	}
+
+	private CompletableFuture<FundTransferResponseDto> submit(FundTransferRequestDto fundTransferRequestDto) {
+		CompletableFuture<FundTransferResponseDto> future = new CompletableFuture<>();
+		PendingTransfer pending = new PendingTransfer(fundTransferRequestDto, future);
+		Integer accountId = fundTransferRequestDto.getAccountId();
+		if (accountId != null && !slotsById.containsKey(accountId)) {
+			pending.payer = loadAccount(() -> userAccountRepository.findById(accountId));
+		}
+		Long payeeAccountNumber = payeeAccountNumber(fundTransferRequestDto);
+		if (payeeAccountNumber != null && !slotsByAccountNumber.containsKey(payeeAccountNumber)) {
+			pending.payee = loadAccount(() -> userAccountRepository.findByAccountNumber(payeeAccountNumber));
+		}
+		enqueue(pending);
+		return future;
+	}
+
+	private void enqueue(PendingTransfer pending) {
+		if (!running || !queue.offer(pending)) {
+			logger.warn("ledger engine queue is full, transfer rejected");
+			pending.reject();
+		}
+	}
+
+	private FundTransferResponseDto await(CompletableFuture<FundTransferResponseDto> future)
+			throws NotFoundException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return rejected();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof NotFoundException) {
+				throw (NotFoundException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * @description writer thread - applies the queued transfers one after the
+	 *              other, appends them to the journal, forces the journal once
+	 *              for the group and then acknowledges the whole group. After a
+	 *              failed force only the transfers whose record was forced before
+	 *              are acknowledged, the others are rejected.
+	 */
+	private void write() {
+		List<PendingTransfer> group = new ArrayList<>();
+		while (running || !queue.isEmpty()) {
+			try {
+				PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				group.add(first);
+				queue.drainTo(group);
+				group.forEach(PendingTransfer::run);
+				long firstDropped = force(group);
+				for (PendingTransfer pending : group) {
+					if (firstDropped == NOT_APPENDED || pending.isForcedBefore(firstDropped)) {
+						pending.acknowledge();
+					} else {
+						pending.reject();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				queue.drainTo(group);
+				group.forEach(PendingTransfer::reject);
+				return;
+			}
+			group.clear();
+		}
+	}
+
+	/**
+	 * @description force the journal for the group. When the force fails the
+	 *              records after the last successful force are rewound and the
+	 *              balances of their transfers undone, the sync has not read
+	 *              them.
+	 * @return NOT_APPENDED when the force succeeded, else the sequence of the
+	 *         first record dropped.
+	 */
+	private long force(List<PendingTransfer> group) {
+		try {
+			journal.force();
+			return NOT_APPENDED;
+		} catch (RuntimeException e) {
+			logger.error("ledger journal force failed, the transfers not forced are undone", e);
+			long firstDropped = journal.rewindUnforced();
+			for (PendingTransfer pending : group) {
+				if (pending.sequence >= firstDropped) {
+					balances[pending.slot] += pending.amount;
+					balances[pending.payeeSlot] -= pending.amount;
+				}
+			}
+			return firstDropped;
+		}
+	}
+
+	private FundTransferResponseDto transfer(PendingTransfer pending) throws NotFoundException, InterruptedException {
+		FundTransferRequestDto request = pending.request;
+		UserAccount payer = pending.payer;
+		UserAccount payee = pending.payee;
+		Long payeeAccountNumber = payeeAccountNumber(request);
+		int slot = slotById(request.getAccountId(), payer);
+		int payeeSlot = payeeAccountNumber == null ? NOT_FOUND : slotByAccountNumber(payeeAccountNumber, payee);
+		if (slot == NOT_FOUND || payeeSlot == NOT_FOUND) {
+			throw new NotFoundException(AppConstant.NO_ACCOUNTS_FOUND);
+		}
+
+		FundTransferResponseDto result = new FundTransferResponseDto();
+		long amount = request.getTransferAmount().getMinorUnits();
+		if (balances[slot] - amount < minimumBalances[slot]) {
+			setTransferResult(result, AppConstant.FAILURE, AppConstant.FUND_TRANSFER_MIN_BAL, HttpStatus.BAD_REQUEST);
+			return result;
+		}
+
+		long transactionId = request.getTransactionId() != null ? request.getTransactionId()
+				: transactionIdGenerator.nextId();
+		String payloadHash = request.getIdempotencyKey() == null ? null : ConverterUtil.payloadHash(request);
+		LedgerRecord record = new LedgerRecord(accountIds[slot], accountIds[payeeSlot], amount, transactionId,
+				(int) LocalDate.now().toEpochDay(), request.getRemarks(), request.getIdempotencyKey(), payloadHash,
+				0, 0);
+		pending.sequence = journal.append(record);
+		pending.slot = slot;
+		pending.payeeSlot = payeeSlot;
+		pending.amount = amount;
+		balances[slot] -= amount;
+		balances[payeeSlot] += amount;
+
+		setTransferResult(result, AppConstant.SUCCESS, AppConstant.FUND_TRANSFER_SUCCESS, HttpStatus.OK);
+		result.setTransactionId(AppConstant.GET_TRANSACTION_NO_PREFIX + transactionId);
+		return result;
+	}
+
+	/**
+	 * @description sync thread - applies the journal to the database, a chunk of
+	 *              records per database transaction, and moves the checkpoint
+	 *              after each commit. The balances of the ledger rows are worked
+	 *              back from the account balances after the chunk. A chunk the
+	 *              database refuses for good is applied again one record at a
+	 *              time, and the records it still refuses are parked. Any other
+	 *              failure is retried.
+	 */
+	private void syncJournal() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		while (running || !journal.isApplied()) {
+			try {
+				List<LedgerRecord> records = journal.readPending(syncChunkSize);
+				if (records.isEmpty()) {
+					TimeUnit.MILLISECONDS.sleep(syncIntervalMillis);
+					continue;
+				}
+				try {
+					apply(transactionTemplate, records);
+				} catch (NonTransientDataAccessException e) {
+					logger.warn("ledger journal chunk refused, applying its records one at a time", e);
+					for (LedgerRecord record : records) {
+						try {
+							apply(transactionTemplate, Collections.singletonList(record));
+						} catch (NonTransientDataAccessException refused) {
+							park(record, refused);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				if (!running) {
+					logger.error("ledger journal sync failed, the journal is replayed on the next start", e);
+					return;
+				}
+				logger.error("ledger journal sync failed, retrying", e);
+				sleepQuietly();
+			}
+		}
+	}
+
+	/**
+	 * @description post the records in one database transaction, then move the
+	 *              checkpoint past them.
+	 */
+	private void apply(TransactionTemplate transactionTemplate, List<LedgerRecord> records) {
+		List<UserTransaction> transactions = records.stream().map(this::toUserTransaction)
+				.collect(Collectors.toList());
+		Set<Integer> accountIds = records.stream()
+				.flatMap(record -> Stream.of(record.getAccountId(), record.getPayeeAccountId()))
+				.collect(Collectors.toSet());
+		transactionTemplate.execute(status -> {
+			userTransactionRepository.postDebits(transactions);
+			userTransactionRepository.creditBalances(transactions);
+			RunningBalances.assign(transactions, userAccountRepository.findBalanceAmountsById(accountIds),
+					stripedBalanceService::isStripedAccount);
+			return userTransactionRepository.insertTransactions(transactions);
+		});
+		recentTransactionCache.evict(accountIds);
+		accountBalanceCache.evict(accountIds, Collections.emptySet());
+		journal.checkpoint(records.get(records.size() - 1));
+	}
+
+	/**
+	 * @description append a record the database refuses to the parked file and
+	 *              move the checkpoint past it. When the file cannot be written
+	 *              the record is not checkpointed and the sync retries it.
+	 */
+	private void park(LedgerRecord record, RuntimeException cause) {
+		String line = String.join(",", String.valueOf(record.getSequence()),
+				AppConstant.GET_TRANSACTION_NO_PREFIX + record.getTransactionId(),
+				String.valueOf(record.getAccountId()), String.valueOf(record.getPayeeAccountId()),
+				String.valueOf(record.getAmount()), LocalDate.ofEpochDay(record.getEpochDay()).toString(),
+				String.valueOf(record.getIdempotencyKey()), String.valueOf(record.getPayloadHash()),
+				String.valueOf(record.getRemarks()));
+		try {
+			Files.write(Paths.get(parkedFile), Collections.singletonList(line), StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		logger.error("ledger journal record parked in {}, it must be posted by hand: {}", parkedFile, line, cause);
+		parkedCounter.increment();
+		journal.checkpoint(record);
+	}
+
+	/**
+	 * @description skip the records after the checkpoint which were committed to
+	 *              the database before the restart, and replay the rest into the
+	 *              balances. The chunks are committed in order, so the committed
+	 *              records are always at the front.
+	 */
+	private void recover() {
+		List<LedgerRecord> pending = journal.readPending(Integer.MAX_VALUE);
+		if (pending.isEmpty()) {
+			return;
+		}
+		Set<String> committed = new HashSet<>();
+		for (int from = 0; from < pending.size(); from += syncChunkSize) {
+			List<String> transactionIds = pending.subList(from, Math.min(from + syncChunkSize, pending.size()))
+					.stream().map(record -> AppConstant.GET_TRANSACTION_NO_PREFIX + record.getTransactionId())
+					.collect(Collectors.toList());
+			committed.addAll(userTransactionRepository.findExistingTransactionIds(transactionIds));
+		}
+		int replayed = 0;
+		for (LedgerRecord record : pending) {
+			if (committed.contains(AppConstant.GET_TRANSACTION_NO_PREFIX + record.getTransactionId())) {
+				journal.checkpoint(record);
+				continue;
+			}
+			int slot = slotById(record.getAccountId(), loadAccount(record.getAccountId()));
+			int payeeSlot = slotById(record.getPayeeAccountId(), loadAccount(record.getPayeeAccountId()));
+			balances[slot] -= record.getAmount();
+			balances[payeeSlot] += record.getAmount();
+			replayed++;
+		}
+		logger.info("ledger journal recovered, {} records replayed", replayed);
+	}
+
+	/**
+	 * @description the slot of the account, added from the account the caller
+	 *              loaded when the account has none yet. An account with journal
+	 *              records always has a slot already, so the database balance of
+	 *              a new slot is never behind.
+	 */
+	private int slotById(Integer accountId, UserAccount loaded) {
+		Integer slot = slotsById.get(accountId);
+		if (slot != null) {
+			return slot;
+		}
+		return loaded != null ? addSlot(loaded) : NOT_FOUND;
+	}
+
+	private int slotByAccountNumber(Long accountNumber, UserAccount loaded) {
+		Integer slot = slotsByAccountNumber.get(accountNumber);
+		if (slot != null) {
+			return slot;
+		}
+		if (loaded == null) {
+			return NOT_FOUND;
+		}
+		slot = slotsById.get(loaded.getId());
+		return slot != null ? slot : addSlot(loaded);
+	}
+
+	private UserAccount loadAccount(Integer accountId) {
+		return slotsById.containsKey(accountId) ? null : loadAccount(() -> userAccountRepository.findById(accountId));
+	}
+
+	/**
+	 * @description read an account for a new slot, on the caller thread. The
+	 *              unfolded stripe credits of a striped account are read in the
+	 *              same read only transaction as its balance column and added to
+	 *              the balance.
+	 * @return null when the account is not found.
+	 */
+	private UserAccount loadAccount(Supplier<Optional<UserAccount>> finder) {
+		return loadTemplate.execute(status -> {
+			Optional<UserAccount> userAccount = finder.get();
+			if (!userAccount.isPresent()) {
+				return null;
+			}
+			UserAccount slotAccount = new UserAccount();
+			slotAccount.setId(userAccount.get().getId());
+			slotAccount.setAccountNumber(userAccount.get().getAccountNumber());
+			slotAccount.setAccountType(userAccount.get().getAccountType());
+			slotAccount.setMinimumBalance(userAccount.get().getMinimumBalance());
+			slotAccount.setBalanceAmount(userAccount.get().getBalanceAmount()
+					+ (stripedBalanceService.isStripedAccount(slotAccount.getId())
+							? stripedBalanceService.getUnfoldedBalance(slotAccount.getId())
+							: 0));
+			return slotAccount;
+		});
+	}
+
+	private static Long payeeAccountNumber(FundTransferRequestDto request) {
+		try {
+			return Long.valueOf(request.getPayeeAccountNumber());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private int addSlot(UserAccount userAccount) {
+		if (accounts == accountIds.length) {
+			accountIds = Arrays.copyOf(accountIds, accounts * 2);
+			balances = Arrays.copyOf(balances, accounts * 2);
+			minimumBalances = Arrays.copyOf(minimumBalances, accounts * 2);
+		}
+		int slot = accounts++;
+		accountIds[slot] = userAccount.getId();
+		balances[slot] = userAccount.getBalanceAmount();
+		minimumBalances[slot] = userAccount.getMinimumBalance() == null ? 0 : userAccount.getMinimumBalance();
+		slotsById.put(userAccount.getId(), slot);
+		slotsByAccountNumber.put(userAccount.getAccountNumber(), slot);
+		if (userAccount.getAccountType() != null) {
+			accountTypesById.put(userAccount.getId(), userAccount.getAccountType());
+		}
+		return slot;
+	}
+
+	private UserTransaction toUserTransaction(LedgerRecord record) {
+		UserAccount userAccount = new UserAccount();
+		userAccount.setId(record.getAccountId());
+		UserAccount payeeAccount = new UserAccount();
+		payeeAccount.setId(record.getPayeeAccountId());
+
+		UserTransaction userTransaction = new UserTransaction();
+		userTransaction.setUserAccountId(userAccount);
+		userTransaction.setPayeeAccountId(payeeAccount);
+		userTransaction.setPayeeAccountType(accountTypesById.get(record.getPayeeAccountId()));
+		userTransaction.setTransactionType(AppConstant.TRANSACTION_TYPE);
+		userTransaction.setTransactionId(AppConstant.GET_TRANSACTION_NO_PREFIX + record.getTransactionId());
+		userTransaction.setTransactionDate(LocalDate.ofEpochDay(record.getEpochDay()));
+		userTransaction.setTransactionAmount(record.getAmount());
+		userTransaction.setRemarks(record.getRemarks());
+		userTransaction.setIdempotencyKey(record.getIdempotencyKey());
+		userTransaction.setPayloadHash(record.getPayloadHash());
+		return userTransaction;
+	}
+
+	private void setTransferResult(FundTransferResponseDto result, String status, String message,
+			HttpStatus httpStatus) {
+		result.setStatus(status);
+		result.setMessage(message);
+		result.setStatusCode(httpStatus.value());
+	}
+
+	private static FundTransferResponseDto rejected() {
+		FundTransferResponseDto responseDto = new FundTransferResponseDto();
+		responseDto.setStatus(AppConstant.FAILURE);
+		responseDto.setMessage(AppConstant.FUND_TRANSFER_ERROR);
+		return responseDto;
+	}
+
+	private void sleepQuietly() {
+		try {
+			TimeUnit.MILLISECONDS.sleep(syncIntervalMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private class PendingTransfer {
+		private final FundTransferRequestDto request;
+		private final CompletableFuture<FundTransferResponseDto> future;
+		// The accounts without a slot, loaded by the caller.
+		private UserAccount payer;
+		private UserAccount payee;
+		private FundTransferResponseDto result;
+		private NotFoundException notFound;
+		// The journaled transfer, to undo it when the force fails.
+		private long sequence = NOT_APPENDED;
+		private int slot;
+		private int payeeSlot;
+		private long amount;
+
+		PendingTransfer(FundTransferRequestDto request, CompletableFuture<FundTransferResponseDto> future) {
+			this.request = request;
+			this.future = future;
+		}
+
+		void run() {
+			try {
+				result = transfer(this);
+			} catch (NotFoundException e) {
+				notFound = e;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				result = rejected();
+			} catch (RuntimeException e) {
+				logger.error("ledger engine transfer failed", e);
+				result = rejected();
+			}
+		}
+
+		/**
+		 * @description whether the record of the transfer was forced before the
+		 *              force which failed. A transfer without a record is
+		 *              rejected too, its result may depend on an undone one.
+		 */
+		boolean isForcedBefore(long firstDropped) {
+			return sequence != NOT_APPENDED && sequence < firstDropped;
+		}
+
+		void acknowledge() {
+			if (future == null) {
+				return;
+			}
+			if (notFound != null) {
+				future.completeExceptionally(notFound);
+			} else {
+				future.complete(result);
+			}
+		}
+
+		void reject() {
+			if (future != null) {
+				future.complete(rejected());
+			}
+		}
+	}
+}
@@ -0,0 +1,353 @@
+package com.banking.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @description LedgerJournal - memory mapped write ahead journal of the ledger
+ *              engine, used as a ring. The file starts with a header: the
+ *              checkpoint (records before it are applied to the database), the
+ *              write position (end of the last appended record) and the
+ *              sequence of the record at the checkpoint.
+ *
+ *              Each record carries its length, its sequence and a CRC32 of both
+ *              and of its fields. The remarks, the Idempotency-Key and the
+ *              payload hash follow the fixed fields, the lengths of the last two
+ *              are in the fixed fields. The pages of the mapping reach the disk in
+ *              any order, so after a crash the write position may point past a
+ *              record which was only partly written, or past stale bytes of an
+ *              earlier lap. On open the records from the checkpoint are checked
+ *              and the journal is truncated at the first record whose length,
+ *              sequence or CRC does not match. Only records which were never
+ *              forced, and so never acknowledged, can be cut off this way.
+ *
+ *              The sync only reads the records up to the last force, so the
+ *              records of a group whose force failed can be rewound: the write
+ *              position and the sequence go back to the end of the last force,
+ *              and the records are overwritten by the next ones. A writer which
+ *              waits for room while the records in its way are not forced yet
+ *              forces them first, so the sync can apply them.
+ *
+ *              A record which does not fit before the end of the file is written
+ *              at the start, after a wrap marker, as soon as the checkpoint has
+ *              moved past the room it needs. While there is no room the writer
+ *              waits for the sync to move the checkpoint.
+ *
+ *              Only the engine writer thread appends, only the database sync
+ *              thread reads and moves the checkpoint.
+ *
+ * @since 18-10-2026
+ */
+public class LedgerJournal implements AutoCloseable {
+	private static final Logger logger = LoggerFactory.getLogger(LedgerJournal.class);
+
+	static final int HEADER_SIZE = 24;
+	private static final int CHECKPOINT_OFFSET = 0;
+	private static final int WRITE_POSITION_OFFSET = 8;
+	private static final int CHECKPOINT_SEQUENCE_OFFSET = 16;
+	// length, sequence, account, payee account, amount, transaction id, epoch
+	// day, key length, hash length and the CRC.
+	static final int FIXED_RECORD_SIZE = 4 + 8 + 4 + 4 + 8 + 8 + 4 + 2 + 2 + 4;
+	private static final int WRAP_MARKER = -1;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final boolean sync;
+
+	// Guarded by this.
+	private long checkpoint;
+	private long checkpointSequence;
+	private long writePosition;
+	private long nextSequence;
+	// End and next sequence of the records covered by the last force, the sync
+	// reads up to it.
+	private long forcedPosition;
+	private long forcedSequence;
+
+	public LedgerJournal(Path file, int size, boolean sync) {
+		try {
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.sync = sync;
+		this.checkpoint = Math.max(buffer.getLong(CHECKPOINT_OFFSET), HEADER_SIZE);
+		this.checkpointSequence = buffer.getLong(CHECKPOINT_SEQUENCE_OFFSET);
+		this.writePosition = Math.max(buffer.getLong(WRITE_POSITION_OFFSET), HEADER_SIZE);
+		if (checkpoint >= size || writePosition >= size) {
+			logger.warn("ledger journal header is out of range, the journal is emptied");
+			checkpoint = HEADER_SIZE;
+			writePosition = HEADER_SIZE;
+			buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+		}
+		truncateAtFirstBadRecord();
+		forcedPosition = writePosition;
+		forcedSequence = nextSequence;
+	}
+
+	/**
+	 * @description append the transfer record at the write position. Waits while
+	 *              the journal has no room for the record, until the sync has
+	 *              applied enough records.
+	 * @return the sequence of the record.
+	 * @throws InterruptedException when interrupted while waiting for room.
+	 */
+	public synchronized long append(LedgerRecord record) throws InterruptedException {
+		byte[] remarks = bytes(record.getRemarks());
+		byte[] idempotencyKey = bytes(record.getIdempotencyKey());
+		byte[] payloadHash = bytes(record.getPayloadHash());
+		int remarksLength = Math.min(remarks.length, Short.MAX_VALUE);
+		int length = FIXED_RECORD_SIZE + remarksLength + idempotencyKey.length + payloadHash.length;
+		if (HEADER_SIZE + length >= buffer.capacity()) {
+			throw new IllegalArgumentException("ledger record does not fit in the journal");
+		}
+		long position = reserve(length);
+		while (position < 0) {
+			if (forcedPosition != writePosition) {
+				// The records in the way are not forced yet, the sync cannot read
+				// them.
+				force();
+			} else {
+				logger.warn("ledger journal is full, waiting for the database sync");
+				wait();
+			}
+			position = reserve(length);
+		}
+		if (position < writePosition) {
+			// The record does not fit before the end of the file.
+			if (buffer.capacity() - writePosition >= 4) {
+				buffer.putInt((int) writePosition, WRAP_MARKER);
+			}
+		}
+		ByteBuffer slice = buffer.duplicate();
+		slice.position((int) position);
+		slice.putInt(length);
+		slice.putLong(nextSequence);
+		slice.putInt(record.getAccountId());
+		slice.putInt(record.getPayeeAccountId());
+		slice.putLong(record.getAmount());
+		slice.putLong(record.getTransactionId());
+		slice.putInt(record.getEpochDay());
+		slice.putShort((short) idempotencyKey.length);
+		slice.putShort((short) payloadHash.length);
+		slice.put(remarks, 0, remarksLength);
+		slice.put(idempotencyKey);
+		slice.put(payloadHash);
+		slice.putInt(crc(position, length));
+		writePosition = position + length;
+		buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+		return nextSequence++;
+	}
+
+	/**
+	 * @description flush the appended records to the disk, when journal sync is
+	 *              enabled, and let the sync read them. Called once for a group
+	 *              of appends before the transfers are acknowledged.
+	 */
+	public void force() {
+		long position;
+		long sequence;
+		synchronized (this) {
+			position = writePosition;
+			sequence = nextSequence;
+		}
+		if (sync) {
+			buffer.force();
+		}
+		synchronized (this) {
+			forcedPosition = position;
+			forcedSequence = sequence;
+		}
+	}
+
+	/**
+	 * @description drop the records appended since the last force, after a force
+	 *              failed. The sync has not read them. When every forced record
+	 *              is applied the journal is empty again, the checkpoint is moved
+	 *              to the write position in case an append started again from
+	 *              the header.
+	 * @return the sequence of the first record dropped, the records of this
+	 *         sequence and after are not in the journal.
+	 */
+	public synchronized long rewindUnforced() {
+		writePosition = forcedPosition;
+		nextSequence = forcedSequence;
+		if (checkpointSequence == nextSequence) {
+			checkpoint = writePosition;
+			buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+		}
+		buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+		return nextSequence;
+	}
+
+	/**
+	 * @description read the forced records from the checkpoint, at most limit
+	 *              records.
+	 */
+	public List<LedgerRecord> readPending(int limit) {
+		List<LedgerRecord> records = new ArrayList<>();
+		long position;
+		long sequence;
+		long end;
+		synchronized (this) {
+			position = checkpoint;
+			sequence = checkpointSequence;
+			end = forcedPosition;
+		}
+		while (position != end && records.size() < limit) {
+			LedgerRecord record = read(position, sequence);
+			if (record == null) {
+				throw new IllegalStateException("ledger journal record " + sequence + " is corrupt");
+			}
+			records.add(record);
+			position = record.getEndPosition();
+			sequence++;
+		}
+		return records;
+	}
+
+	/**
+	 * @description move the checkpoint after the given record, once it is
+	 *              committed to the database, and wake the writer when it waits
+	 *              for room.
+	 */
+	public synchronized void checkpoint(LedgerRecord record) {
+		checkpoint = record.getEndPosition();
+		checkpointSequence = record.getSequence() + 1;
+		buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+		buffer.putLong(CHECKPOINT_SEQUENCE_OFFSET, checkpointSequence);
+		force();
+		notifyAll();
+	}
+
+	public synchronized boolean isApplied() {
+		return checkpoint == writePosition;
+	}
+
+	@Override
+	public void close() throws IOException {
+		buffer.force();
+		channel.close();
+	}
+
+	/**
+	 * @description the position to write a record of the given length at, the
+	 *              start of the file when the record does not fit before its end
+	 *              and the checkpoint has moved past the room it needs, or -1 when
+	 *              there is no room yet. The write position never catches up with
+	 *              the checkpoint, equal positions mean an empty journal.
+	 */
+	private long reserve(int length) {
+		if (checkpoint == writePosition && writePosition + length > buffer.capacity()) {
+			// Everything is applied to the database, start again from the header.
+			checkpoint = HEADER_SIZE;
+			writePosition = HEADER_SIZE;
+			buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+		}
+		if (writePosition < checkpoint) {
+			return writePosition + length < checkpoint ? writePosition : -1;
+		}
+		if (writePosition + length <= buffer.capacity()) {
+			return writePosition;
+		}
+		return HEADER_SIZE + length < checkpoint ? HEADER_SIZE : -1;
+	}
+
+	/**
+	 * @description the record of the expected sequence at the position, or at
+	 *              the start of the file after a wrap marker, null when the
+	 *              length, the sequence or the CRC does not match.
+	 */
+	private LedgerRecord read(long position, long sequence) {
+		if (buffer.capacity() - position < 4 || buffer.getInt((int) position) == WRAP_MARKER) {
+			position = HEADER_SIZE;
+		}
+		ByteBuffer slice = buffer.duplicate();
+		slice.position((int) position);
+		int length = slice.getInt();
+		if (length < FIXED_RECORD_SIZE || length > FIXED_RECORD_SIZE + 3 * Short.MAX_VALUE
+				|| position + length > buffer.capacity() || slice.getLong() != sequence) {
+			return null;
+		}
+		int accountId = slice.getInt();
+		int payeeAccountId = slice.getInt();
+		long amount = slice.getLong();
+		long transactionId = slice.getLong();
+		int epochDay = slice.getInt();
+		short keyLength = slice.getShort();
+		short hashLength = slice.getShort();
+		int remarksLength = length - FIXED_RECORD_SIZE - keyLength - hashLength;
+		if (keyLength < 0 || hashLength < 0 || remarksLength < 0) {
+			return null;
+		}
+		String remarks = string(slice, remarksLength);
+		String idempotencyKey = string(slice, keyLength);
+		String payloadHash = string(slice, hashLength);
+		if (slice.getInt() != crc(position, length)) {
+			return null;
+		}
+		return new LedgerRecord(accountId, payeeAccountId, amount, transactionId, epochDay, remarks,
+				idempotencyKey.isEmpty() ? null : idempotencyKey, payloadHash.isEmpty() ? null : payloadHash,
+				sequence, position + length);
+	}
+
+	private static byte[] bytes(String value) {
+		return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String string(ByteBuffer slice, int length) {
+		byte[] value = new byte[length];
+		slice.get(value);
+		return new String(value, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @description CRC32 of the record at the position, all but its last four
+	 *              bytes.
+	 */
+	private int crc(long position, int length) {
+		ByteBuffer slice = buffer.duplicate();
+		slice.position((int) position);
+		slice.limit((int) position + length - 4);
+		CRC32 crc = new CRC32();
+		crc.update(slice);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * @description check the records from the checkpoint to the write position
+	 *              and move the write position back to the first one which does
+	 *              not match.
+	 */
+	private void truncateAtFirstBadRecord() {
+		long position = checkpoint;
+		long sequence = checkpointSequence;
+		while (position != writePosition) {
+			LedgerRecord record = read(position, sequence);
+			if (record == null) {
+				logger.warn("ledger journal truncated at record {}, it was not completely written", sequence);
+				writePosition = position;
+				buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+				force();
+				break;
+			}
+			position = record.getEndPosition();
+			sequence++;
+		}
+		nextSequence = sequence;
+	}
+}
@@ -0,0 +1,30 @@
+package com.banking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @description LedgerRecord - one fund transfer of the ledger journal. The
+ *              amount is in minor units (paise), the Idempotency-Key and the
+ *              payload hash are null for a transfer sent without a key,
+ *              sequence is the number of the record in the journal and
+ *              endPosition is the journal position right after the record.
+ *
+ * @since 18-10-2026
+ */
+@Getter
+@AllArgsConstructor
+public class LedgerRecord {
+
+	private final int accountId;
+	private final int payeeAccountId;
+	private final long amount;
+	private final long transactionId;
+	private final int epochDay;
+	private final String remarks;
+	private final String idempotencyKey;
+	private final String payloadHash;
+	private final long sequence;
+	private final long endPosition;
+
+}
@@ -0,0 +1,241 @@
+package com.banking.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banking.dto.AccountMonthSummaryDto;
+import com.banking.dto.Money;
+import com.banking.entity.AccountMonthSummary;
+import com.banking.entity.UserAccount;
+import com.banking.entity.UserTransaction;
+import com.banking.repository.AccountMonthSummaryRepository;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserTransactionRepository;
+
+/**
+ * @description MonthSummaryService - maintains the account month summaries
+ *              (opening and closing balance, debit and credit totals and counts)
+ *              from the ledger. Every transaction.month-summary.interval-ms the
+ *              ledger rows which are not summarized yet are read in chunks of
+ *              transaction.month-summary.chunk-size, added to the summaries of
+ *              the payer and the payee, and marked summarized, one chunk per
+ *              database transaction. The single, batch and ledger engine
+ *              transfers all write the ledger, so none of them is slowed down
+ *              by the summaries, and the hot striped accounts get no second hot
+ *              row.
+ *
+ *              The opening balance of the first summary of an account is the
+ *              account balance less the rows not summarized yet, read in the
+ *              same transaction. Every later month opens with the closing
+ *              balance of the month before.
+ *
+ * @since 18-10-2026
+ */
+@Service
+public class MonthSummaryService {
+	private static final Logger logger = LoggerFactory.getLogger(MonthSummaryService.class);
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	AccountMonthSummaryRepository accountMonthSummaryRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	StripedBalanceService stripedBalanceService;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${transaction.month-summary.chunk-size:1000}")
+	int chunkSize;
+
+	/**
+	 * @description summarize the new ledger rows, chunk after chunk until they
+	 *              are all summarized.
+	 * @return the number of ledger rows summarized.
+	 */
+	@Scheduled(fixedDelayString = "${transaction.month-summary.interval-ms:1000}")
+	public int summarize() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		int summarized = 0;
+		int chunk;
+		do {
+			chunk = transactionTemplate.execute(status -> summarizeChunk());
+			summarized += chunk;
+		} while (chunk == chunkSize);
+		if (summarized > 0) {
+			logger.debug("{} ledger rows added to the month summaries", summarized);
+		}
+		return summarized;
+	}
+
+	/**
+	 * @description the summary of the account in the month.
+	 * @return null when the account has no summarized transaction in the month.
+	 */
+	public AccountMonthSummaryDto getMonthSummary(Integer userAccountId, int year, int month) {
+		return accountMonthSummaryRepository.findByUserAccountIdAndStatementMonth(userAccountId, year * 100 + month)
+				.map(summary -> toAccountMonthSummaryDto(summary, year, month)).orElse(null);
+	}
+
+	private int summarizeChunk() {
+		List<UserTransaction> transactions = userTransactionRepository
+				.findBySummarizedFalseOrderById(PageRequest.of(0, chunkSize));
+		if (transactions.isEmpty()) {
+			return 0;
+		}
+
+		// Movements of each account by month.
+		Map<Integer, TreeMap<Integer, Movement>> movements = new HashMap<>();
+		int firstMonth = Integer.MAX_VALUE;
+		for (UserTransaction transaction : transactions) {
+			int month = statementMonth(transaction.getTransactionDate());
+			firstMonth = Math.min(firstMonth, month);
+			long amount = transaction.getTransactionAmount();
+			movement(movements, transaction.getUserAccountId().getId(), month).debit(amount);
+			movement(movements, transaction.getPayeeAccountId().getId(), month).credit(amount);
+		}
+
+		Map<Integer, TreeMap<Integer, AccountMonthSummary>> summaries = new HashMap<>();
+		accountMonthSummaryRepository
+				.findByUserAccountIdInAndStatementMonthGreaterThanEqual(movements.keySet(), firstMonth)
+				.forEach(summary -> summaries.computeIfAbsent(summary.getUserAccountId(), id -> new TreeMap<>())
+						.put(summary.getStatementMonth(), summary));
+
+		List<AccountMonthSummary> created = new ArrayList<>();
+		movements.forEach((userAccountId, accountMovements) -> {
+			TreeMap<Integer, AccountMonthSummary> accountSummaries = summaries.computeIfAbsent(userAccountId,
+					id -> new TreeMap<>());
+			accountMovements.forEach((month, movement) -> {
+				AccountMonthSummary summary = accountSummaries.get(month);
+				if (summary == null) {
+					summary = newSummary(userAccountId, month, accountSummaries);
+					accountSummaries.put(month, summary);
+					created.add(summary);
+				}
+				movement.addTo(summary);
+				// A late row of an earlier month moves the balances of the later ones.
+				long net = movement.credits - movement.debits;
+				accountSummaries.tailMap(month, false).values().forEach(later -> {
+					later.setOpeningBalance(later.getOpeningBalance() + net);
+					later.setClosingBalance(later.getClosingBalance() + net);
+				});
+			});
+		});
+		accountMonthSummaryRepository.saveAll(created);
+
+		List<Integer> ids = transactions.stream().map(UserTransaction::getId).collect(Collectors.toList());
+		if (userTransactionRepository.markSummarized(ids) != ids.size()) {
+			throw new IllegalStateException("ledger rows were summarized by another node, the chunk is retried");
+		}
+		return transactions.size();
+	}
+
+	private Movement movement(Map<Integer, TreeMap<Integer, Movement>> movements, Integer userAccountId, int month) {
+		return movements.computeIfAbsent(userAccountId, id -> new TreeMap<>()).computeIfAbsent(month,
+				m -> new Movement());
+	}
+
+	/**
+	 * @description new summary of the month, with no transactions yet. It opens
+	 *              with the closing balance of the month before, or the opening
+	 *              balance of the month after when only a later one is summarized,
+	 *              or else the balance before the rows not summarized yet.
+	 */
+	private AccountMonthSummary newSummary(Integer userAccountId, int month,
+			TreeMap<Integer, AccountMonthSummary> accountSummaries) {
+		Long openingBalance;
+		Map.Entry<Integer, AccountMonthSummary> earlier = accountSummaries.lowerEntry(month);
+		Map.Entry<Integer, AccountMonthSummary> later = accountSummaries.higherEntry(month);
+		if (earlier != null) {
+			openingBalance = earlier.getValue().getClosingBalance();
+		} else {
+			Optional<AccountMonthSummary> previous = accountMonthSummaryRepository
+					.findFirstByUserAccountIdAndStatementMonthLessThanOrderByStatementMonthDesc(userAccountId, month);
+			if (previous.isPresent()) {
+				openingBalance = previous.get().getClosingBalance();
+			} else if (later != null) {
+				openingBalance = later.getValue().getOpeningBalance();
+			} else {
+				openingBalance = currentBalance(userAccountId)
+						- userTransactionRepository.sumUnsummarizedAmount(userAccountId);
+			}
+		}
+		AccountMonthSummary summary = new AccountMonthSummary();
+		summary.setUserAccountId(userAccountId);
+		summary.setStatementMonth(month);
+		summary.setOpeningBalance(openingBalance);
+		summary.setClosingBalance(openingBalance);
+		summary.setTotalDebits(0L);
+		summary.setTotalCredits(0L);
+		summary.setDebitCount(0);
+		summary.setCreditCount(0);
+		return summary;
+	}
+
+	private long currentBalance(Integer userAccountId) {
+		long balance = userAccountRepository.findById(userAccountId).map(UserAccount::getBalanceAmount).orElse(0L);
+		return balance + stripedBalanceService.getUnfoldedBalance(userAccountId);
+	}
+
+	private int statementMonth(LocalDate transactionDate) {
+		return transactionDate.getYear() * 100 + transactionDate.getMonthValue();
+	}
+
+	private AccountMonthSummaryDto toAccountMonthSummaryDto(AccountMonthSummary summary, int year, int month) {
+		AccountMonthSummaryDto accountMonthSummaryDto = new AccountMonthSummaryDto();
+		accountMonthSummaryDto.setMonth(String.format("%04d-%02d", year, month));
+		accountMonthSummaryDto.setOpeningBalance(Money.ofMinorUnits(summary.getOpeningBalance()));
+		accountMonthSummaryDto.setClosingBalance(Money.ofMinorUnits(summary.getClosingBalance()));
+		accountMonthSummaryDto.setTotalDebits(Money.ofMinorUnits(summary.getTotalDebits()));
+		accountMonthSummaryDto.setTotalCredits(Money.ofMinorUnits(summary.getTotalCredits()));
+		accountMonthSummaryDto.setDebitCount(summary.getDebitCount());
+		accountMonthSummaryDto.setCreditCount(summary.getCreditCount());
+		return accountMonthSummaryDto;
+	}
+
+	private static class Movement {
+		private long debits;
+		private long credits;
+		private int debitCount;
+		private int creditCount;
+
+		void debit(long amount) {
+			debits += amount;
+			debitCount++;
+		}
+
+		void credit(long amount) {
+			credits += amount;
+			creditCount++;
+		}
+
+		void addTo(AccountMonthSummary summary) {
+			summary.setTotalDebits(summary.getTotalDebits() + debits);
+			summary.setTotalCredits(summary.getTotalCredits() + credits);
+			summary.setDebitCount(summary.getDebitCount() + debitCount);
+			summary.setCreditCount(summary.getCreditCount() + creditCount);
+			summary.setClosingBalance(summary.getClosingBalance() + credits - debits);
+		}
+	}
+}
@@ -1,8 +1,11 @@
 package com.banking.service;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Optional;
 
+import javax.transaction.Transactional;
+
 import org.apache.commons.lang.RandomStringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,13 +40,19 @@ public class MortgageServiceImpl implements MortgageService {
 	@Autowired
 	UserAccountRepository userAccountRepository;
 
+	@Autowired
+	AccountBalanceCache accountBalanceCache;
+
 	/**
-	 * @descripion This method will create the mortgage accounts
+	 * @descripion This method will create the mortgage accounts. The account is
+	 *             saved in a transaction, so its balance is evicted from the
+	 *             AccountBalanceCache once it commits.
 	 * 
 	 * @param MortgageRequestDto object contains set of properties
 	 * @return MortgageResponseDto object contains set of properties
 	 */
 	@Override
+	@Transactional
 	public ResponseDto createMortgageAccount(MortgageRequestDto mortgageRequestDto) {
 		LOGGER.info("Creating mortgage account start for requested user");
 		ResponseDto responseDto = new ResponseDto();
@@ -60,11 +69,13 @@ public class MortgageServiceImpl implements MortgageService {
 			Long accountNumber = generateAccountNumber();
 			mortgageAccount.setAccountNumber(accountNumber);
 			mortgageAccount.setAccountType(AppConstant.ACCOUNT_TYPE_MORTGAGE);
-			mortgageAccount.setBalanceAmount(-mortgageRequestDto.getPropertyValue());
+			mortgageAccount.setBalanceAmount(-mortgageRequestDto.getPropertyValue().getMinorUnits());
 			mortgageAccount.setCreatedDate(LocalDateTime.now());
 
 			LOGGER.debug("Created mortgage account for the requested user");
 			userAccountRepository.save(mortgageAccount);
+			accountBalanceCache.evictAfterCommit(Collections.singleton(mortgageAccount.getId()),
+					Collections.singleton(accountNumber));
 
 			responseDto.setMessage(AppConstant.SUCCESS);
 			responseDto.setStatus(AppConstant.MORTGAGE_ACCOUNT_CREATED);
@@ -0,0 +1,337 @@
+package com.banking.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.banking.dto.Money;
+import com.banking.dto.UserTransactionRequestDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @description RecentTransactionCache - the recent transactions of each
+ *              account, newest first, in a ring of the last few rendered rows.
+ *              A ring is loaded on the first read of the account, and a fund
+ *              transfer is written into the rings of the payer and the payee
+ *              after it commits. Batch transfers and the ledger engine sync
+ *              evict the rings of their accounts instead. At most
+ *              transaction.recent-cache.max-accounts rings are kept, the least
+ *              recently used is evicted, and a ring is kept for at most
+ *              transaction.recent-cache.ttl-ms, which bounds how long a write
+ *              made outside the application is missed.
+ *
+ *              The payee account id and name of the rows are kept by payee
+ *              account number, so the row of a new transfer to a known payee is
+ *              built from the values of the transfer, without reading it back.
+ *              The row of a new transfer has no id yet, it is listed before the
+ *              rows read from the database, in commit order.
+ *
+ *              Every write bumps the version of the account. A ring loaded while
+ *              a write of its account committed is returned but not cached, so
+ *              a ring never misses a committed transfer.
+ *
+ *              The hits, misses, evictions, hit ratio and size are published as
+ *              the transaction.recent.cache.* meters.
+ *
+ * @since 18-10-2026
+ */
+@Component
+public class RecentTransactionCache {
+	private static final Logger logger = LoggerFactory.getLogger(RecentTransactionCache.class);
+
+	static final int RING_SIZE = 5;
+	private static final int VERSION_STRIPES = 1024;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${transaction.recent-cache.max-accounts:100000}")
+	int maxAccounts;
+
+	@Value("${transaction.recent-cache.ttl-ms:60000}")
+	long ttlMillis;
+
+	// Version of the accounts hashed to each stripe, guarded by this.
+	private final long[] versions = new long[VERSION_STRIPES];
+
+	// Rings and payees in access order, guarded by this.
+	private Map<Integer, Ring> rings;
+	private Map<String, Payee> payees;
+
+	private Counter hitCounter;
+	private Counter missCounter;
+	private Counter sizeEvictionCounter;
+	private Counter expiryEvictionCounter;
+
+	@PostConstruct
+	public void start() {
+		rings = new LinkedHashMap<Integer, Ring>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Ring> eldest) {
+				if (size() <= maxAccounts) {
+					return false;
+				}
+				sizeEvictionCounter.increment();
+				return true;
+			}
+		};
+		payees = new LinkedHashMap<String, Payee>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Payee> eldest) {
+				return size() > maxAccounts;
+			}
+		};
+		hitCounter = Counter.builder("transaction.recent.cache.hits")
+				.description("Recent transaction reads served from the cache").register(meterRegistry);
+		missCounter = Counter.builder("transaction.recent.cache.misses")
+				.description("Recent transaction reads loaded from the database").register(meterRegistry);
+		sizeEvictionCounter = Counter.builder("transaction.recent.cache.evictions").tag("cause", "size")
+				.description("Least recently used accounts evicted from the cache").register(meterRegistry);
+		expiryEvictionCounter = Counter.builder("transaction.recent.cache.evictions").tag("cause", "expired")
+				.description("Accounts evicted from the cache after the ttl").register(meterRegistry);
+		Gauge.builder("transaction.recent.cache.hit.ratio", this, RecentTransactionCache::hitRatio)
+				.description("Share of the recent transaction reads served from the cache").register(meterRegistry);
+		Gauge.builder("transaction.recent.cache.size", this, RecentTransactionCache::size)
+				.description("Accounts in the recent transaction cache").register(meterRegistry);
+	}
+
+	/**
+	 * @description the recent transactions of the account, newest first.
+	 * @param userAccountId the account.
+	 * @param loader        reads the last RING_SIZE rows of the account from the
+	 *                      database on a miss.
+	 * @return a copy of the cached rows.
+	 */
+	public List<UserTransactionRequestDto> get(Integer userAccountId,
+			Function<Integer, List<UserTransactionRequestDto>> loader) {
+		long version;
+		synchronized (this) {
+			Ring ring = rings.get(userAccountId);
+			if (ring != null && !isExpired(ring.loadedAt)) {
+				hitCounter.increment();
+				return ring.toList();
+			}
+			if (ring != null) {
+				rings.remove(userAccountId);
+				expiryEvictionCounter.increment();
+			}
+			version = versions[stripe(userAccountId)];
+		}
+		missCounter.increment();
+		List<UserTransactionRequestDto> transactionDetails = loader.apply(userAccountId);
+		synchronized (this) {
+			transactionDetails.forEach(this::addPayee);
+			if (versions[stripe(userAccountId)] == version) {
+				Ring ring = new Ring(RING_SIZE);
+				for (int i = transactionDetails.size() - 1; i >= 0; i--) {
+					ring.add(transactionDetails.get(i));
+				}
+				rings.put(userAccountId, ring);
+			}
+		}
+		return transactionDetails;
+	}
+
+	/**
+	 * @description the row of a new fund transfer, built from its values and the
+	 *              payee kept for the payee account number.
+	 * @return null when the payee is not known, the row is then read from the
+	 *         database.
+	 */
+	public synchronized UserTransactionRequestDto newTransactionDetails(Long payeeAccountNumber,
+			String transactionType, LocalDate transactionDate, long transactionAmount, String remarks) {
+		Payee payee = payees.get(String.valueOf(payeeAccountNumber));
+		if (payee == null || isExpired(payee.learnedAt)) {
+			return null;
+		}
+		UserTransactionRequestDto transactionDetails = new UserTransactionRequestDto();
+		transactionDetails.setPayeeAccountId(payee.accountId);
+		transactionDetails.setPayeeName(payee.name);
+		transactionDetails.setPayeeAccountNumber(String.valueOf(payeeAccountNumber));
+		transactionDetails.setTransactionType(transactionType);
+		transactionDetails.setTransactionDate(transactionDate);
+		transactionDetails.setTransactionAmount(Money.ofMinorUnits(transactionAmount));
+		transactionDetails.setRemarks(remarks);
+		return transactionDetails;
+	}
+
+	/**
+	 * @description write the transfer into the rings of the payer and the payee
+	 *              once the current transaction commits.
+	 * @param userAccountId      the payer account.
+	 * @param transactionDetails the rendered row of the transfer.
+	 */
+	public void addAfterCommit(Integer userAccountId, UserTransactionRequestDto transactionDetails) {
+		afterCommit(() -> add(userAccountId, transactionDetails));
+	}
+
+	/**
+	 * @description evict the rings of the accounts once the current transaction
+	 *              commits, or now when there is no transaction.
+	 */
+	public void evictAfterCommit(Collection<Integer> userAccountIds) {
+		afterCommit(() -> evict(userAccountIds));
+	}
+
+	/**
+	 * @description evict the rings of the accounts, for writes which are already
+	 *              committed.
+	 */
+	public synchronized void evict(Collection<Integer> userAccountIds) {
+		userAccountIds.forEach(userAccountId -> {
+			versions[stripe(userAccountId)]++;
+			rings.remove(userAccountId);
+		});
+	}
+
+	/**
+	 * @description whether any ring is cached, a transfer needs no rendered row
+	 *              when none is.
+	 */
+	public synchronized boolean isEmpty() {
+		return rings.isEmpty();
+	}
+
+	synchronized int size() {
+		return rings.size();
+	}
+
+	private synchronized void add(Integer userAccountId, UserTransactionRequestDto transactionDetails) {
+		Integer payeeAccountId = transactionDetails.getPayeeAccountId();
+		addPayee(transactionDetails);
+		versions[stripe(userAccountId)]++;
+		versions[stripe(payeeAccountId)]++;
+		addToRing(userAccountId, transactionDetails);
+		if (!userAccountId.equals(payeeAccountId)) {
+			addToRing(payeeAccountId, transactionDetails);
+		}
+	}
+
+	private void addToRing(Integer userAccountId, UserTransactionRequestDto transactionDetails) {
+		// A written account counts as recently used.
+		Ring ring = rings.get(userAccountId);
+		if (ring != null) {
+			ring.add(transactionDetails);
+		}
+	}
+
+	private void addPayee(UserTransactionRequestDto transactionDetails) {
+		if (transactionDetails.getPayeeAccountId() != null) {
+			payees.put(transactionDetails.getPayeeAccountNumber(),
+					new Payee(transactionDetails.getPayeeAccountId(), transactionDetails.getPayeeName()));
+		}
+	}
+
+	private boolean isExpired(long since) {
+		return System.nanoTime() - since > TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+	}
+
+	private double hitRatio() {
+		double hits = hitCounter.count();
+		double reads = hits + missCounter.count();
+		return reads == 0 ? 0 : hits / reads;
+	}
+
+	private int stripe(Integer userAccountId) {
+		return (userAccountId.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+	}
+
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == TransactionSynchronization.STATUS_COMMITTED) {
+					action.run();
+				} else {
+					logger.debug("transaction rolled back, the recent transaction cache is not updated");
+				}
+			}
+		});
+	}
+
+	/**
+	 * @description the last rows of one account, kept in id order so two
+	 *              transfers which commit out of order are still listed newest
+	 *              first. The rows without an id, built from new transfers, are
+	 *              listed first.
+	 */
+	private static class Ring {
+		private final UserTransactionRequestDto[] rows;
+		private final long loadedAt = System.nanoTime();
+		private int size;
+
+		Ring(int capacity) {
+			rows = new UserTransactionRequestDto[capacity];
+		}
+
+		void add(UserTransactionRequestDto row) {
+			int position = 0;
+			while (position < size && isNewer(rows[position], row)) {
+				position++;
+			}
+			if (position < size && row.getId() != null && row.getId().equals(rows[position].getId())) {
+				return;
+			}
+			if (position == rows.length) {
+				return;
+			}
+			int last = Math.min(size, rows.length - 1);
+			System.arraycopy(rows, position, rows, position + 1, last - position);
+			rows[position] = row;
+			size = Math.min(size + 1, rows.length);
+		}
+
+		private static boolean isNewer(UserTransactionRequestDto row, UserTransactionRequestDto other) {
+			if (row.getId() == null || other.getId() == null) {
+				return row.getId() == null && other.getId() != null;
+			}
+			return row.getId() > other.getId();
+		}
+
+		List<UserTransactionRequestDto> toList() {
+			List<UserTransactionRequestDto> list = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(rows[i]);
+			}
+			return list;
+		}
+	}
+
+	private static class Payee {
+		private final Integer accountId;
+		private final String name;
+		private final long learnedAt = System.nanoTime();
+
+		Payee(Integer accountId, String name) {
+			this.accountId = accountId;
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.banking.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banking.repository.AccountBalanceStripeRepository;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserTransactionRepository;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * @description RunningBalanceBackfillService - sets the payer and payee balance
+ *              of the ledger rows written before the balances were recorded,
+ *              and of the rows of the striped accounts, which are recorded
+ *              null. The rows of an account are set in chunks of
+ *              transaction.running-balance.backfill-chunk-rows rows, from the
+ *              last row back, each chunk in its own database transaction. Only
+ *              the first chunk locks the balance row and the stripes of the
+ *              account, so it sees every committed row and no transfer of the
+ *              account runs meanwhile; the balance after each of its rows is
+ *              worked back from the current balance. Every later chunk holds no
+ *              lock: it ends at the row before the previous chunk, whose
+ *              balance is worked back from the one recorded for that chunk. The
+ *              rows of earlier ids are not written by the transfers, and the
+ *              rows of later ids record their own balance or are set by the
+ *              next backfill.
+ *
+ *              The accounts run on transaction.running-balance.backfill-threads
+ *              threads. Every account is computed again from its current
+ *              balance, so a backfill which was stopped is restarted by running
+ *              it again.
+ *
+ * @since 18-10-2026
+ */
+@Service
+public class RunningBalanceBackfillService {
+	private static final Logger logger = LoggerFactory.getLogger(RunningBalanceBackfillService.class);
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	AccountBalanceStripeRepository accountBalanceStripeRepository;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	RetryTemplate fundTransferRetryTemplate;
+
+	@Value("${transaction.running-balance.backfill-threads:4}")
+	int threads;
+
+	@Value("${transaction.running-balance.backfill-chunk-rows:10000}")
+	int chunkRows;
+
+	@Value("${transaction.running-balance.backfill-on-start:false}")
+	boolean backfillOnStart;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillOnStart() throws InterruptedException {
+		if (backfillOnStart) {
+			backfill();
+		}
+	}
+
+	/**
+	 * @description backfill the balances of the ledger rows of every account.
+	 * @return the number of balances set, a row between two accounts counts
+	 *         twice.
+	 */
+	public long backfill() throws InterruptedException {
+		List<Integer> accountIds = userAccountRepository.findAllIds();
+		logger.info("backfilling the running balances of {} accounts", accountIds.size());
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				new CustomizableThreadFactory("running-balance-backfill-"));
+		try {
+			List<Future<Integer>> backfilled = new ArrayList<>(accountIds.size());
+			for (Integer accountId : accountIds) {
+				backfilled.add(executor.submit(() -> backfill(accountId, transactionTemplate)));
+			}
+			long balances = 0;
+			for (Future<Integer> future : backfilled) {
+				balances += future.get();
+			}
+			logger.info("{} running balances backfilled", balances);
+			return balances;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("running balance backfill failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private int backfill(Integer accountId, TransactionTemplate transactionTemplate) {
+		Chunk chunk = fundTransferRetryTemplate.execute(context -> transactionTemplate.execute(status -> {
+			Long balance = userAccountRepository.lockBalanceAmount(accountId);
+			if (balance == null) {
+				return null;
+			}
+			for (Long stripeBalance : accountBalanceStripeRepository.lockBalanceAmounts(accountId)) {
+				balance += stripeBalance;
+			}
+			return backfillChunk(accountId, Long.MAX_VALUE, balance);
+		}));
+		if (chunk == null) {
+			return 0;
+		}
+		int rows = chunk.rows;
+		while (chunk.rows == chunkRows) {
+			Chunk previous = chunk;
+			chunk = fundTransferRetryTemplate.execute(context -> transactionTemplate
+					.execute(status -> backfillChunk(accountId, previous.firstId, previous.balanceBefore)));
+			rows += chunk.rows;
+		}
+		return rows;
+	}
+
+	/**
+	 * @description set the balances of the last chunk rows of the account before
+	 *              the id, worked back from the balance after the last of them.
+	 */
+	private Chunk backfillChunk(Integer accountId, long beforeId, long balance) {
+		long[][] signedAmounts = userTransactionRepository.findSignedAmounts(accountId, beforeId, chunkRows);
+		long[] ids = signedAmounts[0];
+		long[] amounts = signedAmounts[1];
+		long[] balances = new long[ids.length];
+		for (int i = ids.length - 1; i >= 0; i--) {
+			balances[i] = balance;
+			balance -= amounts[i];
+		}
+		userTransactionRepository.updateBalances(accountId, ids, balances);
+		return new Chunk(ids.length, ids.length == 0 ? beforeId : ids[0], balance);
+	}
+
+	/**
+	 * @description the rows set by a chunk, its first id and the balance before
+	 *              its first row.
+	 */
+	@AllArgsConstructor
+	private static class Chunk {
+		private final int rows;
+		private final long firstId;
+		private final long balanceBefore;
+	}
+}
@@ -0,0 +1,177 @@
+package com.banking.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.transaction.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.ArchivedTransaction;
+import com.banking.dto.UserTransactionRequestDto;
+import com.banking.repository.UserTransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * @description StatementExportService - writes the statement of an account for
+ *              a date range as CSV or NDJSON. The rows are read from a forward
+ *              only stream and written one at a time, the output is flushed to
+ *              the client every transaction.export.flush-rows rows, so the
+ *              memory used does not depend on the length of the statement. The
+ *              text cells of the CSV are guarded against formula injection.
+ *
+ *              The rows moved to the TransactionArchive are written first, one
+ *              month of the range at a time in id order, then the rows of the
+ *              ledger. The archive only holds whole months older than the
+ *              ledger rows; an archived row which is still in the ledger, when
+ *              the delete of its chunk failed, is written once from the ledger.
+ *
+ * @since 18-10-2026
+ */
+@Service
+@Transactional
+public class StatementExportService {
+	private static final Logger logger = LoggerFactory.getLogger(StatementExportService.class);
+
+	private static final String CSV_HEADER = "transactionDate,transactionType,payeeName,payeeAccountNumber,"
+			+ "transactionAmount,remarks";
+	private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	TransactionArchive transactionArchive;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Value("${transaction.export.flush-rows:1000}")
+	int flushRows;
+
+	/**
+	 * @description write the statement of the account.
+	 * @param userAccountId the account.
+	 * @param fromDate      first transaction date, inclusive.
+	 * @param toDate        last transaction date, inclusive.
+	 * @param format        csv or ndjson.
+	 * @param outputStream  the response body, it is flushed but not closed.
+	 * @return the number of transactions written.
+	 */
+	public long export(Integer userAccountId, LocalDate fromDate, LocalDate toDate, String format,
+			OutputStream outputStream) throws IOException {
+		logger.info("exporting the statement as {}", format);
+		boolean csv = AppConstant.EXPORT_FORMAT_CSV.equals(format);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		if (csv) {
+			writer.write(CSV_HEADER);
+			writer.write('\n');
+		}
+		long rows = 0;
+		for (YearMonth month = YearMonth.from(fromDate); !month.atDay(1).isAfter(toDate); month = month.plusMonths(1)) {
+			LocalDate monthStart = month.atDay(1).isBefore(fromDate) ? fromDate : month.atDay(1);
+			LocalDate monthEnd = month.atEndOfMonth().isAfter(toDate) ? toDate : month.atEndOfMonth();
+			for (UserTransactionRequestDto transaction : readArchivedMonth(userAccountId, monthStart, monthEnd)) {
+				rows = write(writer, csv, transaction, rows);
+			}
+		}
+		try (Stream<UserTransactionRequestDto> transactions = userTransactionRepository
+				.streamTransactionDetails(userAccountId, fromDate, toDate)) {
+			Iterator<UserTransactionRequestDto> iterator = transactions.iterator();
+			while (iterator.hasNext()) {
+				rows = write(writer, csv, iterator.next(), rows);
+			}
+		}
+		writer.flush();
+		logger.info("exported {} transactions", rows);
+		return rows;
+	}
+
+	private long write(Writer writer, boolean csv, UserTransactionRequestDto transaction, long rows)
+			throws IOException {
+		writer.write(csv ? toCsv(transaction) : toJson(transaction));
+		writer.write('\n');
+		if (++rows % flushRows == 0) {
+			writer.flush();
+		}
+		return rows;
+	}
+
+	/**
+	 * @description the archived rows of the account in the days of one month, in
+	 *              id order, without the rows which are still in the ledger.
+	 */
+	private List<UserTransactionRequestDto> readArchivedMonth(Integer userAccountId, LocalDate startDate,
+			LocalDate endDate) {
+		List<ArchivedTransaction> archived = transactionArchive.read(userAccountId, startDate, endDate, 0,
+				Integer.MAX_VALUE);
+		if (archived.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Set<String> inLedger = new HashSet<>(userTransactionRepository.findExistingTransactionIds(
+				archived.stream().map(ArchivedTransaction::getTransactionId).collect(Collectors.toList())));
+		List<UserTransactionRequestDto> transactionDetails = new ArrayList<>(archived.size());
+		for (int i = archived.size() - 1; i >= 0; i--) {
+			if (!inLedger.contains(archived.get(i).getTransactionId())) {
+				transactionDetails.add(archived.get(i).toTransactionDetail());
+			}
+		}
+		return transactionDetails;
+	}
+
+	private String toCsv(UserTransactionRequestDto transaction) {
+		return String.join(",", String.valueOf(transaction.getTransactionDate()),
+				csvField(transaction.getTransactionType()), csvField(transaction.getPayeeName()),
+				csvField(transaction.getPayeeAccountNumber()), String.valueOf(transaction.getTransactionAmount()),
+				csvField(transaction.getRemarks()));
+	}
+
+	/**
+	 * @description the CSV cell of the value, quoted when needed. A value which
+	 *              a spreadsheet would read as a formula, starting with =, +, -,
+	 *              @, a tab or a carriage return, is prefixed with a single quote
+	 *              so it is shown as text.
+	 */
+	private String csvField(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+			value = "'" + value;
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private String toJson(UserTransactionRequestDto transaction) {
+		try {
+			return objectMapper.writeValueAsString(transaction);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.banking.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.PostConstruct;
+import javax.transaction.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.banking.entity.AccountBalanceStripe;
+import com.banking.entity.UserAccount;
+import com.banking.repository.AccountBalanceStripeRepository;
+import com.banking.repository.UserAccountRepository;
+
+/**
+ * @description StripedBalanceService - striped balance of the hot payee
+ *              accounts (utility billers, the mortgage pool), listed in
+ *              account.striping.account-numbers. A credit to such an account
+ *              updates one of its account.striping.stripes sub balance rows,
+ *              picked by the hash of the payer, instead of the account row, so
+ *              concurrent credits do not wait on one row lock. The stripes are
+ *              folded back into the account balance every
+ *              account.striping.fold-interval-ms.
+ *
+ *              Until a stripe is folded, its amount is counted in the account
+ *              balance shown to the user, but not in the minimum balance check
+ *              of a debit from the account.
+ *
+ * @since 18-10-2026
+ */
+@Service
+@Transactional
+public class StripedBalanceService {
+	private static final Logger logger = LoggerFactory.getLogger(StripedBalanceService.class);
+
+	@Autowired
+	AccountBalanceStripeRepository accountBalanceStripeRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Value("${account.striping.account-numbers:}")
+	Set<Long> stripedAccountNumbers = Collections.emptySet();
+
+	@Value("${account.striping.stripes:16}")
+	int stripes;
+
+	/** Ids of the striped accounts found by createStripes. */
+	Set<Integer> stripedAccountIds = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * @description create the missing stripes of the striped accounts.
+	 */
+	@PostConstruct
+	public void createStripes() {
+		for (Long accountNumber : stripedAccountNumbers) {
+			Optional<UserAccount> userAccount = userAccountRepository.findByAccountNumber(accountNumber);
+			if (!userAccount.isPresent()) {
+				logger.warn("striped account {} is not found", accountNumber);
+				continue;
+			}
+			Integer userAccountId = userAccount.get().getId();
+			stripedAccountIds.add(userAccountId);
+			Set<Integer> existing = accountBalanceStripeRepository.findByUserAccountId(userAccountId).stream()
+					.map(AccountBalanceStripe::getStripe).collect(Collectors.toSet());
+			List<AccountBalanceStripe> missing = IntStream.range(0, stripes).filter(stripe -> !existing.contains(stripe))
+					.mapToObj(stripe -> {
+						AccountBalanceStripe accountBalanceStripe = new AccountBalanceStripe();
+						accountBalanceStripe.setUserAccountId(userAccountId);
+						accountBalanceStripe.setStripe(stripe);
+						accountBalanceStripe.setBalanceAmount(0L);
+						return accountBalanceStripe;
+					}).collect(Collectors.toList());
+			accountBalanceStripeRepository.saveAll(missing);
+		}
+	}
+
+	public boolean isStriped(Long accountNumber) {
+		return stripedAccountNumbers.contains(accountNumber);
+	}
+
+	public boolean isStripedAccount(Integer userAccountId) {
+		return stripedAccountIds.contains(userAccountId);
+	}
+
+	/**
+	 * @description credit one stripe of the striped payee account.
+	 * @param accountNumber  the payee account number.
+	 * @param payerAccountId the paying account, its hash picks the stripe.
+	 * @param amount         the amount in minor units.
+	 * @return 0 when the payee account is not found.
+	 */
+	public int credit(Long accountNumber, Integer payerAccountId, long amount) {
+		int stripe = Math.floorMod(payerAccountId * 0x9E3779B9, stripes);
+		return accountBalanceStripeRepository.creditStripe(accountNumber, stripe, amount);
+	}
+
+	/**
+	 * @description the amount on the stripes of the account, not yet folded into
+	 *              the account balance.
+	 */
+	public long getUnfoldedBalance(Integer userAccountId) {
+		return accountBalanceStripeRepository.sumBalanceAmount(userAccountId);
+	}
+
+	/**
+	 * @description move the amount of every stripe into the account balance, in
+	 *              one transaction.
+	 */
+	@Scheduled(fixedDelayString = "${account.striping.fold-interval-ms:1000}")
+	public void fold() {
+		for (Long accountNumber : stripedAccountNumbers) {
+			Optional<UserAccount> userAccount = userAccountRepository.findByAccountNumber(accountNumber);
+			if (!userAccount.isPresent()) {
+				continue;
+			}
+			long folded = 0;
+			for (AccountBalanceStripe stripe : accountBalanceStripeRepository
+					.findByUserAccountId(userAccount.get().getId())) {
+				if (stripe.getBalanceAmount() != 0) {
+					accountBalanceStripeRepository.foldStripe(stripe.getId(), stripe.getBalanceAmount());
+					folded += stripe.getBalanceAmount();
+				}
+			}
+			if (folded != 0) {
+				userAccountRepository.creditBalance(accountNumber, folded);
+			}
+		}
+	}
+}
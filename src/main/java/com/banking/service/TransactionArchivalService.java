@@ -0,0 +1,110 @@
+package com.banking.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banking.dto.ArchivedTransaction;
+import com.banking.repository.UserTransactionRepository;
+
+/**
+ * @description TransactionArchivalService - moves the ledger rows older than
+ *              transaction.archive.after-months whole months into the
+ *              TransactionArchive. Every day at transaction.archive.cron the
+ *              rows dated before the first day of that month, and already added
+ *              to the month summaries, are read in chunks of
+ *              transaction.archive.chunk-size. Each chunk is written to a new
+ *              segment first and deleted from the ledger after, so a row is
+ *              never out of both; a chunk whose delete failed is read once from
+ *              both and archived again by the next run. The small segments are
+ *              compacted at the end of the run.
+ *
+ *              The job is scheduled on every node, the run holds the lock of
+ *              the shared archive directory and a node finding it held by
+ *              another node skips the run.
+ *
+ *              The balance as of an archived date is served by the end of day
+ *              balance snapshots, which the daily snapshot job writes long
+ *              before the rows are archived, and from the archive for an
+ *              account without a snapshot.
+ *
+ * @since 18-10-2026
+ */
+@Service
+public class TransactionArchivalService {
+	private static final Logger logger = LoggerFactory.getLogger(TransactionArchivalService.class);
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	TransactionArchive transactionArchive;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${transaction.archive.after-months:12}")
+	int afterMonths;
+
+	@Value("${transaction.archive.chunk-size:10000}")
+	int chunkSize;
+
+	/**
+	 * @description archive the ledger rows of the months before the last
+	 *              transaction.archive.after-months months.
+	 * @return the number of ledger rows archived.
+	 */
+	@Scheduled(cron = "${transaction.archive.cron:0 30 1 * * *}")
+	public long archive() {
+		return archive(LocalDate.now().withDayOfMonth(1).minusMonths(afterMonths));
+	}
+
+	/**
+	 * @description archive the ledger rows dated before the given date.
+	 * @return the number of ledger rows archived, 0 when another node is
+	 *         archiving.
+	 */
+	public long archive(LocalDate before) {
+		Optional<Long> archived = transactionArchive.writeExclusively(() -> archiveChunks(before));
+		if (!archived.isPresent()) {
+			logger.info("transaction archival skipped, another node is archiving");
+			return 0;
+		}
+		return archived.get();
+	}
+
+	private long archiveChunks(LocalDate before) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		long archived = 0;
+		while (true) {
+			List<ArchivedTransaction> rows = userTransactionRepository.findArchivableTransactions(before,
+					PageRequest.of(0, chunkSize));
+			if (rows.isEmpty()) {
+				break;
+			}
+			transactionArchive.append(rows);
+			List<Integer> ids = rows.stream().map(ArchivedTransaction::getId).collect(Collectors.toList());
+			int deleted = transactionTemplate.execute(status -> userTransactionRepository.deleteByIds(ids));
+			archived += rows.size();
+			if (deleted == 0 || rows.size() < chunkSize) {
+				break;
+			}
+		}
+		if (archived > 0) {
+			transactionArchive.compact();
+			logger.info("{} ledger rows dated before {} archived", archived, before);
+		}
+		return archived;
+	}
+}
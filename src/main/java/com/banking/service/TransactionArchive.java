@@ -0,0 +1,293 @@
+package com.banking.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.banking.dto.ArchivedTransaction;
+
+/**
+ * @description TransactionArchive - the cold history of the ledger, in the
+ *              ArchiveSegment files of transaction.archive.directory. The
+ *              archival job appends one segment per chunk of archived rows, and
+ *              compacts the segments smaller than
+ *              transaction.archive.compaction-threshold-mb into one segment of
+ *              at most transaction.archive.segment-max-mb.
+ *
+ *              A row written to a segment while it is still in the database, or
+ *              kept in two segments by a compaction which stopped before
+ *              deleting its old segments, is read once: the reads drop the
+ *              duplicate ids and the next compaction keeps one copy.
+ *
+ *              Every node reads the archive, so transaction.archive.directory
+ *              must be a directory shared by all the nodes, like an NFS mount;
+ *              the application does not start when it is not set or not a
+ *              writable directory. The segments are only written with the lock
+ *              file of the directory held, by one node at a time, and a node
+ *              opens the segments written by the others when the directory
+ *              changes.
+ *
+ * @since 18-10-2026
+ */
+@Component
+public class TransactionArchive {
+	private static final Logger logger = LoggerFactory.getLogger(TransactionArchive.class);
+
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".arch";
+	private static final String LOCK_FILE = ".lock";
+
+	@Value("${transaction.archive.directory:}")
+	String directory;
+
+	@Value("${transaction.archive.compaction-threshold-mb:16}")
+	int compactionThresholdMb;
+
+	@Value("${transaction.archive.segment-max-mb:64}")
+	int segmentMaxMb;
+
+	// Oldest first, replaced as a whole when a segment is added or compacted.
+	private volatile List<ArchiveSegment> segments = Collections.emptyList();
+	private long nextSequence = 1;
+	// The modified time of the directory when its segments were last listed.
+	private FileTime listedAt;
+
+	// Held by the node's own writes while they hold the lock file.
+	private final Object writeLock = new Object();
+
+	/**
+	 * @description open the segments of the archive directory.
+	 * @throws IllegalStateException when transaction.archive.directory is not
+	 *                               set or not a writable directory.
+	 */
+	@PostConstruct
+	public synchronized void open() {
+		Path path = directory();
+		segments = Collections.emptyList();
+		list(path, false);
+		logger.info("{} transaction archive segments opened", segments.size());
+	}
+
+	/**
+	 * @description run the writes of the archive with the lock file of the
+	 *              directory held, so the nodes sharing the directory write it
+	 *              one at a time. The segments written by the other nodes are
+	 *              opened first, and the temporary files of a segment write
+	 *              which did not complete are deleted.
+	 * @return the result of the writes, empty when another node holds the lock.
+	 */
+	public <T> Optional<T> writeExclusively(Supplier<T> writes) {
+		Path path = directory();
+		synchronized (writeLock) {
+			try (FileChannel channel = FileChannel.open(path.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE); FileLock lock = tryLock(channel)) {
+				if (lock == null) {
+					return Optional.empty();
+				}
+				synchronized (this) {
+					list(path, true);
+				}
+				return Optional.of(writes.get());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * @description write the rows into a new segment.
+	 */
+	public synchronized void append(Collection<ArchivedTransaction> rows) {
+		if (rows.isEmpty()) {
+			return;
+		}
+		ArchiveSegment segment = ArchiveSegment.write(nextFile(), rows);
+		List<ArchiveSegment> appended = new ArrayList<>(segments);
+		appended.add(segment);
+		segments = Collections.unmodifiableList(appended);
+	}
+
+	/**
+	 * @description the archived rows of the account dated from startDate to
+	 *              endDate with an id between afterId and beforeId, both
+	 *              excluded, newest first by id.
+	 */
+	public List<ArchivedTransaction> read(Integer userAccountId, LocalDate startDate, LocalDate endDate,
+			int afterId, int beforeId) {
+		refresh();
+		List<ArchiveSegment> current = segments;
+		if (current.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Map<Integer, ArchivedTransaction> rows = new TreeMap<>(Collections.reverseOrder());
+		for (ArchiveSegment segment : current) {
+			for (ArchivedTransaction row : segment.read(userAccountId, startDate, endDate, afterId, beforeId)) {
+				rows.putIfAbsent(row.getId(), row);
+			}
+		}
+		return new ArrayList<>(rows.values());
+	}
+
+	/**
+	 * @description merge the small segments, oldest first, into one segment of
+	 *              at most transaction.archive.segment-max-mb.
+	 * @return the number of segments merged, 0 when fewer than two segments are
+	 *         small.
+	 */
+	public synchronized int compact() {
+		long threshold = compactionThresholdMb * 1024L * 1024L;
+		long maxSize = segmentMaxMb * 1024L * 1024L;
+		List<ArchiveSegment> small = new ArrayList<>();
+		long size = 0;
+		for (ArchiveSegment segment : segments) {
+			if (segment.size() < threshold && size + segment.size() <= maxSize) {
+				small.add(segment);
+				size += segment.size();
+			}
+		}
+		if (small.size() < 2) {
+			return 0;
+		}
+
+		Map<Integer, ArchivedTransaction> rows = new TreeMap<>();
+		for (ArchiveSegment segment : small) {
+			segment.readAll(row -> rows.putIfAbsent(row.getId(), row));
+		}
+		ArchiveSegment merged = ArchiveSegment.write(nextFile(), rows.values());
+		List<ArchiveSegment> compacted = new ArrayList<>(segments);
+		compacted.removeAll(small);
+		compacted.add(merged);
+		segments = Collections.unmodifiableList(compacted);
+
+		// The readers still holding the old segments keep their mappings, the
+		// files are only unlinked.
+		for (ArchiveSegment segment : small) {
+			try {
+				Files.delete(segment.getFile());
+			} catch (IOException e) {
+				logger.warn("archive segment {} not deleted: {}", segment.getFile(), e.getMessage());
+			}
+		}
+		logger.info("{} archive segments of {} rows compacted into {}", small.size(), rows.size(),
+				merged.getFile());
+		return small.size();
+	}
+
+	private Path directory() {
+		if (directory == null || directory.trim().isEmpty()) {
+			throw new IllegalStateException(
+					"transaction.archive.directory is not set, it should be a directory shared by all the nodes");
+		}
+		Path path = Paths.get(directory);
+		if (!Files.isDirectory(path) || !Files.isWritable(path)) {
+			throw new IllegalStateException(
+					"transaction.archive.directory is not a writable directory: " + path.toAbsolutePath());
+		}
+		return path;
+	}
+
+	// Another node, or the lock of another application context in this JVM.
+	private static FileLock tryLock(FileChannel channel) throws IOException {
+		try {
+			return channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			return null;
+		}
+	}
+
+	private void refresh() {
+		Path path = Paths.get(directory);
+		try {
+			if (Files.getLastModifiedTime(path).equals(listedAt)) {
+				return;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		synchronized (this) {
+			list(path, false);
+		}
+	}
+
+	/**
+	 * The segments of the directory, opening only the ones not open yet. A
+	 * segment deleted by the compaction of another node while it is listed is
+	 * left out, its rows are in the merged segment.
+	 */
+	private void list(Path path, boolean deleteTemporary) {
+		Map<Path, ArchiveSegment> open = new HashMap<>();
+		segments.forEach(segment -> open.put(segment.getFile(), segment));
+		List<ArchiveSegment> listed = new ArrayList<>();
+		long next = 1;
+		try {
+			FileTime modified = Files.getLastModifiedTime(path);
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(path, SEGMENT_PREFIX + "*")) {
+				List<Path> sorted = new ArrayList<>();
+				files.forEach(sorted::add);
+				Collections.sort(sorted);
+				for (Path file : sorted) {
+					if (file.toString().endsWith(SEGMENT_SUFFIX)) {
+						ArchiveSegment segment = open.containsKey(file) ? open.get(file) : openListed(file);
+						if (segment != null) {
+							listed.add(segment);
+						}
+						next = Math.max(next, sequence(file) + 1);
+					} else if (deleteTemporary) {
+						Files.delete(file);
+					}
+				}
+			}
+			listedAt = modified;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		segments = Collections.unmodifiableList(listed);
+		nextSequence = next;
+	}
+
+	private static ArchiveSegment openListed(Path file) {
+		try {
+			return ArchiveSegment.open(file);
+		} catch (UncheckedIOException e) {
+			if (e.getCause() instanceof NoSuchFileException) {
+				return null;
+			}
+			throw e;
+		}
+	}
+
+	private Path nextFile() {
+		return Paths.get(directory).resolve(String.format("%s%016d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+	}
+
+	private static long sequence(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+}
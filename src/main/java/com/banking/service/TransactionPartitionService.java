@@ -0,0 +1,127 @@
+package com.banking.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * @description TransactionPartitionService - keeps the monthly range
+ *              partitions of the ledger ahead of the transaction dates. The
+ *              ledger is partitioned by transaction_date on MySQL only, by the
+ *              db/partitioning/mysql migration, into p_history for the rows
+ *              before the month of the migration, the partitions of that month
+ *              and of the three months after it, and p_max. At start up and
+ *              every day at transaction.partitioning.cron the partitions up to
+ *              transaction.partitioning.months-ahead months after the current
+ *              month are split off p_max. p_max only holds rows when the job
+ *              has fallen behind the transaction dates, so the split normally
+ *              moves no rows.
+ *
+ *              A ledger partitioned into p_max alone gets p_history on the
+ *              first split, which moves every row of the ledger once.
+ *
+ *              A history read with a transaction date predicate only reads the
+ *              partitions of its dates.
+ *
+ * @since 18-10-2026
+ */
+@Service
+public class TransactionPartitionService {
+	private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionService.class);
+
+	private static final String FIND_PARTITION_BOUNDS = "select partition_description "
+			+ "from information_schema.partitions where table_schema = database() "
+			+ "and table_name = 'user_transaction' and partition_name is not null order by partition_ordinal_position";
+
+	private static final String MAXVALUE = "MAXVALUE";
+
+	private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${transaction.partitioning.months-ahead:3}")
+	int monthsAhead;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void createPartitionsOnStart() {
+		createPartitions();
+	}
+
+	/**
+	 * @description create the partitions up to
+	 *              transaction.partitioning.months-ahead months after the current
+	 *              month.
+	 * @return the number of monthly partitions created, 0 when the ledger is not
+	 *         partitioned.
+	 */
+	@Scheduled(cron = "${transaction.partitioning.cron:0 0 1 * * *}")
+	public int createPartitions() {
+		return createPartitions(YearMonth.now());
+	}
+
+	int createPartitions(YearMonth currentMonth) {
+		if (!isMySql()) {
+			return 0;
+		}
+		List<String> bounds = jdbcTemplate.queryForList(FIND_PARTITION_BOUNDS, String.class);
+		if (!bounds.contains(MAXVALUE)) {
+			logger.warn("the ledger has no p_max partition, no partition is created");
+			return 0;
+		}
+
+		LocalDate bound = null;
+		for (String description : bounds) {
+			if (!MAXVALUE.equals(description)) {
+				bound = LocalDate.parse(description.replace("'", ""));
+			}
+		}
+		List<String> partitions = new ArrayList<>();
+		if (bound == null) {
+			bound = currentMonth.atDay(1);
+			partitions.add("partition p_history values less than ('" + bound + "')");
+		}
+		int months = 0;
+		LocalDate until = currentMonth.plusMonths(monthsAhead + 1L).atDay(1);
+		while (bound.isBefore(until)) {
+			LocalDate next = bound.plusMonths(1);
+			partitions.add("partition p" + PARTITION_MONTH.format(bound) + " values less than ('" + next + "')");
+			bound = next;
+			months++;
+		}
+		if (months == 0) {
+			return 0;
+		}
+
+		partitions.add("partition p_max values less than (maxvalue)");
+		try {
+			jdbcTemplate.execute("alter table user_transaction reorganize partition p_max into ("
+					+ String.join(", ", partitions) + ")");
+		} catch (DataAccessException e) {
+			// Another node split p_max first.
+			logger.warn("ledger partitions not created: {}", e.getMessage());
+			return 0;
+		}
+		logger.info("{} monthly ledger partitions created up to {}", months, bound);
+		return months;
+	}
+
+	private boolean isMySql() {
+		return "MySQL".equals(jdbcTemplate.execute(
+				(ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+	}
+}
@@ -1,9 +1,12 @@
 package com.banking.service;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import com.banking.dto.AccountBalanceDto;
+import com.banking.dto.AccountBalancesResponseDto;
 import com.banking.dto.UserAccountDto;
+import com.banking.dto.UserAccountResponseDto;
 import com.banking.dto.ViewPayeeResponseDto;
 
 public interface UserAccountService {
@@ -11,7 +14,13 @@ public interface UserAccountService {
 	public ViewPayeeResponseDto getAllPayees(String userId);
 
 	public AccountBalanceDto getAccountBalance(Integer userAccountId);
+
+	public AccountBalanceDto getAccountBalance(Integer userAccountId, LocalDate asOf);
+
+	public AccountBalancesResponseDto getAccountBalances(List<Integer> userAccountIds);
 	
 	public List<UserAccountDto> getAccounts(String accountNumber);
 
+	public UserAccountResponseDto getTypeaheadAccounts(String prefix, String session, Long keystroke);
+
 }
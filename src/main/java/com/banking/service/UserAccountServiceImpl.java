@@ -1,13 +1,23 @@
 package com.banking.service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -15,7 +25,10 @@ import org.springframework.web.client.RestTemplate;
 
 import com.banking.constant.AppConstant;
 import com.banking.dto.AccountBalanceDto;
+import com.banking.dto.AccountBalancesResponseDto;
+import com.banking.dto.Money;
 import com.banking.dto.UserAccountDto;
+import com.banking.dto.UserAccountResponseDto;
 import com.banking.dto.ViewPayeeResponseDto;
 import com.banking.entity.User;
 import com.banking.entity.UserAccount;
@@ -44,6 +57,33 @@ public class UserAccountServiceImpl implements UserAccountService {
 	@Autowired
 	private UserRepository userRepository;
 
+	@Autowired
+	private StripedBalanceService stripedBalanceService;
+
+	@Autowired
+	private BalanceSnapshotService balanceSnapshotService;
+
+	@Autowired
+	private AccountNumberIndex accountNumberIndex;
+
+	@Autowired
+	private AccountTypeahead accountTypeahead;
+
+	@Autowired
+	private AccountBalanceCache accountBalanceCache;
+
+	@Value("${account.search.max-results:100}")
+	private int searchMaxResults;
+
+	@Value("${account.typeahead.max-results:10}")
+	private int typeaheadMaxResults;
+
+	@Value("${account.balances.max-accounts:10000}")
+	private int balancesMaxAccounts;
+
+	@Value("${account.balances.chunk-size:1000}")
+	private int balancesChunkSize;
+
 	/**
 	 * 
 	 * @description - get the payee list based on the user login account number.
@@ -76,7 +116,10 @@ public class UserAccountServiceImpl implements UserAccountService {
 	}
 
 	/**
-	 * @description get the user account balance by login user account.
+	 * @description get the user account balance by login user account. The
+	 *              balance column is read through the account balance cache,
+	 *              but for the hot accounts, which are read with their unfolded
+	 *              stripe credits in one statement.
 	 * 
 	 * @param accountId for login user account
 	 * @return accountId and account balance through the accountBalanceDto.
@@ -86,9 +129,15 @@ public class UserAccountServiceImpl implements UserAccountService {
 		logger.info("get the account balance for logged user...");
 		AccountBalanceDto accountBalanceDto = new AccountBalanceDto();
 
-		Optional<UserAccount> userAccount = userAccountRepository.findById(userAccountId);
-		if (userAccount.isPresent()) {
-			accountBalanceDto.setAccountBalance(userAccount.get().getBalanceAmount());
+		// A hot account has credits on its stripes which are not folded yet.
+		Map<Integer, Long> balanceAmounts = stripedBalanceService.isStripedAccount(userAccountId)
+				? userAccountRepository.findTotalBalanceAmountsById(Collections.singleton(userAccountId))
+				: accountBalanceCache.get(userAccountId, userAccountRepository::findById,
+						accountNumber -> !stripedBalanceService.isStriped(accountNumber))
+						.map(balance -> Collections.singletonMap(userAccountId, balance.getBalanceAmount()))
+						.orElse(Collections.emptyMap());
+		if (balanceAmounts.containsKey(userAccountId)) {
+			accountBalanceDto.setAccountBalance(Money.ofMinorUnits(balanceAmounts.get(userAccountId)));
 
 			accountBalanceDto.setStatusCode(HttpStatus.OK.value());
 			accountBalanceDto.setMessage(AppConstant.SUCCESS);
@@ -101,34 +150,176 @@ public class UserAccountServiceImpl implements UserAccountService {
 	}
 
 	/**
-	 * @description search by partial account numbers and get the list of all
-	 *              accounts based on search value.
+	 * @description get the account balance at the end of a past day, from the end
+	 *              of day balance snapshots.
+	 * 
+	 * @param accountId for login user account
+	 * @param asOf      the day, today at the latest.
+	 * @return account balance as of the day through the accountBalanceDto.
+	 */
+	@Override
+	public AccountBalanceDto getAccountBalance(Integer userAccountId, LocalDate asOf) {
+		logger.info("get the account balance as of {}...", asOf);
+		AccountBalanceDto accountBalanceDto = new AccountBalanceDto();
+		if (asOf.isAfter(LocalDate.now())) {
+			accountBalanceDto.setStatusCode(HttpStatus.BAD_REQUEST.value());
+			accountBalanceDto.setStatus(AppConstant.FAILURE);
+			accountBalanceDto.setMessage(AppConstant.BALANCE_DATE_INVALID);
+			return accountBalanceDto;
+		}
+
+		Optional<Long> balanceAmount = balanceSnapshotService.getBalanceAsOf(userAccountId, asOf);
+		if (balanceAmount.isPresent()) {
+			accountBalanceDto.setAccountBalance(Money.ofMinorUnits(balanceAmount.get()));
+			accountBalanceDto.setAsOf(asOf);
+			accountBalanceDto.setStatusCode(HttpStatus.OK.value());
+			accountBalanceDto.setMessage(AppConstant.SUCCESS);
+			accountBalanceDto.setStatus(AppConstant.SUCCESS);
+		} else {
+			accountBalanceDto.setStatusCode(HttpStatus.OK.value());
+			accountBalanceDto.setStatus(AppConstant.USER_NOT_FOUND);
+		}
+		return accountBalanceDto;
+	}
+
+	/**
+	 * @description get the balances of many accounts, for the aggregator
+	 *              dashboard. The distinct ids are read with one IN query per
+	 *              account.balances.chunk-size accounts, so most requests need a
+	 *              single query. A chunk holding a hot account is read with the
+	 *              credits on the stripes not yet folded, summed in the same
+	 *              query. At most account.balances.max-accounts ids are taken,
+	 *              and at least one which is not null.
+	 * 
+	 * @param userAccountIds the accounts.
+	 * @return the balance of every account found, by account id in request
+	 *         order, through the AccountBalancesResponseDto.
+	 */
+	@Override
+	public AccountBalancesResponseDto getAccountBalances(List<Integer> userAccountIds) {
+		AccountBalancesResponseDto accountBalancesDto = new AccountBalancesResponseDto();
+		if (userAccountIds == null || userAccountIds.stream().allMatch(Objects::isNull)) {
+			accountBalancesDto.setStatusCode(HttpStatus.BAD_REQUEST.value());
+			accountBalancesDto.setStatus(AppConstant.FAILURE);
+			accountBalancesDto.setMessage(AppConstant.ACCOUNT_BALANCES_EMPTY);
+			return accountBalancesDto;
+		}
+		logger.info("get the balances of {} accounts...", userAccountIds.size());
+		if (userAccountIds.size() > balancesMaxAccounts) {
+			accountBalancesDto.setStatusCode(HttpStatus.BAD_REQUEST.value());
+			accountBalancesDto.setStatus(AppConstant.FAILURE);
+			accountBalancesDto.setMessage(AppConstant.ACCOUNT_BALANCES_LIMIT);
+			return accountBalancesDto;
+		}
+
+		List<Integer> accountIds = new ArrayList<>(new LinkedHashSet<>(userAccountIds));
+		accountIds.removeIf(Objects::isNull);
+		Map<Integer, Long> balanceAmounts = new HashMap<>();
+		for (int from = 0; from < accountIds.size(); from += balancesChunkSize) {
+			List<Integer> chunk = accountIds.subList(from, Math.min(from + balancesChunkSize, accountIds.size()));
+			balanceAmounts.putAll(chunk.stream().anyMatch(stripedBalanceService::isStripedAccount)
+					? userAccountRepository.findTotalBalanceAmountsById(chunk)
+					: userAccountRepository.findBalanceAmountsById(chunk));
+		}
+		Map<Integer, Money> accountBalances = new LinkedHashMap<>();
+		accountIds.stream().filter(balanceAmounts::containsKey)
+				.forEach(accountId -> accountBalances.put(accountId, Money.ofMinorUnits(balanceAmounts.get(accountId))));
+
+		accountBalancesDto.setAccountBalances(accountBalances);
+		accountBalancesDto.setStatusCode(HttpStatus.OK.value());
+		accountBalancesDto.setMessage(AppConstant.SUCCESS);
+		accountBalancesDto.setStatus(AppConstant.SUCCESS);
+		return accountBalancesDto;
+	}
+
+	/**
+	 * @description search by partial account numbers and get the list of the
+	 *              savings accounts based on search value, at most
+	 *              account.search.max-results. The accounts are found by the
+	 *              account number index, and by the database until the index is
+	 *              built. The accounts and their users are then read in one
+	 *              query each.
 	 * @param accountNumber admin search input value.
 	 * @return list of account details by UserAccountResponseDto object.
 	 */
 	@Override
 	public List<UserAccountDto> getAccounts(String accountNumber) {
 		logger.info("get the all accounts based on admin search...");
-		List<UserAccount> userAccounts = userAccountRepository.findAllByAccountNumber(accountNumber);
-		return userAccounts.stream()
-				.filter(account -> !account.getAccountType().equalsIgnoreCase(AppConstant.ACCOUNT_TYPE_MORTGAGE))
-				.map(this::convertEntityToDto).collect(Collectors.toList());
+		List<UserAccount> userAccounts;
+		if (accountNumberIndex.isReady()) {
+			List<Integer> accountIds = accountNumberIndex.search(accountNumber, searchMaxResults);
+			Map<Integer, UserAccount> accounts = userAccountRepository.findAllById(accountIds).stream()
+					.collect(Collectors.toMap(UserAccount::getId, Function.identity()));
+			userAccounts = accountIds.stream().map(accounts::get).filter(Objects::nonNull)
+					.collect(Collectors.toList());
+		} else {
+			userAccounts = userAccountRepository.findAllByAccountNumber(accountNumber).stream()
+					.filter(account -> !account.getAccountType().equalsIgnoreCase(AppConstant.ACCOUNT_TYPE_MORTGAGE))
+					.limit(searchMaxResults).collect(Collectors.toList());
+		}
+
+		Map<Integer, User> users = userRepository
+				.findAllById(userAccounts.stream().map(UserAccount::getUserId).collect(Collectors.toSet())).stream()
+				.collect(Collectors.toMap(User::getId, Function.identity()));
+		return userAccounts.stream().map(account -> convertEntityToDto(account, users.get(account.getUserId())))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * @description the savings accounts whose number starts with the typed
+	 *              prefix, at most account.typeahead.max-results, shortest number
+	 *              first, with the holder name. A request older than the last
+	 *              keystroke of its session, before or after the search, is
+	 *              answered as superseded with no accounts.
+	 * @param prefix    the digits typed so far.
+	 * @param session   the staff typeahead session, optional.
+	 * @param keystroke the number of the keystroke in the session, optional.
+	 * @return the suggested accounts by UserAccountResponseDto object.
+	 */
+	@Override
+	public UserAccountResponseDto getTypeaheadAccounts(String prefix, String session, Long keystroke) {
+		UserAccountResponseDto userAccountResponseDto = new UserAccountResponseDto();
+		if (!accountTypeahead.isLatestKeystroke(session, keystroke)) {
+			return typeaheadResponse(userAccountResponseDto, HttpStatus.CONFLICT, AppConstant.TYPEAHEAD_SUPERSEDED);
+		}
+		if (!accountTypeahead.isReady()) {
+			return typeaheadResponse(userAccountResponseDto, HttpStatus.SERVICE_UNAVAILABLE,
+					AppConstant.TYPEAHEAD_LOADING);
+		}
+		List<UserAccountDto> userAccounts = accountTypeahead.suggest(prefix, typeaheadMaxResults);
+		if (!accountTypeahead.isLatestKeystroke(session, keystroke)) {
+			return typeaheadResponse(userAccountResponseDto, HttpStatus.CONFLICT, AppConstant.TYPEAHEAD_SUPERSEDED);
+		}
+		userAccountResponseDto.setUserAccounts(userAccounts);
+		return userAccounts.isEmpty()
+				? typeaheadResponse(userAccountResponseDto, HttpStatus.NOT_FOUND, AppConstant.NO_RECORD_FOUND)
+				: typeaheadResponse(userAccountResponseDto, HttpStatus.OK, AppConstant.SUCCESS);
+	}
+
+	private UserAccountResponseDto typeaheadResponse(UserAccountResponseDto userAccountResponseDto,
+			HttpStatus status, String message) {
+		if (userAccountResponseDto.getUserAccounts() == null) {
+			userAccountResponseDto.setUserAccounts(Collections.emptyList());
+		}
+		userAccountResponseDto.setStatusCode(status.value());
+		userAccountResponseDto.setMessage(message);
+		return userAccountResponseDto;
 	}
 
 	/**
 	 * @description convert the useraccount entity values to useraccountDto object
 	 *              values based on the response.
 	 * @param userAccount params of useraccount entity
+	 * @param user        the user of the account, null when not found.
 	 * @return
 	 */
-	private UserAccountDto convertEntityToDto(UserAccount userAccount) {
+	private UserAccountDto convertEntityToDto(UserAccount userAccount, User user) {
 		log.info("converting UserAccount to UserAccountResponseDto");
 		UserAccountDto userAccountDto = new UserAccountDto();
 		BeanUtils.copyProperties(userAccount, userAccountDto);
-		Optional<User> user = userRepository.findById(userAccount.getUserId());
-		if (user.isPresent()) {
-			userAccountDto.setUserId(user.get().getId());
-			userAccountDto.setUserName(user.get().getFirstName().concat(" ").concat(user.get().getLastName()));
+		if (user != null) {
+			userAccountDto.setUserId(user.getId());
+			userAccountDto.setUserName(user.getFirstName().concat(" ").concat(user.getLastName()));
 		}
 		return userAccountDto;
 
@@ -43,6 +43,12 @@ public class UserServiceImpl implements UserService {
 	@Autowired
 	UserAccountRepository userAccountRepository;
 
+	@Autowired
+	AccountNumberIndex accountNumberIndex;
+
+	@Autowired
+	AccountTypeahead accountTypeahead;
+
 	/**
 	 * @description This is registerUser method used to register and it will
 	 *              generate accountNumber for the user.
@@ -87,13 +93,14 @@ public class UserServiceImpl implements UserService {
 
 			Long accountNumber = generateAccountNumber();
 			userAccount.setAccountNumber(accountNumber);
-			userAccount.setId(user.getId());
 			userAccount.setMinimumBalance(AppConstant.ACCOUNT_MINIMUM_BALANCE);
 			userAccount.setUserId(user.getId());
 			userAccount.setAccountType(AppConstant.ACCOUNT_TYPE_SAVINGS);
 			userAccount.setBalanceAmount(AppConstant.ACCOUNT_BALANCE_AMOUNT);
 			userAccount.setCreatedDate(LocalDateTime.now());
 			userAccountRepository.save(userAccount);
+			accountNumberIndex.addAfterCommit(userAccount);
+			accountTypeahead.addAfterCommit(userAccount, user);
 
 			// Set response details
 			registerResponseDto.setUserId(user.getUserName());
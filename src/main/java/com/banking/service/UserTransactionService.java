@@ -1,5 +1,8 @@
 package com.banking.service;
 
+import java.util.List;
+
+import com.banking.dto.BatchFundTransferResponseDto;
 import com.banking.dto.FundTransferRequestDto;
 import com.banking.dto.ResponseDto;
 import com.banking.dto.UserTransactionResponseDto;
@@ -9,10 +12,13 @@ import javassist.NotFoundException;
 public interface UserTransactionService {
 
 	public ResponseDto fundTransfer(FundTransferRequestDto fundTransferRequestDto) throws NotFoundException;
+
+	public BatchFundTransferResponseDto batchFundTransfer(List<FundTransferRequestDto> fundTransferRequestDtos);
 	
-	public UserTransactionResponseDto findUserTransactionsByMonth(Integer userAccountId, Integer month, Integer year);
+	public UserTransactionResponseDto findUserTransactionsByMonth(Integer userAccountId, Integer month, Integer year,
+			String after, Integer limit);
 
 	public UserTransactionResponseDto findRecentFiveTransactions(Integer userAccountId);
 	
-	public UserTransactionResponseDto findMortgageTransactions(Integer userAccountId);
+	public UserTransactionResponseDto findMortgageTransactions(Integer userAccountId, String after, Integer limit);
 }
@@ -3,8 +3,12 @@ package com.banking.service;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
@@ -12,22 +16,28 @@ import javax.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import com.banking.constant.AppConstant;
+import com.banking.dto.ArchivedTransaction;
+import com.banking.dto.BatchFundTransferResponseDto;
 import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.FundTransferResponseDto;
 import com.banking.dto.ResponseDto;
 import com.banking.dto.UserTransactionRequestDto;
 import com.banking.dto.UserTransactionResponseDto;
-import com.banking.entity.User;
 import com.banking.entity.UserAccount;
 import com.banking.entity.UserTransaction;
 import com.banking.repository.UserAccountRepository;
-import com.banking.repository.UserRepository;
 import com.banking.repository.UserTransactionRepository;
-import com.banking.util.CommonUtil;
 import com.banking.util.ConverterUtil;
+import com.banking.util.HistoryCursor;
+import com.banking.util.HistoryMerge;
+import com.banking.util.RunningBalances;
+import com.banking.util.TransactionIdGenerator;
 
 import javassist.NotFoundException;
 
@@ -45,6 +55,7 @@ import javassist.NotFoundException;
 @Transactional
 public class UserTransactionServiceImpl implements UserTransactionService {
 	private static final Logger logger = LoggerFactory.getLogger(UserTransactionServiceImpl.class);
+	private static final int RECENT_TRANSACTIONS = RecentTransactionCache.RING_SIZE;
 
 	@Autowired
 	UserAccountRepository userAccountRepository;
@@ -53,12 +64,41 @@ public class UserTransactionServiceImpl implements UserTransactionService {
 	UserTransactionRepository userTransactionRepository;
 
 	@Autowired
-	UserRepository userRepository;
+	TransactionIdGenerator transactionIdGenerator;
+
+	@Autowired
+	StripedBalanceService stripedBalanceService;
+
+	@Autowired
+	RecentTransactionCache recentTransactionCache;
+
+	@Autowired
+	AccountBalanceCache accountBalanceCache;
+
+	@Autowired
+	MonthSummaryService monthSummaryService;
+
+	@Autowired
+	TransactionArchive transactionArchive;
+
+	@Value("${transfer.batch.max-size:10000}")
+	int batchMaxSize;
+
+	@Value("${transaction.history.default-limit:100}")
+	int historyDefaultLimit;
+
+	@Value("${transaction.history.max-limit:500}")
+	int historyMaxLimit;
 
 	/**
 	 * @description user can transfer the amount to one user account to another user
 	 *              account and also we are handle the user can to pay the loan
-	 *              amount.ie, user acccount to user mortgage account.
+	 *              amount.ie, user acccount to user mortgage account. The minimum
+	 *              balance check and debit, the credit and the ledger insert are
+	 *              one statement each, the accounts are never loaded. The account
+	 *              rows are locked in ascending id order, so two opposite
+	 *              transfers cannot deadlock: a payee with a lower id than the
+	 *              payer is locked before the debit.
 	 * @param its send the param values are fund transfer related params for
 	 *            accountFrom, accountId and transfer amount value.
 	 * @return responseDto object set the success and failure values.
@@ -67,55 +107,174 @@ public class UserTransactionServiceImpl implements UserTransactionService {
 	 *                           exception.
 	 */
 	@Override
+	@Transactional(rollbackOn = NotFoundException.class)
 	public ResponseDto fundTransfer(FundTransferRequestDto fundTransferRequestDto) throws NotFoundException {
 		logger.info("fund transfer transaction...");
 		ResponseDto fundTransferResponseDto = new ResponseDto();
 		Long accountNumber = Long.valueOf(fundTransferRequestDto.getPayeeAccountNumber());
-		Optional<UserAccount> userAccountDetail = userAccountRepository.findById(fundTransferRequestDto.getAccountId());
-		Optional<UserAccount> userPayeeAccountDetail = userAccountRepository.findByAccountNumber(accountNumber);
-		if (userAccountDetail.isPresent() && userPayeeAccountDetail.isPresent()) {
-			// User Account Details
-			UserAccount userAccount = userAccountDetail.get();
-			UserAccount userPayeeAccount = userPayeeAccountDetail.get();
-
-			// Check Minimum balance from user accounts.
-			Double totalAmount = fundTransferRequestDto.getTransferAmount() + userAccount.getMinimumBalance();
-			if (totalAmount <= userAccount.getBalanceAmount()) {
-				UserTransaction userTransaction = ConverterUtil.convertDtoToTransactionEntity(fundTransferRequestDto);
-				Double debitAmount = userAccount.getBalanceAmount() - fundTransferRequestDto.getTransferAmount();
-				userAccount.setBalanceAmount(debitAmount);
-
-				// Get Transaction Number
-				String transactionNumber = getTransactionNumber();
-
-				userTransaction.setTransactionId(transactionNumber);
-				userTransaction.setUserAccountId(userAccount);
-				userTransaction.setPayeeAccountId(userPayeeAccount);
-				userTransactionRepository.save(userTransaction);
-
-				// Credit the payee acoount balance amount
-				Double creditAmount = userPayeeAccount.getBalanceAmount() + fundTransferRequestDto.getTransferAmount();
-				userPayeeAccount.setBalanceAmount(creditAmount);
-				logger.debug("before saving the fund transfer...");
-				userAccountRepository.save(userPayeeAccount);
-
-				fundTransferResponseDto.setStatus(AppConstant.SUCCESS);
-				fundTransferResponseDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
-			} else {
-				fundTransferResponseDto.setStatus(AppConstant.FAILURE);
-				fundTransferResponseDto.setMessage(AppConstant.FUND_TRANSFER_MIN_BAL);
+		Integer accountId = fundTransferRequestDto.getAccountId();
+		long transferAmount = fundTransferRequestDto.getTransferAmount().getMinorUnits();
+
+		// The credit of a striped payee goes to a stripe row and leaves the payee
+		// row alone.
+		boolean stripedPayee = stripedBalanceService.isStriped(accountNumber);
+		if (!stripedPayee) {
+			Integer payeeAccountId = userAccountRepository.findIdByAccountNumber(accountNumber)
+					.orElseThrow(() -> new NotFoundException(AppConstant.NO_ACCOUNTS_FOUND));
+			if (payeeAccountId < accountId) {
+				userAccountRepository.lockBalanceAmount(payeeAccountId);
 			}
-		} else {
+		}
+
+		// Debit the user account, only when the minimum balance is kept.
+		if (userAccountRepository.debitBalance(accountId, transferAmount) == AppConstant.ZERO) {
+			if (!userAccountRepository.existsById(accountId)) {
+				throw new NotFoundException(AppConstant.NO_ACCOUNTS_FOUND);
+			}
+			fundTransferResponseDto.setStatus(AppConstant.FAILURE);
+			fundTransferResponseDto.setMessage(AppConstant.FUND_TRANSFER_MIN_BAL);
+			return fundTransferResponseDto;
+		}
+
+		// Credit the payee acoount balance amount, or one of its stripes when it
+		// is a hot account. The debit is rolled back when the payee account is
+		// not found.
+		int credited = stripedPayee
+				? stripedBalanceService.credit(accountNumber, accountId, transferAmount)
+				: userAccountRepository.creditBalance(accountNumber, transferAmount);
+		if (credited == AppConstant.ZERO) {
 			throw new NotFoundException(AppConstant.NO_ACCOUNTS_FOUND);
 		}
 
+		UserTransaction userTransaction = ConverterUtil.convertDtoToTransactionEntity(fundTransferRequestDto);
+		userTransaction.setTransactionId(getTransactionNumber(fundTransferRequestDto));
+		logger.debug("before saving the fund transfer...");
+		// The balance of a striped account is left to the running balance
+		// backfill, reading its stripes here would serialize its credits.
+		userTransactionRepository.insertTransaction(userTransaction, accountId, accountNumber,
+				!stripedBalanceService.isStripedAccount(accountId), !stripedPayee);
+		userTransactionRepository.insertIdempotencyKeys(Collections.singletonList(userTransaction));
+		accountBalanceCache.evictAfterCommit(Collections.singleton(accountId), Collections.singleton(accountNumber));
+		if (!recentTransactionCache.isEmpty()) {
+			// The row is read back only when the payee is not known to the cache.
+			UserTransactionRequestDto transactionDetails = recentTransactionCache.newTransactionDetails(accountNumber,
+					userTransaction.getTransactionType(), userTransaction.getTransactionDate(),
+					userTransaction.getTransactionAmount(), userTransaction.getRemarks());
+			if (transactionDetails == null) {
+				transactionDetails = userTransactionRepository.findTransactionDetail(
+						userTransaction.getTransactionId(), userTransaction.getTransactionDate());
+			}
+			recentTransactionCache.addAfterCommit(accountId, transactionDetails);
+		}
+
+		fundTransferResponseDto.setStatus(AppConstant.SUCCESS);
+		fundTransferResponseDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
 		return fundTransferResponseDto;
 	}
 
+	/**
+	 * @description batch fund transfer for the payroll and settlement jobs. All the
+	 *              accounts of the batch are read with two queries, then the
+	 *              debits, credits and ledger inserts are sent as three JDBC
+	 *              batches. Debits run in request order, so a later transfer of
+	 *              the same account sees the earlier debits for its minimum
+	 *              balance check.
+	 * @param fundTransferRequestDtos list of the fund transfers.
+	 * @return batchFundTransferResponseDto with the result of every transfer in
+	 *         request order.
+	 */
+	@Override
+	public BatchFundTransferResponseDto batchFundTransfer(List<FundTransferRequestDto> fundTransferRequestDtos) {
+		logger.info("batch fund transfer transaction...");
+		BatchFundTransferResponseDto batchResponseDto = new BatchFundTransferResponseDto();
+		if (fundTransferRequestDtos.size() > batchMaxSize) {
+			batchResponseDto.setStatus(AppConstant.FAILURE);
+			batchResponseDto.setMessage(AppConstant.BATCH_FUND_TRANSFER_LIMIT);
+			batchResponseDto.setStatusCode(HttpStatus.BAD_REQUEST.value());
+			return batchResponseDto;
+		}
+
+		Map<Integer, UserAccount> userAccounts = userAccountRepository
+				.findAllById(fundTransferRequestDtos.stream().map(FundTransferRequestDto::getAccountId)
+						.collect(Collectors.toSet()))
+				.stream().collect(Collectors.toMap(UserAccount::getId, Function.identity()));
+		Map<Long, UserAccount> payeeAccounts = userAccountRepository
+				.findAllByAccountNumberIn(fundTransferRequestDtos.stream()
+						.map(request -> Long.valueOf(request.getPayeeAccountNumber())).collect(Collectors.toSet()))
+				.stream().collect(Collectors.toMap(UserAccount::getAccountNumber, Function.identity()));
+
+		List<FundTransferResponseDto> results = new ArrayList<>();
+		List<FundTransferResponseDto> pendingResults = new ArrayList<>();
+		List<UserTransaction> pendingTransactions = new ArrayList<>();
+		fundTransferRequestDtos.forEach(request -> {
+			FundTransferResponseDto result = new FundTransferResponseDto();
+			results.add(result);
+			UserAccount userAccount = userAccounts.get(request.getAccountId());
+			UserAccount payeeAccount = payeeAccounts.get(Long.valueOf(request.getPayeeAccountNumber()));
+			if (userAccount == null || payeeAccount == null) {
+				setTransferResult(result, AppConstant.FAILURE, AppConstant.NO_ACCOUNTS_FOUND, HttpStatus.NOT_FOUND);
+				return;
+			}
+			UserTransaction userTransaction = ConverterUtil.convertDtoToTransactionEntity(request);
+			userTransaction.setTransactionId(getTransactionNumber(request));
+			userTransaction.setUserAccountId(userAccount);
+			userTransaction.setPayeeAccountId(payeeAccount);
+			userTransaction.setPayeeAccountType(payeeAccount.getAccountType());
+			pendingResults.add(result);
+			pendingTransactions.add(userTransaction);
+		});
+
+		// Only the transfers which kept the minimum balance are credited and recorded.
+		int[] debited = userTransactionRepository.debitBalances(pendingTransactions);
+		List<UserTransaction> debitedTransactions = new ArrayList<>();
+		for (int i = 0; i < debited.length; i++) {
+			FundTransferResponseDto result = pendingResults.get(i);
+			if (debited[i] == AppConstant.ZERO) {
+				setTransferResult(result, AppConstant.FAILURE, AppConstant.FUND_TRANSFER_MIN_BAL,
+						HttpStatus.BAD_REQUEST);
+			} else {
+				setTransferResult(result, AppConstant.SUCCESS, AppConstant.FUND_TRANSFER_SUCCESS, HttpStatus.OK);
+				result.setTransactionId(pendingTransactions.get(i).getTransactionId());
+				debitedTransactions.add(pendingTransactions.get(i));
+			}
+		}
+		userTransactionRepository.creditBalances(debitedTransactions);
+		Set<Integer> accountIds = accountIds(debitedTransactions);
+		RunningBalances.assign(debitedTransactions, userAccountRepository.findBalanceAmountsById(accountIds),
+				stripedBalanceService::isStripedAccount);
+		userTransactionRepository.insertTransactions(debitedTransactions);
+		recentTransactionCache.evictAfterCommit(accountIds);
+		accountBalanceCache.evictAfterCommit(accountIds, Collections.emptySet());
+
+		batchResponseDto.setTransfers(results);
+		batchResponseDto.setStatus(AppConstant.SUCCESS);
+		batchResponseDto.setMessage(AppConstant.BATCH_FUND_TRANSFER_PROCESSED);
+		batchResponseDto.setStatusCode(HttpStatus.OK.value());
+		return batchResponseDto;
+	}
+
+	private Set<Integer> accountIds(List<UserTransaction> userTransactions) {
+		Set<Integer> accountIds = new HashSet<>();
+		userTransactions.forEach(userTransaction -> {
+			accountIds.add(userTransaction.getUserAccountId().getId());
+			accountIds.add(userTransaction.getPayeeAccountId().getId());
+		});
+		return accountIds;
+	}
+
+	private void setTransferResult(FundTransferResponseDto result, String status, String message,
+			HttpStatus httpStatus) {
+		result.setStatus(status);
+		result.setMessage(message);
+		result.setStatusCode(httpStatus.value());
+	}
+
 	/**
 	 * @description This method is used for to get recent 5 transactions input
 	 *              parameter account and also we are handle the user can to pay the
-	 *              loan amount.ie, user acccount to user mortgage account.
+	 *              loan amount.ie, user acccount to user mortgage account. Served
+	 *              from the recent transactions cache, read from the database on
+	 *              a miss.
 	 * 
 	 * @return usertransactionresponsedto object for return list of last five
 	 *         transactions summary.
@@ -123,167 +282,174 @@ public class UserTransactionServiceImpl implements UserTransactionService {
 	@Override
 	public UserTransactionResponseDto findRecentFiveTransactions(Integer userAccountId) {
 		logger.info("recent five transaction summary...");
-		List<UserTransaction> userTransactionResponse = userTransactionRepository
-				.findTop5ByUserAccountIdIdOrPayeeAccountIdIdOrderByIdDesc(userAccountId, userAccountId);
+		List<UserTransactionRequestDto> transactionDetails = recentTransactionCache.get(userAccountId,
+				this::findRecentTransactionDetails);
 
-		return convertUserTransactionEntityToUserTransactionResponseDto(userTransactionResponse);
+		return toUserTransactionResponseDto(transactionDetails);
 	}
 
 	/**
 	 * @description get the all morgage account transaction summary based on the
-	 *              login user.
+	 *              login user, one page at a time, newest first.
+	 * @param after the next cursor of the previous page, null for the first page.
+	 * @param limit page size, transaction.history.default-limit when null.
 	 * @return list of the mortgage account transactions with success or failure
-	 *         status.
+	 *         status and the cursor of the next page.
 	 */
 	@Override
-	public UserTransactionResponseDto findMortgageTransactions(Integer userAccountId) {
+	public UserTransactionResponseDto findMortgageTransactions(Integer userAccountId, String after, Integer limit) {
 		logger.info("get all mortgage account transaction summary...");
-		List<UserTransaction> transactions = userTransactionRepository
-				.findAllByUserAccountIdIdOrPayeeAccountIdIdOrderByIdDesc(userAccountId, userAccountId);
-
-		return convertUserTransactionEntityToMortgage(transactions);
-	}
-
-	/**
-	 * @description here we are converting the transaction records to responseDto
-	 *              based on the required param values.
-	 * @param transactions list of the transactions
-	 * @return list of the transactions we can converted into single responseDto
-	 *         based retuired params only.
-	 */
-	private UserTransactionResponseDto convertUserTransactionEntityToMortgage(List<UserTransaction> transactions) {
-		UserTransactionResponseDto responseDto = new UserTransactionResponseDto();
-		List<UserTransactionRequestDto> list = new ArrayList<>();
-		transactions.forEach(transaction -> {
-
-			UserAccount userAccount = transaction.getPayeeAccountId();
-			if (userAccount.getAccountType().equals(AppConstant.ACCOUNT_TYPE_MORTGAGE)) {
-
-				UserTransactionRequestDto userTransactionRequestDto = new UserTransactionRequestDto();
-				Optional<User> user = userRepository.findById(transaction.getPayeeAccountId().getUserId());
-				if (user.isPresent()) {
-					userTransactionRequestDto.setPayeeName(user.get().getFirstName() + " " + user.get().getLastName());
-				}
-				userTransactionRequestDto.setRemarks(transaction.getRemarks());
-				userTransactionRequestDto
-						.setPayeeAccountNumber(String.valueOf(transaction.getPayeeAccountId().getAccountNumber()));
-				userTransactionRequestDto.setTransactionType(transaction.getTransactionType());
-				userTransactionRequestDto.setTransactionDate(transaction.getTransactionDate());
-				userTransactionRequestDto.setBalanceAmount(transaction.getPayeeAccountId().getBalanceAmount());
-				userTransactionRequestDto.setTransactionAmount(transaction.getTransactionAmount());
-				list.add(userTransactionRequestDto);
-			}
-		});
-
-		if (list.isEmpty()) {
-			responseDto.setMessage(AppConstant.NO_RECORD_FOUND);
-		} else {
-			responseDto.setMessage(AppConstant.OPERATION_SUCCESS);
+		int pageLimit = pageLimit(limit);
+		int beforeId = beforeId(after);
+		List<UserTransactionRequestDto> transactionDetails = userTransactionRepository
+				.findTransactionDetailsByPayeeAccountType(userAccountId, AppConstant.ACCOUNT_TYPE_MORTGAGE,
+						beforeId, PageRequest.of(0, pageLimit + 1));
+
+		// The archived rows carry the current balance of the payee account, as
+		// the rows of the ledger do.
+		List<ArchivedTransaction> archived = readArchive(userAccountId, LocalDate.MIN, LocalDate.MAX,
+				transactionDetails, beforeId, pageLimit + 1).stream()
+						.filter(row -> AppConstant.ACCOUNT_TYPE_MORTGAGE.equals(row.getPayeeAccountType()))
+						.collect(Collectors.toList());
+		if (!archived.isEmpty()) {
+			Map<Integer, Long> balanceAmounts = userAccountRepository.findBalanceAmountsById(
+					archived.stream().map(ArchivedTransaction::getPayeeAccountId).collect(Collectors.toSet()));
+			transactionDetails = HistoryMerge.merge(transactionDetails,
+					archived.stream().map(row -> row.toTransactionDetail(balanceAmounts.get(row.getPayeeAccountId())))
+							.collect(Collectors.toList()),
+					HistoryMerge.BY_ID_DESC, pageLimit + 1);
 		}
-		responseDto.setTransactionDetails(list);
-		responseDto.setStatusCode(HttpStatus.OK.value());
-		return responseDto;
+		return toUserTransactionPage(transactionDetails, pageLimit);
 	}
 
 	/**
 	 * @description this method is to get entire month transactions to respective
-	 *              userAccountId
+	 *              userAccountId, paid from and paid to the account. The first
+	 *              page also has the month summary of the account.
 	 * 
 	 * @param userAccountId Integer, month Integer, year Integer - providing
 	 *                      required account number, month and year to search
 	 *                      monthly transactions
+	 * @param after         the next cursor of the previous page, null for the
+	 *                      first page.
+	 * @param limit         page size, transaction.history.default-limit when null.
 	 * @return UserTransactionResponseDto object contain with status and message
 	 *         along with response object
 	 */
 	@Override
-	public UserTransactionResponseDto findUserTransactionsByMonth(Integer userAccountId, Integer month, Integer year) {
+	public UserTransactionResponseDto findUserTransactionsByMonth(Integer userAccountId, Integer month, Integer year,
+			String after, Integer limit) {
 
 		logger.info("Getting monthly transactions fot the given user account");
 
-		String inputMonth = String.format("%02d", month);
-
-		LocalDate startDate = LocalDate.parse(year + "-" + inputMonth + "-" + "01");
+		YearMonth yearMonth = YearMonth.of(year, month);
+
+		int pageLimit = pageLimit(limit);
+		int beforeId = beforeId(after);
+		List<UserTransactionRequestDto> transactionDetails = userTransactionRepository.findTransactionDetailsBetween(
+				userAccountId, yearMonth.atDay(1), yearMonth.atEndOfMonth(), beforeId,
+				PageRequest.of(0, pageLimit + 1));
+		List<ArchivedTransaction> archived = readArchive(userAccountId, yearMonth.atDay(1),
+				yearMonth.atEndOfMonth(), transactionDetails, beforeId, pageLimit + 1);
+		if (!archived.isEmpty()) {
+			transactionDetails = HistoryMerge.merge(transactionDetails, toTransactionDetails(archived),
+					HistoryMerge.BY_ID_DESC, pageLimit + 1);
+		}
 
-		Integer lastDayOfMonth = YearMonth.of(year, month).atEndOfMonth().getDayOfMonth();
+		UserTransactionResponseDto userTransactionResponseDto = toUserTransactionPage(transactionDetails, pageLimit);
+		if (after == null) {
+			userTransactionResponseDto.setMonthSummary(monthSummaryService.getMonthSummary(userAccountId, year, month));
+		}
+		return userTransactionResponseDto;
+	}
 
-		LocalDate endDate = LocalDate.parse(year + "-" + inputMonth + "-" + lastDayOfMonth);
+	/**
+	 * @description the latest rows of the account from the ledger, and from the
+	 *              archive when the ledger has fewer than the recent rows.
+	 */
+	private List<UserTransactionRequestDto> findRecentTransactionDetails(Integer userAccountId) {
+		List<UserTransactionRequestDto> transactionDetails = userTransactionRepository
+				.findTransactionDetails(userAccountId, PageRequest.of(0, RECENT_TRANSACTIONS));
+		if (transactionDetails.size() == RECENT_TRANSACTIONS) {
+			return transactionDetails;
+		}
+		List<UserTransactionRequestDto> archived = toTransactionDetails(
+				transactionArchive.read(userAccountId, LocalDate.MIN, LocalDate.MAX, 0, Integer.MAX_VALUE));
+		archived.sort(HistoryMerge.BY_DATE_DESC);
+		return HistoryMerge.merge(transactionDetails, archived, HistoryMerge.BY_DATE_DESC, RECENT_TRANSACTIONS);
+	}
 
-		List<UserTransaction> userTransactionResponse = userTransactionRepository
-				.getAllByUserAccountIdIdAndTransactionDateBetween(userAccountId, startDate, endDate);
+	/**
+	 * @description the archived rows which can be on a history page, newest
+	 *              first by id. When the ledger filled the page the archived
+	 *              rows below its last row are not read.
+	 */
+	private List<ArchivedTransaction> readArchive(Integer userAccountId, LocalDate startDate, LocalDate endDate,
+			List<UserTransactionRequestDto> transactionDetails, int beforeId, int limit) {
+		int afterId = transactionDetails.size() < limit ? 0
+				: transactionDetails.get(transactionDetails.size() - 1).getId();
+		return transactionArchive.read(userAccountId, startDate, endDate, afterId, beforeId);
+	}
 
-		return convertUserTransactionEntityToUserTransactionResponseDto(userTransactionResponse);
+	private List<UserTransactionRequestDto> toTransactionDetails(List<ArchivedTransaction> archived) {
+		return archived.stream().map(ArchivedTransaction::toTransactionDetail).collect(Collectors.toList());
 	}
 
 	/**
-	 * @description this is private method it is used for Entity to DtoResponse
-	 *              converts - written in single separate method for code re-use
-	 * @param list of transaction entitries
-	 * @return UserTransactionResponseDto values are response required values only
-	 *         sended.
+	 * @description one history page of at most limit rows. One row more than
+	 *              the limit is read, when it is there the next cursor points
+	 *              below the last row of this page.
 	 */
+	private UserTransactionResponseDto toUserTransactionPage(List<UserTransactionRequestDto> transactionDetails,
+			int limit) {
+		if (transactionDetails.size() <= limit) {
+			return toUserTransactionResponseDto(transactionDetails);
+		}
+		List<UserTransactionRequestDto> page = new ArrayList<>(transactionDetails.subList(0, limit));
+		UserTransactionResponseDto userTransactionResponseDto = toUserTransactionResponseDto(page);
+		userTransactionResponseDto.setNextCursor(HistoryCursor.encode(page.get(limit - 1).getId()));
+		return userTransactionResponseDto;
+	}
+
+	private int pageLimit(Integer limit) {
+		return limit == null ? historyDefaultLimit : Math.max(1, Math.min(limit, historyMaxLimit));
+	}
+
+	private int beforeId(String after) {
+		return after == null ? Integer.MAX_VALUE : HistoryCursor.decode(after);
+	}
+
 	/**
-	 * @description this is private method it is used for Entity to DtoResponse
-	 *              converts - written in single separate method for code re-use
-	 * @param userTransactionResponse object
+	 * @description wrap the transaction history rows, read by one projection
+	 *              query, into the response with status code and message.
+	 * @param transactionDetails the history rows.
 	 * @return UserTransactionResponseDto return the object with status code and
 	 *         message
 	 */
-	private UserTransactionResponseDto convertUserTransactionEntityToUserTransactionResponseDto(
-			List<UserTransaction> userTransactionResponse) {
-
+	private UserTransactionResponseDto toUserTransactionResponseDto(
+			List<UserTransactionRequestDto> transactionDetails) {
 		UserTransactionResponseDto userTransactionResponseDto = new UserTransactionResponseDto();
-		List<UserTransactionRequestDto> response = new ArrayList<>();
-
-		if (null != userTransactionResponse && userTransactionResponse.size() > AppConstant.ZERO) {
-
-			response = userTransactionResponse.stream().map(request -> {
-
-				UserTransactionRequestDto userTransactionRequestDto = new UserTransactionRequestDto();
-				Optional<User> user = userRepository.findById(request.getPayeeAccountId().getUserId());
-				if (user.isPresent()) {
-					userTransactionRequestDto.setPayeeName(user.get().getFirstName() + " " + user.get().getLastName());
-				}
-				userTransactionRequestDto.setRemarks(request.getRemarks());
-				userTransactionRequestDto
-						.setPayeeAccountNumber(String.valueOf(request.getPayeeAccountId().getAccountNumber()));
-				userTransactionRequestDto.setTransactionType(request.getTransactionType());
-				userTransactionRequestDto.setTransactionDate(request.getTransactionDate());
-				userTransactionRequestDto.setTransactionAmount(request.getTransactionAmount());
-
-				return userTransactionRequestDto;
-			}).collect(Collectors.toList());
-
-			userTransactionResponseDto.setMessage(AppConstant.OPERATION_SUCCESS);
-			userTransactionResponseDto.setStatusCode(HttpStatus.OK.value());
-			userTransactionResponseDto.setTransactionDetails(response);
-
-			return userTransactionResponseDto;
-
-		} else {
+		if (transactionDetails.isEmpty()) {
 			userTransactionResponseDto.setMessage(AppConstant.NO_RECORD_FOUND);
-			userTransactionResponseDto.setStatusCode(HttpStatus.OK.value());
-			userTransactionResponseDto.setTransactionDetails(response);
+		} else {
+			userTransactionResponseDto.setMessage(AppConstant.OPERATION_SUCCESS);
 		}
+		userTransactionResponseDto.setStatusCode(HttpStatus.OK.value());
+		userTransactionResponseDto.setTransactionDetails(transactionDetails);
 		return userTransactionResponseDto;
 	}
 
 	/**
-	 * @description get the transaction number based on the unique alphanumeric
-	 *              values.
+	 * @description get the transaction number based on the unique, time ordered
+	 *              transaction id of this node, or on the id assigned when an
+	 *              asynchronous transfer was accepted.
 	 * 
 	 * @return return the string value of the generated transaction number.
 	 */
-	private String getTransactionNumber() {
+	private String getTransactionNumber(FundTransferRequestDto fundTransferRequestDto) {
 		logger.info("get the transaction number...");
-		Integer transactionId = CommonUtil.getTransactionNumber();
-		String transactionNumber = AppConstant.GET_TRANSACTION_NO_PREFIX + transactionId;
-
-		UserTransaction userTransaction = userTransactionRepository.findByTransactionId(transactionNumber);
-		Optional<UserTransaction> isUserTransaction = Optional.ofNullable(userTransaction);
-		if (isUserTransaction.isPresent()) {
-			getTransactionNumber();
-		}
-		return transactionNumber;
-
+		Long transactionId = fundTransferRequestDto.getTransactionId();
+		return AppConstant.GET_TRANSACTION_NO_PREFIX
+				+ (transactionId != null ? transactionId : transactionIdGenerator.nextId());
 	}
 }
@@ -1,5 +1,9 @@
 package com.banking.util;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 
 import com.banking.constant.AppConstant;
@@ -32,13 +36,36 @@ public class ConverterUtil {
 	public static UserTransaction convertDtoToTransactionEntity(FundTransferRequestDto fundTransferRequestDto) {
 		UserTransaction userTransaction = new UserTransaction();
 		userTransaction.setTransactionDate(LocalDate.now());
-		userTransaction.setTransactionAmount(fundTransferRequestDto.getTransferAmount());
+		userTransaction.setTransactionAmount(fundTransferRequestDto.getTransferAmount().getMinorUnits());
 		userTransaction.setTransactionType(AppConstant.TRANSACTION_TYPE);
-		userTransaction.setCurrentBalanceAmount(0.00);
 		userTransaction.setRemarks(fundTransferRequestDto.getRemarks());
+		userTransaction.setIdempotencyKey(fundTransferRequestDto.getIdempotencyKey());
+		if (fundTransferRequestDto.getIdempotencyKey() != null) {
+			userTransaction.setPayloadHash(payloadHash(fundTransferRequestDto));
+		}
 		return userTransaction;
 	}
 
+	/**
+	 * SHA-256 of the account, payee account number, amount and remarks of the
+	 * fund transfer, recorded with its Idempotency-Key.
+	 * 
+	 * @param fundTransferRequestDto the fund transfer.
+	 * @return the hash as 64 hex digits.
+	 */
+	public static String payloadHash(FundTransferRequestDto fundTransferRequestDto) {
+		String payload = fundTransferRequestDto.getAccountId() + "|" + fundTransferRequestDto.getPayeeAccountNumber()
+				+ "|" + (fundTransferRequestDto.getTransferAmount() == null ? null
+						: fundTransferRequestDto.getTransferAmount().getMinorUnits())
+				+ "|" + fundTransferRequestDto.getRemarks();
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+			return String.format("%064x", new BigInteger(1, digest));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	/**
 	 * @description convert the user account and user values to viewpayeedto
 	 *              details.
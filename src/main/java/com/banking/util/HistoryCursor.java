@@ -0,0 +1,44 @@
+package com.banking.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.banking.constant.AppConstant;
+import com.banking.exception.InvalidCursorException;
+
+/**
+ * @description HistoryCursor - the opaque next cursor of a transaction history
+ *              page. It carries the id of the last transaction of the page, the
+ *              next page starts below that id, so a deep page costs the same as
+ *              the first one.
+ *
+ * @since 18-10-2026
+ */
+public class HistoryCursor {
+
+	private static final String PREFIX = "t:";
+
+	private HistoryCursor() {
+	}
+
+	public static String encode(Integer transactionId) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((PREFIX + transactionId).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @description the transaction id of the cursor.
+	 * @throws InvalidCursorException when the cursor is not one of ours.
+	 */
+	public static int decode(String cursor) {
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (!value.startsWith(PREFIX)) {
+				throw new InvalidCursorException(AppConstant.HISTORY_CURSOR_INVALID);
+			}
+			return Integer.parseInt(value.substring(PREFIX.length()));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidCursorException(AppConstant.HISTORY_CURSOR_INVALID);
+		}
+	}
+}
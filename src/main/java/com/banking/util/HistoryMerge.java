@@ -0,0 +1,55 @@
+package com.banking.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.banking.dto.UserTransactionRequestDto;
+
+/**
+ * @description HistoryMerge - merges the payer side and the payee side of a
+ *              transaction history read. Each side is read by its own query on
+ *              its own index, an or of the two account columns is planned as a
+ *              full scan of the ledger. A transfer to the same account is on
+ *              both sides and kept once.
+ *
+ * @since 18-10-2026
+ */
+public class HistoryMerge {
+
+	/** Newest first by id, the order of the keyset paged history. */
+	public static final Comparator<UserTransactionRequestDto> BY_ID_DESC = Comparator
+			.comparing(UserTransactionRequestDto::getId).reversed();
+
+	/** Newest first by date, then by id, the order of the date indexes. */
+	public static final Comparator<UserTransactionRequestDto> BY_DATE_DESC = Comparator
+			.comparing(UserTransactionRequestDto::getTransactionDate)
+			.thenComparing(UserTransactionRequestDto::getId).reversed();
+
+	private HistoryMerge() {
+	}
+
+	/**
+	 * @description the first limit rows of the two sides, each side already in
+	 *              the order of the comparator.
+	 */
+	public static List<UserTransactionRequestDto> merge(List<UserTransactionRequestDto> payerRows,
+			List<UserTransactionRequestDto> payeeRows, Comparator<UserTransactionRequestDto> order, int limit) {
+		List<UserTransactionRequestDto> merged = new ArrayList<>(Math.min(limit, payerRows.size() + payeeRows.size()));
+		int payer = 0;
+		int payee = 0;
+		while (merged.size() < limit && (payer < payerRows.size() || payee < payeeRows.size())) {
+			UserTransactionRequestDto row;
+			if (payee == payeeRows.size()
+					|| payer < payerRows.size() && order.compare(payerRows.get(payer), payeeRows.get(payee)) <= 0) {
+				row = payerRows.get(payer++);
+			} else {
+				row = payeeRows.get(payee++);
+			}
+			if (merged.isEmpty() || !merged.get(merged.size() - 1).getId().equals(row.getId())) {
+				merged.add(row);
+			}
+		}
+		return merged;
+	}
+}
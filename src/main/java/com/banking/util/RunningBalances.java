@@ -0,0 +1,43 @@
+package com.banking.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.banking.entity.UserTransaction;
+
+/**
+ * @description RunningBalances - sets the payer and payee balance of a run of
+ *              transfers from the balances after the last of them. The
+ *              transfers are walked newest first, each one is undone on the
+ *              balances before the one before it is set.
+ *
+ * @since 18-10-2026
+ */
+public class RunningBalances {
+
+	private RunningBalances() {
+	}
+
+	/**
+	 * @param transactions  the transfers in the order they were applied.
+	 * @param balancesAfter the balance of each account after the last transfer,
+	 *                      read on the locked account rows.
+	 * @param notRecorded   accounts whose balance is left null, to be filled by
+	 *                      the running balance backfill.
+	 */
+	public static void assign(List<UserTransaction> transactions, Map<Integer, Long> balancesAfter,
+			Predicate<Integer> notRecorded) {
+		Map<Integer, Long> balances = new HashMap<>(balancesAfter);
+		for (int i = transactions.size() - 1; i >= 0; i--) {
+			UserTransaction transaction = transactions.get(i);
+			Integer payerId = transaction.getUserAccountId().getId();
+			Integer payeeId = transaction.getPayeeAccountId().getId();
+			transaction.setCurrentBalanceAmount(notRecorded.test(payerId) ? null : balances.get(payerId));
+			transaction.setPayeeBalanceAmount(notRecorded.test(payeeId) ? null : balances.get(payeeId));
+			balances.computeIfPresent(payerId, (id, balance) -> balance + transaction.getTransactionAmount());
+			balances.computeIfPresent(payeeId, (id, balance) -> balance - transaction.getTransactionAmount());
+		}
+	}
+}
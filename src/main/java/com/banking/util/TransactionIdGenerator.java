@@ -0,0 +1,60 @@
+package com.banking.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * @description TransactionIdGenerator - generates time ordered, unique
+ *              transaction ids without a database lookup. An id is made of 41
+ *              bits of milliseconds since 01-12-2019, 10 bits of node id and a
+ *              12 bit sequence within the millisecond (4096 ids per node per
+ *              millisecond).
+ *
+ *              The last timestamp and sequence are kept in one AtomicLong and
+ *              moved forward with compare and set, so the ids of a node are
+ *              strictly increasing across threads. When the sequence of a
+ *              millisecond is used up, or the clock moves backwards, the
+ *              generator carries on from the last timestamp instead of waiting.
+ *
+ * @since 18-10-2026
+ */
+@Component
+public class TransactionIdGenerator {
+
+	static final long EPOCH = 1575158400000L;
+	static final int NODE_BITS = 10;
+	static final int SEQUENCE_BITS = 12;
+	static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+	static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+	private final long nodeId;
+
+	// timestamp << SEQUENCE_BITS | sequence of the last generated id.
+	private final AtomicLong lastState = new AtomicLong();
+
+	public TransactionIdGenerator(@Value("${transaction.node-id:0}") long nodeId) {
+		if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+			throw new IllegalArgumentException("transaction.node-id must be between 0 and " + MAX_NODE_ID);
+		}
+		this.nodeId = nodeId;
+	}
+
+	/**
+	 * @description get the next transaction id of this node.
+	 * @return the unique, increasing long value of the transaction id.
+	 */
+	public long nextId() {
+		long now = System.currentTimeMillis() - EPOCH;
+		while (true) {
+			long last = lastState.get();
+			long next = (last >>> SEQUENCE_BITS) < now ? now << SEQUENCE_BITS : last + 1;
+			if (lastState.compareAndSet(last, next)) {
+				long timestamp = next >>> SEQUENCE_BITS;
+				return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS)
+						| (next & SEQUENCE_MASK);
+			}
+		}
+	}
+}
@@ -0,0 +1,4 @@
+-- Version of each account row, checked by the optimistic lock of the account
+-- updates. The existing rows start at version 0.
+alter table user_account add column version bigint default 0;
+update user_account set version = 0 where version is null;
@@ -0,0 +1,5 @@
+-- Idempotency-Key of the fund transfer which wrote the ledger row, a retried
+-- transfer with the same key is not applied twice.
+alter table user_transaction add column idempotency_key varchar(64);
+
+alter table user_transaction add constraint UK_6q6j0rwyd1xnbll5hwvjq770i unique (idempotency_key);
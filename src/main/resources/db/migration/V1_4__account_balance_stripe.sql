@@ -0,0 +1,11 @@
+-- Sub-balances of the hot payee accounts, the credits are spread over the
+-- stripes and folded into the account balance.
+create table account_balance_stripe (
+	id integer not null auto_increment,
+	balance_amount bigint,
+	stripe integer,
+	user_account_id integer,
+	primary key (id)
+);
+
+alter table account_balance_stripe add constraint UK7y2gbdt6v9k13qooeco992dtj unique (user_account_id, stripe);
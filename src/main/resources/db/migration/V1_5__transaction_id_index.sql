@@ -0,0 +1,3 @@
+-- findByTransactionId, the recent transaction cache reads the row of a
+-- transfer by its transaction number.
+create index idx_user_transaction_transaction_id on user_transaction (transaction_id);
@@ -0,0 +1,21 @@
+-- Totals and balances of each account and month, maintained from the ledger
+-- rows not summarized yet. The existing rows are summarized by the first runs
+-- of the month summary job.
+create table account_month_summary (
+	id integer not null auto_increment,
+	closing_balance bigint,
+	credit_count integer,
+	debit_count integer,
+	opening_balance bigint,
+	statement_month integer,
+	total_credits bigint,
+	total_debits bigint,
+	user_account_id integer,
+	primary key (id)
+);
+
+alter table account_month_summary add constraint UKgjs5p4rc49lgyv5u4c0epkav0 unique (user_account_id, statement_month);
+
+alter table user_transaction add column summarized boolean default false not null;
+
+create index idx_user_transaction_summarized on user_transaction (summarized);
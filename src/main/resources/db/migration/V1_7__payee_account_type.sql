@@ -0,0 +1,11 @@
+-- The ledger rows carry the account type of their payee account, the mortgage
+-- history is filtered on it. The existing rows get the type of their payee
+-- account.
+alter table user_transaction add column payee_account_type varchar(255);
+
+update user_transaction t set payee_account_type =
+	(select a.account_type from user_account a where a.id = t.payee_account_id)
+where t.payee_account_type is null;
+
+create index idx_user_transaction_payer_type on user_transaction (user_account_id, payee_account_type, id);
+create index idx_user_transaction_payee_type on user_transaction (payee_account_id, payee_account_type, id);
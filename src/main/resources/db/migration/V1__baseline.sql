@@ -0,0 +1,54 @@
+-- Schema as created by spring.jpa.hibernate.ddl-auto=update before the
+-- migrations, the original schema of the application. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and get every
+-- change from V1_1 on.
+
+create table hibernate_sequence (
+	next_val bigint
+);
+
+insert into hibernate_sequence values (1);
+
+create table user (
+	id integer not null,
+	address_1 varchar(255),
+	address_2 varchar(255),
+	dob date,
+	email_address varchar(255),
+	first_name varchar(255),
+	last_name varchar(255),
+	pan_number varchar(255),
+	password varchar(255),
+	phone varchar(255),
+	pin_code integer,
+	user_name varchar(255),
+	primary key (id)
+);
+
+create table user_account (
+	id integer not null auto_increment,
+	account_number bigint,
+	account_type varchar(255),
+	balance_amount double precision,
+	created_date datetime(6),
+	minimum_balance double precision,
+	user_id integer,
+	primary key (id)
+);
+
+create table user_transaction (
+	id integer not null auto_increment,
+	current_balance_amount double precision,
+	remarks varchar(255),
+	transaction_amount double precision,
+	transaction_date date,
+	transaction_id varchar(255),
+	transaction_type varchar(255),
+	payee_account_id integer,
+	user_account_id integer,
+	primary key (id)
+);
+
+alter table user_transaction add constraint FK59bonktasvxvi1r0cxq7uosqo foreign key (payee_account_id) references user_account (id);
+
+alter table user_transaction add constraint FKou3eh3rlss5y7klais15tw15b foreign key (user_account_id) references user_account (id);
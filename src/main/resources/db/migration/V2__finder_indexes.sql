@@ -0,0 +1,24 @@
+-- Indexes of the repository finders, checked against the query plans by
+-- QueryPlanTest.
+
+-- findByAccountNumber, findAllByAccountNumberIn, creditBalance, creditStripe
+-- and the payee lookup of insertTransaction.
+alter table user_account add constraint uk_user_account_account_number unique (account_number);
+
+-- findByUserId and findByUserIdAndAccountType.
+create index idx_user_account_user_type on user_account (user_id, account_type);
+
+-- findUserByPhone, registration rejects a phone number which is taken.
+alter table user add constraint uk_user_phone unique (phone);
+
+-- findUserByUserNameAndPassword.
+create index idx_user_user_name on user (user_name);
+
+-- findByTransactionId, the transaction numbers are unique.
+alter table user_transaction add constraint uk_user_transaction_transaction_id unique (transaction_id);
+drop index idx_user_transaction_transaction_id on user_transaction;
+
+-- Monthly history, recent transactions and statement export, read on the
+-- payer side and on the payee side of the ledger rows.
+create index idx_user_transaction_payer_date on user_transaction (user_account_id, transaction_date, id);
+create index idx_user_transaction_payee_date on user_transaction (payee_account_id, transaction_date, id);
@@ -0,0 +1,4 @@
+-- Balance of the payee account after each transfer, next to the balance of
+-- the payer account in current_balance_amount. The rows written before are
+-- filled by RunningBalanceBackfillService.
+alter table user_transaction add column payee_balance_amount bigint;
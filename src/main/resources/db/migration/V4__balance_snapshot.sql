@@ -0,0 +1,11 @@
+-- End of day balance of each account, written by BalanceSnapshotService. The
+-- unique key serves the nearest snapshot lookup of the balance as of a date.
+create table account_balance_snapshot (
+	id integer not null auto_increment,
+	user_account_id integer,
+	balance_date date,
+	balance_amount bigint,
+	primary key (id)
+);
+
+alter table account_balance_snapshot add constraint uk_account_balance_snapshot_account_date unique (user_account_id, balance_date);
@@ -0,0 +1,3 @@
+-- findArchivableTransactions, the archival job reads the oldest ledger rows
+-- in transaction date order.
+create index idx_user_transaction_date on user_transaction (transaction_date, id);
@@ -0,0 +1,15 @@
+-- Idempotency-Key of every fund transfer, kept out of the ledger. The ledger
+-- is partitioned by transaction date on MySQL (V5), where its unique key on
+-- the Idempotency-Key only holds within one date, so a retry after midnight
+-- could be transferred again. This table is not partitioned and its primary
+-- key holds across all dates.
+create table transfer_idempotency (
+	idempotency_key varchar(64) not null,
+	transaction_id varchar(255) not null,
+	created_date date not null,
+	primary key (idempotency_key)
+);
+
+insert into transfer_idempotency (idempotency_key, transaction_id, created_date)
+	select idempotency_key, min(transaction_id), min(transaction_date) from user_transaction
+	where idempotency_key is not null group by idempotency_key;
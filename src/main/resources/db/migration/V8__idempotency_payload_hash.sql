@@ -0,0 +1,5 @@
+-- SHA-256 of the fund transfer sent with each Idempotency-Key, so a key reused
+-- for a different transfer is rejected instead of answered with the response
+-- of the first one. Null for the keys recorded before this migration, which
+-- are not checked.
+alter table transfer_idempotency add column payload_hash varchar(64);
@@ -0,0 +1,41 @@
+-- Range partitions of the ledger by transaction date, one per month, MySQL
+-- only. The migration puts every row before the current month into p_history
+-- and creates the partitions of the current month and of the three months
+-- after it, so the rebuild of the table happens here, once. Later months are
+-- split off the empty p_max by TransactionPartitionService ahead of time.
+--
+-- A partitioned table takes no foreign key, and every unique key has to hold
+-- the partition column. The transaction number and the Idempotency-Key are
+-- unique per transaction date from here on, the retries of a transfer run
+-- within minutes of it.
+
+alter table user_transaction drop foreign key FK59bonktasvxvi1r0cxq7uosqo;
+alter table user_transaction drop foreign key FKou3eh3rlss5y7klais15tw15b;
+
+alter table user_transaction modify transaction_date date not null;
+
+alter table user_transaction drop primary key, add primary key (id, transaction_date);
+
+alter table user_transaction drop index uk_user_transaction_transaction_id,
+	add constraint uk_user_transaction_transaction_id unique (transaction_id, transaction_date);
+
+alter table user_transaction drop index UK_6q6j0rwyd1xnbll5hwvjq770i,
+	add constraint uk_user_transaction_idempotency_key unique (idempotency_key, transaction_date);
+
+set @month0 = date(date_format(current_date, '%Y-%m-01'));
+set @month1 = @month0 + interval 1 month;
+set @month2 = @month0 + interval 2 month;
+set @month3 = @month0 + interval 3 month;
+set @month4 = @month0 + interval 4 month;
+
+set @partition_ledger = concat('alter table user_transaction partition by range columns (transaction_date) (',
+	'partition p_history values less than (''', @month0, '''), ',
+	'partition p', date_format(@month0, '%Y%m'), ' values less than (''', @month1, '''), ',
+	'partition p', date_format(@month1, '%Y%m'), ' values less than (''', @month2, '''), ',
+	'partition p', date_format(@month2, '%Y%m'), ' values less than (''', @month3, '''), ',
+	'partition p', date_format(@month3, '%Y%m'), ' values less than (''', @month4, '''), ',
+	'partition p_max values less than (maxvalue))');
+
+prepare partition_ledger from @partition_ledger;
+execute partition_ledger;
+deallocate prepare partition_ledger;
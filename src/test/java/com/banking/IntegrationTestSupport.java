@@ -0,0 +1,54 @@
+package com.banking;
+
+import java.time.LocalDateTime;
+
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.banking.constant.AppConstant;
+import com.banking.entity.UserAccount;
+
+/**
+ * Base of the integration tests. The application runs on H2 in MySQL mode with
+ * the production dialect, the Flyway migrations build the schema and Hibernate
+ * only validates it. The month summary job is held back, the tests run it when
+ * they need it, and the archive is kept in the build directory.
+ *
+ * Every test class names its own in memory database with
+ * {@code @TestPropertySource(properties = "spring.datasource.url=...")}, with
+ * its other properties.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "spring.jpa.database-platform=org.hibernate.dialect.MySQL57Dialect",
+		"spring.jpa.hibernate.ddl-auto=validate", "transaction.month-summary.interval-ms=3600000",
+		"transaction.archive.directory=target" })
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+public abstract class IntegrationTestSupport {
+
+	/**
+	 * A savings account without a minimum balance.
+	 */
+	protected static UserAccount newAccount(Integer userId, Long accountNumber) {
+		return newAccount(userId, accountNumber, AppConstant.ACCOUNT_BALANCE_AMOUNT);
+	}
+
+	protected static UserAccount newAccount(Integer userId, Long accountNumber, long balanceAmount) {
+		return newAccount(userId, accountNumber, AppConstant.ACCOUNT_TYPE_SAVINGS, AppConstant.ZERO_MINIMUM_BALANCE,
+				balanceAmount);
+	}
+
+	protected static UserAccount newAccount(Integer userId, Long accountNumber, String accountType,
+			Long minimumBalance, long balanceAmount) {
+		UserAccount account = new UserAccount();
+		account.setUserId(userId);
+		account.setAccountNumber(accountNumber);
+		account.setAccountType(accountType);
+		account.setMinimumBalance(minimumBalance);
+		account.setBalanceAmount(balanceAmount);
+		account.setCreatedDate(LocalDateTime.now());
+		return account;
+	}
+}
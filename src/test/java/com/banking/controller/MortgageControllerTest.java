@@ -13,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import com.banking.constant.AppConstant;
+import com.banking.dto.Money;
 import com.banking.dto.MortgageRequestDto;
 import com.banking.dto.ResponseDto;
 import com.banking.service.MortgageService;
@@ -34,7 +35,7 @@ public class MortgageControllerTest {
 		MockitoAnnotations.initMocks(this);
 		
 		mortgageRequestDto.setAccountType(AppConstant.ACCOUNT_TYPE_MORTGAGE);
-		mortgageRequestDto.setPropertyValue(500000.00);
+		mortgageRequestDto.setPropertyValue(Money.ofMinorUnits(50000000L));
 	}
 	
 	@Test
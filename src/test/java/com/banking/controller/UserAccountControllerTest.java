@@ -3,7 +3,10 @@ package com.banking.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Before;
@@ -12,11 +15,14 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import com.banking.constant.AppConstant;
 import com.banking.dto.AccountBalanceDto;
+import com.banking.dto.AccountBalancesResponseDto;
+import com.banking.dto.Money;
 import com.banking.dto.UserAccountDto;
 import com.banking.dto.UserAccountResponseDto;
 import com.banking.service.UserAccountService;
@@ -39,11 +45,22 @@ public class UserAccountControllerTest {
 	@Test
 	public void testGetUserAvailableBalance() {
 		AccountBalanceDto accountBalanceDto = new AccountBalanceDto();
-		accountBalanceDto.setAccountBalance(1000.00);
+		accountBalanceDto.setAccountBalance(Money.ofMinorUnits(100000L));
 		accountBalanceDto.setStatus(AppConstant.SUCCESS);
 		when(userAccountService.getAccountBalance(1)).thenReturn(accountBalanceDto);
 
-		ResponseEntity<AccountBalanceDto> response = userAccountController.getUserAvailableBalance(1);
+		ResponseEntity<AccountBalanceDto> response = userAccountController.getUserAvailableBalance(1, null);
+		assertEquals(accountBalanceDto.getAccountBalance(), response.getBody().getAccountBalance());
+	}
+
+	@Test
+	public void testGetUserBalanceAsOf() {
+		AccountBalanceDto accountBalanceDto = new AccountBalanceDto();
+		accountBalanceDto.setAccountBalance(Money.ofMinorUnits(75000L));
+		LocalDate asOf = LocalDate.of(2026, 3, 31);
+		when(userAccountService.getAccountBalance(1, asOf)).thenReturn(accountBalanceDto);
+
+		ResponseEntity<AccountBalanceDto> response = userAccountController.getUserAvailableBalance(1, asOf);
 		assertEquals(accountBalanceDto.getAccountBalance(), response.getBody().getAccountBalance());
 	}
 
@@ -60,4 +77,29 @@ public class UserAccountControllerTest {
 		assertEquals(AppConstant.SUCCESS, resposne.getBody().getMessage());
 	}
 
+	@Test
+	public void testTypeaheadSavingAccounts() {
+		UserAccountResponseDto userAccountResponseDto = new UserAccountResponseDto();
+		userAccountResponseDto.setStatusCode(200);
+		userAccountResponseDto.setMessage(AppConstant.SUCCESS);
+		when(userAccountService.getTypeaheadAccounts("1567", "staff-1", 4L)).thenReturn(userAccountResponseDto);
+
+		ResponseEntity<UserAccountResponseDto> response = userAccountController.typeaheadSavingAccounts("1567",
+				"staff-1", 4L);
+		assertEquals(AppConstant.SUCCESS, response.getBody().getMessage());
+	}
+
+	@Test
+	public void testGetAccountBalances() {
+		AccountBalancesResponseDto accountBalancesDto = new AccountBalancesResponseDto();
+		accountBalancesDto.setAccountBalances(Collections.singletonMap(1, Money.ofMinorUnits(100000L)));
+		accountBalancesDto.setStatusCode(HttpStatus.OK.value());
+		when(userAccountService.getAccountBalances(Arrays.asList(1, 2))).thenReturn(accountBalancesDto);
+
+		ResponseEntity<AccountBalancesResponseDto> response = userAccountController
+				.getAccountBalances(Arrays.asList(1, 2));
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(Money.ofMinorUnits(100000L), response.getBody().getAccountBalances().get(1));
+	}
+
 }
@@ -1,9 +1,24 @@
 package com.banking.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.validation.ConstraintViolationException;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -11,16 +26,31 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.beanvalidation.MethodValidationInterceptor;
 
 import com.banking.constant.AppConstant;
+import com.banking.dto.BatchFundTransferResponseDto;
 import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
 import com.banking.dto.ResponseDto;
+import com.banking.dto.TransferStatusDto;
 import com.banking.dto.UserTransactionResponseDto;
 import com.banking.entity.UserAccount;
 import com.banking.entity.UserTransaction;
+import com.banking.exception.CustomExceptionHandler;
+import com.banking.service.AsyncFundTransferService;
+import com.banking.service.FundTransferPipeline;
+import com.banking.service.IdempotencyStore;
 import com.banking.service.UserTransactionService;
+import com.banking.util.ConverterUtil;
 
 import javassist.NotFoundException;
 
@@ -33,6 +63,15 @@ public class UserTransactionControllerTest {
 	@Mock
 	UserTransactionService userTransactionService;
 
+	@Spy
+	RetryTemplate fundTransferRetryTemplate = new RetryTemplate();
+
+	@Mock
+	IdempotencyStore idempotencyStore;
+
+	@Mock
+	AsyncFundTransferService asyncFundTransferService;
+
 	FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
 	ResponseDto fundTransferResponseDto = new ResponseDto();
 
@@ -44,13 +83,13 @@ public class UserTransactionControllerTest {
 		MockitoAnnotations.initMocks(this);
 
 		fundTransferRequestDto.setAccountId(1);
-		fundTransferRequestDto.setTransferAmount(2000.00);
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(200000L));
 		fundTransferRequestDto.setRemarks("For Hospital Expenses");
 
 		UserAccount userAccount = new UserAccount();
 		userAccount.setId(123123);
 
-		userTransaction.setTransactionAmount(2500.00);
+		userTransaction.setTransactionAmount(250000L);
 		userTransaction.setId(1231231);
 		userTransaction.setTransactionDate(LocalDate.of(2019, 12, 04));
 		userTransaction.setTransactionType("SAVING");
@@ -90,11 +129,11 @@ public class UserTransactionControllerTest {
 		userTransactionResponseDto.setMessage(AppConstant.OPERATION_SUCCESS);
 		userTransactionResponseDto.setStatusCode(200);
 
-		when(userTransactionService.findUserTransactionsByMonth(userTransaction.getId(), 12, 2019))
+		when(userTransactionService.findUserTransactionsByMonth(userTransaction.getId(), 12, 2019, null, null))
 				.thenReturn(userTransactionResponseDto);
 
 		UserTransactionResponseDto response = userTransactionController
-				.getUserTransactionsByMonth(userTransaction.getId(), 12, 2019);
+				.getUserTransactionsByMonth(userTransaction.getId(), 12, 2019, null, null);
 		assertEquals("Transaction Details", response.getMessage());
 		assertEquals(200, response.getStatusCode());
 	}
@@ -104,11 +143,11 @@ public class UserTransactionControllerTest {
 		userTransactionResponseDto.setMessage(AppConstant.OPERATION_FAILD);
 		userTransactionResponseDto.setStatusCode(400);
 
-		when(userTransactionService.findUserTransactionsByMonth(userTransaction.getId(), 12, 2019))
+		when(userTransactionService.findUserTransactionsByMonth(userTransaction.getId(), 12, 2019, null, null))
 				.thenReturn(userTransactionResponseDto);
 
 		UserTransactionResponseDto response = userTransactionController
-				.getUserTransactionsByMonth(userTransaction.getId(), 12, 2019);
+				.getUserTransactionsByMonth(userTransaction.getId(), 12, 2019, null, null);
 		assertEquals("Operation Failed", response.getMessage());
 		assertEquals(400, response.getStatusCode());
 	}
@@ -121,7 +160,7 @@ public class UserTransactionControllerTest {
 
 		when(userTransactionService.fundTransfer(fundTransferRequestDto)).thenReturn(fundTransferResponseDto);
 
-		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto);
+		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto, null);
 		assertEquals("SUCCESS", response.getBody().getStatus());
 		assertEquals(200, response.getBody().getStatusCode());
 	}
@@ -134,7 +173,7 @@ public class UserTransactionControllerTest {
 
 		when(userTransactionService.fundTransfer(fundTransferRequestDto)).thenReturn(fundTransferResponseDto);
 
-		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto);
+		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto, null);
 		assertEquals("FAILURE", response.getBody().getStatus());
 		assertEquals(400, response.getBody().getStatusCode());
 	}
@@ -143,8 +182,199 @@ public class UserTransactionControllerTest {
 	public void testFundTransferForBadRequest() throws NotFoundException {
 		when(userTransactionService.fundTransfer(fundTransferRequestDto)).thenReturn(new ResponseDto());
 
-		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto);
+		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto, null);
 		assertEquals("FAILURE", response.getBody().getStatus());
 		assertEquals(400, response.getBody().getStatusCode());
 	}
+
+	@Test
+	public void testFundTransferRetriedOnOptimisticLockFailure() throws NotFoundException {
+		fundTransferResponseDto.setStatus(AppConstant.SUCCESS);
+		fundTransferResponseDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
+
+		when(userTransactionService.fundTransfer(fundTransferRequestDto))
+				.thenThrow(new OptimisticLockingFailureException("Stale account")).thenReturn(fundTransferResponseDto);
+
+		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto, null);
+		assertEquals("SUCCESS", response.getBody().getStatus());
+		verify(userTransactionService, times(2)).fundTransfer(fundTransferRequestDto);
+	}
+
+	@Test
+	public void testBatchFundTransfer() {
+		BatchFundTransferResponseDto batchResponseDto = new BatchFundTransferResponseDto();
+		batchResponseDto.setStatus(AppConstant.SUCCESS);
+		batchResponseDto.setStatusCode(200);
+		List<FundTransferRequestDto> fundTransferRequestDtos = Arrays.asList(fundTransferRequestDto);
+
+		when(userTransactionService.batchFundTransfer(fundTransferRequestDtos)).thenReturn(batchResponseDto);
+
+		ResponseEntity<BatchFundTransferResponseDto> response = userTransactionController
+				.batchFundTransfer(fundTransferRequestDtos);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("SUCCESS", response.getBody().getStatus());
+	}
+
+	@Test
+	public void testBatchWithAnInvalidTransferIsRejected() {
+		fundTransferRequestDto.setPayeeAccountNumber("500002");
+		FundTransferRequestDto invalidRequestDto = new FundTransferRequestDto();
+		invalidRequestDto.setPayeeAccountNumber("5000-02");
+		invalidRequestDto.setTransferAmount(Money.ofMinorUnits(100L));
+
+		ConstraintViolationException exception = assertThrows(ConstraintViolationException.class,
+				() -> validated().batchFundTransfer(Arrays.asList(fundTransferRequestDto, invalidRequestDto)));
+		verify(userTransactionService, never()).batchFundTransfer(any());
+
+		ResponseEntity<Object> response = new CustomExceptionHandler().handleConstraintViolationException(exception);
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertEquals(Arrays.asList("fundTransferRequestDtos[1].accountId: " + AppConstant.ACCOUNT_ID_ERROR_MESSAGE,
+				"fundTransferRequestDtos[1].payeeAccountNumber: " + AppConstant.PAYEE_ACCOUNT_NUMBER_ERROR_MESSAGE),
+				((Map<?, ?>) response.getBody()).get("errors"));
+	}
+
+	@Test
+	public void testBatchWithANonPositiveAmountIsRejected() {
+		fundTransferRequestDto.setPayeeAccountNumber("500002");
+		FundTransferRequestDto zeroRequestDto = new FundTransferRequestDto();
+		zeroRequestDto.setAccountId(1);
+		zeroRequestDto.setPayeeAccountNumber("500003");
+		zeroRequestDto.setTransferAmount(Money.ofMinorUnits(0L));
+
+		ConstraintViolationException exception = assertThrows(ConstraintViolationException.class,
+				() -> validated().batchFundTransfer(Arrays.asList(fundTransferRequestDto, zeroRequestDto)));
+		verify(userTransactionService, never()).batchFundTransfer(any());
+
+		ResponseEntity<Object> response = new CustomExceptionHandler().handleConstraintViolationException(exception);
+		assertEquals(Collections.singletonList(
+				"fundTransferRequestDtos[1].transferAmount: " + AppConstant.TRANSFER_AMOUNT_POSITIVE_ERROR_MESSAGE),
+				((Map<?, ?>) response.getBody()).get("errors"));
+	}
+
+	@Test
+	public void testFundTransferWithANegativeAmountIsRejected() throws NotFoundException {
+		fundTransferRequestDto.setPayeeAccountNumber("500002");
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(-100L));
+
+		ConstraintViolationException exception = assertThrows(ConstraintViolationException.class,
+				() -> validated().fundTransfer(fundTransferRequestDto, null));
+		verify(userTransactionService, never()).fundTransfer(any());
+		assertEquals(AppConstant.TRANSFER_AMOUNT_POSITIVE_ERROR_MESSAGE,
+				exception.getConstraintViolations().iterator().next().getMessage());
+	}
+
+	@Test
+	public void testAsyncFundTransferWithAZeroAmountIsRejected() {
+		fundTransferRequestDto.setPayeeAccountNumber("500002");
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(0L));
+
+		ConstraintViolationException exception = assertThrows(ConstraintViolationException.class,
+				() -> validated().asyncFundTransfer(fundTransferRequestDto, null));
+		verify(asyncFundTransferService, never()).submit(any(), any());
+		assertEquals(AppConstant.TRANSFER_AMOUNT_POSITIVE_ERROR_MESSAGE,
+				exception.getConstraintViolations().iterator().next().getMessage());
+	}
+
+	@Test
+	public void testFundTransferThroughPipeline() throws NotFoundException {
+		fundTransferResponseDto.setStatus(AppConstant.SUCCESS);
+		fundTransferResponseDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
+		FundTransferPipeline fundTransferPipeline = mock(FundTransferPipeline.class);
+		ReflectionTestUtils.setField(userTransactionController, "fundTransferPipeline", fundTransferPipeline);
+
+		when(fundTransferPipeline.submit(fundTransferRequestDto))
+				.thenReturn(CompletableFuture.completedFuture(fundTransferResponseDto));
+
+		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto, null);
+		assertEquals("SUCCESS", response.getBody().getStatus());
+		verify(userTransactionService, never()).fundTransfer(fundTransferRequestDto);
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void testFundTransferThroughPipelineForNoAccountsFound() throws NotFoundException {
+		FundTransferPipeline fundTransferPipeline = mock(FundTransferPipeline.class);
+		ReflectionTestUtils.setField(userTransactionController, "fundTransferPipeline", fundTransferPipeline);
+		CompletableFuture<ResponseDto> future = new CompletableFuture<>();
+		future.completeExceptionally(new NotFoundException(AppConstant.NO_ACCOUNTS_FOUND));
+
+		when(fundTransferPipeline.submit(fundTransferRequestDto)).thenReturn(future);
+
+		userTransactionController.fundTransfer(fundTransferRequestDto, null);
+	}
+
+	@Test
+	public void testFundTransferWithIdempotencyKey() throws NotFoundException {
+		fundTransferResponseDto.setStatus(AppConstant.SUCCESS);
+		fundTransferResponseDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
+
+		when(idempotencyStore.execute(eq("key-1"), eq(ConverterUtil.payloadHash(fundTransferRequestDto)),
+				any(IdempotencyStore.Transfer.class)))
+				.thenReturn(fundTransferResponseDto);
+
+		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto, "key-1");
+		assertEquals("SUCCESS", response.getBody().getStatus());
+		assertEquals("key-1", fundTransferRequestDto.getIdempotencyKey());
+		verify(userTransactionService, never()).fundTransfer(fundTransferRequestDto);
+	}
+
+	@Test
+	public void testFundTransferWithTooLongIdempotencyKey() throws NotFoundException {
+		String idempotencyKey = String.join("", Collections.nCopies(65, "k"));
+
+		ResponseEntity<ResponseDto> response = userTransactionController.fundTransfer(fundTransferRequestDto,
+				idempotencyKey);
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertEquals(AppConstant.IDEMPOTENCY_KEY_INVALID, response.getBody().getMessage());
+		verify(userTransactionService, never()).fundTransfer(fundTransferRequestDto);
+	}
+
+	@Test
+	public void testAsyncFundTransfer() {
+		TransferStatusDto statusDto = new TransferStatusDto();
+		statusDto.setTransactionId("T-1");
+		statusDto.setState(AppConstant.TRANSFER_STATE_QUEUED);
+		when(asyncFundTransferService.submit(eq(fundTransferRequestDto), any(IdempotencyStore.Transfer.class)))
+				.thenReturn(statusDto);
+
+		ResponseEntity<ResponseDto> response = userTransactionController.asyncFundTransfer(fundTransferRequestDto,
+				null);
+		assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+		assertEquals("T-1", ((TransferStatusDto) response.getBody()).getTransactionId());
+	}
+
+	@Test
+	public void testAsyncFundTransferWithFullQueue() {
+		when(asyncFundTransferService.submit(eq(fundTransferRequestDto), any(IdempotencyStore.Transfer.class)))
+				.thenThrow(new RejectedExecutionException());
+
+		ResponseEntity<ResponseDto> response = userTransactionController.asyncFundTransfer(fundTransferRequestDto,
+				null);
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		assertEquals(AppConstant.FUND_TRANSFER_QUEUE_FULL, response.getBody().getMessage());
+	}
+
+	@Test
+	public void testGetTransferStatusNotFound() {
+		ResponseEntity<ResponseDto> response = userTransactionController.getTransferStatus("T-1");
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+	}
+
+	@Test
+	public void testExportTransactionsWithUnknownFormat() {
+		ResponseEntity<?> response = userTransactionController.exportTransactions(1, LocalDate.of(2019, 12, 01),
+				LocalDate.of(2019, 12, 31), "xml");
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertEquals(AppConstant.EXPORT_FORMAT_INVALID, ((ResponseDto) response.getBody()).getMessage());
+	}
+
+	/**
+	 * The controller with the method validation of the @Validated controller,
+	 * as applied by the application context.
+	 */
+	private UserTransactionController validated() {
+		ProxyFactory proxyFactory = new ProxyFactory(userTransactionController);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(new MethodValidationInterceptor());
+		return (UserTransactionController) proxyFactory.getProxy();
+	}
 }
@@ -0,0 +1,56 @@
+package com.banking.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MoneyTest {
+
+	ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	public void testOfDecimal() {
+		assertEquals(125075L, Money.of(new BigDecimal("1250.75")).getMinorUnits());
+		assertEquals(200000L, Money.of(new BigDecimal("2000")).getMinorUnits());
+		assertEquals("1250.75", Money.ofMinorUnits(125075L).toString());
+		assertNull(Money.ofMinorUnits(null));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testOfDecimalWithFractionOfPaise() {
+		Money.of(new BigDecimal("10.005"));
+	}
+
+	@Test
+	public void testMinorUnitsHaveNoRoundingDrift() {
+		double doubleBalance = 0;
+		long balance = 0;
+		for (int i = 0; i < 1000; i++) {
+			doubleBalance += 0.10;
+			balance += Money.of(new BigDecimal("0.10")).getMinorUnits();
+		}
+		assertNotEquals(100.00, doubleBalance);
+		assertEquals(Money.of(new BigDecimal("100.00")), Money.ofMinorUnits(balance));
+	}
+
+	@Test
+	public void testJsonRoundTrip() throws Exception {
+		FundTransferRequestDto fundTransferRequestDto = objectMapper
+				.readValue("{\"accountId\":1,\"transferAmount\":1999.99}", FundTransferRequestDto.class);
+		assertEquals(199999L, fundTransferRequestDto.getTransferAmount().getMinorUnits());
+		assertEquals("{\"accountId\":1,\"payeeAccountNumber\":null,\"transferAmount\":1999.99,\"remarks\":null}",
+				objectMapper.writeValueAsString(fundTransferRequestDto));
+	}
+
+	@Test(expected = JsonMappingException.class)
+	public void testJsonWithFractionOfPaise() throws Exception {
+		objectMapper.readValue("{\"transferAmount\":1.001}", FundTransferRequestDto.class);
+	}
+}
@@ -7,6 +7,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -33,4 +35,12 @@ public class CustomExceptionHandlerTest {
 				.handleNoRecordFoundException(notFoundException);
 		assertEquals(AppConstant.FAILURE, response.getBody().getStatus());
 	}
+
+	@Test
+	public void testHandleConcurrencyFailureException() {
+		ResponseEntity<ResponseDto> response = customExceptionHandler
+				.handleConcurrencyFailureException(new OptimisticLockingFailureException("Stale account"));
+		assertEquals(AppConstant.FAILURE, response.getBody().getStatus());
+		assertEquals(HttpStatus.CONFLICT.value(), response.getBody().getStatusCode());
+	}
 }
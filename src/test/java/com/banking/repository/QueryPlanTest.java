@@ -0,0 +1,345 @@
+package com.banking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.constant.AppConstant;
+import com.banking.dto.ArchivedTransaction;
+import com.banking.dto.UserTransactionRequestDto;
+import com.banking.entity.AccountBalanceSnapshot;
+import com.banking.entity.AccountBalanceStripe;
+import com.banking.entity.AccountMonthSummary;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.entity.UserTransaction;
+
+/**
+ * Runs every repository finder on the schema of the migrations and checks the
+ * EXPLAIN plan of each statement, no finder may read a table or a whole index
+ * from start to end. H2 runs in MySQL mode with the MySQL dialect, so the
+ * statements are the ones MySQL gets, and the entities are validated against
+ * the migrated schema.
+ *
+ * findAllByIdNot reads all accounts but one, and the account number search of
+ * findAllByAccountNumber matches anywhere in the number, neither can use an
+ * index and both are left out, as is findAllIds, the running balance backfill
+ * lists every account.
+ */
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:plan;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.banking.repository.QueryPlanTest$StatementCapture",
+		"transaction.export.fetch-size=1000", "account.striping.fold-interval-ms=3600000" })
+public class QueryPlanTest extends IntegrationTestSupport {
+
+	private static final int GENERATED_ROWS = 2000;
+
+	private static final String GENERATE_TRANSACTIONS = "insert into user_transaction (user_account_id, "
+			+ "payee_account_id, payee_account_type, transaction_type, transaction_id, transaction_date, "
+			+ "transaction_amount, current_balance_amount, remarks, summarized) select "
+			+ "case when mod(x, 2) = 0 then ? else ? end, case when mod(x, 2) = 0 then ? else ? end, "
+			+ "'Savings', 'IMPS', concat('T-', x), dateadd('DAY', -mod(x, 400), current_date), 100, 0, "
+			+ "concat('Row ', x), mod(x, 10) > 0 from system_range(1, ?)";
+
+	// Table or index named in a plan, with the index condition when there is one.
+	private static final Pattern PLAN_SCAN = Pattern.compile("/(?:\\*|\\+\\+)\\s*PUBLIC\\.([\\w.]+)(:)?");
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	AccountBalanceStripeRepository accountBalanceStripeRepository;
+
+	@Autowired
+	AccountMonthSummaryRepository accountMonthSummaryRepository;
+
+	@Autowired
+	AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	User user;
+	UserAccount savingsAccount;
+	UserAccount payeeAccount;
+
+	@Before
+	public void init() {
+		user = userRepository.save(newUser("Janani", "9840000001"));
+		User payee = userRepository.save(newUser("Raghu", "9840000002"));
+		savingsAccount = userAccountRepository.save(newAccount(user.getId(), 600001L));
+		payeeAccount = userAccountRepository.save(newAccount(payee.getId(), 600002L));
+		for (int i = 3; i < 50; i++) {
+			userAccountRepository.save(newAccount(payee.getId(), 600000L + i));
+		}
+		jdbcTemplate.update(GENERATE_TRANSACTIONS, savingsAccount.getId(), payeeAccount.getId(),
+				payeeAccount.getId(), savingsAccount.getId(), GENERATED_ROWS);
+		accountBalanceStripeRepository.save(newStripe(payeeAccount.getId()));
+		accountMonthSummaryRepository.save(newSummary(savingsAccount.getId()));
+		accountBalanceSnapshotRepository.save(newSnapshot(savingsAccount.getId()));
+		StatementCapture.start();
+	}
+
+	@After
+	public void cleanUp() {
+		StatementCapture.stop();
+		jdbcTemplate.update("delete from user_transaction");
+		accountBalanceStripeRepository.deleteAll();
+		accountMonthSummaryRepository.deleteAll();
+		accountBalanceSnapshotRepository.deleteAll();
+		userAccountRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void testUserFinders() {
+		assertEquals(user.getId(), userRepository.findUserByPhone("9840000001").getId());
+		assertEquals(user.getId(), userRepository.findUserByUserNameAndPassword("Janani", "secret").getId());
+		assertPlansUseIndexes(2);
+	}
+
+	@Test
+	public void testUserAccountFinders() {
+		Integer accountId = savingsAccount.getId();
+		assertEquals(accountId, userAccountRepository.findByUserId(user.getId()).getId());
+		assertTrue(userAccountRepository.findByAccountNumber(600001L).isPresent());
+		assertEquals(2, userAccountRepository.findAllByAccountNumberIn(Arrays.asList(600001L, 600002L)).size());
+		assertTrue(userAccountRepository
+				.findByAccountNumberAndAccountType(600001L, AppConstant.ACCOUNT_TYPE_SAVINGS).isPresent());
+		assertTrue(userAccountRepository.findByUserIdAndAccountType(user.getId(), AppConstant.ACCOUNT_TYPE_SAVINGS)
+				.isPresent());
+		inTransaction(() -> {
+			assertEquals(1, userAccountRepository.debitBalance(accountId, 100L));
+			assertEquals(1, userAccountRepository.creditBalance(600002L, 100L));
+			assertEquals(AppConstant.ACCOUNT_BALANCE_AMOUNT - 100L,
+					(long) userAccountRepository.lockBalanceAmount(accountId));
+			assertEquals(2, userAccountRepository
+					.lockBalanceAmountsIn(Arrays.asList(accountId, payeeAccount.getId())).size());
+		});
+		assertEquals(1, userAccountRepository.findBalanceAmountsById(Arrays.asList(accountId, 0)).size());
+		assertEquals(Long.valueOf(AppConstant.ACCOUNT_BALANCE_AMOUNT - 100L), userAccountRepository
+				.findTotalBalanceAmountsById(Arrays.asList(accountId, 0)).get(accountId));
+		assertEquals(accountId, userAccountRepository.findIdByAccountNumber(600001L).get());
+		assertEquals(2, userAccountRepository
+				.findAccountNumbersAfter(accountId, AppConstant.ACCOUNT_TYPE_MORTGAGE, PageRequest.of(0, 2)).size());
+		assertEquals(2, userAccountRepository
+				.findAccountHoldersAfter(accountId, AppConstant.ACCOUNT_TYPE_MORTGAGE, PageRequest.of(0, 2)).size());
+		assertPlansUseIndexes(14);
+	}
+
+	@Test
+	public void testUserTransactionFinders() {
+		Integer accountId = savingsAccount.getId();
+		PageRequest page = PageRequest.of(0, 5);
+		LocalDate today = LocalDate.now();
+		assertEquals("T-2", userTransactionRepository.findByTransactionId("T-2").getTransactionId());
+		assertEquals(null, userTransactionRepository.findTransferIdempotency("key"));
+		assertEquals(1, userTransactionRepository.findExistingTransactionIds(Collections.singleton("T-3")).size());
+		assertEquals("Row 4", userTransactionRepository
+				.findTransactionDetail("T-4", today.minusDays(4)).getRemarks());
+		assertEquals(5, userTransactionRepository.findTransactionDetails(accountId, page).size());
+		assertEquals(5, userTransactionRepository.findTransactionDetailsByPayeeAccountType(accountId,
+				AppConstant.ACCOUNT_TYPE_SAVINGS, Integer.MAX_VALUE, page).size());
+		assertEquals(5, userTransactionRepository.findTransactionDetailsBetween(accountId, today.withDayOfMonth(1),
+				today, Integer.MAX_VALUE, page).size());
+		assertEquals(5, userTransactionRepository.findBySummarizedFalseOrderById(page).size());
+		assertEquals(-20000, userTransactionRepository.sumUnsummarizedAmount(accountId));
+		assertEquals(-500, userTransactionRepository.sumNetAmountBetween(accountId, today.minusDays(9), today));
+		assertEquals(10, userTransactionRepository.addDailyNetAmounts(new HashMap<>(),
+				Collections.singleton(accountId), today.minusDays(10), today).get(accountId).size());
+		inTransaction(() -> {
+			UserTransaction transaction = new UserTransaction();
+			transaction.setTransactionType("IMPS");
+			transaction.setTransactionId("T-NEW");
+			transaction.setTransactionDate(today);
+			transaction.setTransactionAmount(100L);
+			assertEquals(1,
+					userTransactionRepository.insertTransaction(transaction, accountId, 600002L, true, true));
+			assertEquals(1, userTransactionRepository.markSummarized(Collections.singleton(
+					userTransactionRepository.findByTransactionId("T-NEW").getId())));
+			try (Stream<UserTransactionRequestDto> rows = userTransactionRepository
+					.streamTransactionDetails(accountId, today.minusDays(9), today)) {
+				assertEquals(51, rows.count());
+			}
+		});
+		assertPlansUseIndexes(19);
+	}
+
+	@Test
+	public void testStripeAndMonthSummaryFinders() {
+		Integer accountId = payeeAccount.getId();
+		assertEquals(1, accountBalanceStripeRepository.findByUserAccountId(accountId).size());
+		assertEquals(0, accountBalanceStripeRepository.sumBalanceAmount(accountId));
+		inTransaction(() -> {
+			assertEquals(1, accountBalanceStripeRepository.creditStripe(600002L, 0, 100L));
+			Integer stripeId = accountBalanceStripeRepository.findByUserAccountId(accountId).get(0).getId();
+			assertEquals(1, accountBalanceStripeRepository.foldStripe(stripeId, 100L));
+			assertEquals(Collections.singletonList(0L), accountBalanceStripeRepository.lockBalanceAmounts(accountId));
+			assertEquals(1,
+					accountBalanceStripeRepository.lockBalanceAmountsIn(Collections.singleton(accountId)).size());
+		});
+
+		Integer savingsAccountId = savingsAccount.getId();
+		assertTrue(accountMonthSummaryRepository.findByUserAccountIdAndStatementMonth(savingsAccountId, 202610)
+				.isPresent());
+		assertEquals(1, accountMonthSummaryRepository.findByUserAccountIdInAndStatementMonthGreaterThanEqual(
+				Collections.singleton(savingsAccountId), 202601).size());
+		assertTrue(accountMonthSummaryRepository
+				.findFirstByUserAccountIdAndStatementMonthLessThanOrderByStatementMonthDesc(savingsAccountId, 202611)
+				.isPresent());
+		assertPlansUseIndexes(10);
+	}
+
+	@Test
+	public void testArchivalFinders() {
+		List<ArchivedTransaction> rows = userTransactionRepository
+				.findArchivableTransactions(LocalDate.now().minusDays(390), PageRequest.of(0, 5));
+		assertEquals(5, rows.size());
+		inTransaction(() -> assertEquals(5, userTransactionRepository
+				.deleteByIds(rows.stream().map(ArchivedTransaction::getId).collect(Collectors.toList()))));
+		assertPlansUseIndexes(2);
+	}
+
+	@Test
+	public void testBalanceSnapshotFinders() {
+		Integer accountId = savingsAccount.getId();
+		LocalDate today = LocalDate.now();
+		assertTrue(accountBalanceSnapshotRepository
+				.findFirstByUserAccountIdAndBalanceDateLessThanEqualOrderByBalanceDateDesc(accountId, today)
+				.isPresent());
+		assertTrue(accountBalanceSnapshotRepository
+				.findFirstByUserAccountIdAndBalanceDateGreaterThanOrderByBalanceDate(accountId, today.minusDays(2))
+				.isPresent());
+		assertEquals(today.minusDays(1),
+				accountBalanceSnapshotRepository.findLastBalanceDates(Collections.singleton(accountId)).get(accountId));
+		assertPlansUseIndexes(3);
+	}
+
+	/**
+	 * Explains the captured statements, each one must find its rows through an
+	 * index condition.
+	 */
+	private void assertPlansUseIndexes(int expectedStatements) {
+		List<String> statements = StatementCapture.statements();
+		assertEquals(expectedStatements, statements.size(), String.join("\n", statements));
+		for (String statement : statements) {
+			String plan = jdbcTemplate.query("explain " + statement, resultSet -> {
+				resultSet.next();
+				return resultSet.getString(1);
+			});
+			Matcher matcher = PLAN_SCAN.matcher(plan);
+			while (matcher.find()) {
+				assertTrue(matcher.group(2) != null && !matcher.group(1).endsWith(".tableScan"),
+						"full scan of " + matcher.group(1) + " in\n" + plan);
+			}
+		}
+	}
+
+	private void inTransaction(Runnable runnable) {
+		new TransactionTemplate(transactionManager).execute(status -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	private User newUser(String userName, String phone) {
+		User newUser = new User();
+		newUser.setFirstName(userName);
+		newUser.setLastName("Vijay");
+		newUser.setUserName(userName);
+		newUser.setPassword("secret");
+		newUser.setPhone(phone);
+		return newUser;
+	}
+
+	private AccountBalanceStripe newStripe(Integer userAccountId) {
+		AccountBalanceStripe stripe = new AccountBalanceStripe();
+		stripe.setUserAccountId(userAccountId);
+		stripe.setStripe(0);
+		stripe.setBalanceAmount(0L);
+		return stripe;
+	}
+
+	private AccountBalanceSnapshot newSnapshot(Integer userAccountId) {
+		AccountBalanceSnapshot snapshot = new AccountBalanceSnapshot();
+		snapshot.setUserAccountId(userAccountId);
+		snapshot.setBalanceDate(LocalDate.now().minusDays(1));
+		snapshot.setBalanceAmount(0L);
+		return snapshot;
+	}
+
+	private AccountMonthSummary newSummary(Integer userAccountId) {
+		AccountMonthSummary summary = new AccountMonthSummary();
+		summary.setUserAccountId(userAccountId);
+		summary.setStatementMonth(202610);
+		summary.setOpeningBalance(0L);
+		summary.setClosingBalance(0L);
+		summary.setTotalDebits(0L);
+		summary.setTotalCredits(0L);
+		summary.setDebitCount(0);
+		summary.setCreditCount(0);
+		return summary;
+	}
+
+	/**
+	 * Keeps the SQL Hibernate sends while a test runs its finders, only from
+	 * the test thread so the scheduled jobs are not captured.
+	 */
+	public static class StatementCapture implements StatementInspector {
+		private static final long serialVersionUID = 1L;
+
+		private static volatile Thread capturing;
+		private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+		static void start() {
+			STATEMENTS.clear();
+			capturing = Thread.currentThread();
+		}
+
+		static void stop() {
+			capturing = null;
+		}
+
+		static List<String> statements() {
+			return new ArrayList<>(STATEMENTS);
+		}
+
+		@Override
+		public String inspect(String sql) {
+			if (Thread.currentThread() == capturing) {
+				STATEMENTS.add(sql);
+			}
+			return sql;
+		}
+	}
+}
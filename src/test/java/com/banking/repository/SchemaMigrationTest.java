@@ -0,0 +1,67 @@
+package com.banking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Migrates a database of the original schema, created before the migrations,
+ * the way a production database is: Flyway baselines it at V1 and runs every
+ * later migration, which converts its money to minor units and fills the new
+ * columns of its existing rows.
+ */
+public class SchemaMigrationTest {
+
+	private DriverManagerDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+
+	@Before
+	public void init() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:migration;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("drop all objects");
+
+		// The schema of ddl-auto=update, with no Flyway history.
+		new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+		jdbcTemplate.update("insert into user (id, first_name, phone) values (1, 'Janani', '9840000001')");
+		jdbcTemplate.update("insert into user_account (id, account_number, account_type, balance_amount, "
+				+ "minimum_balance, user_id) values (1, 500001, 'Savings', 1250.75, 500, 1)");
+		jdbcTemplate.update("insert into user_account (id, account_number, account_type, balance_amount, "
+				+ "minimum_balance, user_id) values (2, 500002, 'Mortgage', -250000.1, 0, 1)");
+		jdbcTemplate.update("insert into user_transaction (id, user_account_id, payee_account_id, transaction_type, "
+				+ "transaction_id, transaction_date, transaction_amount, current_balance_amount, remarks) "
+				+ "values (1, 1, 2, 'IMPS', 'T-1', current_date, 99.99, 1250.75, 'Loan')");
+	}
+
+	@Test
+	public void testOriginalSchemaIsMigrated() {
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration", "classpath:db/vendor/h2").baselineOnMigrate(true)
+				.load().migrate();
+
+		Map<String, Object> account = jdbcTemplate
+				.queryForMap("select balance_amount, minimum_balance, version from user_account where id = 1");
+		assertEquals(125075L, ((Number) account.get("balance_amount")).longValue());
+		assertEquals(50000L, ((Number) account.get("minimum_balance")).longValue());
+		assertEquals(0L, ((Number) account.get("version")).longValue());
+		assertEquals(-25000010L, jdbcTemplate
+				.queryForObject("select balance_amount from user_account where id = 2", Long.class));
+
+		Map<String, Object> transaction = jdbcTemplate.queryForMap("select transaction_amount, "
+				+ "current_balance_amount, payee_account_type, summarized, idempotency_key from user_transaction");
+		assertEquals(9999L, ((Number) transaction.get("transaction_amount")).longValue());
+		assertEquals(125075L, ((Number) transaction.get("current_balance_amount")).longValue());
+		assertEquals("Mortgage", transaction.get("payee_account_type"));
+		assertEquals(false, transaction.get("summarized"));
+		assertEquals(null, transaction.get("idempotency_key"));
+		assertEquals(0, (int) jdbcTemplate.queryForObject("select count(*) from account_month_summary",
+				Integer.class));
+	}
+}
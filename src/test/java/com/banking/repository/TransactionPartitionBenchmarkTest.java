@@ -0,0 +1,139 @@
+package com.banking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Monthly history latency on an unpartitioned and a monthly partitioned copy of
+ * the ledger, on MySQL. Runs only with -Dbenchmark.mysql.url (and
+ * benchmark.mysql.user, benchmark.mysql.password), with benchmark.rows rows,
+ * 50M by default, spread over two years of transaction dates:
+ *
+ * mvn test -Dtest=TransactionPartitionBenchmarkTest
+ * -Dbenchmark.mysql.url=jdbc:mysql://localhost:3306/bench
+ *
+ * Both tables carry the (account, transaction date, id) index of the payer
+ * history. The query is the payer side of the monthly history.
+ */
+public class TransactionPartitionBenchmarkTest {
+	private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionBenchmarkTest.class);
+
+	private static final int ACCOUNTS = 100000;
+	private static final int MONTHS = 24;
+	private static final int SEQUENCE_ROWS = 1000000;
+	private static final int WARM_UP_QUERIES = 500;
+	private static final int QUERIES = 5000;
+
+	private static final String COLUMNS = "(id bigint not null auto_increment, user_account_id integer, "
+			+ "payee_account_id integer, transaction_date date not null, transaction_amount bigint, ";
+
+	private static final String MONTHLY_QUERY = "select id, transaction_date, transaction_amount from %s "
+			+ "where user_account_id = ? and transaction_date between ? and ? order by id desc limit 100";
+
+	JdbcTemplate jdbcTemplate;
+	long rows = Long.getLong("benchmark.rows", 50000000L);
+	LocalDate firstMonth = LocalDate.now().withDayOfMonth(1).minusMonths(MONTHS - 1L);
+
+	@Before
+	public void init() {
+		String url = System.getProperty("benchmark.mysql.url");
+		Assume.assumeTrue("benchmark.mysql.url is not set", url != null);
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+				System.getProperty("benchmark.mysql.user", "root"), System.getProperty("benchmark.mysql.password", ""));
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		cleanUp();
+	}
+
+	@After
+	public void cleanUp() {
+		if (jdbcTemplate != null) {
+			jdbcTemplate.execute("drop table if exists bench_sequence, bench_ledger, bench_ledger_partitioned");
+		}
+	}
+
+	@Test
+	public void testMonthlyHistoryLatency() {
+		createTables();
+		long start = System.nanoTime();
+		fill();
+		logger.info("rows={} loadMs={}", rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		String plan = jdbcTemplate.queryForObject(
+				"explain " + String.format(MONTHLY_QUERY, "bench_ledger_partitioned"),
+				(resultSet, row) -> resultSet.getString("partitions"), 1, Date.valueOf(firstMonth),
+				Date.valueOf(firstMonth.plusMonths(1).minusDays(1)));
+		assertEquals(1, plan.split(",").length, plan);
+
+		for (String table : Arrays.asList("bench_ledger", "bench_ledger_partitioned", "bench_ledger",
+				"bench_ledger_partitioned")) {
+			long[] latencies = run(table, WARM_UP_QUERIES + QUERIES);
+			long[] measured = Arrays.copyOfRange(latencies, WARM_UP_QUERIES, latencies.length);
+			Arrays.sort(measured);
+			logger.info("table={} queries={} p50Us={} p99Us={} maxUs={}", table, QUERIES,
+					measured[QUERIES / 2] / 1000, measured[QUERIES * 99 / 100] / 1000, measured[QUERIES - 1] / 1000);
+		}
+	}
+
+	private void createTables() {
+		jdbcTemplate.execute("create table bench_sequence (n integer not null, primary key (n))");
+		jdbcTemplate.execute("create table bench_ledger " + COLUMNS + "primary key (id), "
+				+ "index idx_payer_date (user_account_id, transaction_date, id))");
+
+		StringBuilder partitions = new StringBuilder();
+		for (int month = 1; month <= MONTHS; month++) {
+			LocalDate bound = firstMonth.plusMonths(month);
+			partitions.append("partition p").append(month).append(" values less than ('").append(bound)
+					.append("'), ");
+		}
+		jdbcTemplate.execute("create table bench_ledger_partitioned " + COLUMNS
+				+ "primary key (id, transaction_date), index idx_payer_date (user_account_id, transaction_date, id)) "
+				+ "partition by range columns (transaction_date) (partition p0 values less than ('" + firstMonth
+				+ "'), " + partitions + "partition p_max values less than (maxvalue))");
+	}
+
+	private void fill() {
+		jdbcTemplate.execute("insert into bench_sequence (n) with recursive digits (d) as (select 0 union all "
+				+ "select d + 1 from digits where d < 9) select a.d + 10 * b.d + 100 * c.d + 1000 * e.d "
+				+ "+ 10000 * f.d + 100000 * g.d from digits a, digits b, digits c, digits e, digits f, digits g");
+		long days = firstMonth.until(firstMonth.plusMonths(MONTHS), ChronoUnit.DAYS);
+		for (long batch = 0; batch * SEQUENCE_ROWS < rows; batch++) {
+			jdbcTemplate.update("insert into bench_ledger (user_account_id, payee_account_id, transaction_date, "
+					+ "transaction_amount) select 1 + mod(n * 7919 + ?, ?), 1 + mod(n * 104729 + ?, ?), "
+					+ "date_add(?, interval mod(n + ?, ?) day), 100 + mod(n, 1000) from bench_sequence where n < ?",
+					batch, ACCOUNTS, batch, ACCOUNTS, Date.valueOf(firstMonth), batch * 1000003, days,
+					Math.min(SEQUENCE_ROWS, rows - batch * SEQUENCE_ROWS));
+		}
+		jdbcTemplate.execute("insert into bench_ledger_partitioned select * from bench_ledger");
+		jdbcTemplate.execute("analyze table bench_ledger, bench_ledger_partitioned");
+	}
+
+	private long[] run(String table, int queries) {
+		String query = String.format(MONTHLY_QUERY, table);
+		Random random = new Random(42);
+		long[] latencies = new long[queries];
+		for (int i = 0; i < queries; i++) {
+			LocalDate month = firstMonth.plusMonths(random.nextInt(MONTHS));
+			int accountId = 1 + random.nextInt(ACCOUNTS);
+			long start = System.nanoTime();
+			jdbcTemplate.query(query, (resultSet, row) -> resultSet.getLong(1), accountId, Date.valueOf(month),
+					Date.valueOf(month.plusMonths(1).minusDays(1)));
+			latencies[i] = System.nanoTime() - start;
+		}
+		return latencies;
+	}
+}
@@ -0,0 +1,123 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.entity.UserAccount;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class AccountBalanceCacheTest {
+
+	@InjectMocks
+	AccountBalanceCache accountBalanceCache;
+
+	@Spy
+	MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	AtomicInteger loads = new AtomicInteger();
+	long balanceAmount = 1000L;
+
+	@Before
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(accountBalanceCache, "enabled", true);
+		ReflectionTestUtils.setField(accountBalanceCache, "maxAccounts", 2);
+		ReflectionTestUtils.setField(accountBalanceCache, "ttlMillis", 60000L);
+		accountBalanceCache.start();
+	}
+
+	@Test
+	public void testSecondReadIsServedFromCache() {
+		assertEquals(1000L, balance(1));
+		balanceAmount = 2000L;
+		assertEquals(1000L, balance(1));
+
+		assertEquals(1, loads.get());
+		assertEquals(0.5, meterRegistry.get("account.balance.cache.hit.ratio").gauge().value());
+	}
+
+	@Test
+	public void testWritesEvictByIdAndByNumber() {
+		balance(1);
+		balance(2);
+		balanceAmount = 2000L;
+
+		accountBalanceCache.evictAfterCommit(Collections.singleton(1), Collections.emptySet());
+		assertEquals(2000L, balance(1));
+		accountBalanceCache.evictAfterCommit(Collections.emptySet(), Collections.singleton(500002L));
+		assertEquals(2000L, balance(2));
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	public void testLoadOverlappingAWriteIsNotCached() {
+		Optional<AccountBalanceCache.Balance> loaded = accountBalanceCache.get(1, userAccountId -> {
+			// The transfer of the account commits while it is read.
+			accountBalanceCache.evict(Collections.emptySet(), Collections.singleton(500001L));
+			return load(userAccountId);
+		}, accountNumber -> true);
+		assertEquals(1000L, loaded.get().getBalanceAmount());
+		assertEquals(0, accountBalanceCache.size());
+
+		balance(1);
+		assertEquals(1, accountBalanceCache.size());
+	}
+
+	@Test
+	public void testEvictionBySizeTtlAndHotAccounts() {
+		balance(1);
+		balance(2);
+		balance(1);
+		balance(3);
+		assertEquals(2, accountBalanceCache.size());
+		assertEquals(1.0, meterRegistry.get("account.balance.cache.evictions").tag("cause", "size").counter().count());
+
+		ReflectionTestUtils.setField(accountBalanceCache, "ttlMillis", 0L);
+		balance(1);
+		assertEquals(1.0,
+				meterRegistry.get("account.balance.cache.evictions").tag("cause", "expired").counter().count());
+		assertEquals(4, loads.get());
+
+		accountBalanceCache.get(4, this::load, accountNumber -> false);
+		assertEquals(2, accountBalanceCache.size());
+		accountBalanceCache.get(4, this::load, accountNumber -> false);
+		assertEquals(6, loads.get());
+	}
+
+	@Test
+	public void testDisabledCacheReadsTheDatabase() {
+		ReflectionTestUtils.setField(accountBalanceCache, "enabled", false);
+		balance(1);
+		balance(1);
+		assertEquals(2, loads.get());
+		assertEquals(0, accountBalanceCache.size());
+	}
+
+	private long balance(Integer userAccountId) {
+		return accountBalanceCache.get(userAccountId, this::load, accountNumber -> true).get().getBalanceAmount();
+	}
+
+	private Optional<UserAccount> load(Integer userAccountId) {
+		loads.incrementAndGet();
+		UserAccount userAccount = new UserAccount();
+		userAccount.setId(userAccountId);
+		userAccount.setAccountNumber(500000L + userAccountId);
+		userAccount.setBalanceAmount(balanceAmount);
+		return Optional.of(userAccount);
+	}
+}
@@ -0,0 +1,79 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.constant.AppConstant;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class AccountNumberIndexTest {
+
+	@InjectMocks
+	AccountNumberIndex accountNumberIndex;
+
+	@Mock
+	UserAccountRepository userAccountRepository;
+
+	@Before
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(accountNumberIndex, "loadChunkSize", 2);
+		when(userAccountRepository.findAccountNumbersAfter(eq(0), eq(AppConstant.ACCOUNT_TYPE_MORTGAGE), any()))
+				.thenReturn(Arrays.asList(new Object[] { 1, 1234567890123456L }, new Object[] { 2, 9999000012345L }));
+		when(userAccountRepository.findAccountNumbersAfter(eq(2), eq(AppConstant.ACCOUNT_TYPE_MORTGAGE), any()))
+				.thenReturn(Collections.singletonList(new Object[] { 5, 5550001111L }));
+	}
+
+	@Test
+	public void testSearchAfterBuild() {
+		assertFalse(accountNumberIndex.isReady());
+		assertEquals(3, accountNumberIndex.build());
+		assertTrue(accountNumberIndex.isReady());
+
+		assertEquals(Arrays.asList(1, 2), accountNumberIndex.search("2345", 10));
+		assertEquals(Arrays.asList(1), accountNumberIndex.search("2345", 1));
+		assertEquals(Arrays.asList(2), accountNumberIndex.search("99990000", 10));
+		assertEquals(Arrays.asList(5), accountNumberIndex.search("000111", 10));
+		assertEquals(Arrays.asList(2, 5), accountNumberIndex.search("00", 10));
+		assertEquals(Arrays.asList(1, 2, 5), accountNumberIndex.search("", 10));
+		// Every run of four digits is in the first number, not in this order.
+		assertEquals(Collections.emptyList(), accountNumberIndex.search("90123456789", 10));
+		assertEquals(Collections.emptyList(), accountNumberIndex.search("12a4", 10));
+	}
+
+	@Test
+	public void testRegisteredAccountsAreAdded() {
+		accountNumberIndex.addAfterCommit(newAccount(6, 7770002222L, AppConstant.ACCOUNT_TYPE_SAVINGS));
+		accountNumberIndex.build();
+		accountNumberIndex.addAfterCommit(newAccount(7, 7770003333L, AppConstant.ACCOUNT_TYPE_SAVINGS));
+		accountNumberIndex.addAfterCommit(newAccount(8, 7770004444L, AppConstant.ACCOUNT_TYPE_MORTGAGE));
+
+		assertEquals(Arrays.asList(6, 7), accountNumberIndex.search("777000", 10));
+	}
+
+	private UserAccount newAccount(Integer id, Long accountNumber, String accountType) {
+		UserAccount userAccount = new UserAccount();
+		userAccount.setId(id);
+		userAccount.setAccountNumber(accountNumber);
+		userAccount.setAccountType(accountType);
+		return userAccount;
+	}
+}
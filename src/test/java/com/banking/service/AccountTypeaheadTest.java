@@ -0,0 +1,128 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.UserAccountDto;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class AccountTypeaheadTest {
+
+	@InjectMocks
+	AccountTypeahead accountTypeahead;
+
+	@Mock
+	UserAccountRepository userAccountRepository;
+
+	@Before
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(accountTypeahead, "loadChunkSize", 2);
+		ReflectionTestUtils.setField(accountTypeahead, "mergeThreshold", 2);
+		ReflectionTestUtils.setField(accountTypeahead, "maxSessions", 2);
+		when(userAccountRepository.findAccountHoldersAfter(eq(0), eq(AppConstant.ACCOUNT_TYPE_MORTGAGE), any()))
+				.thenReturn(Arrays.asList(new Object[] { 1, 1234567890123456L, 11, "Janani", "Vijay" },
+						new Object[] { 2, 12345L, 12, "Raghu", "Ram" }));
+		when(userAccountRepository.findAccountHoldersAfter(eq(2), eq(AppConstant.ACCOUNT_TYPE_MORTGAGE), any()))
+				.thenReturn(Arrays.asList(new Object[] { 4, 1299L, null, null, null },
+						new Object[] { 5, 123L, 15, "Kavya", "Sri" }));
+		when(userAccountRepository.findAccountHoldersAfter(eq(5), eq(AppConstant.ACCOUNT_TYPE_MORTGAGE), any()))
+				.thenReturn(Collections.emptyList());
+	}
+
+	@Test
+	public void testSuggestShortestFirst() {
+		assertFalse(accountTypeahead.isReady());
+		assertEquals(4, accountTypeahead.build());
+		assertTrue(accountTypeahead.isReady());
+
+		assertEquals(Arrays.asList(123L, 1299L, 12345L, 1234567890123456L), numbers(accountTypeahead.suggest("12", 10)));
+		assertEquals(Arrays.asList(123L, 12345L), numbers(accountTypeahead.suggest("123", 2)));
+		assertEquals(Arrays.asList(1234567890123456L), numbers(accountTypeahead.suggest("123456", 10)));
+		assertEquals(Collections.emptyList(), numbers(accountTypeahead.suggest("13", 10)));
+		assertEquals(Collections.emptyList(), numbers(accountTypeahead.suggest("012", 10)));
+		assertEquals(Collections.emptyList(), numbers(accountTypeahead.suggest("1a", 10)));
+		assertEquals(Collections.emptyList(), numbers(accountTypeahead.suggest("", 10)));
+
+		UserAccountDto exact = accountTypeahead.suggest("12345", 1).get(0);
+		assertEquals("Raghu Ram", exact.getUserName());
+		assertEquals(12, exact.getUserId());
+		assertEquals(AppConstant.ACCOUNT_TYPE_SAVINGS, exact.getAccountType());
+		UserAccountDto noHolder = accountTypeahead.suggest("1299", 1).get(0);
+		assertEquals(null, noHolder.getUserName());
+		assertEquals(null, noHolder.getUserId());
+	}
+
+	@Test
+	public void testRegisteredAccountsAreAddedAndMerged() {
+		accountTypeahead.addAfterCommit(newAccount(12345L, AppConstant.ACCOUNT_TYPE_SAVINGS), newUser(12, "Raghu"));
+		accountTypeahead.build();
+		accountTypeahead.addAfterCommit(newAccount(1250L, AppConstant.ACCOUNT_TYPE_SAVINGS), newUser(16, "Meena"));
+		accountTypeahead.addAfterCommit(newAccount(1260L, AppConstant.ACCOUNT_TYPE_MORTGAGE), newUser(16, "Meena"));
+		assertEquals(Arrays.asList(123L, 1250L, 1299L, 12345L), numbers(accountTypeahead.suggest("12", 4)));
+
+		// The second added account merges both into the sorted numbers.
+		accountTypeahead.addAfterCommit(newAccount(12000L, AppConstant.ACCOUNT_TYPE_SAVINGS), newUser(17, "Arun"));
+		List<UserAccountDto> suggestions = accountTypeahead.suggest("12", 10);
+		assertEquals(Arrays.asList(123L, 1250L, 1299L, 12000L, 12345L, 1234567890123456L), numbers(suggestions));
+		assertEquals("Meena Kumar", suggestions.get(1).getUserName());
+		assertEquals("Kavya Sri", suggestions.get(0).getUserName());
+		assertEquals("Raghu Ram", suggestions.get(4).getUserName());
+	}
+
+	@Test
+	public void testOlderKeystrokesAreSuperseded() {
+		assertTrue(accountTypeahead.isLatestKeystroke("staff-1", 2L));
+		assertTrue(accountTypeahead.isLatestKeystroke("staff-2", 1L));
+		assertFalse(accountTypeahead.isLatestKeystroke("staff-1", 1L));
+		assertTrue(accountTypeahead.isLatestKeystroke("staff-1", 2L));
+		assertTrue(accountTypeahead.isLatestKeystroke("staff-1", 3L));
+		assertTrue(accountTypeahead.isLatestKeystroke(null, 1L));
+
+		// At most two sessions are kept, staff-2 was used least recently.
+		assertTrue(accountTypeahead.isLatestKeystroke("staff-3", 1L));
+		assertTrue(accountTypeahead.isLatestKeystroke("staff-2", 0L));
+		assertFalse(accountTypeahead.isLatestKeystroke("staff-3", 0L));
+	}
+
+	private List<Long> numbers(List<UserAccountDto> suggestions) {
+		return suggestions.stream().map(UserAccountDto::getAccountNumber).collect(Collectors.toList());
+	}
+
+	private UserAccount newAccount(Long accountNumber, String accountType) {
+		UserAccount userAccount = new UserAccount();
+		userAccount.setAccountNumber(accountNumber);
+		userAccount.setAccountType(accountType);
+		return userAccount;
+	}
+
+	private User newUser(Integer id, String firstName) {
+		User user = new User();
+		user.setId(id);
+		user.setFirstName(firstName);
+		user.setLastName(id == 12 ? "Ram" : "Kumar");
+		return user;
+	}
+}
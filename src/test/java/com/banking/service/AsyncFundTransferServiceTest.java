@@ -0,0 +1,212 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.FundTransferResponseDto;
+import com.banking.dto.Money;
+import com.banking.dto.ResponseDto;
+import com.banking.dto.TransferStatusDto;
+import com.banking.entity.UserTransaction;
+import com.banking.exception.IdempotencyKeyReusedException;
+import com.banking.repository.UserTransactionRepository;
+import com.banking.util.ConverterUtil;
+import com.banking.util.TransactionIdGenerator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javassist.NotFoundException;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class AsyncFundTransferServiceTest {
+
+	@InjectMocks
+	AsyncFundTransferService asyncFundTransferService;
+
+	@Mock
+	UserTransactionRepository userTransactionRepository;
+
+	@Mock
+	IdempotencyStore idempotencyStore;
+
+	@Spy
+	TransactionIdGenerator transactionIdGenerator = new TransactionIdGenerator(0);
+
+	@Spy
+	MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+
+	@Before
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(asyncFundTransferService, "poolSize", 1);
+		ReflectionTestUtils.setField(asyncFundTransferService, "queueCapacity", 1);
+		ReflectionTestUtils.setField(asyncFundTransferService, "statusTtlSeconds", 60L);
+		ReflectionTestUtils.setField(asyncFundTransferService, "statusMaxEntries", 100);
+		asyncFundTransferService.start();
+	}
+
+	@After
+	public void cleanUp() throws InterruptedException {
+		asyncFundTransferService.stop();
+	}
+
+	@Test
+	public void testTransferRunsAfterAccepted() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		TransferStatusDto accepted = asyncFundTransferService.submit(fundTransferRequestDto, () -> {
+			await(release);
+			return success();
+		});
+		assertEquals(AppConstant.TRANSFER_STATE_QUEUED, accepted.getState());
+		assertEquals(202, accepted.getStatusCode());
+		assertEquals(AppConstant.GET_TRANSACTION_NO_PREFIX + fundTransferRequestDto.getTransactionId(),
+				accepted.getTransactionId());
+
+		release.countDown();
+		TransferStatusDto status = awaitFinished(accepted.getTransactionId());
+		assertEquals(AppConstant.TRANSFER_STATE_COMPLETED, status.getState());
+		assertEquals(AppConstant.SUCCESS, status.getStatus());
+		assertEquals(200, status.getStatusCode());
+		assertEquals(1, meterRegistry.get("transfer.async.execution").timer().count());
+		assertEquals(1, meterRegistry.get("transfer.async.queue.wait").timer().count());
+	}
+
+	@Test
+	public void testTransferOfUnknownAccountFails() throws Exception {
+		TransferStatusDto accepted = asyncFundTransferService.submit(fundTransferRequestDto, () -> {
+			throw new NotFoundException(AppConstant.NO_ACCOUNTS_FOUND);
+		});
+
+		TransferStatusDto status = awaitFinished(accepted.getTransactionId());
+		assertEquals(AppConstant.TRANSFER_STATE_FAILED, status.getState());
+		assertEquals(AppConstant.NO_ACCOUNTS_FOUND, status.getMessage());
+		assertEquals(404, status.getStatusCode());
+	}
+
+	@Test
+	public void testFullQueueRejectsTransfer() {
+		CountDownLatch release = new CountDownLatch(1);
+		IdempotencyStore.Transfer blocked = () -> {
+			await(release);
+			return success();
+		};
+		asyncFundTransferService.submit(new FundTransferRequestDto(), blocked);
+		asyncFundTransferService.submit(new FundTransferRequestDto(), blocked);
+		try {
+			asyncFundTransferService.submit(new FundTransferRequestDto(), blocked);
+		} catch (RejectedExecutionException e) {
+			assertEquals(1.0, meterRegistry.get("transfer.async.rejected").counter().count());
+		}
+		assertEquals(2, asyncFundTransferService.size());
+		release.countDown();
+	}
+
+	@Test
+	public void testStatusOfEvictedTransferIsReadFromLedger() {
+		when(userTransactionRepository.findByTransactionId("T-1")).thenReturn(new UserTransaction());
+
+		assertEquals(AppConstant.TRANSFER_STATE_COMPLETED, asyncFundTransferService.getStatus("T-1").getState());
+		assertNull(asyncFundTransferService.getStatus("T-2"));
+	}
+
+	@Test
+	public void testReplayedKeyGetsTheOriginalTransactionNumber() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+		IdempotencyStore.Transfer blocked = () -> {
+			runs.incrementAndGet();
+			await(release);
+			return success();
+		};
+		TransferStatusDto accepted = asyncFundTransferService.submit(keyedRequest("rent-2026-10", 20000L), blocked);
+		TransferStatusDto replayed = asyncFundTransferService.submit(keyedRequest("rent-2026-10", 20000L), blocked);
+		assertEquals(accepted.getTransactionId(), replayed.getTransactionId());
+		assertThrows(IdempotencyKeyReusedException.class,
+				() -> asyncFundTransferService.submit(keyedRequest("rent-2026-10", 30000L), blocked));
+
+		release.countDown();
+		assertEquals(AppConstant.TRANSFER_STATE_COMPLETED, awaitFinished(accepted.getTransactionId()).getState());
+		replayed = asyncFundTransferService.submit(keyedRequest("rent-2026-10", 20000L), blocked);
+		assertEquals(accepted.getTransactionId(), replayed.getTransactionId());
+		assertEquals(AppConstant.TRANSFER_STATE_COMPLETED, replayed.getState());
+		assertEquals(1, runs.get());
+		assertEquals(1, asyncFundTransferService.size());
+	}
+
+	@Test
+	public void testReplayOfCommittedKeyGetsItsTransactionNumber() {
+		FundTransferRequestDto keyedRequest = keyedRequest("rent-2026-09", 20000L);
+		FundTransferResponseDto committed = new FundTransferResponseDto();
+		committed.setTransactionId("T-7");
+		when(idempotencyStore.committedResponse("rent-2026-09", ConverterUtil.payloadHash(keyedRequest)))
+				.thenReturn(committed);
+
+		TransferStatusDto replayed = asyncFundTransferService.submit(keyedRequest, () -> success());
+		assertEquals("T-7", replayed.getTransactionId());
+		assertEquals(AppConstant.TRANSFER_STATE_COMPLETED, replayed.getState());
+		verify(transactionIdGenerator, never()).nextId();
+		assertEquals(0, asyncFundTransferService.size());
+	}
+
+	private FundTransferRequestDto keyedRequest(String idempotencyKey, long amount) {
+		FundTransferRequestDto keyedRequest = new FundTransferRequestDto();
+		keyedRequest.setAccountId(1);
+		keyedRequest.setPayeeAccountNumber("500002");
+		keyedRequest.setTransferAmount(Money.ofMinorUnits(amount));
+		keyedRequest.setIdempotencyKey(idempotencyKey);
+		return keyedRequest;
+	}
+
+	private TransferStatusDto awaitFinished(String transactionId) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		TransferStatusDto status = asyncFundTransferService.getStatus(transactionId);
+		while (AppConstant.TRANSFER_STATE_QUEUED.equals(status.getState())
+				|| AppConstant.TRANSFER_STATE_RUNNING.equals(status.getState())) {
+			if (System.nanoTime() > deadline) {
+				break;
+			}
+			TimeUnit.MILLISECONDS.sleep(10);
+			status = asyncFundTransferService.getStatus(transactionId);
+		}
+		return status;
+	}
+
+	private void await(CountDownLatch release) {
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private ResponseDto success() {
+		ResponseDto responseDto = new ResponseDto();
+		responseDto.setStatus(AppConstant.SUCCESS);
+		responseDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
+		return responseDto;
+	}
+}
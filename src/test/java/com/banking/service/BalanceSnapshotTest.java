@@ -0,0 +1,157 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.repository.AccountBalanceSnapshotRepository;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserRepository;
+
+import javassist.NotFoundException;
+
+/**
+ * Snapshots the end of day balances of back dated ledger rows and checks the
+ * balance as of days before, on and between the snapshots and today, and that
+ * a later run fills the days since the last snapshot, and that two runs at
+ * once snapshot each day once.
+ */
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:snapshot;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"account.striping.fold-interval-ms=3600000", "account.balance-snapshot.cron=-",
+		"account.balance-snapshot.chunk-size=1" })
+public class BalanceSnapshotTest extends IntegrationTestSupport {
+
+	private static final String INSERT_TRANSACTION = "insert into user_transaction (user_account_id, "
+			+ "payee_account_id, transaction_type, transaction_id, transaction_date, transaction_amount, "
+			+ "remarks) values (?, ?, 'IMPS', ?, ?, ?, 'Back dated')";
+
+	private static final String UPDATE_BALANCE = "update user_account set balance_amount = balance_amount + ? "
+			+ "where id = ?";
+
+	@Autowired
+	BalanceSnapshotService balanceSnapshotService;
+
+	@Autowired
+	UserTransactionService userTransactionService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	UserAccount payerAccount;
+	UserAccount payeeAccount;
+	LocalDate today = LocalDate.now();
+
+	@Before
+	public void init() throws NotFoundException {
+		User user = new User();
+		user.setFirstName("Janani");
+		user.setLastName("Vijay");
+		user = userRepository.save(user);
+		payerAccount = userAccountRepository.save(newAccount(user.getId(), 900001L, 100000L));
+		payeeAccount = userAccountRepository.save(newAccount(user.getId(), 900002L, 100000L));
+
+		backDatedTransfer(payerAccount, payeeAccount, 3000L, 10);
+		backDatedTransfer(payeeAccount, payerAccount, 1000L, 5);
+		backDatedTransfer(payerAccount, payerAccount, 500L, 5);
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(payerAccount.getId());
+		fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(payeeAccount.getAccountNumber()));
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(2000L));
+		userTransactionService.fundTransfer(fundTransferRequestDto);
+	}
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from user_transaction");
+		accountBalanceSnapshotRepository.deleteAll();
+		userAccountRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void testBalanceAsOfSnapshots() throws InterruptedException {
+		assertBalancesAsOf();
+
+		// The transaction days and yesterday of each account.
+		assertEquals(6, balanceSnapshotService.snapshot(today.minusDays(1)));
+		assertEquals(0, balanceSnapshotService.snapshot(today.minusDays(1)));
+		assertBalancesAsOf();
+	}
+
+	@Test
+	public void testLaterRunFillsTheDaysSinceTheLastSnapshot() throws InterruptedException {
+		assertEquals(6, balanceSnapshotService.snapshot(today.minusDays(3)));
+		assertEquals(4, balanceSnapshotService.snapshot(today.minusDays(1)));
+		assertEquals(2, balanceSnapshotService.snapshot(today));
+		assertBalancesAsOf();
+		assertEquals(98000L, accountBalanceSnapshotRepository
+				.findFirstByUserAccountIdAndBalanceDateLessThanEqualOrderByBalanceDateDesc(payerAccount.getId(),
+						today.minusDays(2))
+				.get().getBalanceAmount());
+	}
+
+	@Test
+	public void testConcurrentRunsSnapshotEachDayOnce() throws Exception {
+		// The second run of a chunk waits for the locks of the first and reads
+		// its snapshot dates again.
+		CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> snapshot(today.minusDays(1)));
+		int second = snapshot(today.minusDays(1));
+		assertEquals(6, first.get(30, TimeUnit.SECONDS) + second);
+		assertEquals(6, accountBalanceSnapshotRepository.count());
+		assertBalancesAsOf();
+	}
+
+	private int snapshot(LocalDate lastDay) {
+		try {
+			return balanceSnapshotService.snapshot(lastDay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void assertBalancesAsOf() {
+		assertBalanceAsOf(100000L, 100000L, today.minusDays(11));
+		assertBalanceAsOf(97000L, 103000L, today.minusDays(10));
+		assertBalanceAsOf(97000L, 103000L, today.minusDays(7));
+		assertBalanceAsOf(98000L, 102000L, today.minusDays(5));
+		assertBalanceAsOf(98000L, 102000L, today.minusDays(1));
+		assertBalanceAsOf(96000L, 104000L, today);
+	}
+
+	private void assertBalanceAsOf(long payerBalance, long payeeBalance, LocalDate asOf) {
+		assertEquals(payerBalance, balanceSnapshotService.getBalanceAsOf(payerAccount.getId(), asOf).get());
+		assertEquals(payeeBalance, balanceSnapshotService.getBalanceAsOf(payeeAccount.getId(), asOf).get());
+	}
+
+	private void backDatedTransfer(UserAccount from, UserAccount to, long amount, int daysAgo) {
+		jdbcTemplate.update(INSERT_TRANSACTION, from.getId(), to.getId(), "T-" + from.getId() + "-" + daysAgo,
+				Date.valueOf(today.minusDays(daysAgo)), amount);
+		jdbcTemplate.update(UPDATE_BALANCE, -amount, from.getId());
+		jdbcTemplate.update(UPDATE_BALANCE, amount, to.getId());
+	}
+}
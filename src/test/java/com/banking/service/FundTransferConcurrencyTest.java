@@ -0,0 +1,144 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.TestPropertySource;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.constant.AppConstant;
+import com.banking.controller.UserTransactionController;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
+import com.banking.dto.ResponseDto;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserTransactionRepository;
+
+/**
+ * Runs 1, 8 and 64 concurrent clients against one hot account (half of them
+ * paying A to B, the other half B to A) and checks that no balance update is
+ * lost. Throughput of each run is logged.
+ *
+ * The H2 page store is used: the MVStore engine of H2 1.4.200 can keep part of
+ * a transaction it rolled back on a deadlock, which broke the balance check.
+ */
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:concurrency;MODE=MySQL;MV_STORE=FALSE;DB_CLOSE_DELAY=-1" })
+public class FundTransferConcurrencyTest extends IntegrationTestSupport {
+	private static final Logger logger = LoggerFactory.getLogger(FundTransferConcurrencyTest.class);
+
+	private static final long OPENING_BALANCE = 100000000L;
+	private static final long TRANSFER_AMOUNT = 1000L;
+	private static final int TRANSFERS_PER_RUN = 512;
+
+	@Autowired
+	UserTransactionController userTransactionController;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	UserAccount hotAccount;
+	UserAccount otherAccount;
+
+	@Before
+	public void init() {
+		hotAccount = userAccountRepository.save(newAccount(1, 500001L, AppConstant.ACCOUNT_TYPE_SAVINGS,
+				AppConstant.ACCOUNT_MINIMUM_BALANCE, OPENING_BALANCE));
+		otherAccount = userAccountRepository.save(newAccount(1, 500002L, AppConstant.ACCOUNT_TYPE_SAVINGS,
+				AppConstant.ACCOUNT_MINIMUM_BALANCE, OPENING_BALANCE));
+	}
+
+	@After
+	public void cleanUp() {
+		userTransactionRepository.deleteAll();
+		userAccountRepository.deleteAll();
+	}
+
+	@Test
+	public void testSingleClient() throws Exception {
+		runTransfers(1);
+	}
+
+	@Test
+	public void testEightClients() throws Exception {
+		runTransfers(8);
+	}
+
+	@Test
+	public void testSixtyFourClients() throws Exception {
+		runTransfers(64);
+	}
+
+	private void runTransfers(int clients) throws Exception {
+		AtomicInteger hotToOther = new AtomicInteger();
+		AtomicInteger otherToHot = new AtomicInteger();
+		AtomicInteger conflicts = new AtomicInteger();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(clients);
+		List<Future<?>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int client = 0; client < clients; client++) {
+			boolean fromHot = client % 2 == 0;
+			futures.add(executorService.submit(() -> {
+				for (int i = 0; i < TRANSFERS_PER_RUN / clients; i++) {
+					try {
+						ResponseDto response = userTransactionController
+								.fundTransfer(fromHot ? transfer(hotAccount, otherAccount)
+										: transfer(otherAccount, hotAccount), null)
+								.getBody();
+						if (AppConstant.SUCCESS.equals(response.getStatus())) {
+							(fromHot ? hotToOther : otherToHot).incrementAndGet();
+						}
+					} catch (ConcurrencyFailureException e) {
+						conflicts.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsed = System.nanoTime() - start;
+		executorService.shutdown();
+		executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+		int committed = hotToOther.get() + otherToHot.get();
+		logger.info("clients={} committed={} conflicts={} elapsedMs={} transfers/sec={}", clients, committed,
+				conflicts.get(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+				String.format("%.0f", committed / (elapsed / 1e9)));
+
+		long net = (hotToOther.get() - otherToHot.get()) * TRANSFER_AMOUNT;
+		assertEquals(OPENING_BALANCE - net, userAccountRepository.findById(hotAccount.getId()).get().getBalanceAmount());
+		assertEquals(OPENING_BALANCE + net,
+				userAccountRepository.findById(otherAccount.getId()).get().getBalanceAmount());
+		assertEquals(committed, userTransactionRepository.count());
+	}
+
+	private FundTransferRequestDto transfer(UserAccount from, UserAccount to) {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(from.getId());
+		fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(to.getAccountNumber()));
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(TRANSFER_AMOUNT));
+		fundTransferRequestDto.setRemarks("Concurrency test");
+		return fundTransferRequestDto;
+	}
+}
@@ -0,0 +1,197 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.BatchFundTransferResponseDto;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.FundTransferResponseDto;
+import com.banking.dto.Money;
+import com.banking.dto.ResponseDto;
+
+import javassist.NotFoundException;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class FundTransferPipelineTest {
+
+	@InjectMocks
+	FundTransferPipeline fundTransferPipeline;
+
+	@Mock
+	UserTransactionService userTransactionService;
+
+	@Spy
+	RetryTemplate fundTransferRetryTemplate = new RetryTemplate();
+
+	Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+	@Before
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(fundTransferPipeline, "windowMillis", 5L);
+		ReflectionTestUtils.setField(fundTransferPipeline, "maxGroupSize", 100);
+		ReflectionTestUtils.setField(fundTransferPipeline, "queueCapacity", 100);
+		ReflectionTestUtils.setField(fundTransferPipeline, "validator", validator);
+		// Warms the validator up, so the submits of a test fit in one window.
+		for (int i = 0; i < 5000; i++) {
+			validator.validate(transfer("warm up"));
+		}
+	}
+
+	@After
+	public void cleanUp() throws InterruptedException {
+		fundTransferPipeline.stop();
+	}
+
+	@Test
+	public void testTransfersCommittedAsOneGroup() throws Exception {
+		when(userTransactionService.batchFundTransfer(anyList())).thenAnswer(invocation -> {
+			List<FundTransferRequestDto> requests = invocation.getArgument(0);
+			BatchFundTransferResponseDto response = new BatchFundTransferResponseDto();
+			response.setTransfers(requests.stream().map(request -> {
+				FundTransferResponseDto result = new FundTransferResponseDto();
+				result.setStatus(AppConstant.SUCCESS);
+				result.setStatusCode(200);
+				result.setMessage(request.getRemarks());
+				return result;
+			}).collect(Collectors.toList()));
+			return response;
+		});
+
+		// The ten transfers are queued well within the 5 ms window of one group.
+		fundTransferPipeline.start();
+		List<CompletableFuture<ResponseDto>> futures = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			futures.add(fundTransferPipeline.submit(transfer("transfer-" + i)));
+		}
+
+		for (int i = 0; i < 10; i++) {
+			ResponseDto response = futures.get(i).get(1, TimeUnit.SECONDS);
+			assertEquals(AppConstant.SUCCESS, response.getStatus());
+			assertEquals("transfer-" + i, response.getMessage());
+		}
+		verify(userTransactionService, times(1)).batchFundTransfer(anyList());
+	}
+
+	@Test
+	public void testAccountNotFoundCompletesExceptionally() throws Exception {
+		FundTransferResponseDto result = new FundTransferResponseDto();
+		result.setStatus(AppConstant.FAILURE);
+		result.setStatusCode(404);
+		result.setMessage(AppConstant.NO_ACCOUNTS_FOUND);
+		BatchFundTransferResponseDto response = new BatchFundTransferResponseDto();
+		List<FundTransferResponseDto> results = new ArrayList<>();
+		results.add(result);
+		response.setTransfers(results);
+		when(userTransactionService.batchFundTransfer(anyList())).thenReturn(response);
+
+		fundTransferPipeline.start();
+		CompletableFuture<ResponseDto> future = fundTransferPipeline.submit(transfer("unknown payee"));
+		try {
+			future.get(1, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof NotFoundException);
+		}
+		assertTrue(future.isCompletedExceptionally());
+	}
+
+	@Test
+	public void testInvalidTransferNeverJoinsAGroup() throws Exception {
+		fundTransferPipeline.start();
+		FundTransferRequestDto invalid = transfer("no payee");
+		invalid.setPayeeAccountNumber("16636-36647774");
+		ResponseDto response = fundTransferPipeline.submit(invalid).get(1, TimeUnit.SECONDS);
+
+		assertEquals(AppConstant.FAILURE, response.getStatus());
+		assertEquals(400, response.getStatusCode());
+		assertEquals(AppConstant.PAYEE_ACCOUNT_NUMBER_ERROR_MESSAGE, response.getMessage());
+		verify(userTransactionService, never()).batchFundTransfer(anyList());
+	}
+
+	@Test
+	public void testTransferOfZeroNeverJoinsAGroup() throws Exception {
+		fundTransferPipeline.start();
+		FundTransferRequestDto zero = transfer("nothing");
+		zero.setTransferAmount(Money.ofMinorUnits(0L));
+		ResponseDto response = fundTransferPipeline.submit(zero).get(1, TimeUnit.SECONDS);
+
+		assertEquals(400, response.getStatusCode());
+		assertEquals(AppConstant.TRANSFER_AMOUNT_POSITIVE_ERROR_MESSAGE, response.getMessage());
+		verify(userTransactionService, never()).batchFundTransfer(anyList());
+	}
+
+	@Test
+	public void testFailedGroupIsCommittedOneByOne() throws Exception {
+		when(userTransactionService.batchFundTransfer(anyList())).thenAnswer(invocation -> {
+			List<FundTransferRequestDto> requests = invocation.getArgument(0);
+			if (requests.stream().anyMatch(request -> "duplicate".equals(request.getRemarks()))) {
+				throw new DataIntegrityViolationException("duplicate transaction id");
+			}
+			BatchFundTransferResponseDto response = new BatchFundTransferResponseDto();
+			FundTransferResponseDto result = new FundTransferResponseDto();
+			result.setStatus(AppConstant.SUCCESS);
+			result.setStatusCode(200);
+			response.setTransfers(Collections.singletonList(result));
+			return response;
+		});
+
+		fundTransferPipeline.start();
+		CompletableFuture<ResponseDto> first = fundTransferPipeline.submit(transfer("rent"));
+		CompletableFuture<ResponseDto> duplicate = fundTransferPipeline.submit(transfer("duplicate"));
+		CompletableFuture<ResponseDto> last = fundTransferPipeline.submit(transfer("school fees"));
+
+		assertEquals(AppConstant.SUCCESS, first.get(1, TimeUnit.SECONDS).getStatus());
+		assertEquals(AppConstant.SUCCESS, last.get(1, TimeUnit.SECONDS).getStatus());
+		try {
+			duplicate.get(1, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof DataIntegrityViolationException);
+		}
+		assertTrue(duplicate.isCompletedExceptionally());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWindowOutOfRange() {
+		ReflectionTestUtils.setField(fundTransferPipeline, "windowMillis", 10L);
+		fundTransferPipeline.start();
+	}
+
+	private FundTransferRequestDto transfer(String remarks) {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(1);
+		fundTransferRequestDto.setPayeeAccountNumber("1663636647774");
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(10000L));
+		fundTransferRequestDto.setRemarks(remarks);
+		return fundTransferRequestDto;
+	}
+}
@@ -0,0 +1,190 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.constant.AppConstant;
+import com.banking.dto.BatchFundTransferResponseDto;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
+import com.banking.dto.ResponseDto;
+import com.banking.dto.UserTransactionRequestDto;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserTransactionRepository;
+import com.banking.util.ConverterUtil;
+
+import javassist.NotFoundException;
+
+/**
+ * Counts the JDBC statements of one fund transfer: the payee id read, the
+ * debit, the credit and the ledger insert, also when the recent transactions
+ * of the payer are cached. Also runs a batch fund transfer through the JDBC
+ * batches.
+ */
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:roundtrip;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+public class FundTransferRoundTripTest extends IntegrationTestSupport {
+
+	private static final long FUND_TRANSFER_STATEMENTS = 4;
+
+	@Autowired
+	UserTransactionService userTransactionService;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	UserAccount userAccount;
+	UserAccount payeeAccount;
+
+	@Before
+	public void init() {
+		userAccount = userAccountRepository.save(newAccount(1, 600001L, AppConstant.ACCOUNT_TYPE_SAVINGS,
+				AppConstant.ACCOUNT_MINIMUM_BALANCE, 2000000L));
+		payeeAccount = userAccountRepository.save(newAccount(1, 600002L, AppConstant.ACCOUNT_TYPE_SAVINGS,
+				AppConstant.ACCOUNT_MINIMUM_BALANCE, 100000L));
+	}
+
+	@After
+	public void cleanUp() {
+		userTransactionRepository.deleteAll();
+		userAccountRepository.deleteAll();
+		jdbcTemplate.update("delete from transfer_idempotency");
+	}
+
+	@Test
+	public void testFundTransferStatementCount() throws NotFoundException {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(userAccount.getId());
+		fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(payeeAccount.getAccountNumber()));
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(200000L));
+		fundTransferRequestDto.setRemarks("For Hospital Expenses");
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		ResponseDto response = userTransactionService.fundTransfer(fundTransferRequestDto);
+
+		assertEquals(AppConstant.SUCCESS, response.getStatus());
+		assertEquals(FUND_TRANSFER_STATEMENTS, statistics.getPrepareStatementCount());
+		assertEquals(1800000L, userAccountRepository.findById(userAccount.getId()).get().getBalanceAmount());
+		assertEquals(300000L, userAccountRepository.findById(payeeAccount.getId()).get().getBalanceAmount());
+		assertEquals(1, userTransactionRepository.count());
+	}
+
+	@Test
+	public void testFundTransferStatementCountWithRecentTransactionsCached() throws NotFoundException {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(userAccount.getId());
+		fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(payeeAccount.getAccountNumber()));
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(200000L));
+		fundTransferRequestDto.setRemarks("Rent");
+		userTransactionService.fundTransfer(fundTransferRequestDto);
+		userTransactionService.findRecentFiveTransactions(userAccount.getId());
+
+		// The row of the transfer is added to the cached ring without reading it
+		// back, the payee is known from the ring.
+		fundTransferRequestDto.setRemarks("Rent again");
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		userTransactionService.fundTransfer(fundTransferRequestDto);
+
+		assertEquals(FUND_TRANSFER_STATEMENTS, statistics.getPrepareStatementCount());
+		List<UserTransactionRequestDto> recent = userTransactionService
+				.findRecentFiveTransactions(userAccount.getId()).getTransactionDetails();
+		assertEquals(FUND_TRANSFER_STATEMENTS, statistics.getPrepareStatementCount());
+		assertEquals(Arrays.asList("Rent again", "Rent"),
+				recent.stream().map(UserTransactionRequestDto::getRemarks).collect(Collectors.toList()));
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void testFundTransferRollsBackDebitWhenPayeeNotFound() throws NotFoundException {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(userAccount.getId());
+		fundTransferRequestDto.setPayeeAccountNumber("999999");
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(200000L));
+
+		try {
+			userTransactionService.fundTransfer(fundTransferRequestDto);
+		} finally {
+			assertEquals(2000000L, userAccountRepository.findById(userAccount.getId()).get().getBalanceAmount());
+		}
+	}
+
+	@Test
+	public void testIdempotencyKeyHoldsAcrossTransactionDates() throws NotFoundException {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(userAccount.getId());
+		fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(payeeAccount.getAccountNumber()));
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(200000L));
+		fundTransferRequestDto.setIdempotencyKey("rent-2026-10");
+		userTransactionService.fundTransfer(fundTransferRequestDto);
+		String transactionId = userTransactionRepository.findAll().get(0).getTransactionId();
+
+		// On MySQL the unique key of the ledger holds within one transaction
+		// date, a retry after midnight does not meet the row of the first try.
+		jdbcTemplate.update("update user_transaction set idempotency_key = null");
+		assertThrows(DataIntegrityViolationException.class,
+				() -> userTransactionService.fundTransfer(fundTransferRequestDto));
+
+		assertEquals(1800000L, userAccountRepository.findById(userAccount.getId()).get().getBalanceAmount());
+		assertEquals(1, userTransactionRepository.count());
+		assertEquals(transactionId,
+				userTransactionRepository.findTransferIdempotency("rent-2026-10").getTransactionId());
+	}
+
+	@Test
+	public void testBatchFundTransfer() {
+		List<FundTransferRequestDto> fundTransferRequestDtos = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+			fundTransferRequestDto.setAccountId(userAccount.getId());
+			fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(payeeAccount.getAccountNumber()));
+			fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(200000L));
+			fundTransferRequestDto.setRemarks("Salary");
+			fundTransferRequestDto.setIdempotencyKey("salary-" + i);
+			fundTransferRequestDtos.add(fundTransferRequestDto);
+		}
+
+		BatchFundTransferResponseDto response = userTransactionService.batchFundTransfer(fundTransferRequestDtos);
+
+		// 20000.00 less the 500.00 minimum balance covers nine transfers.
+		assertEquals(9, response.getTransfers().stream()
+				.filter(transfer -> AppConstant.SUCCESS.equals(transfer.getStatus())).count());
+		assertEquals(AppConstant.FUND_TRANSFER_MIN_BAL, response.getTransfers().get(9).getMessage());
+		assertEquals(200000L, userAccountRepository.findById(userAccount.getId()).get().getBalanceAmount());
+		assertEquals(1900000L, userAccountRepository.findById(payeeAccount.getId()).get().getBalanceAmount());
+		assertEquals(9, userTransactionRepository.count());
+		// The keys are recorded on the ledger rows and with the payload hash.
+		assertEquals(9, (int) jdbcTemplate.queryForObject(
+				"select count(*) from user_transaction where idempotency_key is not null", Integer.class));
+		assertEquals(ConverterUtil.payloadHash(fundTransferRequestDtos.get(0)),
+				userTransactionRepository.findTransferIdempotency("salary-0").getPayloadHash());
+	}
+}
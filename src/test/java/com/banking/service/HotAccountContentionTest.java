@@ -0,0 +1,167 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.constant.AppConstant;
+import com.banking.controller.UserTransactionController;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
+import com.banking.dto.ResponseDto;
+import com.banking.entity.UserAccount;
+import com.banking.repository.AccountBalanceStripeRepository;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserTransactionRepository;
+
+/**
+ * Runs 32 clients, each paying from its own account into one hot payee
+ * account, with and without striping of the payee balance. Throughput of each
+ * run is logged, and the payee balance is checked before and after the stripes
+ * are folded.
+ */
+@TestPropertySource(properties = { "account.striping.fold-interval-ms=3600000",
+		"spring.datasource.url=jdbc:h2:mem:hotaccount;MODE=MySQL;MV_STORE=FALSE;DB_CLOSE_DELAY=-1" })
+public class HotAccountContentionTest extends IntegrationTestSupport {
+	private static final Logger logger = LoggerFactory.getLogger(HotAccountContentionTest.class);
+
+	private static final long OPENING_BALANCE = 100000000L;
+	private static final long TRANSFER_AMOUNT = 1000L;
+	private static final int CLIENTS = 32;
+	private static final int TRANSFERS_PER_CLIENT = 32;
+	private static final Long HOT_ACCOUNT_NUMBER = 700000L;
+
+	@Autowired
+	UserTransactionController userTransactionController;
+
+	@Autowired
+	StripedBalanceService stripedBalanceService;
+
+	@Autowired
+	UserAccountService userAccountService;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	AccountBalanceStripeRepository accountBalanceStripeRepository;
+
+	UserAccount hotAccount;
+	List<UserAccount> payerAccounts = new ArrayList<>();
+
+	@Before
+	public void init() {
+		hotAccount = userAccountRepository.save(newAccount(1, HOT_ACCOUNT_NUMBER, AppConstant.ACCOUNT_TYPE_SAVINGS,
+				AppConstant.ACCOUNT_MINIMUM_BALANCE, OPENING_BALANCE));
+		for (int i = 1; i <= CLIENTS; i++) {
+			payerAccounts.add(userAccountRepository.save(newAccount(1, HOT_ACCOUNT_NUMBER + i,
+					AppConstant.ACCOUNT_TYPE_SAVINGS, AppConstant.ACCOUNT_MINIMUM_BALANCE, OPENING_BALANCE)));
+		}
+	}
+
+	@After
+	public void cleanUp() {
+		ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(stripedBalanceService),
+				"stripedAccountNumbers", Collections.emptySet());
+		accountBalanceStripeRepository.deleteAll();
+		userTransactionRepository.deleteAll();
+		userAccountRepository.deleteAll();
+	}
+
+	@Test
+	public void testWithoutStriping() throws Exception {
+		int committed = runTransfers("unstriped");
+
+		assertEquals(OPENING_BALANCE + committed * TRANSFER_AMOUNT, hotAccountBalance());
+	}
+
+	@Test
+	public void testWithStriping() throws Exception {
+		ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(stripedBalanceService),
+				"stripedAccountNumbers", Collections.singleton(HOT_ACCOUNT_NUMBER));
+		stripedBalanceService.createStripes();
+
+		int committed = runTransfers("striped");
+
+		long expected = OPENING_BALANCE + committed * TRANSFER_AMOUNT;
+		assertEquals(expected, userAccountService.getAccountBalance(hotAccount.getId()).getAccountBalance()
+				.getMinorUnits());
+		assertEquals(OPENING_BALANCE, hotAccountBalance());
+
+		stripedBalanceService.fold();
+		assertEquals(expected, hotAccountBalance());
+		assertEquals(0L, stripedBalanceService.getUnfoldedBalance(hotAccount.getId()));
+	}
+
+	private int runTransfers(String mode) throws Exception {
+		AtomicInteger committed = new AtomicInteger();
+		AtomicInteger conflicts = new AtomicInteger();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(CLIENTS);
+		List<Future<?>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		for (UserAccount payerAccount : payerAccounts) {
+			futures.add(executorService.submit(() -> {
+				for (int i = 0; i < TRANSFERS_PER_CLIENT; i++) {
+					try {
+						ResponseDto response = userTransactionController.fundTransfer(transfer(payerAccount), null)
+								.getBody();
+						if (AppConstant.SUCCESS.equals(response.getStatus())) {
+							committed.incrementAndGet();
+						}
+					} catch (ConcurrencyFailureException e) {
+						conflicts.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsed = System.nanoTime() - start;
+		executorService.shutdown();
+		executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+		logger.info("mode={} committed={} conflicts={} elapsedMs={} transfers/sec={}", mode, committed.get(),
+				conflicts.get(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+				String.format("%.0f", committed.get() / (elapsed / 1e9)));
+		assertEquals(committed.get(), userTransactionRepository.count());
+		return committed.get();
+	}
+
+	private long hotAccountBalance() {
+		return userAccountRepository.findById(hotAccount.getId()).get().getBalanceAmount();
+	}
+
+	private FundTransferRequestDto transfer(UserAccount from) {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(from.getId());
+		fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(HOT_ACCOUNT_NUMBER));
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(TRANSFER_AMOUNT));
+		fundTransferRequestDto.setRemarks("Hot account test");
+		return fundTransferRequestDto;
+	}
+}
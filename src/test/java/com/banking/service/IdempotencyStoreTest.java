@@ -0,0 +1,182 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.FundTransferResponseDto;
+import com.banking.dto.ResponseDto;
+import com.banking.dto.TransferIdempotency;
+import com.banking.exception.IdempotencyKeyReusedException;
+import com.banking.repository.UserTransactionRepository;
+
+import javassist.NotFoundException;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class IdempotencyStoreTest {
+
+	@InjectMocks
+	IdempotencyStore idempotencyStore;
+
+	@Mock
+	UserTransactionRepository userTransactionRepository;
+
+	private static final String HASH = "hash-1";
+	private static final String OTHER_HASH = "hash-2";
+
+	AtomicInteger transfers = new AtomicInteger();
+
+	@Before
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(idempotencyStore, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(idempotencyStore, "maxEntries", 100);
+	}
+
+	@Test
+	public void testRepeatedKeyReturnsOriginalResponse() throws NotFoundException {
+		ResponseDto first = idempotencyStore.execute("key-1", HASH, this::transfer);
+		ResponseDto second = idempotencyStore.execute("key-1", HASH, this::transfer);
+
+		assertSame(first, second);
+		assertEquals(1, transfers.get());
+	}
+
+	@Test
+	public void testConcurrentDuplicatesWaitForFirstRequest() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		List<Future<ResponseDto>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(executorService.submit(() -> idempotencyStore.execute("key-1", HASH, () -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return transfer();
+			})));
+		}
+		TimeUnit.MILLISECONDS.sleep(100);
+		release.countDown();
+
+		for (Future<ResponseDto> future : futures) {
+			assertEquals(AppConstant.SUCCESS, future.get().getStatus());
+		}
+		executorService.shutdown();
+		assertEquals(1, transfers.get());
+	}
+
+	@Test
+	public void testFailedRequestIsNotRemembered() throws NotFoundException {
+		try {
+			idempotencyStore.execute("key-1", HASH, () -> {
+				throw new NotFoundException(AppConstant.NO_ACCOUNTS_FOUND);
+			});
+		} catch (NotFoundException e) {
+			assertEquals(AppConstant.NO_ACCOUNTS_FOUND, e.getMessage());
+		}
+
+		idempotencyStore.execute("key-1", HASH, this::transfer);
+		assertEquals(1, transfers.get());
+	}
+
+	@Test
+	public void testKeyCommittedBeforeIsNotTransferredAgain() throws NotFoundException {
+		when(userTransactionRepository.findTransferIdempotency("key-1")).thenReturn(new TransferIdempotency("T-1", HASH));
+
+		ResponseDto responseDto = idempotencyStore.execute("key-1", HASH, this::transfer);
+		assertEquals(AppConstant.SUCCESS, responseDto.getStatus());
+		assertEquals("T-1", ((FundTransferResponseDto) responseDto).getTransactionId());
+		assertEquals(0, transfers.get());
+	}
+
+	@Test
+	public void testKeyReusedForAnotherTransferIsRejected() throws NotFoundException {
+		idempotencyStore.execute("key-1", HASH, this::transfer);
+		assertThrows(IdempotencyKeyReusedException.class,
+				() -> idempotencyStore.execute("key-1", OTHER_HASH, this::transfer));
+
+		when(userTransactionRepository.findTransferIdempotency("key-2")).thenReturn(new TransferIdempotency("T-2", HASH));
+		assertThrows(IdempotencyKeyReusedException.class,
+				() -> idempotencyStore.execute("key-2", OTHER_HASH, this::transfer));
+		assertEquals(1, transfers.get());
+	}
+
+	@Test
+	public void testKeyCommittedByAnotherNode() throws NotFoundException {
+		when(userTransactionRepository.findTransferIdempotency("key-1")).thenReturn(null,
+				new TransferIdempotency("T-1", HASH));
+
+		ResponseDto responseDto = idempotencyStore.execute("key-1", HASH, () -> {
+			throw new DataIntegrityViolationException("Duplicate entry 'key-1'");
+		});
+		assertEquals(AppConstant.SUCCESS, responseDto.getStatus());
+		assertEquals(AppConstant.FUND_TRANSFER_SUCCESS, responseDto.getMessage());
+	}
+
+	@Test
+	public void testStoreIsBounded() throws NotFoundException {
+		for (int i = 0; i < 500; i++) {
+			idempotencyStore.execute("key-" + i, HASH, this::transfer);
+		}
+		assertEquals(100, idempotencyStore.size());
+	}
+
+	@Test
+	public void testRunningRequestIsNeverEvicted() throws Exception {
+		ReflectionTestUtils.setField(idempotencyStore, "maxEntries", 2);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executorService = Executors.newFixedThreadPool(2);
+		Future<ResponseDto> running = executorService.submit(() -> idempotencyStore.execute("key-1", HASH, () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return transfer();
+		}));
+		TimeUnit.MILLISECONDS.sleep(100);
+		for (int i = 2; i < 10; i++) {
+			idempotencyStore.execute("key-" + i, HASH, this::transfer);
+		}
+
+		// The duplicate still waits for the running request, it is not run again.
+		Future<ResponseDto> duplicate = executorService.submit(() -> idempotencyStore.execute("key-1", HASH,
+				this::transfer));
+		TimeUnit.MILLISECONDS.sleep(100);
+		release.countDown();
+		assertSame(running.get(), duplicate.get());
+		executorService.shutdown();
+		assertEquals(9, transfers.get());
+	}
+
+	private ResponseDto transfer() {
+		transfers.incrementAndGet();
+		ResponseDto responseDto = new ResponseDto();
+		responseDto.setStatus(AppConstant.SUCCESS);
+		responseDto.setMessage(AppConstant.FUND_TRANSFER_SUCCESS);
+		return responseDto;
+	}
+}
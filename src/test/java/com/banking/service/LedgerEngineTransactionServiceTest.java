@@ -0,0 +1,337 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.banking.constant.AppConstant;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.FundTransferResponseDto;
+import com.banking.dto.Money;
+import com.banking.dto.ResponseDto;
+import com.banking.entity.UserAccount;
+import com.banking.entity.UserTransaction;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserTransactionRepository;
+import com.banking.util.TransactionIdGenerator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javassist.NotFoundException;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class LedgerEngineTransactionServiceTest {
+	private static final Logger logger = LoggerFactory.getLogger(LedgerEngineTransactionServiceTest.class);
+
+	private static final int CLIENTS = 8;
+	private static final int TRANSFERS_PER_CLIENT = 20000;
+
+	@InjectMocks
+	LedgerEngineTransactionService ledgerEngineTransactionService;
+
+	@Mock
+	UserTransactionServiceImpl userTransactionServiceImpl;
+
+	@Mock
+	UserAccountRepository userAccountRepository;
+
+	@Mock
+	UserTransactionRepository userTransactionRepository;
+
+	@Mock
+	PlatformTransactionManager transactionManager;
+
+	@Mock
+	RecentTransactionCache recentTransactionCache;
+
+	@Mock
+	AccountBalanceCache accountBalanceCache;
+
+	@Mock
+	StripedBalanceService stripedBalanceService;
+
+	@Spy
+	TransactionIdGenerator transactionIdGenerator = new TransactionIdGenerator(1);
+
+	@Spy
+	MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	File journalFile;
+	File parkedFile;
+	Map<Integer, Optional<UserAccount>> accounts = new HashMap<>();
+
+	@Before
+	public void init() throws IOException {
+		MockitoAnnotations.initMocks(this);
+		journalFile = File.createTempFile("ledger", ".journal");
+		journalFile.delete();
+		parkedFile = File.createTempFile("ledger", ".parked");
+		parkedFile.delete();
+		configure(ledgerEngineTransactionService);
+		mockAccount(1, 1001L, 100000000L, 50000L);
+		mockAccount(2, 1002L, 100000000L, 50000L);
+		when(userTransactionRepository.findExistingTransactionIds(anyCollection())).thenReturn(Collections.emptyList());
+	}
+
+	@After
+	public void cleanUp() throws Exception {
+		ledgerEngineTransactionService.stop();
+		journalFile.delete();
+		parkedFile.delete();
+	}
+
+	@Test
+	public void testConcurrentTransfersConserveBalance() throws Exception {
+		ledgerEngineTransactionService.start();
+		ExecutorService executorService = Executors.newFixedThreadPool(CLIENTS);
+		List<Future<?>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int client = 0; client < CLIENTS; client++) {
+			boolean forward = client % 2 == 0;
+			futures.add(executorService.submit(() -> {
+				for (int i = 0; i < TRANSFERS_PER_CLIENT; i++) {
+					ResponseDto responseDto = ledgerEngineTransactionService
+							.fundTransfer(forward ? transfer(1, "1002", 125L) : transfer(2, "1001", 125L));
+					assertEquals(AppConstant.SUCCESS, responseDto.getStatus());
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsed = System.nanoTime() - start;
+		executorService.shutdown();
+		executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+		logger.info("clients={} transfers={} elapsedMs={} transfers/sec={}", CLIENTS, CLIENTS * TRANSFERS_PER_CLIENT,
+				TimeUnit.NANOSECONDS.toMillis(elapsed),
+				String.format("%.0f", CLIENTS * TRANSFERS_PER_CLIENT / (elapsed / 1e9)));
+		assertEquals(Optional.of(100000000L), ledgerEngineTransactionService.getBalance(1));
+		assertEquals(Optional.of(100000000L), ledgerEngineTransactionService.getBalance(2));
+	}
+
+	@Test
+	public void testTransferBelowMinimumBalance() throws Exception {
+		ledgerEngineTransactionService.start();
+		ResponseDto responseDto = ledgerEngineTransactionService.fundTransfer(transfer(1, "1002", 99960000L));
+		assertEquals(AppConstant.FAILURE, responseDto.getStatus());
+		assertEquals(AppConstant.FUND_TRANSFER_MIN_BAL, responseDto.getMessage());
+		assertEquals(Optional.of(100000000L), ledgerEngineTransactionService.getBalance(1));
+	}
+
+	@Test
+	public void testAccountsAreLoadedOffTheWriterThread() throws Exception {
+		mockAccount(3, 1003L, 70000L, 0L);
+		when(stripedBalanceService.isStripedAccount(3)).thenReturn(true);
+		when(stripedBalanceService.getUnfoldedBalance(3)).thenReturn(30000L);
+		List<String> loadingThreads = Collections.synchronizedList(new ArrayList<>());
+		when(userAccountRepository.findById(anyInt())).thenAnswer(invocation -> {
+			loadingThreads.add(Thread.currentThread().getName());
+			return accounts.get(invocation.getArgument(0));
+		});
+		ledgerEngineTransactionService.start();
+
+		ResponseDto responseDto = ledgerEngineTransactionService.fundTransfer(transfer(3, "1001", 100000L));
+		assertEquals(AppConstant.SUCCESS, responseDto.getStatus());
+		assertEquals(Optional.of(0L), ledgerEngineTransactionService.getBalance(3));
+		assertEquals(Collections.singletonList(Thread.currentThread().getName()), loadingThreads);
+	}
+
+	@Test
+	public void testBalanceOfAnUnknownAccount() throws Exception {
+		when(userAccountRepository.findById(9)).thenReturn(Optional.empty());
+		ledgerEngineTransactionService.start();
+		assertEquals(Optional.empty(), ledgerEngineTransactionService.getBalance(9));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRejectedBalanceReadDoesNotBlock() throws Exception {
+		ledgerEngineTransactionService.start();
+		ledgerEngineTransactionService.stop();
+		ledgerEngineTransactionService.getBalance(1);
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void testTransferToUnknownPayee() throws Exception {
+		when(userAccountRepository.findByAccountNumber(9999L)).thenReturn(Optional.empty());
+		ledgerEngineTransactionService.start();
+		ledgerEngineTransactionService.fundTransfer(transfer(1, "9999", 1000L));
+	}
+
+	@Test
+	public void testJournalReplayedAfterRestart() throws Exception {
+		// The database sync fails, so the journal keeps every transfer.
+		when(userTransactionRepository.postDebits(anyList())).thenThrow(new IllegalStateException("database down"));
+		ledgerEngineTransactionService.start();
+		String committedTransactionId = ((FundTransferResponseDto) ledgerEngineTransactionService
+				.fundTransfer(transfer(1, "1002", 10000L))).getTransactionId();
+		ledgerEngineTransactionService.fundTransfer(transfer(1, "1002", 5000L));
+		ledgerEngineTransactionService.fundTransfer(transfer(2, "1001", 2000L));
+		ledgerEngineTransactionService.stop();
+
+		// Only the first transfer reached the database before the restart.
+		mockAccount(1, 1001L, 99990000L, 50000L);
+		mockAccount(2, 1002L, 100010000L, 50000L);
+		when(userTransactionRepository.findExistingTransactionIds(anyCollection()))
+				.thenReturn(Collections.singletonList(committedTransactionId));
+		LedgerEngineTransactionService restarted = new LedgerEngineTransactionService();
+		wire(restarted);
+		restarted.start();
+
+		assertEquals(Optional.of(99987000L), restarted.getBalance(1));
+		assertEquals(Optional.of(100013000L), restarted.getBalance(2));
+	}
+
+	@Test
+	public void testTransfersOfAFailedForceAreUndone() throws Exception {
+		LedgerEngineTransactionService failing = new LedgerEngineTransactionService() {
+			@Override
+			LedgerJournal openJournal() {
+				return new LedgerJournal(LedgerEngineTransactionServiceTest.this.journalFile.toPath(), 16 * 1024 * 1024,
+						false) {
+					private boolean failed;
+
+					@Override
+					public void force() {
+						if (!failed) {
+							failed = true;
+							throw new IllegalStateException("disk gone");
+						}
+						super.force();
+					}
+				};
+			}
+		};
+		wire(failing);
+		failing.start();
+
+		ResponseDto responseDto = failing.fundTransfer(transfer(1, "1002", 10000L));
+		assertEquals(AppConstant.FAILURE, responseDto.getStatus());
+		assertEquals(AppConstant.FUND_TRANSFER_ERROR, responseDto.getMessage());
+		assertEquals(Optional.of(100000000L), failing.getBalance(1));
+		assertEquals(Optional.of(100000000L), failing.getBalance(2));
+
+		assertEquals(AppConstant.SUCCESS, failing.fundTransfer(transfer(1, "1002", 5000L)).getStatus());
+		assertEquals(Optional.of(99995000L), failing.getBalance(1));
+		assertEquals(Optional.of(100005000L), failing.getBalance(2));
+		// Only the acknowledged transfer reaches the database.
+		ArgumentCaptor<List<UserTransaction>> posted = ArgumentCaptor.forClass(List.class);
+		verify(userTransactionRepository, timeout(5000)).postDebits(posted.capture());
+		assertEquals(Collections.singletonList(5000L), posted.getValue().stream()
+				.map(UserTransaction::getTransactionAmount).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testRefusedRecordIsParked() throws Exception {
+		List<Long> inserted = Collections.synchronizedList(new ArrayList<>());
+		when(userTransactionRepository.insertTransactions(anyList())).thenAnswer(invocation -> {
+			List<UserTransaction> transactions = invocation.getArgument(0);
+			if (transactions.stream().anyMatch(transaction -> transaction.getTransactionAmount() == 7000L)) {
+				throw new DataIntegrityViolationException("duplicate transaction id");
+			}
+			transactions.forEach(transaction -> inserted.add(transaction.getTransactionAmount()));
+			return new int[transactions.size()];
+		});
+		ledgerEngineTransactionService.start();
+		ledgerEngineTransactionService.fundTransfer(transfer(1, "1002", 5000L));
+		ledgerEngineTransactionService.fundTransfer(transfer(1, "1002", 7000L));
+		ledgerEngineTransactionService.fundTransfer(transfer(1, "1002", 3000L));
+
+		// The records after the refused one still sync.
+		long deadline = System.currentTimeMillis() + 5000;
+		while (inserted.size() < 2 && System.currentTimeMillis() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+		assertEquals(Arrays.asList(5000L, 3000L), inserted);
+		List<String> parked = Files.readAllLines(parkedFile.toPath());
+		assertEquals(1, parked.size());
+		assertTrue(parked.get(0).contains(",1,2,7000,"));
+		assertEquals(1.0, meterRegistry.counter("ledger.engine.sync.parked").count());
+	}
+
+	/**
+	 * @description wire the mocks into a service built by the test, which the
+	 *              clean up stops.
+	 */
+	private void wire(LedgerEngineTransactionService service) {
+		ReflectionTestUtils.setField(service, "userAccountRepository", userAccountRepository);
+		ReflectionTestUtils.setField(service, "userTransactionRepository", userTransactionRepository);
+		ReflectionTestUtils.setField(service, "transactionIdGenerator", transactionIdGenerator);
+		ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+		ReflectionTestUtils.setField(service, "recentTransactionCache", recentTransactionCache);
+		ReflectionTestUtils.setField(service, "accountBalanceCache", accountBalanceCache);
+		ReflectionTestUtils.setField(service, "stripedBalanceService", stripedBalanceService);
+		ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+		configure(service);
+		ledgerEngineTransactionService = service;
+	}
+
+	private void configure(LedgerEngineTransactionService service) {
+		ReflectionTestUtils.setField(service, "journalFile", journalFile.getPath());
+		ReflectionTestUtils.setField(service, "journalSizeMb", 16);
+		ReflectionTestUtils.setField(service, "journalSync", false);
+		ReflectionTestUtils.setField(service, "queueCapacity", 1024);
+		ReflectionTestUtils.setField(service, "syncIntervalMillis", 10L);
+		ReflectionTestUtils.setField(service, "syncChunkSize", 500);
+		ReflectionTestUtils.setField(service, "parkedFile", parkedFile.getPath());
+	}
+
+	private void mockAccount(Integer id, Long accountNumber, Long balanceAmount, Long minimumBalance) {
+		UserAccount userAccount = new UserAccount();
+		userAccount.setId(id);
+		userAccount.setAccountNumber(accountNumber);
+		userAccount.setBalanceAmount(balanceAmount);
+		userAccount.setMinimumBalance(minimumBalance);
+		accounts.put(id, Optional.of(userAccount));
+		when(userAccountRepository.findById(eq(id))).thenReturn(Optional.of(userAccount));
+		when(userAccountRepository.findByAccountNumber(eq(accountNumber))).thenReturn(Optional.of(userAccount));
+	}
+
+	private FundTransferRequestDto transfer(Integer accountId, String payeeAccountNumber, long amount) {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(accountId);
+		fundTransferRequestDto.setPayeeAccountNumber(payeeAccountNumber);
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(amount));
+		fundTransferRequestDto.setRemarks("rent");
+		return fundTransferRequestDto;
+	}
+}
@@ -0,0 +1,194 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LedgerJournalTest {
+
+	// Room for three records with the remarks "rent" after the header.
+	private static final int JOURNAL_SIZE = LedgerJournal.HEADER_SIZE + 3 * (LedgerJournal.FIXED_RECORD_SIZE + 4) + 10;
+
+	File journalFile;
+	LedgerJournal journal;
+
+	@Before
+	public void init() throws IOException {
+		journalFile = File.createTempFile("ledger", ".journal");
+		journalFile.delete();
+		journal = new LedgerJournal(journalFile.toPath(), JOURNAL_SIZE, false);
+	}
+
+	@After
+	public void cleanUp() throws IOException {
+		journal.close();
+		journalFile.delete();
+	}
+
+	@Test
+	public void testWriterWrapsOnceTheCheckpointHasPassedTheStart() throws Exception {
+		journal.append(record(1));
+		journal.append(record(2));
+		journal.append(record(3));
+		journal.force();
+
+		// The fourth record goes to the start, once the sync has applied the
+		// records in its way.
+		CompletableFuture<Void> fourth = CompletableFuture.runAsync(() -> append(record(4)));
+		assertTimesOut(fourth);
+		List<LedgerRecord> pending = journal.readPending(2);
+		journal.checkpoint(pending.get(0));
+		assertTimesOut(fourth);
+		journal.checkpoint(pending.get(1));
+		fourth.get(5, TimeUnit.SECONDS);
+		journal.force();
+
+		assertEquals(Arrays.asList(3L, 4L), transactionIds(journal.readPending(10)));
+		assertFalse(journal.isApplied());
+	}
+
+	@Test
+	public void testRecordsAfterTheWrapSurviveARestart() throws Exception {
+		journal.append(record(1));
+		journal.append(record(2));
+		journal.force();
+		journal.checkpoint(journal.readPending(2).get(1));
+		journal.append(record(3));
+		journal.append(record(4));
+		journal.close();
+
+		journal = new LedgerJournal(journalFile.toPath(), JOURNAL_SIZE, false);
+		assertEquals(Arrays.asList(3L, 4L), transactionIds(journal.readPending(10)));
+	}
+
+	@Test
+	public void testJournalIsTruncatedAtAHalfWrittenRecord() throws Exception {
+		journal.append(record(1));
+		journal.append(record(2));
+		journal.append(record(3));
+		journal.force();
+		long secondRecord = journal.readPending(10).get(0).getEndPosition();
+		journal.close();
+
+		// A crash wrote the header but not all of the second record.
+		try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+			file.seek(secondRecord + 20);
+			file.writeLong(999L);
+		}
+		journal = new LedgerJournal(journalFile.toPath(), JOURNAL_SIZE, false);
+		assertEquals(Collections.singletonList(1L), transactionIds(journal.readPending(10)));
+
+		journal.append(record(5));
+		journal.force();
+		assertEquals(Arrays.asList(1L, 5L), transactionIds(journal.readPending(10)));
+		journal.checkpoint(journal.readPending(10).get(1));
+		assertTrue(journal.isApplied());
+	}
+
+	@Test
+	public void testRecordsAreReadOnceForcedAndRewoundOtherwise() throws Exception {
+		journal.append(record(1));
+		journal.force();
+		assertEquals(1L, journal.append(record(2)));
+		journal.append(record(3));
+		assertEquals(Collections.singletonList(1L), transactionIds(journal.readPending(10)));
+
+		// The force of the group failed.
+		assertEquals(1L, journal.rewindUnforced());
+		journal.append(record(4));
+		journal.force();
+		assertEquals(Arrays.asList(1L, 4L), transactionIds(journal.readPending(10)));
+		journal.close();
+
+		journal = new LedgerJournal(journalFile.toPath(), JOURNAL_SIZE, false);
+		assertEquals(Arrays.asList(1L, 4L), transactionIds(journal.readPending(10)));
+	}
+
+	@Test
+	public void testRewindOfAnEmptyJournalAfterAWrap() throws Exception {
+		journal.append(record(1));
+		journal.append(record(2));
+		journal.append(record(3));
+		journal.force();
+		journal.checkpoint(journal.readPending(3).get(2));
+
+		// Everything is applied, the record starts again from the header.
+		journal.append(record(4));
+		journal.rewindUnforced();
+		assertTrue(journal.isApplied());
+		journal.append(record(5));
+		journal.force();
+		assertEquals(Collections.singletonList(5L), transactionIds(journal.readPending(10)));
+	}
+
+	@Test
+	public void testFullJournalForcesTheRecordsInTheWay() throws Exception {
+		journal.append(record(1));
+		journal.append(record(2));
+		journal.append(record(3));
+
+		// The writer waits for room, the sync can read the records in its way.
+		CompletableFuture<Void> fourth = CompletableFuture.runAsync(() -> append(record(4)));
+		assertTimesOut(fourth);
+		List<LedgerRecord> pending = journal.readPending(10);
+		assertEquals(Arrays.asList(1L, 2L, 3L), transactionIds(pending));
+		journal.checkpoint(pending.get(1));
+		fourth.get(5, TimeUnit.SECONDS);
+		assertEquals(3L, journal.rewindUnforced());
+		assertEquals(Collections.singletonList(3L), transactionIds(journal.readPending(10)));
+	}
+
+	@Test
+	public void testIdempotencyKeyIsJournaled() throws Exception {
+		journal.append(new LedgerRecord(1, 2, 100L, 1L, 20000, "rent", "rent-2026-10", "ab12", 0, 0));
+		journal.append(record(2));
+		journal.close();
+
+		journal = new LedgerJournal(journalFile.toPath(), JOURNAL_SIZE, false);
+		List<LedgerRecord> records = journal.readPending(10);
+		assertEquals("rent", records.get(0).getRemarks());
+		assertEquals("rent-2026-10", records.get(0).getIdempotencyKey());
+		assertEquals("ab12", records.get(0).getPayloadHash());
+		assertEquals(null, records.get(1).getIdempotencyKey());
+	}
+
+	private void append(LedgerRecord record) {
+		try {
+			journal.append(record);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void assertTimesOut(CompletableFuture<Void> future) throws Exception {
+		try {
+			future.get(200, TimeUnit.MILLISECONDS);
+			throw new AssertionError("append did not wait for room");
+		} catch (TimeoutException e) {
+			// Still waiting for the checkpoint.
+		}
+	}
+
+	private static List<Long> transactionIds(List<LedgerRecord> records) {
+		return records.stream().map(LedgerRecord::getTransactionId).collect(Collectors.toList());
+	}
+
+	private static LedgerRecord record(long transactionId) {
+		return new LedgerRecord(1, 2, 100L * transactionId, transactionId, 20000, "rent", null, null, 0, 0);
+	}
+}
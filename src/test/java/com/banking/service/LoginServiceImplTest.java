@@ -50,7 +50,7 @@ public class LoginServiceImplTest {
 
 		userAccount.setId(1);
 		userAccount.setUserId(user.getId());
-		userAccount.setMinimumBalance(500.00);
+		userAccount.setMinimumBalance(50000L);
 	}
 
 	@Test
@@ -0,0 +1,156 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.dto.AccountMonthSummaryDto;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
+import com.banking.dto.UserTransactionResponseDto;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.repository.AccountMonthSummaryRepository;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserRepository;
+
+import javassist.NotFoundException;
+
+/**
+ * Adds fund transfers to the month summaries and checks the totals, and that
+ * the closing balance of the month is the account balance. A late row of the
+ * month before opens that month with the balance before it.
+ */
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:monthsummary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"transaction.month-summary.chunk-size=4" })
+public class MonthSummaryTest extends IntegrationTestSupport {
+
+	private static final String INSERT_TRANSACTION = "insert into user_transaction (user_account_id, "
+			+ "payee_account_id, transaction_type, transaction_id, transaction_date, transaction_amount, "
+			+ "current_balance_amount, remarks) values (?, ?, 'IMPS', ?, ?, ?, 0, 'Late')";
+
+	@Autowired
+	MonthSummaryService monthSummaryService;
+
+	@Autowired
+	UserTransactionService userTransactionService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	AccountMonthSummaryRepository accountMonthSummaryRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	UserAccount payerAccount;
+	UserAccount payeeAccount;
+	LocalDate today = LocalDate.now();
+
+	@Before
+	public void init() {
+		User user = new User();
+		user.setFirstName("Janani");
+		user.setLastName("Vijay");
+		user = userRepository.save(user);
+		payerAccount = userAccountRepository.save(newAccount(user.getId(), 700001L, 100000L));
+		payeeAccount = userAccountRepository.save(newAccount(user.getId(), 700002L, 100000L));
+	}
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from user_transaction");
+		accountMonthSummaryRepository.deleteAll();
+		userAccountRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void testTransfersAreSummarizedByMonth() throws NotFoundException {
+		transfer(payerAccount, payeeAccount, 1000L, 6);
+		transfer(payeeAccount, payerAccount, 500L, 1);
+		assertEquals(7, monthSummaryService.summarize());
+
+		AccountMonthSummaryDto payerSummary = summary(payerAccount);
+		assertEquals("1000.00", payerSummary.getOpeningBalance().toString());
+		assertEquals("60.00", payerSummary.getTotalDebits().toString());
+		assertEquals("5.00", payerSummary.getTotalCredits().toString());
+		assertEquals(6, payerSummary.getDebitCount());
+		assertEquals(1, payerSummary.getCreditCount());
+		assertEquals("945.00", payerSummary.getClosingBalance().toString());
+
+		transfer(payerAccount, payeeAccount, 2000L, 1);
+		assertEquals(1, monthSummaryService.summarize());
+		assertEquals(balance(payerAccount), summary(payerAccount).getClosingBalance().toString());
+		assertEquals("1000.00", summary(payeeAccount).getOpeningBalance().toString());
+		assertEquals(balance(payeeAccount), summary(payeeAccount).getClosingBalance().toString());
+		assertEquals(0, monthSummaryService.summarize());
+	}
+
+	@Test
+	public void testLateRowOfMonthBefore() throws NotFoundException {
+		transfer(payerAccount, payeeAccount, 1000L, 1);
+		monthSummaryService.summarize();
+
+		LocalDate monthBefore = today.minusMonths(1);
+		jdbcTemplate.update(INSERT_TRANSACTION, payerAccount.getId(), payeeAccount.getId(), "T-LATE",
+				Date.valueOf(monthBefore), 3000L);
+		jdbcTemplate.update("update user_account set balance_amount = balance_amount - 3000 where id = ?",
+				payerAccount.getId());
+		monthSummaryService.summarize();
+
+		AccountMonthSummaryDto before = monthSummaryService.getMonthSummary(payerAccount.getId(),
+				monthBefore.getYear(), monthBefore.getMonthValue());
+		assertEquals("1000.00", before.getOpeningBalance().toString());
+		assertEquals("970.00", before.getClosingBalance().toString());
+		assertEquals("970.00", summary(payerAccount).getOpeningBalance().toString());
+		assertEquals(balance(payerAccount), summary(payerAccount).getClosingBalance().toString());
+	}
+
+	@Test
+	public void testMonthlyHistoryHasCreditsAndSummary() throws NotFoundException {
+		transfer(payerAccount, payeeAccount, 1000L, 2);
+		UserTransactionResponseDto monthly = userTransactionService.findUserTransactionsByMonth(payeeAccount.getId(),
+				today.getMonthValue(), today.getYear(), null, null);
+		assertEquals(2, monthly.getTransactionDetails().size());
+		assertNull(monthly.getMonthSummary());
+
+		monthSummaryService.summarize();
+		monthly = userTransactionService.findUserTransactionsByMonth(payeeAccount.getId(), today.getMonthValue(),
+				today.getYear(), null, null);
+		assertEquals(2, monthly.getMonthSummary().getCreditCount());
+	}
+
+	private void transfer(UserAccount from, UserAccount to, long amount, int count) throws NotFoundException {
+		for (int i = 0; i < count; i++) {
+			FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+			fundTransferRequestDto.setAccountId(from.getId());
+			fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(to.getAccountNumber()));
+			fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(amount));
+			userTransactionService.fundTransfer(fundTransferRequestDto);
+		}
+	}
+
+	private AccountMonthSummaryDto summary(UserAccount userAccount) {
+		return monthSummaryService.getMonthSummary(userAccount.getId(), today.getYear(), today.getMonthValue());
+	}
+
+	private String balance(UserAccount userAccount) {
+		return Money.ofMinorUnits(userAccountRepository.findById(userAccount.getId()).get().getBalanceAmount())
+				.toString();
+	}
+}
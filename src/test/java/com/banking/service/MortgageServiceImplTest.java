@@ -14,6 +14,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import com.banking.constant.AppConstant;
+import com.banking.dto.Money;
 import com.banking.dto.MortgageRequestDto;
 import com.banking.dto.ResponseDto;
 import com.banking.entity.User;
@@ -33,6 +34,9 @@ public class MortgageServiceImplTest {
 	@Mock
 	UserRepository userRepository;
 
+	@Mock
+	AccountBalanceCache accountBalanceCache;
+
 	MortgageRequestDto mortgageRequestDto = new MortgageRequestDto();
 	UserAccount userAccount = new UserAccount();
     User user = new User();
@@ -45,7 +49,7 @@ public class MortgageServiceImplTest {
 		userAccount.setId(3);
 		userAccount.setAccountType(AppConstant.ACCOUNT_TYPE_SAVINGS);
 		userAccount.setAccountNumber(10687382732L);
-		mortgageRequestDto.setPropertyValue(50000.00);
+		mortgageRequestDto.setPropertyValue(Money.ofMinorUnits(5000000L));
 	}
 
 	@Test
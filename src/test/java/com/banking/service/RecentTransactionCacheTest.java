@@ -0,0 +1,152 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.dto.UserTransactionRequestDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class RecentTransactionCacheTest {
+
+	@InjectMocks
+	RecentTransactionCache recentTransactionCache;
+
+	@Spy
+	MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	AtomicInteger loads = new AtomicInteger();
+
+	@Before
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(recentTransactionCache, "maxAccounts", 2);
+		ReflectionTestUtils.setField(recentTransactionCache, "ttlMillis", 60000L);
+		recentTransactionCache.start();
+	}
+
+	@Test
+	public void testSecondReadIsServedFromCache() {
+		assertEquals(Arrays.asList(3, 2, 1), ids(recentTransactionCache.get(1, this::load)));
+		assertEquals(Arrays.asList(3, 2, 1), ids(recentTransactionCache.get(1, this::load)));
+
+		assertEquals(1, loads.get());
+		assertEquals(0.5, meterRegistry.get("transaction.recent.cache.hit.ratio").gauge().value());
+	}
+
+	@Test
+	public void testTransferIsWrittenToPayerAndPayee() {
+		recentTransactionCache.get(1, this::load);
+		recentTransactionCache.get(2, this::load);
+
+		recentTransactionCache.addAfterCommit(1, row(9, 2));
+		recentTransactionCache.addAfterCommit(1, row(8, 2));
+		recentTransactionCache.addAfterCommit(1, row(9, 2));
+		recentTransactionCache.addAfterCommit(1, row(7, 2));
+
+		assertEquals(Arrays.asList(9, 8, 7, 3, 2), ids(recentTransactionCache.get(1, this::load)));
+		assertEquals(Arrays.asList(9, 8, 7, 3, 2), ids(recentTransactionCache.get(2, this::load)));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedAccountIsEvicted() {
+		recentTransactionCache.get(1, this::load);
+		recentTransactionCache.get(2, this::load);
+		recentTransactionCache.get(1, this::load);
+		recentTransactionCache.get(3, this::load);
+
+		assertEquals(2, recentTransactionCache.size());
+		recentTransactionCache.get(1, this::load);
+		assertEquals(3, loads.get());
+		recentTransactionCache.get(2, this::load);
+		assertEquals(4, loads.get());
+		assertEquals(2.0,
+				meterRegistry.get("transaction.recent.cache.evictions").tag("cause", "size").counter().count());
+	}
+
+	@Test
+	public void testExpiredRingIsLoadedAgain() {
+		recentTransactionCache.get(1, this::load);
+		ReflectionTestUtils.setField(recentTransactionCache, "ttlMillis", 0L);
+		assertEquals(Arrays.asList(9, 3, 2, 1), ids(recentTransactionCache.get(1, this::load)));
+
+		assertEquals(2, loads.get());
+		assertEquals(1.0,
+				meterRegistry.get("transaction.recent.cache.evictions").tag("cause", "expired").counter().count());
+		assertNull(recentTransactionCache.newTransactionDetails(900002L, "IMPS", LocalDate.now(), 100L, "Rent"));
+	}
+
+	@Test
+	public void testRowOfAKnownPayeeIsBuiltFromTheTransfer() {
+		assertNull(recentTransactionCache.newTransactionDetails(900002L, "IMPS", LocalDate.now(), 100L, "Rent"));
+		recentTransactionCache.get(1, this::load);
+
+		UserTransactionRequestDto transactionDetails = recentTransactionCache.newTransactionDetails(900002L, "IMPS",
+				LocalDate.now(), 250L, "Rent");
+		assertEquals(2, transactionDetails.getPayeeAccountId());
+		assertEquals("Janani Vijay", transactionDetails.getPayeeName());
+		assertEquals("900002", transactionDetails.getPayeeAccountNumber());
+		assertEquals(250L, transactionDetails.getTransactionAmount().getMinorUnits());
+
+		// The new rows have no id yet, they are listed first in commit order.
+		recentTransactionCache.addAfterCommit(1, transactionDetails);
+		recentTransactionCache.addAfterCommit(1, row(4, 2));
+		recentTransactionCache.addAfterCommit(1,
+				recentTransactionCache.newTransactionDetails(900002L, "IMPS", LocalDate.now(), 300L, "Fees"));
+		assertEquals(Arrays.asList("Fees", "Rent", "Row 4", "Row 3", "Row 2"),
+				recentTransactionCache.get(1, this::load).stream().map(UserTransactionRequestDto::getRemarks)
+						.collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testRingLoadedDuringTransferIsNotCached() {
+		recentTransactionCache.get(1, accountId -> {
+			// The transfer commits after the ring was read from the database.
+			recentTransactionCache.addAfterCommit(1, row(9, 2));
+			return load(accountId);
+		});
+		assertEquals(Arrays.asList(9, 3, 2, 1), ids(recentTransactionCache.get(1, this::load)));
+
+		recentTransactionCache.evictAfterCommit(Collections.singleton(1));
+		assertEquals(0, recentTransactionCache.size());
+	}
+
+	private List<UserTransactionRequestDto> load(Integer userAccountId) {
+		loads.incrementAndGet();
+		List<UserTransactionRequestDto> rows = new ArrayList<>();
+		if (loads.get() > 1 && userAccountId == 1) {
+			rows.add(row(9, 2));
+		}
+		rows.addAll(Arrays.asList(row(3, 2), row(2, 2), row(1, 2)));
+		return rows;
+	}
+
+	private UserTransactionRequestDto row(Integer id, Integer payeeAccountId) {
+		return new UserTransactionRequestDto(id, payeeAccountId, "Janani", "Vijay", 900002L, "IMPS", LocalDate.now(),
+				100L, "Row " + id);
+	}
+
+	private List<Integer> ids(List<UserTransactionRequestDto> rows) {
+		return rows.stream().map(UserTransactionRequestDto::getId).collect(Collectors.toList());
+	}
+}
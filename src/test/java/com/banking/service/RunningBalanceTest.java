@@ -0,0 +1,131 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserRepository;
+
+import javassist.NotFoundException;
+
+/**
+ * Checks the payer and payee balance of the ledger rows written by the single
+ * and the batch fund transfer, and that the backfill sets the same balances on
+ * rows written without them.
+ */
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:runningbalance;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"account.striping.fold-interval-ms=3600000" })
+public class RunningBalanceTest extends IntegrationTestSupport {
+
+	private static final String FIND_BALANCES = "select current_balance_amount, payee_balance_amount "
+			+ "from user_transaction order by id";
+
+	@Autowired
+	UserTransactionService userTransactionService;
+
+	@Autowired
+	RunningBalanceBackfillService runningBalanceBackfillService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	UserAccount payerAccount;
+	UserAccount payeeAccount;
+
+	@Before
+	public void init() {
+		User user = new User();
+		user.setFirstName("Janani");
+		user.setLastName("Vijay");
+		user = userRepository.save(user);
+		payerAccount = userAccountRepository.save(newAccount(user.getId(), 800001L, 100000L));
+		payeeAccount = userAccountRepository.save(newAccount(user.getId(), 800002L, 100000L));
+	}
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from user_transaction");
+		userAccountRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void testFundTransferRecordsBothBalances() throws NotFoundException {
+		userTransactionService.fundTransfer(request(payerAccount, payeeAccount, 1000L));
+		userTransactionService.fundTransfer(request(payeeAccount, payerAccount, 300L));
+		userTransactionService.fundTransfer(request(payerAccount, payerAccount, 200L));
+
+		assertEquals(Arrays.asList(Arrays.asList(99000L, 101000L), Arrays.asList(100700L, 99300L),
+				Arrays.asList(99300L, 99300L)), balances());
+	}
+
+	@Test
+	public void testBatchFundTransferRecordsRunningBalances() {
+		userTransactionService.batchFundTransfer(Arrays.asList(request(payerAccount, payeeAccount, 1000L),
+				request(payerAccount, payeeAccount, 2000L), request(payeeAccount, payerAccount, 500L)));
+
+		assertEquals(Arrays.asList(Arrays.asList(99000L, 101000L), Arrays.asList(97000L, 103000L),
+				Arrays.asList(102500L, 97500L)), balances());
+	}
+
+	@Test
+	public void testBackfillSetsTheRecordedBalances() throws NotFoundException, InterruptedException {
+		userTransactionService.fundTransfer(request(payerAccount, payeeAccount, 1000L));
+		userTransactionService.batchFundTransfer(Arrays.asList(request(payeeAccount, payerAccount, 500L),
+				request(payerAccount, payerAccount, 100L), request(payerAccount, payeeAccount, 2000L)));
+		List<List<Long>> recorded = balances();
+
+		jdbcTemplate.update("update user_transaction set current_balance_amount = null, "
+				+ "payee_balance_amount = null");
+		assertEquals(7, runningBalanceBackfillService.backfill());
+		assertEquals(recorded, balances());
+		assertEquals(7, runningBalanceBackfillService.backfill());
+		assertEquals(recorded, balances());
+
+		// Chunks of two rows, the payer account has four rows and the payee
+		// account three.
+		jdbcTemplate.update("update user_transaction set current_balance_amount = null, "
+				+ "payee_balance_amount = null");
+		ReflectionTestUtils.setField(runningBalanceBackfillService, "chunkRows", 2);
+		try {
+			assertEquals(7, runningBalanceBackfillService.backfill());
+		} finally {
+			ReflectionTestUtils.setField(runningBalanceBackfillService, "chunkRows", 10000);
+		}
+		assertEquals(recorded, balances());
+	}
+
+	private List<List<Long>> balances() {
+		return jdbcTemplate.query(FIND_BALANCES,
+				(resultSet, row) -> Arrays.asList((Long) resultSet.getObject(1), (Long) resultSet.getObject(2)));
+	}
+
+	private FundTransferRequestDto request(UserAccount from, UserAccount to, long amount) {
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(from.getId());
+		fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(to.getAccountNumber()));
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(amount));
+		return fundTransferRequestDto;
+	}
+}
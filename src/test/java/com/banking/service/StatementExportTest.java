@@ -0,0 +1,182 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.constant.AppConstant;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserRepository;
+
+/**
+ * Exports a generated statement of a million rows through the forward only
+ * stream and checks it is written in chunks without the heap growing, and
+ * checks the CSV quoting, the formula guard and the NDJSON lines on a small
+ * statement. Throughput and heap growth of the large export are logged. The
+ * H2 page store is used, the MVStore engine takes minutes to commit the
+ * generated rows.
+ */
+@TestPropertySource(properties = { "transaction.export.fetch-size=1000",
+		"spring.datasource.url=jdbc:h2:mem:export;MODE=MySQL;MV_STORE=FALSE;DB_CLOSE_DELAY=-1" })
+public class StatementExportTest extends IntegrationTestSupport {
+	private static final Logger logger = LoggerFactory.getLogger(StatementExportTest.class);
+
+	private static final int GENERATED_ROWS = 1000000;
+	private static final int FLUSH_ROWS = 1000;
+	private static final long HEAP_GROWTH_CEILING = 32L << 20;
+
+	// Rows dated today and up to 999 days back, over about three years.
+	private static final String GENERATE_TRANSACTIONS = "insert into user_transaction (user_account_id, "
+			+ "payee_account_id, transaction_type, transaction_id, transaction_date, transaction_amount, "
+			+ "current_balance_amount, remarks) select ?, ?, 'IMPS', concat('T-', x), "
+			+ "dateadd('DAY', -mod(x, 1000), current_date), 100, 0, concat('Row ', x) from system_range(1, ?)";
+
+	@Autowired
+	StatementExportService statementExportService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	UserAccount savingsAccount;
+	UserAccount payeeAccount;
+
+	@Before
+	public void init() {
+		User payee = new User();
+		payee.setFirstName("Janani");
+		payee.setLastName("Vijay, \"JV\"");
+		payee = userRepository.save(payee);
+		savingsAccount = userAccountRepository.save(newAccount(payee.getId(), 900001L));
+		payeeAccount = userAccountRepository.save(newAccount(payee.getId(), 900002L));
+	}
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from user_transaction");
+		userAccountRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void testExportMillionRowsInChunks() throws IOException {
+		jdbcTemplate.update(GENERATE_TRANSACTIONS, savingsAccount.getId(), payeeAccount.getId(), GENERATED_ROWS);
+		CountingOutputStream outputStream = new CountingOutputStream();
+
+		long start = System.nanoTime();
+		long rows = statementExportService.export(savingsAccount.getId(), LocalDate.now().minusYears(3),
+				LocalDate.now(), AppConstant.EXPORT_FORMAT_CSV, outputStream);
+		long elapsed = System.nanoTime() - start;
+
+		long heapGrowth = outputStream.maxUsedHeap - outputStream.firstUsedHeap;
+		logger.info("rows={} bytes={} flushes={} elapsedMs={} rows/sec={} heapGrowthMb={}", rows, outputStream.bytes,
+				outputStream.flushes, TimeUnit.NANOSECONDS.toMillis(elapsed),
+				String.format("%.0f", rows / (elapsed / 1e9)), heapGrowth >> 20);
+		assertEquals(GENERATED_ROWS, rows);
+		assertEquals(GENERATED_ROWS + 1, outputStream.lines);
+		assertTrue(outputStream.flushes >= GENERATED_ROWS / FLUSH_ROWS);
+		// The live heap from the first sample on, after H2 has buffered the
+		// query result, stays flat; rows kept by the export would grow it by
+		// a few hundred MB.
+		assertTrue(heapGrowth < HEAP_GROWTH_CEILING, "heap grew by " + (heapGrowth >> 20) + " MB");
+	}
+
+	@Test
+	public void testCsvAndNdjsonFormats() throws IOException {
+		jdbcTemplate.update(GENERATE_TRANSACTIONS, savingsAccount.getId(), payeeAccount.getId(), 2);
+		LocalDate yesterday = LocalDate.now().minusDays(1);
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		statementExportService.export(savingsAccount.getId(), yesterday.minusDays(1), yesterday,
+				AppConstant.EXPORT_FORMAT_CSV, csv);
+		assertEquals("transactionDate,transactionType,payeeName,payeeAccountNumber,transactionAmount,remarks\n"
+				+ yesterday + ",IMPS,\"Janani Vijay, \"\"JV\"\"\",900002,1.00,Row 1\n" + yesterday.minusDays(1)
+				+ ",IMPS,\"Janani Vijay, \"\"JV\"\"\",900002,1.00,Row 2\n",
+				csv.toString(StandardCharsets.UTF_8.name()));
+
+		jdbcTemplate.update("update user_transaction set remarks = '=HYPERLINK(\"http://x\",\"Loan\")' "
+				+ "where transaction_id = 'T-1'");
+		jdbcTemplate.update("update user_transaction set remarks = '@SUM(A1)' where transaction_id = 'T-2'");
+		ByteArrayOutputStream formulas = new ByteArrayOutputStream();
+		statementExportService.export(savingsAccount.getId(), yesterday.minusDays(1), yesterday,
+				AppConstant.EXPORT_FORMAT_CSV, formulas);
+		assertTrue(formulas.toString(StandardCharsets.UTF_8.name())
+				.endsWith(",1.00,\"'=HYPERLINK(\"\"http://x\"\",\"\"Loan\"\")\"\n" + yesterday.minusDays(1)
+						+ ",IMPS,\"Janani Vijay, \"\"JV\"\"\",900002,1.00,'@SUM(A1)\n"));
+		jdbcTemplate.update("update user_transaction set remarks = 'Row 1' where transaction_id = 'T-1'");
+
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		long rows = statementExportService.export(savingsAccount.getId(), yesterday, yesterday,
+				AppConstant.EXPORT_FORMAT_NDJSON, ndjson);
+		assertEquals(1, rows);
+		assertEquals("{\"payeeName\":\"Janani Vijay, \\\"JV\\\"\",\"payeeAccountNumber\":\"900002\","
+				+ "\"transactionType\":\"IMPS\",\"transactionDate\":\"" + yesterday + "\",\"balanceAmount\":null,"
+				+ "\"transactionAmount\":1.00,\"remarks\":\"Row 1\"}\n",
+				ndjson.toString(StandardCharsets.UTF_8.name()));
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Counts the bytes, lines and flushes, and samples the live heap every 100
+	 * flushes, so about every 100000 rows.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+		private long bytes;
+		private long lines;
+		private long flushes;
+		private long firstUsedHeap;
+		private long maxUsedHeap;
+
+		@Override
+		public void write(int b) {
+			bytes++;
+			if (b == '\n') {
+				lines++;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				write(b[i]);
+			}
+		}
+
+		@Override
+		public void flush() {
+			if (++flushes % 100 == 0) {
+				System.gc();
+				long usedHeap = usedHeap();
+				firstUsedHeap = firstUsedHeap == 0 ? usedHeap : firstUsedHeap;
+				maxUsedHeap = Math.max(maxUsedHeap, usedHeap);
+			}
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.constant.AppConstant;
+import com.banking.dto.ArchivedTransaction;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
+import com.banking.dto.UserTransactionRequestDto;
+import com.banking.dto.UserTransactionResponseDto;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserRepository;
+
+import javassist.NotFoundException;
+
+/**
+ * Archives back dated ledger rows and checks that the monthly, recent and
+ * mortgage history read them from the archive segments, that compaction keeps
+ * one copy of each row, the segment lookup by account and date, and the
+ * shared archive directory.
+ */
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:archive;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"account.striping.fold-interval-ms=3600000", "transaction.archive.cron=-",
+		"transaction.archive.directory=target/archive-test", "transaction.export.fetch-size=1000" })
+public class TransactionArchiveTest extends IntegrationTestSupport {
+
+	private static final String INSERT_TRANSACTION = "insert into user_transaction (user_account_id, "
+			+ "payee_account_id, payee_account_type, transaction_type, transaction_id, transaction_date, "
+			+ "transaction_amount, remarks, summarized) values (?, ?, ?, 'IMPS', ?, ?, ?, ?, true)";
+
+	private static final Path DIRECTORY = Paths.get("target/archive-test");
+
+	@Autowired
+	TransactionArchivalService transactionArchivalService;
+
+	@Autowired
+	TransactionArchive transactionArchive;
+
+	@Autowired
+	UserTransactionService userTransactionService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	StatementExportService statementExportService;
+
+	@Autowired
+	BalanceSnapshotService balanceSnapshotService;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	UserAccount payerAccount;
+	UserAccount payeeAccount;
+	UserAccount mortgageAccount;
+	YearMonth archivedMonth = YearMonth.now().minusMonths(14);
+
+	// The archive directory has to exist when the application starts.
+	@BeforeClass
+	public static void createDirectory() throws IOException {
+		Files.createDirectories(DIRECTORY);
+	}
+
+	@Before
+	public void init() throws NotFoundException, IOException {
+		FileSystemUtils.deleteRecursively(DIRECTORY);
+		Files.createDirectories(DIRECTORY);
+		transactionArchive.open();
+		ReflectionTestUtils.setField(transactionArchivalService, "chunkSize", 10000);
+
+		User user = userRepository.save(newUser("Janani", "Vijay"));
+		User payee = userRepository.save(newUser("Raghu", "Ram"));
+		payerAccount = userAccountRepository.save(newAccount(user.getId(), 700001L, 100000L));
+		payeeAccount = userAccountRepository.save(newAccount(payee.getId(), 700002L, 100000L));
+		mortgageAccount = userAccountRepository.save(newAccount(user.getId(), 700003L,
+				AppConstant.ACCOUNT_TYPE_MORTGAGE, AppConstant.ZERO_MINIMUM_BALANCE, 100000L));
+
+		backDatedTransfer(payerAccount, payeeAccount, 1000L, 3, "Old rent");
+		backDatedTransfer(payeeAccount, payerAccount, 500L, 10, "Old refund");
+		backDatedTransfer(payerAccount, mortgageAccount, 2000L, 12, "Old loan");
+		FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+		fundTransferRequestDto.setAccountId(payerAccount.getId());
+		fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(payeeAccount.getAccountNumber()));
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(300L));
+		fundTransferRequestDto.setRemarks("Rent");
+		userTransactionService.fundTransfer(fundTransferRequestDto);
+	}
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from user_transaction");
+		userAccountRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void testHistoryReadsTheArchive() {
+		assertEquals(3, transactionArchivalService.archive());
+		assertEquals(0, transactionArchivalService.archive());
+		assertEquals(1, (int) jdbcTemplate.queryForObject("select count(*) from user_transaction", Integer.class));
+
+		UserTransactionResponseDto firstPage = userTransactionService.findUserTransactionsByMonth(
+				payerAccount.getId(), archivedMonth.getMonthValue(), archivedMonth.getYear(), null, 2);
+		assertEquals(Arrays.asList("Old loan", "Old refund"), remarks(firstPage.getTransactionDetails()));
+		UserTransactionResponseDto secondPage = userTransactionService.findUserTransactionsByMonth(
+				payerAccount.getId(), archivedMonth.getMonthValue(), archivedMonth.getYear(),
+				firstPage.getNextCursor(), 2);
+		assertEquals(Arrays.asList("Old rent"), remarks(secondPage.getTransactionDetails()));
+		assertNull(secondPage.getNextCursor());
+		UserTransactionRequestDto rent = secondPage.getTransactionDetails().get(0);
+		assertEquals("Raghu Ram", rent.getPayeeName());
+		assertEquals("700002", rent.getPayeeAccountNumber());
+		assertEquals(archivedMonth.atDay(3), rent.getTransactionDate());
+		assertEquals(1000L, rent.getTransactionAmount().getMinorUnits());
+
+		assertEquals(Arrays.asList("Rent", "Old loan", "Old refund", "Old rent"), remarks(
+				userTransactionService.findRecentFiveTransactions(payerAccount.getId()).getTransactionDetails()));
+
+		List<UserTransactionRequestDto> mortgage = userTransactionService
+				.findMortgageTransactions(payerAccount.getId(), null, null).getTransactionDetails();
+		assertEquals(Arrays.asList("Old loan"), remarks(mortgage));
+		assertEquals(102000L, mortgage.get(0).getBalanceAmount().getMinorUnits());
+	}
+
+	@Test
+	public void testExportAndBalanceAsOfReadTheArchive() throws IOException {
+		assertEquals(3, transactionArchivalService.archive());
+		// A chunk whose delete did not commit, its row is exported once.
+		ArchivedTransaction loan = read(payerAccount).get(0);
+		transactionArchive.append(Arrays.asList(loan));
+		jdbcTemplate.update("insert into user_transaction (id, user_account_id, payee_account_id, "
+				+ "payee_account_type, transaction_type, transaction_id, transaction_date, transaction_amount, "
+				+ "remarks, summarized) values (?, ?, ?, ?, 'IMPS', ?, ?, ?, ?, true)", loan.getId(),
+				payerAccount.getId(), mortgageAccount.getId(), AppConstant.ACCOUNT_TYPE_MORTGAGE,
+				loan.getTransactionId(), Date.valueOf(loan.getTransactionDate()), 2000L, "Old loan");
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		long rows = statementExportService.export(payerAccount.getId(), archivedMonth.atDay(1), LocalDate.now(),
+				AppConstant.EXPORT_FORMAT_CSV, csv);
+		assertEquals(4, rows);
+		List<String> lines = Arrays.asList(csv.toString(StandardCharsets.UTF_8.name()).split("\n"));
+		assertEquals(Arrays.asList("Old rent", "Old refund", "Old loan", "Rent"), lines.subList(1, lines.size())
+				.stream().map(line -> line.substring(line.lastIndexOf(',') + 1)).collect(Collectors.toList()));
+		assertEquals(archivedMonth.atDay(3) + ",IMPS,Raghu Ram,700002,10.00,Old rent", lines.get(1));
+
+		// No snapshot yet, the balance is worked back over the archived rows.
+		long balanceAmount = userAccountRepository.findById(payerAccount.getId()).get().getBalanceAmount();
+		assertEquals(balanceAmount + 300L + 2000L,
+				balanceSnapshotService.getBalanceAsOf(payerAccount.getId(), archivedMonth.atDay(11)).get());
+		assertEquals(balanceAmount + 300L + 2000L - 500L + 1000L,
+				balanceSnapshotService.getBalanceAsOf(payerAccount.getId(), archivedMonth.atDay(2)).get());
+	}
+
+	@Test
+	public void testCompactionKeepsOneCopy() throws IOException {
+		ReflectionTestUtils.setField(transactionArchivalService, "chunkSize", 1);
+		assertEquals(3, transactionArchivalService.archive());
+		assertEquals(1, segmentFiles());
+
+		// A chunk archived again, as when its delete did not commit.
+		List<ArchivedTransaction> rows = read(payerAccount);
+		transactionArchive.append(rows.subList(0, 2));
+		assertEquals(2, segmentFiles());
+		assertEquals(3, read(payerAccount).size());
+		assertEquals(2, transactionArchive.compact());
+		assertEquals(1, segmentFiles());
+
+		transactionArchive.open();
+		assertEquals(rows.stream().map(ArchivedTransaction::getId).collect(Collectors.toList()),
+				read(payerAccount).stream().map(ArchivedTransaction::getId).collect(Collectors.toList()));
+		assertEquals(2, read(payeeAccount).size());
+		assertEquals(1, read(mortgageAccount).size());
+	}
+
+	@Test
+	public void testArchivalIsSkippedWhileAnotherNodeHoldsTheLock() throws IOException {
+		try (FileChannel channel = FileChannel.open(DIRECTORY.resolve(".lock"), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+			assertEquals(0, transactionArchivalService.archive());
+		}
+		assertEquals(4, (int) jdbcTemplate.queryForObject("select count(*) from user_transaction", Integer.class));
+		assertEquals(3, transactionArchivalService.archive());
+	}
+
+	@Test
+	public void testSegmentsOfAnotherNodeAreRead() throws IOException {
+		assertEquals(3, transactionArchivalService.archive());
+		ArchivedTransaction row = read(payeeAccount).get(0);
+
+		// Another node archived a row of the payer into the shared directory.
+		ArchivedTransaction other = archived(row.getId() + 100, payerAccount.getId(), payeeAccount.getId(),
+				archivedMonth.atDay(20), null);
+		ArchiveSegment.write(DIRECTORY.resolve(String.format("segment-%016d.arch", 99)), Arrays.asList(other));
+		assertEquals(4, read(payerAccount).size());
+		assertEquals(2, segmentFiles());
+
+		// The next segment of this node follows the one of the other node.
+		transactionArchive.append(Arrays.asList(row));
+		assertEquals(3, segmentFiles());
+		assertTrue(Files.exists(DIRECTORY.resolve(String.format("segment-%016d.arch", 100))));
+	}
+
+	@Test
+	public void testArchiveDirectoryIsRequired() {
+		TransactionArchive archive = new TransactionArchive();
+		assertThrows(IllegalStateException.class, archive::open);
+		ReflectionTestUtils.setField(archive, "directory", DIRECTORY.resolve("not-mounted").toString());
+		assertThrows(IllegalStateException.class, archive::open);
+	}
+
+	@Test
+	public void testSegmentSeeksByAccountAndDate() throws IOException {
+		Path directory = Files.createTempDirectory("archive");
+		LocalDate day = LocalDate.of(2024, 5, 20);
+		ArchiveSegment segment = ArchiveSegment.write(directory.resolve("segment.arch"),
+				Arrays.asList(archived(1, 10, 20, day, 100L), archived(2, 20, 20, day.plusDays(1), 50L),
+						archived(3, 30, 10, day.plusDays(2), null)));
+
+		assertEquals(Arrays.asList(3, 1), ids(segment.read(10, day, day.plusDays(2), 0, Integer.MAX_VALUE)));
+		assertEquals(Arrays.asList(2, 1), ids(segment.read(20, day, day.plusDays(2), 0, Integer.MAX_VALUE)));
+		assertEquals(Arrays.asList(1), ids(segment.read(10, day, day, 0, Integer.MAX_VALUE)));
+		assertEquals(Arrays.asList(1), ids(segment.read(10, day, day.plusDays(2), 0, 3)));
+		assertEquals(Arrays.asList(), ids(segment.read(10, day.plusDays(3), day.plusDays(9), 0, Integer.MAX_VALUE)));
+		assertEquals(Arrays.asList(), ids(segment.read(40, day, day.plusDays(2), 0, Integer.MAX_VALUE)));
+
+		ArchivedTransaction row = segment.read(30, day, day.plusDays(2), 0, Integer.MAX_VALUE).get(0);
+		assertNull(row.getPayeeFirstName());
+		assertNull(row.getCurrentBalanceAmount());
+		assertEquals("T-3", row.getTransactionId());
+		assertEquals(day.plusDays(2), row.getTransactionDate());
+		FileSystemUtils.deleteRecursively(directory);
+	}
+
+	private List<ArchivedTransaction> read(UserAccount account) {
+		return transactionArchive.read(account.getId(), LocalDate.MIN, LocalDate.MAX, 0, Integer.MAX_VALUE);
+	}
+
+	private long segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(DIRECTORY)) {
+			return files.filter(file -> file.getFileName().toString().startsWith("segment-")).count();
+		}
+	}
+
+	private List<String> remarks(List<UserTransactionRequestDto> transactionDetails) {
+		return transactionDetails.stream().map(UserTransactionRequestDto::getRemarks).collect(Collectors.toList());
+	}
+
+	private List<Integer> ids(List<ArchivedTransaction> rows) {
+		return rows.stream().map(ArchivedTransaction::getId).collect(Collectors.toList());
+	}
+
+	private ArchivedTransaction archived(int id, int payerId, int payeeId, LocalDate date, Long balance) {
+		return new ArchivedTransaction(id, "T-" + id, payerId, payeeId, 700000L + payeeId,
+				AppConstant.ACCOUNT_TYPE_SAVINGS, balance == null ? null : "Raghu", "Ram", "IMPS", date, 100L,
+				balance, balance, "Row " + id);
+	}
+
+	private void backDatedTransfer(UserAccount from, UserAccount to, long amount, int day, String remarks) {
+		jdbcTemplate.update(INSERT_TRANSACTION, from.getId(), to.getId(), to.getAccountType(),
+				"T-" + from.getId() + "-" + day, Date.valueOf(archivedMonth.atDay(day)), amount, remarks);
+		jdbcTemplate.update("update user_account set balance_amount = balance_amount + ? where id = ?", -amount,
+				from.getId());
+		jdbcTemplate.update("update user_account set balance_amount = balance_amount + ? where id = ?", amount,
+				to.getId());
+	}
+
+	private User newUser(String firstName, String lastName) {
+		User user = new User();
+		user.setFirstName(firstName);
+		user.setLastName(lastName);
+		return user;
+	}
+}
@@ -0,0 +1,192 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.banking.IntegrationTestSupport;
+import com.banking.constant.AppConstant;
+import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
+import com.banking.dto.UserTransactionRequestDto;
+import com.banking.dto.UserTransactionResponseDto;
+import com.banking.entity.User;
+import com.banking.entity.UserAccount;
+import com.banking.repository.UserAccountRepository;
+import com.banking.repository.UserRepository;
+import com.banking.repository.UserTransactionRepository;
+
+import javassist.NotFoundException;
+
+/**
+ * Counts the JDBC statements of the transaction history reads. Each read is two
+ * projection queries, one on the payer side and one on the payee side, whatever
+ * the size of the history or the depth of the page. The recent transactions are
+ * read once, then served from the cache.
+ */
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:historycount;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+public class TransactionHistoryQueryCountTest extends IntegrationTestSupport {
+
+	@Autowired
+	UserTransactionService userTransactionService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	UserAccountRepository userAccountRepository;
+
+	@Autowired
+	UserTransactionRepository userTransactionRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	UserAccount savingsAccount;
+	UserAccount mortgageAccount;
+	int transfers;
+
+	@Before
+	public void init() {
+		User payer = userRepository.save(newUser("Raghu", "Akuthota"));
+		User payee = userRepository.save(newUser("Janani", "Vijay"));
+		savingsAccount = userAccountRepository.save(newAccount(payer.getId(), 800001L));
+		mortgageAccount = userAccountRepository.save(newAccount(payee.getId(), 800002L, AppConstant.ACCOUNT_TYPE_MORTGAGE,
+				AppConstant.ZERO_MINIMUM_BALANCE, AppConstant.ACCOUNT_BALANCE_AMOUNT));
+	}
+
+	@After
+	public void cleanUp() {
+		userTransactionRepository.deleteAll();
+		userAccountRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	public void testHistoryQueryCountDoesNotGrowWithHistory() throws NotFoundException {
+		transfer(10);
+		assertHistoryReadsAreTwoQueries(10, false);
+
+		// The recent transactions are cached by now and kept up to date by the
+		// transfers.
+		transfer(190);
+		assertHistoryReadsAreTwoQueries(200, true);
+	}
+
+	@Test
+	public void testPagesWalkTheWholeHistory() throws NotFoundException {
+		transfer(120);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		Set<Integer> seen = new HashSet<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			statistics.clear();
+			UserTransactionResponseDto page = userTransactionService.findMortgageTransactions(savingsAccount.getId(),
+					cursor, 50);
+			assertEquals(2, statistics.getPrepareStatementCount());
+			page.getTransactionDetails().forEach(transaction -> seen.add(transaction.getId()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(3, pages);
+		assertEquals(120, seen.size());
+	}
+
+	@Test
+	public void testMortgageHistoryHasOnlyMortgageRows() throws NotFoundException {
+		UserAccount otherSavingsAccount = userAccountRepository.save(newAccount(savingsAccount.getUserId(), 800003L));
+		transfer(3);
+		FundTransferRequestDto toSavings = new FundTransferRequestDto();
+		toSavings.setAccountId(savingsAccount.getId());
+		toSavings.setPayeeAccountNumber(String.valueOf(otherSavingsAccount.getAccountNumber()));
+		toSavings.setTransferAmount(Money.ofMinorUnits(1000L));
+		FundTransferRequestDto toMortgage = new FundTransferRequestDto();
+		toMortgage.setAccountId(savingsAccount.getId());
+		toMortgage.setPayeeAccountNumber(String.valueOf(mortgageAccount.getAccountNumber()));
+		toMortgage.setTransferAmount(Money.ofMinorUnits(1000L));
+		userTransactionService.fundTransfer(toSavings);
+		userTransactionService.batchFundTransfer(Arrays.asList(toSavings, toMortgage, toSavings));
+
+		UserTransactionResponseDto mortgage = userTransactionService.findMortgageTransactions(savingsAccount.getId(),
+				null, null);
+		assertEquals(4, mortgage.getTransactionDetails().size());
+		mortgage.getTransactionDetails().forEach(transaction -> assertEquals(
+				String.valueOf(mortgageAccount.getAccountNumber()), transaction.getPayeeAccountNumber()));
+		assertEquals(4, userTransactionService.findMortgageTransactions(mortgageAccount.getId(), null, null)
+				.getTransactionDetails().size());
+	}
+
+	private void assertHistoryReadsAreTwoQueries(int historySize, boolean recentCached) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		LocalDate today = LocalDate.now();
+
+		statistics.clear();
+		UserTransactionResponseDto mortgage = userTransactionService.findMortgageTransactions(savingsAccount.getId(),
+				null, historySize);
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(historySize, mortgage.getTransactionDetails().size());
+		assertEquals("Janani Vijay", mortgage.getTransactionDetails().get(0).getPayeeName());
+
+		statistics.clear();
+		UserTransactionResponseDto monthly = userTransactionService
+				.findUserTransactionsByMonth(savingsAccount.getId(), today.getMonthValue(), today.getYear(), null,
+						historySize);
+		// The rows and the month summary.
+		assertEquals(3, statistics.getPrepareStatementCount());
+		assertEquals(historySize, monthly.getTransactionDetails().size());
+
+		statistics.clear();
+		UserTransactionResponseDto recent = userTransactionService.findRecentFiveTransactions(savingsAccount.getId());
+		assertEquals(recentCached ? 0 : 2, statistics.getPrepareStatementCount());
+		// The cached rows of new transfers have no id, they are compared as the
+		// client sees them.
+		assertEquals(rendered(userTransactionRepository.findTransactionDetails(savingsAccount.getId(),
+				PageRequest.of(0, 5))), rendered(recent.getTransactionDetails()));
+	}
+
+	private List<String> rendered(List<UserTransactionRequestDto> transactionDetails) {
+		return transactionDetails.stream()
+				.map(row -> String.join("|", row.getPayeeName(), row.getPayeeAccountNumber(), row.getTransactionType(),
+						String.valueOf(row.getTransactionDate()), String.valueOf(row.getTransactionAmount()),
+						row.getRemarks()))
+				.collect(Collectors.toList());
+	}
+
+	private void transfer(int count) throws NotFoundException {
+		for (int i = 0; i < count; i++) {
+			FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
+			fundTransferRequestDto.setAccountId(savingsAccount.getId());
+			fundTransferRequestDto.setPayeeAccountNumber(String.valueOf(mortgageAccount.getAccountNumber()));
+			fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(1000L));
+			fundTransferRequestDto.setRemarks("Loan EMI " + ++transfers);
+			userTransactionService.fundTransfer(fundTransferRequestDto);
+		}
+	}
+
+	private User newUser(String firstName, String lastName) {
+		User user = new User();
+		user.setFirstName(firstName);
+		user.setLastName(lastName);
+		return user;
+	}
+}
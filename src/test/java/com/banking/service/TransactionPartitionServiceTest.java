@@ -0,0 +1,79 @@
+package com.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class TransactionPartitionServiceTest {
+
+	@InjectMocks
+	TransactionPartitionService transactionPartitionService;
+
+	@Mock
+	JdbcTemplate jdbcTemplate;
+
+	YearMonth october = YearMonth.of(2026, 10);
+
+	@Before
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(transactionPartitionService, "monthsAhead", 2);
+		when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+	}
+
+	@Test
+	public void testFirstSplitCreatesHistoryAndMonths() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(Collections.singletonList("MAXVALUE"));
+
+		assertEquals(3, transactionPartitionService.createPartitions(october));
+		verify(jdbcTemplate).execute("alter table user_transaction reorganize partition p_max into ("
+				+ "partition p_history values less than ('2026-10-01'), "
+				+ "partition p202610 values less than ('2026-11-01'), "
+				+ "partition p202611 values less than ('2026-12-01'), "
+				+ "partition p202612 values less than ('2027-01-01'), "
+				+ "partition p_max values less than (maxvalue))");
+	}
+
+	@Test
+	public void testOnlyMissingMonthsAreCreated() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+				.thenReturn(Arrays.asList("'2026-10-01'", "'2026-11-01'", "'2026-12-01'", "MAXVALUE"));
+
+		assertEquals(1, transactionPartitionService.createPartitions(october));
+		verify(jdbcTemplate).execute("alter table user_transaction reorganize partition p_max into ("
+				+ "partition p202612 values less than ('2027-01-01'), "
+				+ "partition p_max values less than (maxvalue))");
+
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+				.thenReturn(Arrays.asList("'2026-10-01'", "'2027-01-01'", "MAXVALUE"));
+		assertEquals(0, transactionPartitionService.createPartitions(october));
+	}
+
+	@Test
+	public void testLedgerIsNotPartitionedOnOtherDatabases() {
+		when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+		assertEquals(0, transactionPartitionService.createPartitions(october));
+		verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+	}
+}
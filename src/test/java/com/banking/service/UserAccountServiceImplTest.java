@@ -2,11 +2,19 @@ package com.banking.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -14,11 +22,15 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.banking.constant.AppConstant;
 import com.banking.dto.AccountBalanceDto;
+import com.banking.dto.AccountBalancesResponseDto;
 import com.banking.dto.UserAccountDto;
+import com.banking.dto.UserAccountResponseDto;
 import com.banking.entity.User;
 import com.banking.entity.UserAccount;
 import com.banking.repository.UserAccountRepository;
@@ -36,18 +48,43 @@ public class UserAccountServiceImplTest {
 	@Mock
 	UserAccountRepository userAccountRepository;
 
+	@Mock
+	StripedBalanceService stripedBalanceService;
+
+	@Mock
+	BalanceSnapshotService balanceSnapshotService;
+
+	@Mock
+	AccountNumberIndex accountNumberIndex;
+
+	@Mock
+	AccountTypeahead accountTypeahead;
+
+	@Mock
+	AccountBalanceCache accountBalanceCache;
+
 	User user = new User();
 	UserAccount userAccount = new UserAccount();
 
 	@Before
 	public void init() {
 		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(userAccountServiceImpl, "searchMaxResults", 100);
+		ReflectionTestUtils.setField(userAccountServiceImpl, "typeaheadMaxResults", 10);
+		ReflectionTestUtils.setField(userAccountServiceImpl, "balancesMaxAccounts", 10000);
+		ReflectionTestUtils.setField(userAccountServiceImpl, "balancesChunkSize", 1000);
+		when(accountBalanceCache.get(any(), any(), any())).thenAnswer(invocation -> invocation
+				.<Function<Integer, Optional<UserAccount>>>getArgument(1).apply(invocation.getArgument(0))
+				.map(AccountBalanceCache.Balance::new));
 
 		user.setId(1);
+		user.setFirstName("Janani");
+		user.setLastName("Vijay");
 
 		userAccount.setId(3);
 		userAccount.setAccountType(AppConstant.ACCOUNT_TYPE_SAVINGS);
 		userAccount.setAccountNumber(10687382732L);
+		userAccount.setUserId(1);
 	}
 
 	@Test
@@ -58,6 +95,34 @@ public class UserAccountServiceImplTest {
 		assertEquals(AppConstant.SUCCESS, response.getStatus());
 	}
 
+	@Test
+	public void testGetAccountBalanceOfStripedAccount() {
+		when(stripedBalanceService.isStripedAccount(3)).thenReturn(true);
+		when(userAccountRepository.findTotalBalanceAmountsById(Collections.singleton(3)))
+				.thenReturn(Collections.singletonMap(3, 102550L));
+
+		AccountBalanceDto response = userAccountServiceImpl.getAccountBalance(3);
+		assertEquals(102550L, response.getAccountBalance().getMinorUnits());
+		verify(accountBalanceCache, never()).get(anyInt(), any(), any());
+	}
+
+	@Test
+	public void testGetAccountBalanceAsOf() {
+		LocalDate asOf = LocalDate.of(2026, 3, 31);
+		when(balanceSnapshotService.getBalanceAsOf(3, asOf)).thenReturn(Optional.of(75000L));
+
+		AccountBalanceDto response = userAccountServiceImpl.getAccountBalance(3, asOf);
+		assertEquals(75000L, response.getAccountBalance().getMinorUnits());
+		assertEquals(asOf, response.getAsOf());
+	}
+
+	@Test
+	public void testGetAccountBalanceAsOfFutureDate() {
+		AccountBalanceDto response = userAccountServiceImpl.getAccountBalance(3, LocalDate.now().plusDays(1));
+		assertEquals(AppConstant.BALANCE_DATE_INVALID, response.getMessage());
+		assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatusCode());
+	}
+
 	@Test
 	public void testGetAccounts() {
 		List<UserAccount> userAccounts = new ArrayList<>();
@@ -67,4 +132,75 @@ public class UserAccountServiceImplTest {
 		assertThat(response).hasSize(1);
 	}
 
+	@Test
+	public void testGetAccountsFromIndex() {
+		when(accountNumberIndex.isReady()).thenReturn(true);
+		when(accountNumberIndex.search("873827", 100)).thenReturn(Collections.singletonList(3));
+		when(userAccountRepository.findAllById(Collections.singletonList(3)))
+				.thenReturn(Collections.singletonList(userAccount));
+		when(userRepository.findAllById(Collections.singleton(1))).thenReturn(Collections.singletonList(user));
+
+		List<UserAccountDto> response = userAccountServiceImpl.getAccounts("873827");
+		assertThat(response).hasSize(1);
+		assertEquals("Janani Vijay", response.get(0).getUserName());
+	}
+
+	@Test
+	public void testGetTypeaheadAccounts() {
+		UserAccountDto userAccountDto = new UserAccountDto();
+		userAccountDto.setUserName("Janani Vijay");
+		when(accountTypeahead.isLatestKeystroke("staff-1", 4L)).thenReturn(true);
+		when(accountTypeahead.isReady()).thenReturn(true);
+		when(accountTypeahead.suggest("1068", 10)).thenReturn(Collections.singletonList(userAccountDto));
+
+		UserAccountResponseDto response = userAccountServiceImpl.getTypeaheadAccounts("1068", "staff-1", 4L);
+		assertEquals(HttpStatus.OK.value(), response.getStatusCode());
+		assertEquals("Janani Vijay", response.getUserAccounts().get(0).getUserName());
+	}
+
+	@Test
+	public void testGetTypeaheadAccountsSuperseded() {
+		when(accountTypeahead.isLatestKeystroke("staff-1", 3L)).thenReturn(false);
+
+		UserAccountResponseDto response = userAccountServiceImpl.getTypeaheadAccounts("106", "staff-1", 3L);
+		assertEquals(HttpStatus.CONFLICT.value(), response.getStatusCode());
+		assertEquals(AppConstant.TYPEAHEAD_SUPERSEDED, response.getMessage());
+		assertThat(response.getUserAccounts()).isEmpty();
+	}
+
+	@Test
+	public void testGetAccountBalancesInChunks() {
+		ReflectionTestUtils.setField(userAccountServiceImpl, "balancesChunkSize", 2);
+		when(userAccountRepository.findBalanceAmountsById(Arrays.asList(3, 1)))
+				.thenReturn(Collections.singletonMap(3, 100000L));
+		when(userAccountRepository.findTotalBalanceAmountsById(Collections.singletonList(4)))
+				.thenReturn(Collections.singletonMap(4, 5250L));
+		when(stripedBalanceService.isStripedAccount(4)).thenReturn(true);
+
+		AccountBalancesResponseDto response = userAccountServiceImpl.getAccountBalances(Arrays.asList(3, 1, 3, 4));
+		assertEquals(HttpStatus.OK.value(), response.getStatusCode());
+		assertEquals(Arrays.asList(3, 4), new ArrayList<>(response.getAccountBalances().keySet()));
+		assertEquals(100000L, response.getAccountBalances().get(3).getMinorUnits());
+		assertEquals(5250L, response.getAccountBalances().get(4).getMinorUnits());
+	}
+
+	@Test
+	public void testGetAccountBalancesOverLimit() {
+		ReflectionTestUtils.setField(userAccountServiceImpl, "balancesMaxAccounts", 2);
+
+		AccountBalancesResponseDto response = userAccountServiceImpl.getAccountBalances(Arrays.asList(1, 2, 3));
+		assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatusCode());
+		assertEquals(AppConstant.ACCOUNT_BALANCES_LIMIT, response.getMessage());
+	}
+
+	@Test
+	public void testGetAccountBalancesWithoutIds() {
+		for (List<Integer> userAccountIds : Arrays.asList(null, Collections.<Integer>emptyList(),
+				Collections.<Integer>singletonList(null))) {
+			AccountBalancesResponseDto response = userAccountServiceImpl.getAccountBalances(userAccountIds);
+			assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatusCode());
+			assertEquals(AppConstant.ACCOUNT_BALANCES_EMPTY, response.getMessage());
+		}
+	}
+
 }
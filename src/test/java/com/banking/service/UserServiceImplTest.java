@@ -31,6 +31,12 @@ public class UserServiceImplTest {
 	@Mock
 	UserAccountRepository userAccountRepository;
 
+	@Mock
+	AccountNumberIndex accountNumberIndex;
+
+	@Mock
+	AccountTypeahead accountTypeahead;
+
 	RegisterRequestDto requestDto = new RegisterRequestDto();
 	User user = new User();
 
@@ -2,33 +2,59 @@ package com.banking.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.banking.constant.AppConstant;
+import com.banking.dto.AccountMonthSummaryDto;
+import com.banking.dto.BatchFundTransferResponseDto;
 import com.banking.dto.FundTransferRequestDto;
+import com.banking.dto.Money;
 import com.banking.dto.ResponseDto;
+import com.banking.dto.UserTransactionRequestDto;
 import com.banking.dto.UserTransactionResponseDto;
-import com.banking.entity.User;
 import com.banking.entity.UserAccount;
 import com.banking.entity.UserTransaction;
+import com.banking.exception.InvalidCursorException;
 import com.banking.repository.UserAccountRepository;
-import com.banking.repository.UserRepository;
 import com.banking.repository.UserTransactionRepository;
+import com.banking.util.HistoryCursor;
+import com.banking.util.TransactionIdGenerator;
 
 import javassist.NotFoundException;
 
@@ -45,7 +71,22 @@ public class UserTransactionServiceImplTest {
 	UserTransactionRepository userTransactionRepository;
 
 	@Mock
-	UserRepository userRepository;
+	StripedBalanceService stripedBalanceService;
+
+	@Mock
+	RecentTransactionCache recentTransactionCache;
+
+	@Mock
+	AccountBalanceCache accountBalanceCache;
+
+	@Mock
+	MonthSummaryService monthSummaryService;
+
+	@Mock
+	TransactionArchive transactionArchive;
+
+	@Spy
+	TransactionIdGenerator transactionIdGenerator = new TransactionIdGenerator(1);
 
 	FundTransferRequestDto fundTransferRequestDto = new FundTransferRequestDto();
 	ResponseDto fundTransferResponseDto = new ResponseDto();
@@ -56,85 +97,149 @@ public class UserTransactionServiceImplTest {
 	UserTransactionResponseDto userTransactionResponseDto = new UserTransactionResponseDto();
 
 	List<UserTransaction> userTransactions = new ArrayList<>();
+	List<UserTransactionRequestDto> transactionDetails = new ArrayList<>();
 
 	@Before
 	public void init() {
 		MockitoAnnotations.initMocks(this);
+		ReflectionTestUtils.setField(userTransactionServiceImpl, "batchMaxSize", 100);
+		ReflectionTestUtils.setField(userTransactionServiceImpl, "historyDefaultLimit", 100);
+		ReflectionTestUtils.setField(userTransactionServiceImpl, "historyMaxLimit", 500);
+		when(recentTransactionCache.get(anyInt(), any()))
+				.thenAnswer(invocation -> invocation.<Function<Integer, List<UserTransactionRequestDto>>>getArgument(1)
+						.apply(invocation.getArgument(0)));
 
 		fundTransferRequestDto.setAccountId(1);
 		fundTransferRequestDto.setPayeeAccountNumber("1663636647774");
-		fundTransferRequestDto.setTransferAmount(2000.00);
+		fundTransferRequestDto.setTransferAmount(Money.ofMinorUnits(200000L));
 		fundTransferRequestDto.setRemarks("For Hospital Expenses");
+		when(userAccountRepository.findIdByAccountNumber(1663636647774L)).thenReturn(Optional.of(2));
 
 		userAccount.setId(1);
 		userAccount.setAccountNumber(607383878844L);
 		userAccount.setAccountType("Savings");
-		userAccount.setBalanceAmount(10000.00);
-		userAccount.setMinimumBalance(1000.00);
+		userAccount.setBalanceAmount(1000000L);
+		userAccount.setMinimumBalance(100000L);
 		userAccount.setCreatedDate(LocalDateTime.now());
 		userAccount.setAccountType(AppConstant.ACCOUNT_TYPE_MORTGAGE);
 
-		userTransaction1.setTransactionAmount(2500.00);
+		userTransaction1.setTransactionAmount(250000L);
 		userTransaction1.setPayeeAccountId(userAccount);
 		userTransaction1.setId(1231231);
 		userTransaction1.setTransactionDate(LocalDate.of(2019, 12, 04));
 		userTransaction1.setTransactionType("SAVING");
 		
 
-		userTransaction2.setTransactionAmount(2500.00);
+		userTransaction2.setTransactionAmount(250000L);
 		userTransaction2.setPayeeAccountId(userAccount);
 		userTransaction2.setId(1231231);
 		userTransaction2.setTransactionDate(LocalDate.of(2019, 12, 04));
 		userTransaction2.setTransactionType("SAVING");
 
 		userTransactions.add(userTransaction1);
+
+		transactionDetails.add(new UserTransactionRequestDto(1231231, "Raghu", "Akuthota", 607383878844L, "SAVING",
+				LocalDate.of(2019, 12, 04), 250000L, "For Hospital Expenses"));
 	}
 
 	@Test
 	public void testFundTransfer() throws NotFoundException {
-		Optional<UserAccount> optionalUserAccount = Optional.of(userAccount);
+		when(userAccountRepository.debitBalance(1, 200000L)).thenReturn(1);
+		when(userAccountRepository.creditBalance(1663636647774L, 200000L)).thenReturn(1);
 
-		UserAccount payeeAccount = new UserAccount();
-		payeeAccount.setId(2);
-		payeeAccount.setBalanceAmount(3000.00);
-		Optional<UserAccount> optionalPayeeAccount = Optional.of(payeeAccount);
+		ResponseDto response = userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
+		assertEquals("SUCCESS", response.getStatus());
+		verify(userTransactionRepository).insertTransaction(any(UserTransaction.class), eq(1), eq(1663636647774L),
+				eq(true), eq(true));
+		verify(userAccountRepository, never()).findById(anyInt());
+		verify(userAccountRepository, never()).findByAccountNumber(anyLong());
+		verify(userTransactionRepository, never()).findByTransactionId(anyString());
+	}
 
-		when(userAccountRepository.findById(fundTransferRequestDto.getAccountId())).thenReturn(optionalUserAccount);
-		when(userAccountRepository.findByAccountNumber(1663636647774L))
-				.thenReturn(optionalPayeeAccount);
+	@Test
+	public void testFundTransferUpdatesRecentTransactionCache() throws NotFoundException {
+		when(userAccountRepository.debitBalance(1, 200000L)).thenReturn(1);
+		when(userAccountRepository.creditBalance(1663636647774L, 200000L)).thenReturn(1);
+		UserTransactionRequestDto transactionDetail = transactionDetails.get(0);
+		when(userTransactionRepository.findTransactionDetail(anyString(), any(LocalDate.class))).thenReturn(transactionDetail);
+
+		when(recentTransactionCache.isEmpty()).thenReturn(true);
+		userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
+		verify(userTransactionRepository, never()).findTransactionDetail(anyString(), any(LocalDate.class));
+
+		when(recentTransactionCache.isEmpty()).thenReturn(false);
+		userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
+		verify(recentTransactionCache).addAfterCommit(1, transactionDetail);
+	}
+
+	@Test
+	public void testFundTransferLocksALowerPayeeIdFirst() throws NotFoundException {
+		fundTransferRequestDto.setAccountId(3);
+		when(userAccountRepository.debitBalance(3, 200000L)).thenReturn(1);
+		when(userAccountRepository.creditBalance(1663636647774L, 200000L)).thenReturn(1);
 
 		ResponseDto response = userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
 		assertEquals("SUCCESS", response.getStatus());
+		InOrder inOrder = inOrder(userAccountRepository);
+		inOrder.verify(userAccountRepository).lockBalanceAmount(2);
+		inOrder.verify(userAccountRepository).debitBalance(3, 200000L);
+		inOrder.verify(userAccountRepository).creditBalance(1663636647774L, 200000L);
 	}
 
 	@Test
-	public void testFundTransferForMinimumBalance() throws NotFoundException {
-		userAccount.setBalanceAmount(500.00);
-		Optional<UserAccount> optionalUserAccount = Optional.of(userAccount);
+	public void testFundTransferToAHigherPayeeIdLocksNothingFirst() throws NotFoundException {
+		when(userAccountRepository.debitBalance(1, 200000L)).thenReturn(1);
+		when(userAccountRepository.creditBalance(1663636647774L, 200000L)).thenReturn(1);
 
-		UserAccount payeeAccount = new UserAccount();
-		payeeAccount.setId(2);
-		payeeAccount.setBalanceAmount(3000.00);
-		Optional<UserAccount> optionalPayeeAccount = Optional.of(payeeAccount);
+		userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
+		verify(userAccountRepository, never()).lockBalanceAmount(anyInt());
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void testFundTransferToUnknownPayee() throws NotFoundException {
+		when(userAccountRepository.findIdByAccountNumber(1663636647774L)).thenReturn(Optional.empty());
+		try {
+			userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
+		} finally {
+			verify(userAccountRepository, never()).debitBalance(anyInt(), anyLong());
+		}
+	}
 
-		when(userAccountRepository.findById(fundTransferRequestDto.getAccountId())).thenReturn(optionalUserAccount);
-		when(userAccountRepository.findByAccountNumber(1663636647774L))
-				.thenReturn(optionalPayeeAccount);
+	@Test
+	public void testFundTransferToStripedAccount() throws NotFoundException {
+		when(userAccountRepository.debitBalance(1, 200000L)).thenReturn(1);
+		when(stripedBalanceService.isStriped(1663636647774L)).thenReturn(true);
+		when(stripedBalanceService.credit(1663636647774L, 1, 200000L)).thenReturn(1);
+
+		ResponseDto response = userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
+		assertEquals("SUCCESS", response.getStatus());
+		verify(userAccountRepository, never()).creditBalance(anyLong(), anyLong());
+		verify(userAccountRepository, never()).findIdByAccountNumber(anyLong());
+	}
+
+	@Test
+	public void testFundTransferForMinimumBalance() throws NotFoundException {
+		when(userAccountRepository.debitBalance(1, 200000L)).thenReturn(0);
+		when(userAccountRepository.existsById(1)).thenReturn(true);
 
 		ResponseDto response = userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
 		assertEquals(AppConstant.FAILURE, response.getStatus());
 		assertEquals(AppConstant.FUND_TRANSFER_MIN_BAL, response.getMessage());
-
+		verify(userAccountRepository, never()).creditBalance(anyLong(), anyLong());
 	}
 
 	@Test(expected = NotFoundException.class)
 	public void testFundTransferForNoAccountsFound() throws NotFoundException {
-		userAccount.setBalanceAmount(500.00);
-		Optional<UserAccount> optionalUserAccount = Optional.of(userAccount);
+		when(userAccountRepository.debitBalance(1, 200000L)).thenReturn(1);
+		when(userAccountRepository.creditBalance(1663636647774L, 200000L)).thenReturn(0);
+
+		userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
+	}
 
-		when(userAccountRepository.findById(fundTransferRequestDto.getAccountId())).thenReturn(optionalUserAccount);
-		when(userAccountRepository.findByAccountNumber(1663636647774L))
-				.thenReturn(Optional.ofNullable(null));
+	@Test(expected = NotFoundException.class)
+	public void testFundTransferForNoUserAccountFound() throws NotFoundException {
+		when(userAccountRepository.debitBalance(1, 200000L)).thenReturn(0);
+		when(userAccountRepository.existsById(1)).thenReturn(false);
 
 		userTransactionServiceImpl.fundTransfer(fundTransferRequestDto);
 	}
@@ -142,33 +247,103 @@ public class UserTransactionServiceImplTest {
 	@Test
 	public void testFindRecentFiveTransactions() {
 
-		User user = new User();
-		user.setId(1);
-
-		when(userTransactionRepository.findTop5ByUserAccountIdIdOrPayeeAccountIdIdOrderByIdDesc(userAccount.getId(),
-				userAccount.getId())).thenReturn(userTransactions);
+		when(userTransactionRepository.findTransactionDetails(userAccount.getId(), PageRequest.of(0, 5)))
+				.thenReturn(transactionDetails);
 
 		UserTransactionResponseDto response = userTransactionServiceImpl
 				.findRecentFiveTransactions(userAccount.getId());
 
 		assertThat(response.getTransactionDetails()).hasSize(1);
+		assertEquals("Raghu Akuthota", response.getTransactionDetails().get(0).getPayeeName());
 	}
 	@Test
 	public void testFindUserTransactionsByMonth() {
 
-		when(userTransactionRepository.getAllByUserAccountIdIdAndTransactionDateBetween(userAccount.getId(), LocalDate.of(2019, 12, 01), LocalDate.of(2019, 12, 31)))
-				.thenReturn(userTransactions);
-		List<UserTransaction> userTransactions = userTransactionRepository
-				.getAllByUserAccountIdIdAndTransactionDateBetween(userAccount.getId(), LocalDate.of(2019, 12, 01), LocalDate.of(2019, 12, 31));
-		Assert.assertNotNull(userTransactions);
-		Assert.assertEquals(1, userTransactions.size());
+		when(userTransactionRepository.findTransactionDetailsBetween(userAccount.getId(), LocalDate.of(2019, 12, 01), LocalDate.of(2019, 12, 31), Integer.MAX_VALUE, PageRequest.of(0, 101)))
+				.thenReturn(transactionDetails);
+		AccountMonthSummaryDto monthSummary = new AccountMonthSummaryDto();
+		when(monthSummaryService.getMonthSummary(userAccount.getId(), 2019, 12)).thenReturn(monthSummary);
+		UserTransactionResponseDto response = userTransactionServiceImpl
+				.findUserTransactionsByMonth(userAccount.getId(), 12, 2019, null, null);
+		Assert.assertNotNull(response.getTransactionDetails());
+		Assert.assertEquals(1, response.getTransactionDetails().size());
+		Assert.assertSame(monthSummary, response.getMonthSummary());
 	}
 	
 	@Test
 	public void testFindMortgageTransactions() {
 		
-		when(userTransactionRepository.findAllByUserAccountIdIdOrPayeeAccountIdIdOrderByIdDesc(1, 1)).thenReturn(userTransactions);
-		UserTransactionResponseDto response = userTransactionServiceImpl.findMortgageTransactions(1);
+		when(userTransactionRepository.findTransactionDetailsByPayeeAccountType(1, AppConstant.ACCOUNT_TYPE_MORTGAGE, Integer.MAX_VALUE, PageRequest.of(0, 101))).thenReturn(transactionDetails);
+		UserTransactionResponseDto response = userTransactionServiceImpl.findMortgageTransactions(1, null, null);
 		assertEquals(AppConstant.OPERATION_SUCCESS, response.getMessage());
+		assertNull(response.getNextCursor());
+	}
+
+	@Test
+	public void testFindMortgageTransactionsNextPage() {
+		transactionDetails.add(new UserTransactionRequestDto(1231230, "Raghu", "Akuthota", 607383878844L, "SAVING",
+				LocalDate.of(2019, 12, 03), 250000L, "For Hospital Expenses"));
+		String cursor = HistoryCursor.encode(1231232);
+
+		when(userTransactionRepository.findTransactionDetailsByPayeeAccountType(1, AppConstant.ACCOUNT_TYPE_MORTGAGE, 1231232, PageRequest.of(0, 2))).thenReturn(transactionDetails);
+		UserTransactionResponseDto response = userTransactionServiceImpl.findMortgageTransactions(1, cursor, 1);
+		assertThat(response.getTransactionDetails()).hasSize(1);
+		assertEquals(HistoryCursor.encode(1231231), response.getNextCursor());
+	}
+
+	@Test(expected = InvalidCursorException.class)
+	public void testFindMortgageTransactionsInvalidCursor() {
+		userTransactionServiceImpl.findMortgageTransactions(1, "not-a-cursor", null);
+	}
+
+	@Test
+	public void testFindMortgageTransactionsNoRecordFound() {
+
+		when(userTransactionRepository.findTransactionDetailsByPayeeAccountType(1, AppConstant.ACCOUNT_TYPE_MORTGAGE, Integer.MAX_VALUE, PageRequest.of(0, 101))).thenReturn(new ArrayList<>());
+		UserTransactionResponseDto response = userTransactionServiceImpl.findMortgageTransactions(1, null, null);
+		assertEquals(AppConstant.NO_RECORD_FOUND, response.getMessage());
+	}
+
+	@Test
+	public void testBatchFundTransfer() {
+		UserAccount payeeAccount = new UserAccount();
+		payeeAccount.setId(2);
+		payeeAccount.setAccountNumber(1663636647774L);
+		payeeAccount.setAccountType(AppConstant.ACCOUNT_TYPE_MORTGAGE);
+
+		FundTransferRequestDto unknownPayee = new FundTransferRequestDto();
+		unknownPayee.setAccountId(1);
+		unknownPayee.setPayeeAccountNumber("999");
+		unknownPayee.setTransferAmount(Money.ofMinorUnits(10000L));
+
+		FundTransferRequestDto lowBalance = new FundTransferRequestDto();
+		lowBalance.setAccountId(1);
+		lowBalance.setPayeeAccountNumber("1663636647774");
+		lowBalance.setTransferAmount(Money.ofMinorUnits(900000L));
+
+		when(userAccountRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(userAccount));
+		when(userAccountRepository.findAllByAccountNumberIn(anyCollection())).thenReturn(Arrays.asList(payeeAccount));
+		when(userTransactionRepository.debitBalances(anyList())).thenReturn(new int[] { 1, 0 });
+		Map<Integer, Long> balancesAfter = new HashMap<>();
+		balancesAfter.put(1, 800000L);
+		balancesAfter.put(2, 1200000L);
+		when(userAccountRepository.findBalanceAmountsById(new HashSet<>(Arrays.asList(1, 2))))
+				.thenReturn(balancesAfter);
+
+		BatchFundTransferResponseDto response = userTransactionServiceImpl
+				.batchFundTransfer(Arrays.asList(fundTransferRequestDto, unknownPayee, lowBalance));
+
+		assertEquals(AppConstant.SUCCESS, response.getStatus());
+		assertThat(response.getTransfers()).hasSize(3);
+		assertEquals(AppConstant.SUCCESS, response.getTransfers().get(0).getStatus());
+		assertThat(response.getTransfers().get(0).getTransactionId()).startsWith(AppConstant.GET_TRANSACTION_NO_PREFIX);
+		assertEquals(AppConstant.NO_ACCOUNTS_FOUND, response.getTransfers().get(1).getMessage());
+		assertEquals(AppConstant.FUND_TRANSFER_MIN_BAL, response.getTransfers().get(2).getMessage());
+		verify(userTransactionRepository).creditBalances(argThat(transactions -> transactions.size() == 1));
+		verify(userTransactionRepository).insertTransactions(argThat(transactions -> transactions.size() == 1
+				&& AppConstant.ACCOUNT_TYPE_MORTGAGE.equals(transactions.get(0).getPayeeAccountType())
+				&& transactions.get(0).getCurrentBalanceAmount() == 800000L
+				&& transactions.get(0).getPayeeBalanceAmount() == 1200000L));
+		verify(recentTransactionCache).evictAfterCommit(new HashSet<>(Arrays.asList(1, 2)));
 	}
 }
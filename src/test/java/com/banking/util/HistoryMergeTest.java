@@ -0,0 +1,47 @@
+package com.banking.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.banking.dto.UserTransactionRequestDto;
+
+public class HistoryMergeTest {
+
+	LocalDate today = LocalDate.now();
+
+	@Test
+	public void testSidesAreMergedNewestFirstAndLimited() {
+		List<UserTransactionRequestDto> payerRows = Arrays.asList(row(9, today), row(6, today), row(2, today));
+		List<UserTransactionRequestDto> payeeRows = Arrays.asList(row(8, today), row(7, today), row(1, today));
+
+		assertEquals(Arrays.asList(9, 8, 7, 6),
+				ids(HistoryMerge.merge(payerRows, payeeRows, HistoryMerge.BY_ID_DESC, 4)));
+		assertEquals(Arrays.asList(8, 7, 1),
+				ids(HistoryMerge.merge(Collections.emptyList(), payeeRows, HistoryMerge.BY_ID_DESC, 4)));
+	}
+
+	@Test
+	public void testTransferToSameAccountIsKeptOnce() {
+		List<UserTransactionRequestDto> payerRows = Arrays.asList(row(5, today), row(3, today.minusDays(1)));
+		List<UserTransactionRequestDto> payeeRows = Arrays.asList(row(4, today), row(3, today.minusDays(1)));
+
+		assertEquals(Arrays.asList(5, 4, 3),
+				ids(HistoryMerge.merge(payerRows, payeeRows, HistoryMerge.BY_DATE_DESC, 5)));
+	}
+
+	private UserTransactionRequestDto row(Integer id, LocalDate transactionDate) {
+		return new UserTransactionRequestDto(id, "Janani", "Vijay", 900002L, "IMPS", transactionDate, 100L,
+				"Row " + id);
+	}
+
+	private List<Integer> ids(List<UserTransactionRequestDto> rows) {
+		return rows.stream().map(UserTransactionRequestDto::getId).collect(Collectors.toList());
+	}
+}
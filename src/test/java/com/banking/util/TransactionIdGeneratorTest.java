@@ -0,0 +1,82 @@
+package com.banking.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TransactionIdGeneratorTest {
+	private static final Logger logger = LoggerFactory.getLogger(TransactionIdGeneratorTest.class);
+
+	private static final int THREADS = 8;
+	private static final int IDS_PER_THREAD = 250000;
+
+	TransactionIdGenerator transactionIdGenerator = new TransactionIdGenerator(5);
+
+	@Test
+	public void testNextIdIsIncreasing() {
+		long last = transactionIdGenerator.nextId();
+		for (int i = 0; i < 100000; i++) {
+			long next = transactionIdGenerator.nextId();
+			assertTrue(next > last);
+			last = next;
+		}
+	}
+
+	@Test
+	public void testNextIdCarriesNodeId() {
+		long id = transactionIdGenerator.nextId();
+		assertEquals(5, (id >>> TransactionIdGenerator.SEQUENCE_BITS) & TransactionIdGenerator.MAX_NODE_ID);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidNodeId() {
+		new TransactionIdGenerator(TransactionIdGenerator.MAX_NODE_ID + 1);
+	}
+
+	@Test
+	public void testNextIdIsUniqueAcrossThreads() throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+		List<Future<long[]>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int thread = 0; thread < THREADS; thread++) {
+			futures.add(executorService.submit(() -> {
+				long[] ids = new long[IDS_PER_THREAD];
+				for (int i = 0; i < IDS_PER_THREAD; i++) {
+					ids[i] = transactionIdGenerator.nextId();
+				}
+				return ids;
+			}));
+		}
+
+		Set<Long> uniqueIds = new HashSet<>();
+		for (Future<long[]> future : futures) {
+			long[] ids = future.get();
+			for (int i = 0; i < ids.length; i++) {
+				if (i > 0) {
+					assertTrue(ids[i] > ids[i - 1]);
+				}
+				uniqueIds.add(ids[i]);
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		executorService.shutdown();
+		executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+		logger.info("threads={} ids={} elapsedMs={} ids/sec={}", THREADS, THREADS * IDS_PER_THREAD,
+				TimeUnit.NANOSECONDS.toMillis(elapsed),
+				String.format("%.0f", THREADS * IDS_PER_THREAD / (elapsed / 1e9)));
+		assertEquals(THREADS * IDS_PER_THREAD, uniqueIds.size());
+	}
+}